@@ -3,6 +3,8 @@ package com.smd.academic_service.controller;
 import com.smd.academic_service.model.dto.ApiResponse;
 import com.smd.academic_service.model.dto.SyllabusDto;
 import com.smd.academic_service.model.dto.ApprovalValidationResult;
+import com.smd.academic_service.model.dto.BatchApprovalValidationRequest;
+import com.smd.academic_service.model.dto.BatchApprovalValidationResult;
 import com.smd.academic_service.model.dto.SyllabusVersionDto;
 import com.smd.academic_service.model.dto.SyllabusVersionComparisonDto;
 import com.smd.academic_service.model.dto.ProgramDto;
@@ -196,6 +198,18 @@ public class SyllabusController {
         return ResponseEntity.ok(ApiResponse.success(result, "Approval validation completed"));
     }
     
+    /**
+     * Validate many syllabuses for approval in one request (review queue)
+     * POST /api/v1/syllabus/validate-approval/batch
+     */
+    @PostMapping("/validate-approval/batch")
+    public ResponseEntity<ApiResponse<BatchApprovalValidationResult>> validateForApprovalBatch(
+            @RequestBody BatchApprovalValidationRequest request) {
+        log.info("Validating syllabus batch for approval");
+        BatchApprovalValidationResult result = approvalValidationService.validateForApprovalBatch(request.getSyllabusIds());
+        return ResponseEntity.ok(ApiResponse.success(result, "Batch approval validation completed"));
+    }
+    
     /**
      * Validate prerequisites of subject related to syllabus
      * GET /api/v1/syllabus/{id}/validate-prerequisites
@@ -0,0 +1,16 @@
+package com.smd.academic_service.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+/**
+ * Request để validate nhiều Syllabus cùng lúc (hàng đợi phê duyệt)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchApprovalValidationRequest {
+    private List<Long> syllabusIds;
+}
@@ -0,0 +1,27 @@
+package com.smd.academic_service.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result object for batch approval validation
+ * Một kết quả cho mỗi syllabus, theo thứ tự yêu cầu
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchApprovalValidationResult {
+    
+    private Integer totalRequested;
+    private Integer readyForApprovalCount;
+    private Integer averageScore;               // Điểm trung bình của các syllabus tìm thấy
+    
+    private List<ApprovalValidationResult> results = new ArrayList<>();
+    private List<Long> notFoundIds = new ArrayList<>();  // Id không tồn tại hoặc đã bị xoá
+}
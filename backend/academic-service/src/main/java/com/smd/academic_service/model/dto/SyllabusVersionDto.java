@@ -29,4 +29,10 @@ public class SyllabusVersionDto {
     private String approvalStatus;
     private String academicYear;
     private Integer semester;
+    
+    // Content snapshot (chỉ có khi lấy một version cụ thể)
+    private String content;
+    private String learningObjectives;
+    private String teachingMethods;
+    private String assessmentMethods;
 }
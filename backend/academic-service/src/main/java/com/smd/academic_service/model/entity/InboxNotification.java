@@ -0,0 +1,73 @@
+package com.smd.academic_service.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Thông báo workflow trong hộp thư của một vai trò nhận (LECTURER, DEPARTMENT_HEAD, ...).
+ * Thông báo gửi cho nhiều vai trò được ghi thành nhiều dòng, mỗi vai trò một dòng, để đọc hộp thư
+ * chỉ là một range scan trên (recipient, status, created_at). Dòng quá hạn được NotificationService xoá định kỳ.
+ */
+@Entity
+@Table(name = "notification_inbox", indexes = {
+    @Index(name = "idx_notification_inbox_recipient_status", columnList = "recipient,status,created_at"),
+    @Index(name = "idx_notification_inbox_recipient_created", columnList = "recipient,created_at"),
+    @Index(name = "idx_notification_inbox_created_at", columnList = "created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InboxNotification {
+
+    public static final String STATUS_UNREAD = "UNREAD";
+    public static final String STATUS_READ = "READ";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "recipient", nullable = false, length = 50)
+    private String recipient;  // Vai trò nhận thông báo
+
+    @Column(name = "type", nullable = false, length = 50)
+    private String type;  // SYLLABUS_SUBMITTED, SYLLABUS_APPROVED_L1, ...
+
+    @Column(name = "title", nullable = false)
+    private String title;
+
+    @Column(name = "message", columnDefinition = "TEXT")
+    private String message;
+
+    @Column(name = "syllabus_id")
+    private Long syllabusId;
+
+    @Column(name = "syllabus_code", length = 50)
+    private String syllabusCode;
+
+    @Column(name = "priority", length = 20)
+    private String priority;  // HIGH, MEDIUM, LOW
+
+    @Column(name = "status", nullable = false, length = 20)
+    private String status;  // UNREAD, READ
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "read_at")
+    private LocalDateTime readAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (this.createdAt == null) {
+            this.createdAt = LocalDateTime.now();
+        }
+        if (this.status == null) {
+            this.status = STATUS_UNREAD;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.smd.academic_service.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Read model cho Dashboard: số liệu độ phủ CLO/PLO đã tính sẵn, một dòng cho mỗi chương trình.
+ * Được cập nhật lại sau mỗi thay đổi Subject/CLO/PLO/Mapping/Syllabus của chương trình
+ * (ProgramCoverageStatsService) và làm mới toàn bộ định kỳ.
+ */
+@Entity
+@Table(name = "program_coverage_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProgramCoverageStats {
+    
+    @Id
+    @Column(name = "program_id")
+    private Long programId;
+    
+    @Column(name = "total_subjects", nullable = false)
+    private Integer totalSubjects;
+    
+    @Column(name = "subjects_with_clo", nullable = false)
+    private Integer subjectsWithClo;
+    
+    @Column(name = "total_clos", nullable = false)
+    private Integer totalClos;
+    
+    @Column(name = "mapped_clos", nullable = false)
+    private Integer mappedClos;
+    
+    @Column(name = "total_plos", nullable = false)
+    private Integer totalPlos;
+    
+    @Column(name = "mapped_plos", nullable = false)
+    private Integer mappedPlos;
+    
+    @Column(name = "total_syllabuses", nullable = false)
+    private Integer totalSyllabuses;
+    
+    @Column(name = "syllabuses_approved", nullable = false)
+    private Integer syllabusesApproved;
+    
+    @Column(name = "syllabuses_under_review", nullable = false)
+    private Integer syllabusesUnderReview;
+    
+    @Column(name = "syllabuses_rejected", nullable = false)
+    private Integer syllabusesRejected;
+    
+    @Column(name = "refreshed_at", nullable = false)
+    private LocalDateTime refreshedAt;
+}
@@ -0,0 +1,45 @@
+package com.smd.academic_service.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Cạnh tiên quyết / đồng tiên quyết (Subject -> mã môn)
+ * Dạng chuẩn hoá của Subject.prerequisites / corequisites; ghi lại toàn bộ mỗi khi môn học được lưu.
+ * Lưu theo mã môn (như chuỗi gốc) để mã chưa tồn tại vẫn được ghi nhận và báo lỗi khi validate.
+ */
+@Entity
+@Table(name = "subject_prerequisite", indexes = {
+    @Index(name = "idx_subject_prerequisite_subject", columnList = "subject_id,relation_type"),
+    @Index(name = "idx_subject_prerequisite_code", columnList = "prerequisite_code,relation_type"),
+    @Index(name = "idx_subject_prerequisite_unique", columnList = "subject_id,relation_type,prerequisite_code", unique = true)
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SubjectPrerequisite {
+
+    public static final String PREREQUISITE = "PREREQUISITE";
+    public static final String COREQUISITE = "COREQUISITE";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = jakarta.persistence.FetchType.LAZY)
+    @JoinColumn(name = "subject_id", nullable = false)
+    private Subject subject;  // Môn học khai báo
+
+    @Column(name = "prerequisite_code", nullable = false, length = 50)
+    private String prerequisiteCode;  // Mã môn tiên quyết, ví dụ: CS101
+
+    @Column(name = "relation_type", nullable = false, length = 20)
+    private String relationType;  // PREREQUISITE, COREQUISITE
+
+    @Column(name = "position", nullable = false)
+    private Integer position;  // Thứ tự trong chuỗi khai báo
+}
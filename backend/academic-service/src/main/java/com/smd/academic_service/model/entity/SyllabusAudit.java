@@ -11,11 +11,16 @@ import java.time.LocalDateTime;
 /**
  * SyllabusAudit - Audit trail for Syllabus changes
  * Tracks all modifications to syllabus for version history and comparison
+ *
+ * Phần văn bản lớn (content, objectives, methods) được lưu trong payload dạng nén:
+ * SNAPSHOT chứa toàn bộ, DELTA chỉ chứa thay đổi so với version liền trước; cứ N version có một snapshot.
+ * Các dòng cũ (encoding = null) vẫn giữ nguyên văn bản trong các cột TEXT.
  */
 @Entity
 @Table(name = "syllabus_audit", indexes = {
     @Index(name = "idx_syllabus_audit_syllabus_id", columnList = "syllabus_id"),
-    @Index(name = "idx_syllabus_audit_created_at", columnList = "created_at")
+    @Index(name = "idx_syllabus_audit_created_at", columnList = "created_at"),
+    @Index(name = "uk_syllabus_audit_syllabus_version", columnList = "syllabus_id,version_number", unique = true)
 })
 @Data
 @NoArgsConstructor
@@ -45,6 +50,15 @@ public class SyllabusAudit {
     @Column(name = "assessment_methods", columnDefinition = "TEXT")
     private String assessmentMethods;  // Snapshot of assessment methods
     
+    @Column(name = "encoding", length = 20)
+    private String encoding;  // SNAPSHOT, DELTA; null = dòng cũ lưu văn bản đầy đủ
+    
+    @Column(name = "base_version")
+    private Integer baseVersion;  // Version của snapshot mà chuỗi delta này dựa vào
+    
+    @Column(name = "payload")
+    private byte[] payload;  // Nội dung nén (SyllabusAuditCodec)
+    
     @Column(name = "academic_year", length = 50)
     private String academicYear;  // Academic year at this version
     
@@ -69,6 +83,9 @@ public class SyllabusAudit {
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;  // When this change was made
     
+    public static final String ENCODING_SNAPSHOT = "SNAPSHOT";
+    public static final String ENCODING_DELTA = "DELTA";
+    
     @PrePersist
     protected void onCreate() {
         this.createdAt = LocalDateTime.now();
@@ -0,0 +1,28 @@
+package com.smd.academic_service.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Bộ đếm version của audit trail, mỗi syllabus một dòng.
+ * Chỉ được ghi qua SyllabusAuditRepository.allocateVersionNumber (upsert ... RETURNING);
+ * entity tồn tại để ddl-auto tạo bảng.
+ */
+@Entity
+@Table(name = "syllabus_audit_counter")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SyllabusAuditCounter {
+
+    @Id
+    @Column(name = "syllabus_id")
+    private Long syllabusId;
+
+    @Column(name = "last_version", nullable = false)
+    private Integer lastVersion;  // Version audit lớn nhất đã cấp
+}
@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -32,4 +33,18 @@ public interface CloRepository extends JpaRepository<Clo, Long> {
     List<Clo> findBySubjectIsNullAndIsActiveTrue();
     
     List<Clo> findByIdIn(List<Long> ids);
+    
+    /**
+     * Số CLO và số CLO đã map PLO của từng môn, gom nhóm trong một query
+     */
+    @Query("SELECT c.subject.id AS subjectId, COUNT(DISTINCT c.id) AS totalClos, COUNT(DISTINCT cm.clo.id) AS mappedClos " +
+           "FROM Clo c LEFT JOIN CloMapping cm ON cm.clo.id = c.id AND cm.isActive = true " +
+           "WHERE c.subject.id IN :subjectIds AND c.isActive = true GROUP BY c.subject.id")
+    List<SubjectCloCoverageRow> countCloCoverageBySubjectIds(@Param("subjectIds") Collection<Long> subjectIds);
+    
+    interface SubjectCloCoverageRow {
+        Long getSubjectId();
+        Long getTotalClos();
+        Long getMappedClos();
+    }
 }
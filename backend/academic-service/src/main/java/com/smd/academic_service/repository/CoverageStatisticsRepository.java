@@ -0,0 +1,160 @@
+package com.smd.academic_service.repository;
+
+import com.smd.academic_service.model.entity.Program;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Aggregate queries cho thống kê độ phủ CLO/PLO.
+ * Mỗi bảng được gom nhóm (COUNT / COUNT DISTINCT ... GROUP BY) một lần rồi join theo program/subject,
+ * nên thống kê cho tất cả program hoặc tất cả subject chỉ tốn một query.
+ */
+@Repository
+public interface CoverageStatisticsRepository extends org.springframework.data.repository.Repository<Program, Long> {
+    
+    String PROGRAM_COVERAGE_SQL = """
+            SELECT p.id                               AS "programId",
+                   p.program_code                     AS "programCode",
+                   p.program_name                     AS "programName",
+                   COALESCE(sub.total_subjects, 0)    AS "totalSubjects",
+                   COALESCE(c.total_clos, 0)          AS "totalClos",
+                   COALESCE(m.mapped_clos, 0)         AS "mappedClos",
+                   COALESCE(pl.total_plos, 0)         AS "totalPlos",
+                   COALESCE(m.mapped_plos, 0)         AS "mappedPlos",
+                   COALESCE(m.total_mappings, 0)      AS "totalMappings"
+            FROM program p
+            LEFT JOIN (SELECT s.program_id, COUNT(*) AS total_subjects
+                       FROM subject s
+                       WHERE s.is_active = true
+                       GROUP BY s.program_id) sub ON sub.program_id = p.id
+            LEFT JOIN (SELECT s.program_id, COUNT(*) AS total_clos
+                       FROM clo c
+                       JOIN subject s ON s.id = c.subject_id
+                       WHERE c.is_active = true AND s.is_active = true
+                       GROUP BY s.program_id) c ON c.program_id = p.id
+            LEFT JOIN (SELECT pl.program_id, COUNT(*) AS total_plos
+                       FROM plo pl
+                       WHERE pl.is_active = true
+                       GROUP BY pl.program_id) pl ON pl.program_id = p.id
+            LEFT JOIN (SELECT s.program_id,
+                              COUNT(DISTINCT cm.clo_id) AS mapped_clos,
+                              COUNT(DISTINCT cm.plo_id) AS mapped_plos,
+                              COUNT(*)                  AS total_mappings
+                       FROM clo_mapping cm
+                       JOIN clo c ON c.id = cm.clo_id
+                       JOIN subject s ON s.id = c.subject_id
+                       WHERE cm.is_active = true AND c.is_active = true AND s.is_active = true
+                       GROUP BY s.program_id) m ON m.program_id = p.id
+            """;
+    
+    String SUBJECT_COVERAGE_SQL = """
+            SELECT s.id                               AS "subjectId",
+                   s.subject_code                     AS "subjectCode",
+                   s.subject_name                     AS "subjectName",
+                   COALESCE(c.total_clos, 0)          AS "totalClos",
+                   COALESCE(m.mapped_clos, 0)         AS "mappedClos",
+                   COALESCE(pl.total_plos, 0)         AS "totalPlos",
+                   COALESCE(m.mapped_plos, 0)         AS "mappedPlos",
+                   COALESCE(m.total_mappings, 0)      AS "totalMappings",
+                   COALESCE(sy.approved_syllabuses, 0) AS "approvedSyllabuses"
+            FROM subject s
+            LEFT JOIN (SELECT c.subject_id, COUNT(*) AS total_clos
+                       FROM clo c
+                       WHERE c.is_active = true
+                       GROUP BY c.subject_id) c ON c.subject_id = s.id
+            LEFT JOIN (SELECT pl.program_id, COUNT(*) AS total_plos
+                       FROM plo pl
+                       WHERE pl.is_active = true
+                       GROUP BY pl.program_id) pl ON pl.program_id = s.program_id
+            LEFT JOIN (SELECT c.subject_id,
+                              COUNT(DISTINCT cm.clo_id) AS mapped_clos,
+                              COUNT(DISTINCT cm.plo_id) AS mapped_plos,
+                              COUNT(*)                  AS total_mappings
+                       FROM clo_mapping cm
+                       JOIN clo c ON c.id = cm.clo_id
+                       WHERE cm.is_active = true AND c.is_active = true
+                       GROUP BY c.subject_id) m ON m.subject_id = s.id
+            LEFT JOIN (SELECT sy.subject_id, COUNT(*) AS approved_syllabuses
+                       FROM syllabus sy
+                       WHERE sy.approval_status = 'APPROVED'
+                       GROUP BY sy.subject_id) sy ON sy.subject_id = s.id
+            """;
+    
+    @Query(value = PROGRAM_COVERAGE_SQL + " WHERE p.id = :programId", nativeQuery = true)
+    Optional<ProgramCoverageRow> findProgramCoverage(@Param("programId") Long programId);
+    
+    @Query(value = PROGRAM_COVERAGE_SQL + " ORDER BY p.program_code", nativeQuery = true)
+    List<ProgramCoverageRow> findAllProgramCoverage();
+    
+    @Query(value = SUBJECT_COVERAGE_SQL + " WHERE s.id = :subjectId", nativeQuery = true)
+    Optional<SubjectCoverageRow> findSubjectCoverage(@Param("subjectId") Long subjectId);
+    
+    @Query(value = SUBJECT_COVERAGE_SQL + " WHERE s.is_active = true ORDER BY s.subject_code", nativeQuery = true)
+    List<SubjectCoverageRow> findAllActiveSubjectCoverage();
+    
+    @Query(value = """
+            SELECT (SELECT COUNT(*) FROM program)                                   AS "totalPrograms",
+                   (SELECT COUNT(*) FROM subject WHERE is_active = true)            AS "totalSubjects",
+                   (SELECT COUNT(*) FROM clo WHERE is_active = true)                AS "totalClos",
+                   (SELECT COUNT(*) FROM plo WHERE is_active = true)                AS "totalPlos",
+                   m.mapped_clos                                                    AS "mappedClos",
+                   m.mapped_plos                                                    AS "mappedPlos",
+                   m.total_mappings                                                 AS "totalMappings",
+                   sy.total_syllabuses                                              AS "totalSyllabuses",
+                   sy.approved_syllabuses                                           AS "approvedSyllabuses",
+                   sy.pending_syllabuses                                            AS "pendingSyllabuses"
+            FROM (SELECT COUNT(DISTINCT cm.clo_id) AS mapped_clos,
+                         COUNT(DISTINCT cm.plo_id) AS mapped_plos,
+                         COUNT(*)                  AS total_mappings
+                  FROM clo_mapping cm
+                  JOIN clo c ON c.id = cm.clo_id
+                  JOIN plo pl ON pl.id = cm.plo_id
+                  WHERE cm.is_active = true AND c.is_active = true AND pl.is_active = true) m,
+                 (SELECT COUNT(*)                                                          AS total_syllabuses,
+                         COUNT(*) FILTER (WHERE approval_status = 'APPROVED')              AS approved_syllabuses,
+                         COUNT(*) FILTER (WHERE approval_status IN ('L1_PENDING', 'L2_PENDING')) AS pending_syllabuses
+                  FROM syllabus
+                  WHERE is_active = true) sy
+            """, nativeQuery = true)
+    SystemCoverageRow findSystemCoverage();
+    
+    interface ProgramCoverageRow {
+        Long getProgramId();
+        String getProgramCode();
+        String getProgramName();
+        Long getTotalSubjects();
+        Long getTotalClos();
+        Long getMappedClos();
+        Long getTotalPlos();
+        Long getMappedPlos();
+        Long getTotalMappings();
+    }
+    
+    interface SubjectCoverageRow {
+        Long getSubjectId();
+        String getSubjectCode();
+        String getSubjectName();
+        Long getTotalClos();
+        Long getMappedClos();
+        Long getTotalPlos();
+        Long getMappedPlos();
+        Long getTotalMappings();
+        Long getApprovedSyllabuses();
+    }
+    
+    interface SystemCoverageRow {
+        Long getTotalPrograms();
+        Long getTotalSubjects();
+        Long getTotalClos();
+        Long getMappedClos();
+        Long getTotalPlos();
+        Long getMappedPlos();
+        Long getTotalMappings();
+        Long getTotalSyllabuses();
+        Long getApprovedSyllabuses();
+        Long getPendingSyllabuses();
+    }
+}
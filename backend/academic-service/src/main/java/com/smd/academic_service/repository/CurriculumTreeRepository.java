@@ -0,0 +1,82 @@
+package com.smd.academic_service.repository;
+
+import com.smd.academic_service.model.entity.Program;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Bulk queries cho Curriculum Tree: mỗi tầng (syllabus, CLO + số PLO đã map) được lấy bằng một query
+ * cho toàn bộ môn học của chương trình, sau đó ghép lại trong bộ nhớ.
+ */
+@Repository
+public interface CurriculumTreeRepository extends org.springframework.data.repository.Repository<Program, Long> {
+
+    @Query("""
+            SELECT s.subject.id AS subjectId, s.id AS syllabusId, s.syllabusCode AS syllabusCode,
+                   s.version AS version, s.academicYear AS academicYear,
+                   s.status AS status, s.approvalStatus AS approvalStatus
+            FROM Syllabus s
+            WHERE s.subject.id IN :subjectIds AND s.isActive = true
+            ORDER BY s.academicYear DESC, s.version DESC
+            """)
+    List<SyllabusNodeRow> findSyllabusNodes(@Param("subjectIds") Collection<Long> subjectIds);
+
+    @Query("""
+            SELECT c.subject.id AS subjectId, c.id AS cloId, c.cloCode AS cloCode, c.cloName AS cloName,
+                   c.bloomLevel AS bloomLevel, COUNT(DISTINCT cm.plo.id) AS mappedPlos
+            FROM Clo c
+            LEFT JOIN CloMapping cm ON cm.clo.id = c.id AND cm.isActive = true
+            WHERE c.subject.id IN :subjectIds AND c.isActive = true
+            GROUP BY c.subject.id, c.id, c.cloCode, c.cloName, c.bloomLevel, c.displayOrder
+            ORDER BY c.displayOrder, c.id
+            """)
+    List<CloNodeRow> findCloNodes(@Param("subjectIds") Collection<Long> subjectIds);
+
+    /**
+     * Dấu phiên bản của cây: số dòng và tổng xmin (transaction id của lần ghi cuối) của từng bảng thuộc chương trình.
+     * xmin do PostgreSQL gán cho mỗi lần insert/update nên không phụ thuộc đồng hồ ứng dụng hay @PreUpdate;
+     * update hàng loạt, native SQL và xoá cứng đều làm dấu đổi. Dùng tổng chứ không dùng MAX vì transaction
+     * có id nhỏ hơn có thể commit sau. Rỗng nếu chương trình không tồn tại.
+     */
+    @Query(value = """
+            SELECT concat_ws('|',
+                   CAST(p.xmin AS text),
+                   (SELECT concat_ws(',', COUNT(*), SUM(CAST(CAST(s.xmin AS text) AS bigint)))
+                    FROM subject s WHERE s.program_id = p.id),
+                   (SELECT concat_ws(',', COUNT(*), SUM(CAST(CAST(sy.xmin AS text) AS bigint)))
+                    FROM syllabus sy JOIN subject s ON s.id = sy.subject_id
+                    WHERE s.program_id = p.id),
+                   (SELECT concat_ws(',', COUNT(*), SUM(CAST(CAST(c.xmin AS text) AS bigint)))
+                    FROM clo c JOIN subject s ON s.id = c.subject_id
+                    WHERE s.program_id = p.id),
+                   (SELECT concat_ws(',', COUNT(*), SUM(CAST(CAST(cm.xmin AS text) AS bigint)))
+                    FROM clo_mapping cm JOIN clo c ON c.id = cm.clo_id JOIN subject s ON s.id = c.subject_id
+                    WHERE s.program_id = p.id))
+            FROM program p
+            WHERE p.id = :programId
+            """, nativeQuery = true)
+    Optional<String> findCurriculumVersion(@Param("programId") Long programId);
+
+    interface SyllabusNodeRow {
+        Long getSubjectId();
+        Long getSyllabusId();
+        String getSyllabusCode();
+        Integer getVersion();
+        String getAcademicYear();
+        String getStatus();
+        String getApprovalStatus();
+    }
+
+    interface CloNodeRow {
+        Long getSubjectId();
+        Long getCloId();
+        String getCloCode();
+        String getCloName();
+        String getBloomLevel();
+        Long getMappedPlos();
+    }
+}
@@ -0,0 +1,84 @@
+package com.smd.academic_service.repository;
+
+import com.smd.academic_service.model.entity.InboxNotification;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Hộp thư thông báo theo vai trò. Danh sách được phân trang keyset theo (created_at DESC, id DESC):
+ * trang sau bắt đầu ngay sau (createdAt, id) của phần tử cuối trang trước, nên trang nào cũng là một index seek.
+ */
+@Repository
+public interface InboxNotificationRepository extends JpaRepository<InboxNotification, Long> {
+
+    @Query("""
+            SELECT n FROM InboxNotification n
+            WHERE n.recipient = :recipient
+              AND (n.createdAt < :beforeCreatedAt OR (n.createdAt = :beforeCreatedAt AND n.id < :beforeId))
+            ORDER BY n.createdAt DESC, n.id DESC
+            """)
+    List<InboxNotification> findPage(@Param("recipient") String recipient,
+                                     @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+                                     @Param("beforeId") Long beforeId,
+                                     Pageable pageable);
+
+    @Query("""
+            SELECT n FROM InboxNotification n
+            WHERE n.recipient = :recipient AND n.status = :status
+              AND (n.createdAt < :beforeCreatedAt OR (n.createdAt = :beforeCreatedAt AND n.id < :beforeId))
+            ORDER BY n.createdAt DESC, n.id DESC
+            """)
+    List<InboxNotification> findPageByStatus(@Param("recipient") String recipient,
+                                             @Param("status") String status,
+                                             @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+                                             @Param("beforeId") Long beforeId,
+                                             Pageable pageable);
+
+    long countByRecipientAndStatus(String recipient, String status);
+
+    @Modifying
+    @Query("""
+            UPDATE InboxNotification n SET n.status = 'READ', n.readAt = :readAt
+            WHERE n.id IN :ids AND n.recipient = :recipient AND n.status = 'UNREAD'
+            """)
+    int markRead(@Param("ids") Collection<Long> ids,
+                 @Param("recipient") String recipient,
+                 @Param("readAt") LocalDateTime readAt);
+
+    @Modifying
+    @Query("""
+            UPDATE InboxNotification n SET n.status = 'READ', n.readAt = :readAt
+            WHERE n.recipient = :recipient AND n.status = 'UNREAD'
+            """)
+    int markAllRead(@Param("recipient") String recipient, @Param("readAt") LocalDateTime readAt);
+
+    @Modifying
+    @Query("DELETE FROM InboxNotification n WHERE n.id = :id AND n.recipient = :recipient")
+    int deleteByIdAndRecipient(@Param("id") Long id, @Param("recipient") String recipient);
+
+    /**
+     * Xoá tối đa :batchSize dòng hết hạn: đã đọc trước readCutoff (tính từ read_at, dòng cũ thiếu read_at thì từ created_at),
+     * hoặc tạo trước unreadCutoff bất kể trạng thái
+     */
+    @Modifying
+    @Query(value = """
+            DELETE FROM notification_inbox
+            WHERE id IN (
+                SELECT id FROM notification_inbox
+                WHERE created_at < :unreadCutoff
+                   OR (status <> 'UNREAD' AND COALESCE(read_at, created_at) < :readCutoff)
+                ORDER BY created_at
+                LIMIT :batchSize)
+            """, nativeQuery = true)
+    int deleteExpired(@Param("readCutoff") LocalDateTime readCutoff,
+                      @Param("unreadCutoff") LocalDateTime unreadCutoff,
+                      @Param("batchSize") int batchSize);
+}
@@ -0,0 +1,89 @@
+package com.smd.academic_service.repository;
+
+import com.smd.academic_service.model.entity.ProgramCoverageStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ProgramCoverageStatsRepository extends JpaRepository<ProgramCoverageStats, Long> {
+    
+    /**
+     * Tính lại số liệu từ các bảng nguồn (gom nhóm theo program) và upsert vào program_coverage_stats
+     */
+    String REFRESH_SQL = """
+            INSERT INTO program_coverage_stats (program_id, total_subjects, subjects_with_clo, total_clos, mapped_clos,
+                                                total_plos, mapped_plos, total_syllabuses, syllabuses_approved,
+                                                syllabuses_under_review, syllabuses_rejected, refreshed_at)
+            SELECT p.id,
+                   COALESCE(sub.total_subjects, 0),
+                   COALESCE(c.subjects_with_clo, 0),
+                   COALESCE(c.total_clos, 0),
+                   COALESCE(m.mapped_clos, 0),
+                   COALESCE(pl.total_plos, 0),
+                   COALESCE(m.mapped_plos, 0),
+                   COALESCE(sy.total_syllabuses, 0),
+                   COALESCE(sy.syllabuses_approved, 0),
+                   COALESCE(sy.syllabuses_under_review, 0),
+                   COALESCE(sy.syllabuses_rejected, 0),
+                   now()
+            FROM program p
+            LEFT JOIN (SELECT s.program_id, COUNT(*) AS total_subjects
+                       FROM subject s
+                       WHERE s.is_active = true
+                       GROUP BY s.program_id) sub ON sub.program_id = p.id
+            LEFT JOIN (SELECT s.program_id,
+                              COUNT(*)                     AS total_clos,
+                              COUNT(DISTINCT c.subject_id) AS subjects_with_clo
+                       FROM clo c
+                       JOIN subject s ON s.id = c.subject_id
+                       WHERE c.is_active = true AND s.is_active = true
+                       GROUP BY s.program_id) c ON c.program_id = p.id
+            LEFT JOIN (SELECT pl.program_id, COUNT(*) AS total_plos
+                       FROM plo pl
+                       WHERE pl.is_active = true
+                       GROUP BY pl.program_id) pl ON pl.program_id = p.id
+            LEFT JOIN (SELECT s.program_id,
+                              COUNT(DISTINCT cm.clo_id) AS mapped_clos,
+                              COUNT(DISTINCT cm.plo_id) AS mapped_plos
+                       FROM clo_mapping cm
+                       JOIN clo c ON c.id = cm.clo_id
+                       JOIN subject s ON s.id = c.subject_id
+                       WHERE cm.is_active = true AND c.is_active = true AND s.is_active = true
+                       GROUP BY s.program_id) m ON m.program_id = p.id
+            LEFT JOIN (SELECT s.program_id,
+                              COUNT(*)                                             AS total_syllabuses,
+                              COUNT(*) FILTER (WHERE sy.approval_status = 'Approved') AS syllabuses_approved,
+                              COUNT(*) FILTER (WHERE sy.approval_status = 'Pending')  AS syllabuses_under_review,
+                              COUNT(*) FILTER (WHERE sy.approval_status = 'Rejected') AS syllabuses_rejected
+                       FROM syllabus sy
+                       JOIN subject s ON s.id = sy.subject_id
+                       WHERE sy.is_active = true
+                       GROUP BY s.program_id) sy ON sy.program_id = p.id
+            """;
+    
+    String ON_CONFLICT_UPDATE = """
+            ON CONFLICT (program_id) DO UPDATE
+               SET total_subjects          = EXCLUDED.total_subjects,
+                   subjects_with_clo       = EXCLUDED.subjects_with_clo,
+                   total_clos              = EXCLUDED.total_clos,
+                   mapped_clos             = EXCLUDED.mapped_clos,
+                   total_plos              = EXCLUDED.total_plos,
+                   mapped_plos             = EXCLUDED.mapped_plos,
+                   total_syllabuses        = EXCLUDED.total_syllabuses,
+                   syllabuses_approved     = EXCLUDED.syllabuses_approved,
+                   syllabuses_under_review = EXCLUDED.syllabuses_under_review,
+                   syllabuses_rejected     = EXCLUDED.syllabuses_rejected,
+                   refreshed_at            = EXCLUDED.refreshed_at
+            """;
+    
+    @Modifying
+    @Query(value = REFRESH_SQL + " WHERE p.id = :programId " + ON_CONFLICT_UPDATE, nativeQuery = true)
+    int refreshProgram(@Param("programId") Long programId);
+    
+    @Modifying
+    @Query(value = REFRESH_SQL + " WHERE true " + ON_CONFLICT_UPDATE, nativeQuery = true)
+    int refreshAll();
+}
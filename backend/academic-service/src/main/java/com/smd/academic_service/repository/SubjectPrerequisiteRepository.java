@@ -0,0 +1,111 @@
+package com.smd.academic_service.repository;
+
+import com.smd.academic_service.model.entity.Subject;
+import com.smd.academic_service.model.entity.SubjectPrerequisite;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SubjectPrerequisiteRepository extends JpaRepository<SubjectPrerequisite, Long> {
+
+    /**
+     * Một cạnh dạng phẳng (subjectId, mã môn) cho việc dựng đồ thị
+     */
+    interface EdgeRow {
+        Long getSubjectId();
+        String getCode();
+    }
+
+    @Query("""
+            SELECT e.subject.id AS subjectId, e.prerequisiteCode AS code
+            FROM SubjectPrerequisite e
+            WHERE e.subject.id IN :subjectIds AND e.relationType = :relationType
+            ORDER BY e.subject.id, e.position
+            """)
+    List<EdgeRow> findEdges(@Param("subjectIds") Collection<Long> subjectIds,
+                            @Param("relationType") String relationType);
+
+    @Query("""
+            SELECT e.prerequisiteCode
+            FROM SubjectPrerequisite e
+            WHERE e.subject.id = :subjectId AND e.relationType = :relationType
+            ORDER BY e.position
+            """)
+    List<String> findCodes(@Param("subjectId") Long subjectId, @Param("relationType") String relationType);
+
+    /**
+     * Các môn tiên quyết (đang hoạt động) của một môn, theo thứ tự khai báo
+     */
+    @Query("""
+            SELECT p
+            FROM SubjectPrerequisite e, Subject p
+            WHERE e.subject.id = :subjectId
+              AND e.relationType = :relationType
+              AND p.subjectCode = e.prerequisiteCode
+              AND p.isActive = true
+            ORDER BY e.position, p.id
+            """)
+    List<Subject> findPrerequisiteSubjects(@Param("subjectId") Long subjectId,
+                                           @Param("relationType") String relationType);
+
+    /**
+     * Các môn trong chương trình khai báo subjectCode làm tiên quyết (tra theo idx_subject_prerequisite_code)
+     */
+    @Query("""
+            SELECT s
+            FROM SubjectPrerequisite e
+            JOIN e.subject s
+            WHERE e.prerequisiteCode = :subjectCode
+              AND e.relationType = :relationType
+              AND s.program.id = :programId
+              AND s.isActive = true
+            ORDER BY s.semester, s.subjectCode
+            """)
+    List<Subject> findDependentSubjects(@Param("subjectCode") String subjectCode,
+                                        @Param("programId") Long programId,
+                                        @Param("relationType") String relationType);
+
+    @Modifying
+    @Query("DELETE FROM SubjectPrerequisite e WHERE e.subject.id = :subjectId")
+    int deleteBySubjectId(@Param("subjectId") Long subjectId);
+
+    /**
+     * Tách chuỗi prerequisites cũ thành cạnh cho các môn chưa có cạnh PREREQUISITE.
+     * Chạy lại nhiều lần không sinh trùng (NOT EXISTS + unique index).
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO subject_prerequisite (subject_id, prerequisite_code, relation_type, position)
+            SELECT s.id, t.code, 'PREREQUISITE', CAST(MIN(t.ord) AS INTEGER)
+            FROM subject s
+            CROSS JOIN LATERAL regexp_split_to_table(trim(s.prerequisites), '[,;|\\s]+') WITH ORDINALITY AS t(code, ord)
+            WHERE s.prerequisites IS NOT NULL
+              AND t.code <> ''
+              AND NOT EXISTS (SELECT 1 FROM subject_prerequisite e
+                              WHERE e.subject_id = s.id AND e.relation_type = 'PREREQUISITE')
+            GROUP BY s.id, t.code
+            ON CONFLICT DO NOTHING
+            """, nativeQuery = true)
+    int backfillPrerequisites();
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO subject_prerequisite (subject_id, prerequisite_code, relation_type, position)
+            SELECT s.id, t.code, 'COREQUISITE', CAST(MIN(t.ord) AS INTEGER)
+            FROM subject s
+            CROSS JOIN LATERAL regexp_split_to_table(trim(s.corequisites), '[,;|\\s]+') WITH ORDINALITY AS t(code, ord)
+            WHERE s.corequisites IS NOT NULL
+              AND t.code <> ''
+              AND NOT EXISTS (SELECT 1 FROM subject_prerequisite e
+                              WHERE e.subject_id = s.id AND e.relation_type = 'COREQUISITE')
+            GROUP BY s.id, t.code
+            ON CONFLICT DO NOTHING
+            """, nativeQuery = true)
+    int backfillCorequisites();
+}
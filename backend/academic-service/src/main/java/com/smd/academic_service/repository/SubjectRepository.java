@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,6 +26,8 @@ public interface SubjectRepository extends JpaRepository<Subject, Long> {
     
     Optional<Subject> findBySubjectCodeAndIsActiveTrue(String subjectCode);
     
+    List<Subject> findBySubjectCodeInAndIsActiveTrue(Collection<String> subjectCodes);
+    
     List<Subject> findBySubjectCodeContainingIgnoreCase(String subjectCode);
     
     Long countByProgramIdAndIsActiveTrue(Long programId);
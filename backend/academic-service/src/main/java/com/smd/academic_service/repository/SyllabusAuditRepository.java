@@ -28,6 +28,22 @@ public interface SyllabusAuditRepository extends JpaRepository<SyllabusAudit, Lo
     @Query("SELECT sa FROM SyllabusAudit sa WHERE sa.syllabusId = :syllabusId ORDER BY sa.versionNumber DESC LIMIT 1")
     Optional<SyllabusAudit> findLatestAuditBySyllabusId(@Param("syllabusId") Long syllabusId);
     
+    /**
+     * Cấp version tiếp theo cho syllabus bằng một câu upsert trên syllabus_audit_counter.
+     * Dòng đếm bị khoá tới hết transaction nên các lần ghi cùng syllabus lần lượt nhận số khác nhau
+     * (và delta luôn dựa trên version liền trước đã commit); syllabus khác nhau không chờ nhau.
+     * Lần cấp đầu tiên khởi tạo từ version lớn nhất đang có trong syllabus_audit.
+     */
+    @Query(value = """
+            INSERT INTO syllabus_audit_counter (syllabus_id, last_version)
+            VALUES (:syllabusId,
+                    COALESCE((SELECT MAX(sa.version_number) FROM syllabus_audit sa WHERE sa.syllabus_id = :syllabusId), 0) + 1)
+            ON CONFLICT (syllabus_id) DO UPDATE
+            SET last_version = syllabus_audit_counter.last_version + 1
+            RETURNING last_version
+            """, nativeQuery = true)
+    int allocateVersionNumber(@Param("syllabusId") Long syllabusId);
+    
     /**
      * Get count of versions for a syllabus
      */
@@ -2,14 +2,16 @@ package com.smd.academic_service.repository;
 
 import com.smd.academic_service.model.entity.Syllabus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface SyllabusRepository extends JpaRepository<Syllabus, Long> {
+public interface SyllabusRepository extends JpaRepository<Syllabus, Long>, JpaSpecificationExecutor<Syllabus> {
     
     List<Syllabus> findBySubjectIdAndIsActiveTrue(Long subjectId);
     
@@ -38,4 +40,7 @@ public interface SyllabusRepository extends JpaRepository<Syllabus, Long> {
     
     @Query("SELECT COUNT(s) FROM Syllabus s WHERE s.approvalStatus = 'Approved' AND s.subject.program.id = :programId AND s.isActive = true")
     Long countApprovedSyllabusesByProgramId(@Param("programId") Long programId);
+    
+    @Query("SELECT s FROM Syllabus s JOIN FETCH s.subject sub JOIN FETCH sub.program WHERE s.id IN :ids AND s.isActive = true")
+    List<Syllabus> findActiveWithSubjectAndProgramByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,106 @@
+package com.smd.academic_service.repository;
+
+import com.smd.academic_service.model.entity.Subject;
+import com.smd.academic_service.model.entity.Syllabus;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Fetch;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+
+/**
+ * Specification cho tìm kiếm giáo trình (lọc phía DB).
+ * Các điều kiện trên subject dùng chung một join; withSubjectAndProgram() phải đứng đầu chuỗi
+ * để join đó là fetch join (trừ count query của Spring Data, nơi fetch không hợp lệ).
+ */
+public final class SyllabusSpecifications {
+
+    private SyllabusSpecifications() {
+    }
+
+    /**
+     * Fetch join subject.program cho query lấy dữ liệu, tránh N+1 khi map kết quả
+     */
+    public static Specification<Syllabus> withSubjectAndProgram() {
+        return (root, query, cb) -> {
+            if (!isCountQuery(query)) {
+                Fetch<Syllabus, Subject> subject = root.fetch("subject", JoinType.INNER);
+                subject.fetch("program", JoinType.INNER);
+            }
+            return null;
+        };
+    }
+
+    public static Specification<Syllabus> isActive() {
+        return (root, query, cb) -> cb.isTrue(root.get("isActive"));
+    }
+
+    /**
+     * Mã giáo trình hoặc tên môn học chứa keyword (không phân biệt hoa thường)
+     */
+    public static Specification<Syllabus> keyword(String keyword) {
+        if (keyword == null || keyword.isBlank())
+            return null;
+        String pattern = "%" + escapeLike(keyword.trim().toLowerCase()) + "%";
+        return (root, query, cb) -> cb.or(
+                cb.like(cb.lower(root.get("syllabusCode")), pattern, '\\'),
+                cb.like(cb.lower(subject(root).get("subjectName")), pattern, '\\'));
+    }
+
+    public static Specification<Syllabus> academicYear(String academicYear) {
+        return academicYear == null ? null : (root, query, cb) -> cb.equal(root.get("academicYear"), academicYear);
+    }
+
+    public static Specification<Syllabus> semester(Integer semester) {
+        return semester == null ? null : (root, query, cb) -> cb.equal(root.get("semester"), semester);
+    }
+
+    public static Specification<Syllabus> status(String status) {
+        return status == null ? null : (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    public static Specification<Syllabus> approvalStatusIn(Collection<String> approvalStatuses) {
+        if (approvalStatuses == null || approvalStatuses.isEmpty())
+            return null;
+        return (root, query, cb) -> root.get("approvalStatus").in(approvalStatuses);
+    }
+
+    public static Specification<Syllabus> programId(Long programId) {
+        return programId == null ? null
+                : (root, query, cb) -> cb.equal(subject(root).get("program").get("id"), programId);
+    }
+
+    public static Specification<Syllabus> subjectId(Long subjectId) {
+        return subjectId == null ? null : (root, query, cb) -> cb.equal(root.get("subject").get("id"), subjectId);
+    }
+
+    // Helper methods
+    private static boolean isCountQuery(CriteriaQuery<?> query) {
+        Class<?> type = query.getResultType();
+        return type == Long.class || type == long.class;
+    }
+
+    /**
+     * Join (hoặc fetch join) subject đã có trên root; chỉ tạo join mới khi chưa có
+     */
+    @SuppressWarnings("unchecked")
+    private static From<Syllabus, Subject> subject(Root<Syllabus> root) {
+        for (Fetch<Syllabus, ?> fetch : root.getFetches()) {
+            if ("subject".equals(fetch.getAttribute().getName()) && fetch instanceof Join<?, ?> join)
+                return (From<Syllabus, Subject>) join;
+        }
+        for (Join<Syllabus, ?> join : root.getJoins()) {
+            if ("subject".equals(join.getAttribute().getName()))
+                return (From<Syllabus, Subject>) join;
+        }
+        return root.join("subject", JoinType.INNER);
+    }
+
+    private static String escapeLike(String s) {
+        return s.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
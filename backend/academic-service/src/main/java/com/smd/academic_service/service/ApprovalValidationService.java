@@ -1,14 +1,24 @@
 package com.smd.academic_service.service;
 
+import com.smd.academic_service.exception.ValidationException;
 import com.smd.academic_service.model.dto.ApprovalValidationResult;
+import com.smd.academic_service.model.dto.BatchApprovalValidationResult;
+import com.smd.academic_service.model.dto.PrerequisiteValidationResult;
 import com.smd.academic_service.model.entity.*;
 import com.smd.academic_service.repository.*;
 import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 /**
@@ -30,7 +40,6 @@ public class ApprovalValidationService {
     
     private final SyllabusRepository syllabusRepository;
     private final CloRepository cloRepository;
-    private final CloMappingRepository cloMappingRepository;
     private final PrerequisiteValidatorService prerequisiteValidator;
     private final ProgramRepository programRepository;
     private final SubjectRepository subjectRepository;
@@ -40,6 +49,29 @@ public class ApprovalValidationService {
     private static final int MIN_CONTENT_LENGTH = 100;  // Minimum characters for content
     private static final int MIN_OBJECTIVES_LENGTH = 50;
     
+    @Value("${smd.approval-validation.batch-max-size:200}")
+    private int maxBatchSize;
+    
+    // Pool giới hạn cho batch validation; dữ liệu đã nạp sẵn nên worker không dùng connection
+    private final ExecutorService validationExecutor = Executors.newFixedThreadPool(
+        Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors())), new ThreadFactory() {
+            private final AtomicInteger seq = new AtomicInteger();
+            
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "approval-validation-" + seq.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+        });
+    
+    /**
+     * Dữ liệu dùng chung cho các check, nạp theo lô cho mọi syllabus trong một lần validate
+     */
+    private record ValidationData(Map<Long, CloRepository.SubjectCloCoverageRow> cloCoverageBySubject,
+                                  Map<Long, PrerequisiteValidationResult> prerequisitesBySubject) {
+    }
+    
     /**
      * Validate syllabus for academic approval
      * @param syllabusId ID của giáo trình
@@ -52,6 +84,99 @@ public class ApprovalValidationService {
             .orElseThrow(() -> new com.smd.academic_service.exception.ResourceNotFoundException(
                 "Syllabus not found with id: " + syllabusId));
         
+        return validate(syllabus, loadValidationData(List.of(syllabus.getSubject())));
+    }
+    
+    /**
+     * Validate nhiều syllabus cùng lúc (hàng đợi phê duyệt của HoD)
+     * Dữ liệu CLO/mapping/tiên quyết được nạp một lần cho cả lô, các check chạy song song trên pool giới hạn
+     * @param syllabusIds danh sách ID giáo trình
+     * @return kết quả theo thứ tự yêu cầu, kèm danh sách ID không tìm thấy
+     */
+    public BatchApprovalValidationResult validateForApprovalBatch(List<Long> syllabusIds) {
+        List<Long> ids = syllabusIds == null ? List.of() : syllabusIds.stream()
+            .filter(Objects::nonNull)
+            .distinct()
+            .collect(Collectors.toList());
+        if (ids.size() > maxBatchSize) {
+            throw new ValidationException("syllabusIds", ids.size(),
+                "at most " + maxBatchSize + " syllabuses can be validated per request");
+        }
+        log.info("Validating {} syllabus(es) for approval", ids.size());
+        
+        // Subject và Program được fetch join để worker không phải chạm tới lazy proxy
+        Map<Long, Syllabus> syllabusById = ids.isEmpty() ? Map.of() :
+            syllabusRepository.findActiveWithSubjectAndProgramByIdIn(ids).stream()
+                .collect(Collectors.toMap(Syllabus::getId, s -> s));
+        ValidationData data = loadValidationData(syllabusById.values().stream()
+            .map(Syllabus::getSubject)
+            .collect(Collectors.toList()));
+        
+        List<Long> notFoundIds = new ArrayList<>();
+        List<CompletableFuture<ApprovalValidationResult>> futures = new ArrayList<>();
+        for (Long id : ids) {
+            Syllabus syllabus = syllabusById.get(id);
+            if (syllabus == null) {
+                notFoundIds.add(id);
+            } else {
+                futures.add(CompletableFuture.supplyAsync(() -> validate(syllabus, data), validationExecutor));
+            }
+        }
+        List<ApprovalValidationResult> results = futures.stream()
+            .map(CompletableFuture::join)
+            .collect(Collectors.toList());
+        
+        int readyCount = (int) results.stream()
+            .filter(r -> Boolean.TRUE.equals(r.getIsReadyForApproval()))
+            .count();
+        int averageScore = (int) results.stream()
+            .mapToInt(ApprovalValidationResult::getApprovalScore)
+            .average()
+            .orElse(0);
+        
+        return BatchApprovalValidationResult.builder()
+            .totalRequested(ids.size())
+            .readyForApprovalCount(readyCount)
+            .averageScore(averageScore)
+            .results(results)
+            .notFoundIds(notFoundIds)
+            .build();
+    }
+    
+    @PreDestroy
+    void shutdownValidationExecutor() {
+        validationExecutor.shutdown();
+    }
+    
+    /**
+     * Nạp dữ liệu dùng chung: số CLO / CLO đã map theo môn (1 query) và kết quả tiên quyết
+     * (mỗi chương trình một đồ thị) cho các môn có khai báo tiên quyết
+     */
+    private ValidationData loadValidationData(Collection<Subject> subjects) {
+        Map<Long, Subject> subjectById = new LinkedHashMap<>();
+        subjects.forEach(subject -> subjectById.putIfAbsent(subject.getId(), subject));
+        if (subjectById.isEmpty()) {
+            return new ValidationData(Map.of(), Map.of());
+        }
+        
+        Map<Long, CloRepository.SubjectCloCoverageRow> coverage = cloRepository
+            .countCloCoverageBySubjectIds(subjectById.keySet()).stream()
+            .collect(Collectors.toMap(CloRepository.SubjectCloCoverageRow::getSubjectId, row -> row));
+        
+        List<Subject> withPrerequisites = subjectById.values().stream()
+            .filter(subject -> subject.getPrerequisites() != null && !subject.getPrerequisites().trim().isEmpty())
+            .collect(Collectors.toList());
+        Map<Long, PrerequisiteValidationResult> prerequisites = withPrerequisites.isEmpty()
+            ? Map.of()
+            : prerequisiteValidator.validatePrerequisites(withPrerequisites);
+        
+        return new ValidationData(coverage, prerequisites);
+    }
+    
+    /**
+     * Chạy toàn bộ check cho một syllabus trên dữ liệu đã nạp sẵn (không truy vấn DB)
+     */
+    private ApprovalValidationResult validate(Syllabus syllabus, ValidationData data) {
         ApprovalValidationResult result = ApprovalValidationResult.builder()
             .syllabusId(syllabus.getId())
             .syllabusCode(syllabus.getSyllabusCode())
@@ -65,7 +190,7 @@ public class ApprovalValidationService {
         
         try {
             // 1. Check CLO-PLO Coverage
-            checkCloCoverage(syllabus, result);
+            checkCloCoverage(syllabus, result, data);
             
             // 2. Check Course Content
             checkCourseContent(syllabus, result);
@@ -80,7 +205,7 @@ public class ApprovalValidationService {
             checkAssessmentMethods(syllabus, result);
             
             // 6. Check Prerequisites (if subject has prerequisites)
-            checkPrerequisites(syllabus, result);
+            checkPrerequisites(syllabus, result, data);
             
             // 7. Check Credit Requirements
             checkCredits(syllabus, result);
@@ -89,7 +214,7 @@ public class ApprovalValidationService {
             calculateApprovalScore(result);
             
         } catch (Exception e) {
-            log.error("Error validating syllabus for approval: {}", syllabusId, e);
+            log.error("Error validating syllabus for approval: {}", syllabus.getId(), e);
             result.getErrors().add("Error during validation: " + e.getMessage());
             result.setIsReadyForApproval(false);
             result.setMessage("Validation failed due to system error");
@@ -108,16 +233,14 @@ public class ApprovalValidationService {
     /**
      * Check CLO-PLO coverage percentage
      */
-    private void checkCloCoverage(Syllabus syllabus, ApprovalValidationResult result) {
+    private void checkCloCoverage(Syllabus syllabus, ApprovalValidationResult result, ValidationData data) {
         log.debug("Checking CLO coverage for syllabus: {}", syllabus.getSyllabusCode());
         
-        Subject subject = syllabus.getSubject();
-        Program program = subject.getProgram();
-        
-        // Get all CLOs for this subject
-        List<Clo> subjectClos = cloRepository.findActiveClosBySubjectId(subject.getId());
+        // Số CLO của môn và số CLO đã có mapping (đã gom nhóm sẵn)
+        CloRepository.SubjectCloCoverageRow coverage = data.cloCoverageBySubject().get(syllabus.getSubject().getId());
+        long totalClos = coverage == null ? 0 : coverage.getTotalClos();
         
-        if (subjectClos.isEmpty()) {
+        if (totalClos == 0) {
             result.getErrors().add("No CLOs defined for this subject");
             result.setCloCoveragePercentage(0);
             result.getValidationChecks().add(
@@ -132,18 +255,9 @@ public class ApprovalValidationService {
             return;
         }
         
-        // Get all mappings for these CLOs
-        List<CloMapping> mappings = cloMappingRepository.findMappingsByProgramId(program.getId())
-            .stream()
-            .filter(m -> subjectClos.stream().anyMatch(clo -> clo.getId().equals(m.getClo().getId())))
-            .collect(Collectors.toList());
-        
-        long mappedClos = mappings.stream()
-            .map(m -> m.getClo().getId())
-            .distinct()
-            .count();
+        long mappedClos = coverage.getMappedClos();
         
-        int coveragePercentage = (int) ((mappedClos * 100) / subjectClos.size());
+        int coveragePercentage = (int) ((mappedClos * 100) / totalClos);
         result.setCloCoveragePercentage(coveragePercentage);
         
         boolean passed = coveragePercentage >= MIN_CLO_COVERAGE_PERCENTAGE;
@@ -153,14 +267,14 @@ public class ApprovalValidationService {
                 .checkName("CLO-PLO Coverage")
                 .isPassed(passed)
                 .description("At least " + MIN_CLO_COVERAGE_PERCENTAGE + "% of CLOs should be mapped to PLOs")
-                .feedback("Current coverage: " + coveragePercentage + "% (" + mappedClos + "/" + subjectClos.size() + " CLOs mapped)")
+                .feedback("Current coverage: " + coveragePercentage + "% (" + mappedClos + "/" + totalClos + " CLOs mapped)")
                 .weight(3)
                 .build()
         );
         
         if (!passed) {
             result.getErrors().add("CLO-PLO coverage is below required threshold: " + coveragePercentage + "% (required: " + MIN_CLO_COVERAGE_PERCENTAGE + "%)");
-            result.getSuggestions().add("Map " + (subjectClos.size() - mappedClos) + " more CLOs to PLOs to meet the requirement");
+            result.getSuggestions().add("Map " + (totalClos - mappedClos) + " more CLOs to PLOs to meet the requirement");
         }
     }
     
@@ -279,7 +393,7 @@ public class ApprovalValidationService {
     /**
      * Check if prerequisites are valid
      */
-    private void checkPrerequisites(Syllabus syllabus, ApprovalValidationResult result) {
+    private void checkPrerequisites(Syllabus syllabus, ApprovalValidationResult result, ValidationData data) {
         log.debug("Checking prerequisites for syllabus: {}", syllabus.getSyllabusCode());
         
         Subject subject = syllabus.getSubject();
@@ -298,8 +412,8 @@ public class ApprovalValidationService {
             return;
         }
         
-        // Validate prerequisites using PrerequisiteValidatorService
-        var prereqResult = prerequisiteValidator.validatePrerequisites(subject.getId());
+        // Kết quả từ PrerequisiteValidatorService, đã validate theo lô
+        var prereqResult = data.prerequisitesBySubject().get(subject.getId());
         boolean prereqValid = Boolean.TRUE.equals(prereqResult.getIsValid()) && 
                              !Boolean.TRUE.equals(prereqResult.getHasCircularDependency());
         
@@ -24,6 +24,7 @@ public class ApprovalWorkflowService {
     private final SyllabusRepository syllabusRepository;
     private final ApprovalValidationService approvalValidationService;
     private final SyllabusVersionService syllabusVersionService;
+    private final ProgramCoverageStatsService coverageStatsService;
     
     /**
      * Submit syllabus for level 1 approval (Department Head)
@@ -49,6 +50,7 @@ public class ApprovalWorkflowService {
         syllabus.setApprovalStatus("L1_PENDING");
         syllabus.setUpdatedBy(submittedBy);
         syllabusRepository.save(syllabus);
+        coverageStatsService.markStale(syllabus.getSubject());
         
         syllabusVersionService.recordChange(syllabusId, "SUBMIT_L1", 
             "Submitted for level 1 approval", submittedBy);
@@ -79,6 +81,7 @@ public class ApprovalWorkflowService {
         syllabus.setApprovalComments(comments);
         syllabus.setUpdatedBy(approverName);
         syllabusRepository.save(syllabus);
+        coverageStatsService.markStale(syllabus.getSubject());
         
         syllabusVersionService.recordChange(syllabusId, "APPROVE_L1",
             "Level 1 approval: " + comments, approverName);
@@ -102,6 +105,7 @@ public class ApprovalWorkflowService {
         syllabus.setApprovalComments("L1 Rejection: " + reason);
         syllabus.setUpdatedBy(rejectorName);
         syllabusRepository.save(syllabus);
+        coverageStatsService.markStale(syllabus.getSubject());
         
         syllabusVersionService.recordChange(syllabusId, "REJECT_L1",
             "Level 1 rejection: " + reason, rejectorName);
@@ -132,6 +136,7 @@ public class ApprovalWorkflowService {
         syllabus.setApprovalComments(comments);
         syllabus.setUpdatedBy(approverName);
         syllabusRepository.save(syllabus);
+        coverageStatsService.markStale(syllabus.getSubject());
         
         syllabusVersionService.recordChange(syllabusId, "APPROVE_L2",
             "Official approval (Level 2): " + comments, approverName);
@@ -155,6 +160,7 @@ public class ApprovalWorkflowService {
         syllabus.setApprovalComments("L2 Rejection: " + reason);
         syllabus.setUpdatedBy(rejectorName);
         syllabusRepository.save(syllabus);
+        coverageStatsService.markStale(syllabus.getSubject());
         
         syllabusVersionService.recordChange(syllabusId, "REJECT_L2",
             "Level 2 rejection: " + reason, rejectorName);
@@ -24,6 +24,7 @@ public class CloMappingService {
     private final CloMappingRepository cloMappingRepository;
     private final CloRepository cloRepository;
     private final PloRepository ploRepository;
+    private final ProgramCoverageStatsService coverageStatsService;
     
     // Create Mapping
     public CloMappingDto createMapping(CloMappingDto mappingDto, String createdBy) {
@@ -53,6 +54,7 @@ public class CloMappingService {
             .build();
         
         CloMapping savedMapping = cloMappingRepository.save(mapping);
+        coverageStatsService.markStale(clo.getSubject());
         log.info("Mapping created successfully with id: {}", savedMapping.getId());
         return mapToDto(savedMapping);
     }
@@ -138,6 +140,7 @@ public class CloMappingService {
         mapping.setIsActive(false);
         mapping.setUpdatedBy(deletedBy);
         cloMappingRepository.save(mapping);
+        coverageStatsService.markStale(mapping.getClo().getSubject());
         
         log.info("Mapping deleted successfully with id: {}", id);
     }
@@ -28,6 +28,7 @@ public class CloService {
     private final SubjectRepository subjectRepository;
     private final SyllabusRepository syllabusRepository;
     private final CloSyllabusRepository cloSyllabusRepository;
+    private final ProgramCoverageStatsService coverageStatsService;
     
     // Create
     public CloDto createClo(CloDto cloDto, String createdBy) {
@@ -63,6 +64,7 @@ public class CloService {
         
         @SuppressWarnings("null")
         Clo savedClo = cloRepository.save(clo);
+        coverageStatsService.markStale(subject);
         log.info("CLO created successfully with id: {}", savedClo.getId());
         return mapToDto(savedClo);
     }
@@ -118,9 +120,12 @@ public class CloService {
                 .orElseThrow(() -> new RuntimeException("Subject not found with id: " + subjectId));
         }
 
+        Subject previousSubject = clo.getSubject();
         clo.setSubject(subject);
         clo.setUpdatedBy(updatedBy);
         Clo saved = cloRepository.save(clo);
+        coverageStatsService.markStale(previousSubject);
+        coverageStatsService.markStale(subject);
         log.info("CLO {} assigned to subject {}", cloId, subjectId);
         return mapToDto(saved);
     }
@@ -180,6 +185,7 @@ public class CloService {
         clo.setIsActive(false);
         clo.setUpdatedBy(deletedBy);
         cloRepository.save(clo);
+        coverageStatsService.markStale(clo.getSubject());
         
         log.info("CLO deleted successfully with id: {}", id);
     }
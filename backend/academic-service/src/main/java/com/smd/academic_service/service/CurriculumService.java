@@ -3,14 +3,17 @@ package com.smd.academic_service.service;
 import com.smd.academic_service.model.dto.CurriculumTreeDto;
 import com.smd.academic_service.model.entity.Program;
 import com.smd.academic_service.model.entity.Subject;
-import com.smd.academic_service.model.entity.Syllabus;
 import com.smd.academic_service.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,61 +24,82 @@ public class CurriculumService {
     
     private final ProgramRepository programRepository;
     private final SubjectRepository subjectRepository;
-    private final SyllabusRepository syllabusRepository;
-    private final CloRepository cloRepository;
-    private final CloMappingRepository cloMappingRepository;
+    private final CurriculumTreeRepository curriculumTreeRepository;
+    
+    // programId -> cây đã dựng kèm dấu phiên bản lúc dựng
+    private final Map<Long, CachedTree> treeCache = new ConcurrentHashMap<>();
+    
+    private record CachedTree(String version, CurriculumTreeDto tree) {
+    }
     
     /**
      * Lấy cấu trúc chương trình dưới dạng Tree View
      * Program -> Subject -> Syllabus + CLO
+     * Cache theo chương trình; mỗi lần gọi chỉ kiểm tra dấu phiên bản (1 query), dựng lại khi dấu thay đổi
      */
     public CurriculumTreeDto getCurriculumTree(Long programId) {
-        log.debug("Fetching curriculum tree for program id: {}", programId);
+        String version = curriculumTreeRepository.findCurriculumVersion(programId)
+            .orElseThrow(() -> new RuntimeException("Program not found with id: " + programId));
+        
+        CachedTree cached = treeCache.get(programId);
+        if (cached != null && cached.version().equals(version)) {
+            return cached.tree();
+        }
+        
+        CurriculumTreeDto tree = buildCurriculumTree(programId);
+        treeCache.put(programId, new CachedTree(version, tree));
+        return tree;
+    }
+    
+    /**
+     * Dựng cây từ 3 bulk query (subject, syllabus, CLO kèm số PLO đã map) rồi ghép theo subjectId
+     */
+    private CurriculumTreeDto buildCurriculumTree(Long programId) {
+        log.debug("Building curriculum tree for program id: {}", programId);
         
         Program program = programRepository.findById(programId)
             .orElseThrow(() -> new RuntimeException("Program not found with id: " + programId));
         
         List<Subject> subjects = subjectRepository.findActiveSubjectsByProgramId(programId);
+        List<Long> subjectIds = subjects.stream().map(Subject::getId).collect(Collectors.toList());
         
-        List<CurriculumTreeDto.SubjectNodeDto> subjectNodes = subjects.stream()
-            .map(subject -> {
-                List<Syllabus> syllabuses = syllabusRepository.findActiveSyllabusesBySubjectId(subject.getId());
-                List<CurriculumTreeDto.SyllabusNodeDto> syllabusNodes = syllabuses.stream()
-                    .map(s -> CurriculumTreeDto.SyllabusNodeDto.builder()
-                        .syllabusId(s.getId())
+        Map<Long, List<CurriculumTreeDto.SyllabusNodeDto>> syllabusesBySubject = new HashMap<>();
+        Map<Long, List<CurriculumTreeDto.CloNodeDto>> closBySubject = new HashMap<>();
+        if (!subjectIds.isEmpty()) {
+            for (CurriculumTreeRepository.SyllabusNodeRow s : curriculumTreeRepository.findSyllabusNodes(subjectIds)) {
+                syllabusesBySubject.computeIfAbsent(s.getSubjectId(), id -> new ArrayList<>())
+                    .add(CurriculumTreeDto.SyllabusNodeDto.builder()
+                        .syllabusId(s.getSyllabusId())
                         .syllabusCode(s.getSyllabusCode())
                         .version(s.getVersion())
                         .academicYear(s.getAcademicYear())
                         .status(s.getStatus())
                         .approvalStatus(s.getApprovalStatus())
-                        .build())
-                    .collect(Collectors.toList());
-                
-                var clos = cloRepository.findActiveClosBySubjectId(subject.getId());
-                List<CurriculumTreeDto.CloNodeDto> cloNodes = clos.stream()
-                    .map(clo -> {
-                        Long mappedPlosCount = cloMappingRepository.countMappedPlosByCloId(clo.getId());
-                        return CurriculumTreeDto.CloNodeDto.builder()
-                            .cloId(clo.getId())
-                            .cloCode(clo.getCloCode())
-                            .cloName(clo.getCloName())
-                            .bloomLevel(clo.getBloomLevel())
-                            .mappedPlos(mappedPlosCount.intValue())
-                            .build();
-                    })
-                    .collect(Collectors.toList());
-                
-                return CurriculumTreeDto.SubjectNodeDto.builder()
-                    .subjectId(subject.getId())
-                    .subjectCode(subject.getSubjectCode())
-                    .subjectName(subject.getSubjectName())
-                    .credits(subject.getCredits())
-                    .semester(subject.getSemester())
-                    .subjectType(subject.getSubjectType())
-                    .syllabuses(syllabusNodes)
-                    .clos(cloNodes)
-                    .build();
-            })
+                        .build());
+            }
+            for (CurriculumTreeRepository.CloNodeRow clo : curriculumTreeRepository.findCloNodes(subjectIds)) {
+                closBySubject.computeIfAbsent(clo.getSubjectId(), id -> new ArrayList<>())
+                    .add(CurriculumTreeDto.CloNodeDto.builder()
+                        .cloId(clo.getCloId())
+                        .cloCode(clo.getCloCode())
+                        .cloName(clo.getCloName())
+                        .bloomLevel(clo.getBloomLevel())
+                        .mappedPlos(clo.getMappedPlos().intValue())
+                        .build());
+            }
+        }
+        
+        List<CurriculumTreeDto.SubjectNodeDto> subjectNodes = subjects.stream()
+            .map(subject -> CurriculumTreeDto.SubjectNodeDto.builder()
+                .subjectId(subject.getId())
+                .subjectCode(subject.getSubjectCode())
+                .subjectName(subject.getSubjectName())
+                .credits(subject.getCredits())
+                .semester(subject.getSemester())
+                .subjectType(subject.getSubjectType())
+                .syllabuses(syllabusesBySubject.getOrDefault(subject.getId(), new ArrayList<>()))
+                .clos(closBySubject.getOrDefault(subject.getId(), new ArrayList<>()))
+                .build())
             .collect(Collectors.toList());
         
         return CurriculumTreeDto.builder()
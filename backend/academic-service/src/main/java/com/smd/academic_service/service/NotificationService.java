@@ -1,14 +1,20 @@
 package com.smd.academic_service.service;
 
+import com.smd.academic_service.exception.ResourceNotFoundException;
+import com.smd.academic_service.exception.ValidationException;
+import com.smd.academic_service.model.entity.InboxNotification;
 import com.smd.academic_service.model.entity.Syllabus;
+import com.smd.academic_service.repository.InboxNotificationRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -16,15 +22,30 @@ import java.util.stream.Collectors;
  * - Khi Giáo trình được nộp lên
  * - Khi Giáo trình được phê duyệt/từ chối
  * - Khi kết thúc giai đoạn đánh giá
+ *
+ * Thông báo được lưu trong bảng notification_inbox (mỗi vai trò nhận một dòng), đọc theo trang keyset
+ * và được xoá sau thời hạn lưu giữ nên bộ nhớ không tăng theo số thông báo.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class NotificationService {
     
-    // In-memory notification store (nên thay thế bằng database hoặc message queue)
-    private final Map<String, List<Notification>> notificationStore = new ConcurrentHashMap<>();
-    private final Map<String, Notification> notificationDetails = new ConcurrentHashMap<>();
+    private static final int MAX_PAGE_SIZE = 200;
+    
+    private final InboxNotificationRepository inboxRepository;
+    
+    @Value("${smd.notification.page-size:50}")
+    private int defaultPageSize;
+    
+    @Value("${smd.notification.read-ttl-days:30}")
+    private int readTtlDays;
+    
+    @Value("${smd.notification.unread-ttl-days:180}")
+    private int unreadTtlDays;
+    
+    @Value("${smd.notification.prune-batch-size:1000}")
+    private int pruneBatchSize;
     
     /**
      * Send notification khi Giáo trình được nộp
@@ -34,7 +55,6 @@ public class NotificationService {
         log.info("Sending syllabus submitted notification for: {}", syllabus.getSyllabusCode());
         
         Notification notification = Notification.builder()
-            .id(UUID.randomUUID().toString())
             .type("SYLLABUS_SUBMITTED")
             .title("Giáo trình được nộp")
             .message(String.format("Giáo trình %s (%s) đã được nộp bởi %s", 
@@ -44,8 +64,6 @@ public class NotificationService {
             .syllabusId(syllabus.getId())
             .syllabusCode(syllabus.getSyllabusCode())
             .priority("HIGH")
-            .status("UNREAD")
-            .createdAt(LocalDateTime.now())
             .recipientRole("DEPARTMENT_HEAD") // Gửi đến Trưởng Khoa
             .build();
         
@@ -61,7 +79,6 @@ public class NotificationService {
         log.info("Sending level 1 approval notification for: {}", syllabus.getSyllabusCode());
         
         Notification notification = Notification.builder()
-            .id(UUID.randomUUID().toString())
             .type("SYLLABUS_APPROVED_L1")
             .title("Giáo trình được phê duyệt cấp 1")
             .message(String.format("Giáo trình %s đã được phê duyệt cấp 1 bởi %s", 
@@ -69,8 +86,6 @@ public class NotificationService {
             .syllabusId(syllabus.getId())
             .syllabusCode(syllabus.getSyllabusCode())
             .priority("MEDIUM")
-            .status("UNREAD")
-            .createdAt(LocalDateTime.now())
             .recipientRole("TRAINING_DEPARTMENT") // Gửi đến Phòng Đào tạo
             .build();
         
@@ -86,7 +101,6 @@ public class NotificationService {
         log.info("Sending level 2 official approval notification for: {}", syllabus.getSyllabusCode());
         
         Notification notification = Notification.builder()
-            .id(UUID.randomUUID().toString())
             .type("SYLLABUS_APPROVED_L2")
             .title("Giáo trình được phê duyệt chính thức")
             .message(String.format("Giáo trình %s đã được phê duyệt chính thức bởi %s. Giáo trình này đã sẵn sàng để công bố", 
@@ -94,8 +108,6 @@ public class NotificationService {
             .syllabusId(syllabus.getId())
             .syllabusCode(syllabus.getSyllabusCode())
             .priority("HIGH")
-            .status("UNREAD")
-            .createdAt(LocalDateTime.now())
             .recipientRole("LECTURER,DEPARTMENT_HEAD") // Gửi đến Giảng viên và Trưởng Khoa
             .build();
         
@@ -111,7 +123,6 @@ public class NotificationService {
         log.info("Sending rejection notification for: {}", syllabus.getSyllabusCode());
         
         Notification notification = Notification.builder()
-            .id(UUID.randomUUID().toString())
             .type("SYLLABUS_REJECTED")
             .title(String.format("Giáo trình bị từ chối (Cấp %s)", level))
             .message(String.format("Giáo trình %s bị từ chối bởi %s. Lý do: %s", 
@@ -119,8 +130,6 @@ public class NotificationService {
             .syllabusId(syllabus.getId())
             .syllabusCode(syllabus.getSyllabusCode())
             .priority("HIGH")
-            .status("UNREAD")
-            .createdAt(LocalDateTime.now())
             .recipientRole("LECTURER") // Gửi đến Giảng viên
             .build();
         
@@ -136,14 +145,11 @@ public class NotificationService {
         log.info("Sending review period end notification for {}-{}", academicYear, semester);
         
         Notification notification = Notification.builder()
-            .id(UUID.randomUUID().toString())
             .type("REVIEW_PERIOD_ENDED")
             .title("Kết thúc đợt đánh giá hợp tác")
             .message(String.format("Đợt đánh giá hợp tác cho năm học %s kì %s đã kết thúc", 
                 academicYear, semester))
             .priority("MEDIUM")
-            .status("UNREAD")
-            .createdAt(LocalDateTime.now())
             .recipientRole("DEPARTMENT_HEAD,TRAINING_DEPARTMENT")
             .build();
         
@@ -152,61 +158,195 @@ public class NotificationService {
     }
     
     /**
-     * Lấy danh sách thông báo cho một người dùng
+     * Lấy trang đầu danh sách thông báo cho một người dùng
      */
+    @Transactional(readOnly = true)
     public List<Notification> getUserNotifications(String userId, String role) {
+        return getUserNotifications(userId, role, null, null, defaultPageSize);
+    }
+    
+    /**
+     * Lấy một trang thông báo (mới nhất trước). Trang tiếp theo truyền createdAt và id
+     * của phần tử cuối trang hiện tại; cả hai null nghĩa là trang đầu.
+     */
+    @Transactional(readOnly = true)
+    public List<Notification> getUserNotifications(String userId, String role,
+                                                   LocalDateTime beforeCreatedAt, Long beforeId, int limit) {
         log.debug("Fetching notifications for user: {} with role: {}", userId, role);
         
-        return notificationStore.getOrDefault(userId, new ArrayList<>()).stream()
-            .filter(n -> n.getRecipientRole() == null || 
-                        n.getRecipientRole().contains(role))
-            .sorted(Comparator.comparing(Notification::getCreatedAt).reversed())
+        Cursor cursor = Cursor.of(beforeCreatedAt, beforeId);
+        return inboxRepository.findPage(requireRole(role), cursor.createdAt(), cursor.id(), page(limit))
+            .stream()
+            .map(this::toNotification)
             .collect(Collectors.toList());
     }
     
     /**
-     * Lấy danh sách thông báo chưa đọc
+     * Lấy trang đầu danh sách thông báo chưa đọc
      */
+    @Transactional(readOnly = true)
     public List<Notification> getUnreadNotifications(String userId, String role) {
+        return getUnreadNotifications(userId, role, null, null, defaultPageSize);
+    }
+    
+    /**
+     * Lấy một trang thông báo chưa đọc, phân trang như getUserNotifications
+     */
+    @Transactional(readOnly = true)
+    public List<Notification> getUnreadNotifications(String userId, String role,
+                                                     LocalDateTime beforeCreatedAt, Long beforeId, int limit) {
         log.debug("Fetching unread notifications for user: {}", userId);
         
-        return getUserNotifications(userId, role).stream()
-            .filter(n -> "UNREAD".equals(n.getStatus()))
+        Cursor cursor = Cursor.of(beforeCreatedAt, beforeId);
+        return inboxRepository.findPageByStatus(requireRole(role), InboxNotification.STATUS_UNREAD,
+                cursor.createdAt(), cursor.id(), page(limit))
+            .stream()
+            .map(this::toNotification)
             .collect(Collectors.toList());
     }
     
+    /**
+     * Đếm số thông báo chưa đọc (badge)
+     */
+    @Transactional(readOnly = true)
+    public long countUnreadNotifications(String role) {
+        return inboxRepository.countByRecipientAndStatus(requireRole(role), InboxNotification.STATUS_UNREAD);
+    }
+    
     /**
      * Đánh dấu thông báo là đã đọc
      */
     @Transactional
-    public void markAsRead(String notificationId, String userId) {
+    public void markAsRead(Long notificationId, String userId, String role) {
         log.debug("Marking notification {} as read for user: {}", notificationId, userId);
         
-        Notification notification = notificationDetails.get(notificationId);
-        if (notification != null) {
-            notification.setStatus("READ");
-            notification.setReadAt(LocalDateTime.now());
+        markAsRead(List.of(notificationId), userId, role);
+    }
+    
+    /**
+     * Đánh dấu nhiều thông báo là đã đọc bằng một câu UPDATE
+     * @return số thông báo chuyển từ UNREAD sang READ
+     */
+    @Transactional
+    public int markAsRead(Collection<Long> notificationIds, String userId, String role) {
+        if (notificationIds == null || notificationIds.isEmpty()) {
+            return 0;
         }
+        int updated = inboxRepository.markRead(notificationIds, requireRole(role), LocalDateTime.now());
+        log.debug("Marked {} notification(s) as read for user: {}", updated, userId);
+        return updated;
+    }
+    
+    /**
+     * Đánh dấu toàn bộ hộp thư của vai trò là đã đọc
+     */
+    @Transactional
+    public int markAllAsRead(String userId, String role) {
+        int updated = inboxRepository.markAllRead(requireRole(role), LocalDateTime.now());
+        log.debug("Marked all {} notification(s) as read for user: {}", updated, userId);
+        return updated;
     }
     
     /**
      * Xóa thông báo
      */
     @Transactional
-    public void deleteNotification(String notificationId, String userId) {
+    public void deleteNotification(Long notificationId, String userId, String role) {
         log.debug("Deleting notification: {}", notificationId);
         
-        notificationStore.values().forEach(list -> list.removeIf(n -> n.getId().equals(notificationId)));
-        notificationDetails.remove(notificationId);
+        if (inboxRepository.deleteByIdAndRecipient(notificationId, requireRole(role)) == 0) {
+            throw new ResourceNotFoundException("Notification not found with id: " + notificationId);
+        }
     }
     
     /**
-     * Helper method để lưu thông báo
+     * Xoá thông báo hết hạn theo từng lô: đã đọc quá readTtlDays kể từ lúc đọc, hoặc bất kỳ thông báo nào tạo quá unreadTtlDays
+     */
+    @Scheduled(fixedDelayString = "${smd.notification.prune-fixed-delay-ms:3600000}",
+               initialDelayString = "${smd.notification.prune-initial-delay-ms:300000}")
+    @Transactional
+    public void pruneExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime readCutoff = now.minusDays(readTtlDays);
+        LocalDateTime unreadCutoff = now.minusDays(unreadTtlDays);
+        
+        int total = 0;
+        int deleted;
+        do {
+            deleted = inboxRepository.deleteExpired(readCutoff, unreadCutoff, pruneBatchSize);
+            total += deleted;
+        } while (deleted == pruneBatchSize);
+        
+        if (total > 0) {
+            log.info("Pruned {} expired notification(s)", total);
+        }
+    }
+    
+    /**
+     * Helper method để lưu thông báo: mỗi vai trò nhận một dòng
      */
     private void storeNotification(Notification notification) {
-        String key = notification.getRecipientRole();
-        notificationStore.computeIfAbsent(key, k -> new ArrayList<>()).add(notification);
-        notificationDetails.put(notification.getId(), notification);
+        List<InboxNotification> rows = Arrays.stream(notification.getRecipientRole().split(","))
+            .map(String::trim)
+            .filter(role -> !role.isEmpty())
+            .distinct()
+            .map(role -> InboxNotification.builder()
+                .recipient(role)
+                .type(notification.getType())
+                .title(notification.getTitle())
+                .message(notification.getMessage())
+                .syllabusId(notification.getSyllabusId())
+                .syllabusCode(notification.getSyllabusCode())
+                .priority(notification.getPriority())
+                .status(InboxNotification.STATUS_UNREAD)
+                .build())
+            .collect(Collectors.toList());
+        
+        List<InboxNotification> saved = inboxRepository.saveAll(rows);
+        if (!saved.isEmpty()) {
+            notification.setId(saved.get(0).getId());
+            notification.setStatus(saved.get(0).getStatus());
+            notification.setCreatedAt(saved.get(0).getCreatedAt());
+        }
+    }
+    
+    private Notification toNotification(InboxNotification row) {
+        return Notification.builder()
+            .id(row.getId())
+            .type(row.getType())
+            .title(row.getTitle())
+            .message(row.getMessage())
+            .syllabusId(row.getSyllabusId())
+            .syllabusCode(row.getSyllabusCode())
+            .priority(row.getPriority())
+            .status(row.getStatus())
+            .recipientRole(row.getRecipient())
+            .createdAt(row.getCreatedAt())
+            .readAt(row.getReadAt())
+            .build();
+    }
+    
+    private String requireRole(String role) {
+        if (role == null || role.isBlank()) {
+            throw new ValidationException("role", role, "Recipient role is required");
+        }
+        return role.trim();
+    }
+    
+    private PageRequest page(int limit) {
+        return PageRequest.of(0, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+    }
+    
+    /**
+     * Vị trí bắt đầu của trang keyset; trang đầu dùng giá trị lớn hơn mọi dòng
+     */
+    private record Cursor(LocalDateTime createdAt, Long id) {
+        static Cursor of(LocalDateTime beforeCreatedAt, Long beforeId) {
+            if (beforeCreatedAt == null || beforeId == null) {
+                return new Cursor(LocalDateTime.of(9999, 12, 31, 0, 0), Long.MAX_VALUE);
+            }
+            return new Cursor(beforeCreatedAt, beforeId);
+        }
     }
     
     /**
@@ -218,14 +358,14 @@ public class NotificationService {
     }
     
     /**
-     * Entity for Notification
+     * View của một thông báo trong hộp thư
      */
     @lombok.Data
     @lombok.NoArgsConstructor
     @lombok.AllArgsConstructor
     @lombok.Builder
     public static class Notification {
-        private String id;
+        private Long id;
         private String type;              // SYLLABUS_SUBMITTED, SYLLABUS_APPROVED_L1, SYLLABUS_APPROVED_L2, SYLLABUS_REJECTED, REVIEW_PERIOD_ENDED
         private String title;
         private String message;
@@ -22,6 +22,7 @@ public class PloService {
     
     private final PloRepository ploRepository;
     private final ProgramRepository programRepository;
+    private final ProgramCoverageStatsService coverageStatsService;
     
     // Create
     public PloDto createPlo(PloDto ploDto, String createdBy) {
@@ -43,6 +44,7 @@ public class PloService {
             .build();
         
         Plo savedPlo = ploRepository.save(plo);
+        coverageStatsService.markStale(program.getId());
         log.info("PLO created successfully with id: {}", savedPlo.getId());
         return mapToDto(savedPlo);
     }
@@ -123,6 +125,7 @@ public class PloService {
         plo.setIsActive(false);
         plo.setUpdatedBy(deletedBy);
         ploRepository.save(plo);
+        coverageStatsService.markStale(plo.getProgram().getId());
         
         log.info("PLO deleted successfully with id: {}", id);
     }
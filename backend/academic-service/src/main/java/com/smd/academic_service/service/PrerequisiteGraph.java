@@ -0,0 +1,425 @@
+package com.smd.academic_service.service;
+
+import com.smd.academic_service.model.dto.PrerequisiteValidationResult.PrerequisiteChainDto;
+import com.smd.academic_service.model.entity.Subject;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Đồ thị tiên quyết của một chương trình đào tạo, dựng một lần từ dữ liệu môn học rồi dùng lại.
+ * Node được đánh số nguyên: [0, programSize) là môn của chương trình, phần sau là các môn tiên quyết
+ * thuộc chương trình khác. Cạnh v -> w nghĩa là w là tiên quyết của v.
+ * Thành phần liên thông mạnh (Tarjan) được tính khi dựng; cây tiên quyết của các node không dẫn tới
+ * chu trình được memo theo (node, depth). Các DTO trả ra dùng chung giữa các lần gọi, chỉ đọc.
+ */
+final class PrerequisiteGraph {
+
+    static final int MAX_CHAIN_DEPTH = 10;
+
+    private final Long programId;
+    private final int programSize;
+    private final long[] ids;
+    private final String[] codes;
+    private final String[] names;
+    private final int[][] prerequisites;
+    private final String[][] missingCodes;
+    private final boolean[] declaresPrerequisites;
+    private final Map<Long, Integer> nodeById;
+    private final Set<String> referencedCodes;
+
+    private final int[] component;
+    private final boolean[] cyclicComponent;
+    private final boolean[] reachesCycle;
+
+    private final Map<Integer, PrerequisiteChainDto> chainMemo = new ConcurrentHashMap<>();
+
+    private PrerequisiteGraph(Long programId, int programSize, List<Subject> nodes, List<List<String>> declared,
+                              Map<String, Integer> indexByCode) {
+        int n = nodes.size();
+        this.programId = programId;
+        this.programSize = programSize;
+        this.ids = new long[n];
+        this.codes = new String[n];
+        this.names = new String[n];
+        this.prerequisites = new int[n][];
+        this.missingCodes = new String[n][];
+        this.declaresPrerequisites = new boolean[n];
+        this.nodeById = new HashMap<>(n * 2);
+        this.referencedCodes = new HashSet<>(indexByCode.keySet());
+
+        for (int v = 0; v < n; v++) {
+            Subject s = nodes.get(v);
+            ids[v] = s.getId();
+            codes[v] = s.getSubjectCode();
+            names[v] = s.getSubjectName();
+            nodeById.put(s.getId(), v);
+
+            List<String> declaredCodes = declared.get(v);
+            declaresPrerequisites[v] = !declaredCodes.isEmpty();
+            referencedCodes.addAll(declaredCodes);
+
+            int[] edges = new int[declaredCodes.size()];
+            List<String> missing = new ArrayList<>();
+            int count = 0;
+            for (String code : declaredCodes) {
+                Integer w = indexByCode.get(code);
+                if (w == null) {
+                    missing.add(code);
+                } else {
+                    edges[count++] = w;
+                }
+            }
+            prerequisites[v] = Arrays.copyOf(edges, count);
+            missingCodes[v] = missing.toArray(new String[0]);
+        }
+
+        this.component = new int[n];
+        int componentCount = tarjan();
+        this.cyclicComponent = new boolean[componentCount];
+        this.reachesCycle = new boolean[n];
+        markCycles(componentCount);
+    }
+
+    /**
+     * Dựng đồ thị cho các môn của chương trình từ bảng subject_prerequisite.
+     * Mã tiên quyết không thuộc chương trình được nạp theo lô qua subjectLoader cho tới khi
+     * không còn mã mới (thường chỉ thêm 0-1 vòng)
+     * @param codeLoader subjectId -> mã tiên quyết theo thứ tự khai báo, cho một lô môn học
+     */
+    static PrerequisiteGraph build(Long programId, List<Subject> programSubjects,
+                                   Function<Collection<Long>, Map<Long, List<String>>> codeLoader,
+                                   Function<Collection<String>, List<Subject>> subjectLoader) {
+        List<Subject> nodes = new ArrayList<>(programSubjects);
+        List<List<String>> declared = new ArrayList<>(nodes.size());
+        Map<String, Integer> indexByCode = new HashMap<>(nodes.size() * 2);
+        for (int i = 0; i < nodes.size(); i++) {
+            indexByCode.putIfAbsent(nodes.get(i).getSubjectCode(), i);
+        }
+        addDeclaredCodes(declared, nodes, codeLoader);
+        int programSize = nodes.size();
+
+        Set<String> requested = new HashSet<>(indexByCode.keySet());
+        int scanned = 0;
+        while (true) {
+            Set<String> unresolved = new LinkedHashSet<>();
+            for (int i = scanned; i < nodes.size(); i++) {
+                for (String code : declared.get(i)) {
+                    if (!indexByCode.containsKey(code) && requested.add(code)) {
+                        unresolved.add(code);
+                    }
+                }
+            }
+            scanned = nodes.size();
+            if (unresolved.isEmpty()) {
+                break;
+            }
+            List<Subject> found = new ArrayList<>(subjectLoader.apply(unresolved));
+            found.sort(Comparator.comparing(Subject::getId));
+            for (Subject s : found) {
+                if (indexByCode.putIfAbsent(s.getSubjectCode(), nodes.size()) == null) {
+                    nodes.add(s);
+                }
+            }
+            addDeclaredCodes(declared, nodes, codeLoader);
+        }
+
+        return new PrerequisiteGraph(programId, programSize, nodes, declared, indexByCode);
+    }
+
+    private static void addDeclaredCodes(List<List<String>> declared, List<Subject> nodes,
+                                         Function<Collection<Long>, Map<Long, List<String>>> codeLoader) {
+        if (declared.size() == nodes.size()) {
+            return;
+        }
+        List<Subject> pending = nodes.subList(declared.size(), nodes.size());
+        List<Long> ids = new ArrayList<>(pending.size());
+        for (Subject s : pending) {
+            ids.add(s.getId());
+        }
+        Map<Long, List<String>> codesById = codeLoader.apply(ids);
+        for (Subject s : pending) {
+            declared.add(codesById.getOrDefault(s.getId(), Collections.emptyList()));
+        }
+    }
+
+    Long programId() {
+        return programId;
+    }
+
+    int programSize() {
+        return programSize;
+    }
+
+    /**
+     * Node của môn học, -1 nếu môn không có trong đồ thị
+     */
+    int nodeOf(Long subjectId) {
+        Integer v = nodeById.get(subjectId);
+        return v == null ? -1 : v;
+    }
+
+    long id(int v) {
+        return ids[v];
+    }
+
+    String code(int v) {
+        return codes[v];
+    }
+
+    String name(int v) {
+        return names[v];
+    }
+
+    boolean declaresPrerequisites(int v) {
+        return declaresPrerequisites[v];
+    }
+
+    int[] prerequisites(int v) {
+        return prerequisites[v];
+    }
+
+    List<String> missingPrerequisites(int v) {
+        return Arrays.asList(missingCodes[v]);
+    }
+
+    /**
+     * Mã môn có xuất hiện trong đồ thị (là node hoặc được khai báo làm tiên quyết) hay không
+     */
+    boolean references(String code) {
+        return code != null && referencedCodes.contains(code);
+    }
+
+    /**
+     * Có chu trình nào đi được tới từ v (kể cả chu trình chứa v)
+     */
+    boolean hasCircularDependency(int v) {
+        return reachesCycle[v];
+    }
+
+    /**
+     * Đường đi từ v tới chu trình gần nhất, khép lại bằng chính chu trình đó (ví dụ A, B, C, B)
+     */
+    List<String> circularDependencyChain(int v) {
+        if (!reachesCycle[v]) {
+            return new ArrayList<>();
+        }
+
+        // BFS trong vùng các node dẫn tới chu trình, dừng ở node đầu tiên nằm trong SCC có chu trình
+        int[] parent = new int[codes.length];
+        Arrays.fill(parent, -2);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(v);
+        parent[v] = -1;
+        int entry = -1;
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            if (cyclicComponent[component[u]]) {
+                entry = u;
+                break;
+            }
+            for (int w : prerequisites[u]) {
+                if (parent[w] == -2 && reachesCycle[w]) {
+                    parent[w] = u;
+                    queue.add(w);
+                }
+            }
+        }
+
+        LinkedList<String> chain = new LinkedList<>();
+        for (int u = entry; u != -1; u = parent[u]) {
+            chain.addFirst(codes[u]);
+        }
+
+        // BFS trong SCC của entry để tìm đường quay lại entry
+        Arrays.fill(parent, -2);
+        queue.clear();
+        int closing = -1;
+        for (int w : prerequisites[entry]) {
+            if (w == entry) {
+                closing = entry;
+                break;
+            }
+            if (component[w] == component[entry] && parent[w] == -2) {
+                parent[w] = entry;
+                queue.add(w);
+            }
+        }
+        while (closing == -1 && !queue.isEmpty()) {
+            int u = queue.poll();
+            for (int w : prerequisites[u]) {
+                if (w == entry) {
+                    closing = u;
+                    break;
+                }
+                if (component[w] == component[entry] && parent[w] == -2) {
+                    parent[w] = u;
+                    queue.add(w);
+                }
+            }
+        }
+
+        LinkedList<String> cycle = new LinkedList<>();
+        for (int u = closing; u != entry; u = parent[u]) {
+            cycle.addFirst(codes[u]);
+        }
+        cycle.addLast(codes[entry]);
+        chain.addAll(cycle);
+        return chain;
+    }
+
+    /**
+     * Cây tiên quyết của các môn tiên quyết trực tiếp của v (depth bắt đầu từ 1)
+     */
+    List<PrerequisiteChainDto> prerequisiteChain(int v) {
+        List<PrerequisiteChainDto> chain = new ArrayList<>(prerequisites[v].length);
+        for (int w : prerequisites[v]) {
+            chain.add(chainOf(w, 1, new HashSet<>()));
+        }
+        return chain;
+    }
+
+    // Helper methods
+    private PrerequisiteChainDto chainOf(int v, int depth, Set<Integer> visited) {
+        if (depth > MAX_CHAIN_DEPTH || visited.contains(v)) {
+            return chainNode(v, depth, new ArrayList<>());
+        }
+
+        // Không có chu trình phía dưới thì visited không ảnh hưởng kết quả: cây chỉ phụ thuộc (v, depth)
+        Integer key = null;
+        if (!reachesCycle[v]) {
+            key = v * (MAX_CHAIN_DEPTH + 1) + depth;
+            PrerequisiteChainDto cached = chainMemo.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        visited.add(v);
+        List<PrerequisiteChainDto> children = new ArrayList<>(prerequisites[v].length);
+        for (int w : prerequisites[v]) {
+            children.add(chainOf(w, depth + 1, new HashSet<>(visited)));
+        }
+        PrerequisiteChainDto dto = chainNode(v, depth, children);
+
+        if (key != null) {
+            PrerequisiteChainDto existing = chainMemo.putIfAbsent(key, dto);
+            return existing != null ? existing : dto;
+        }
+        return dto;
+    }
+
+    private PrerequisiteChainDto chainNode(int v, int depth, List<PrerequisiteChainDto> children) {
+        return PrerequisiteChainDto.builder()
+            .subjectId(ids[v])
+            .subjectCode(codes[v])
+            .subjectName(names[v])
+            .depth(depth)
+            .prerequisites(children)
+            .build();
+    }
+
+    /**
+     * Tarjan SCC (lặp, không đệ quy). Thành phần được đánh số theo thứ tự hoàn tất,
+     * tức là mọi thành phần đi tới được từ thành phần c đều có số nhỏ hơn c.
+     */
+    private int tarjan() {
+        int n = codes.length;
+        int[] index = new int[n];
+        int[] low = new int[n];
+        int[] edge = new int[n];
+        boolean[] onStack = new boolean[n];
+        int[] stack = new int[n];
+        int[] calls = new int[n];
+        Arrays.fill(index, -1);
+
+        int counter = 0;
+        int sp = 0;
+        int componentCount = 0;
+        for (int root = 0; root < n; root++) {
+            if (index[root] != -1) {
+                continue;
+            }
+            int top = 0;
+            calls[0] = root;
+            index[root] = low[root] = counter++;
+            stack[sp++] = root;
+            onStack[root] = true;
+
+            while (top >= 0) {
+                int v = calls[top];
+                if (edge[v] < prerequisites[v].length) {
+                    int w = prerequisites[v][edge[v]++];
+                    if (index[w] == -1) {
+                        index[w] = low[w] = counter++;
+                        stack[sp++] = w;
+                        onStack[w] = true;
+                        calls[++top] = w;
+                    } else if (onStack[w]) {
+                        low[v] = Math.min(low[v], index[w]);
+                    }
+                    continue;
+                }
+
+                top--;
+                if (top >= 0) {
+                    int u = calls[top];
+                    low[u] = Math.min(low[u], low[v]);
+                }
+                if (low[v] == index[v]) {
+                    int w;
+                    do {
+                        w = stack[--sp];
+                        onStack[w] = false;
+                        component[w] = componentCount;
+                    } while (w != v);
+                    componentCount++;
+                }
+            }
+        }
+        return componentCount;
+    }
+
+    private void markCycles(int componentCount) {
+        int n = codes.length;
+        int[] componentSize = new int[componentCount];
+        for (int v = 0; v < n; v++) {
+            componentSize[component[v]]++;
+        }
+        for (int v = 0; v < n; v++) {
+            if (componentSize[component[v]] > 1) {
+                cyclicComponent[component[v]] = true;
+            }
+            for (int w : prerequisites[v]) {
+                if (w == v) {
+                    cyclicComponent[component[v]] = true;
+                }
+            }
+        }
+
+        // Duyệt thành phần theo thứ tự tăng dần: các thành phần phía dưới luôn đã được tính trước
+        Integer[] order = new Integer[n];
+        for (int v = 0; v < n; v++) {
+            order[v] = v;
+        }
+        Arrays.sort(order, Comparator.comparingInt(v -> component[v]));
+        boolean[] componentReaches = new boolean[componentCount];
+        for (int v : order) {
+            int c = component[v];
+            if (cyclicComponent[c]) {
+                componentReaches[c] = true;
+                continue;
+            }
+            for (int w : prerequisites[v]) {
+                if (componentReaches[component[w]]) {
+                    componentReaches[c] = true;
+                    break;
+                }
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            reachesCycle[v] = componentReaches[component[v]];
+        }
+    }
+}
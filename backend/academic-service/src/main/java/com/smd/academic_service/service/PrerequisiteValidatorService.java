@@ -2,18 +2,27 @@ package com.smd.academic_service.service;
 
 import com.smd.academic_service.model.dto.PrerequisiteValidationResult;
 import com.smd.academic_service.model.entity.Subject;
+import com.smd.academic_service.model.entity.SubjectPrerequisite;
+import com.smd.academic_service.repository.SubjectPrerequisiteRepository;
 import com.smd.academic_service.repository.SubjectRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
  * Service để validate prerequisite (tiên quyết) và corequisite (đồng tiên quyết) của môn học
  * Kiểm tra circular dependencies, prerequisite chains, và validation rules
+ * Mỗi chương trình có một PrerequisiteGraph dựng từ một truy vấn và được cache tới khi môn học thay đổi
  */
 @Service
 @RequiredArgsConstructor
@@ -22,6 +31,12 @@ import java.util.stream.Collectors;
 public class PrerequisiteValidatorService {
     
     private final SubjectRepository subjectRepository;
+    private final SubjectPrerequisiteRepository prerequisiteRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    // programId -> đồ thị tiên quyết; dọn khi SubjectService thay đổi môn học
+    private final Map<Long, PrerequisiteGraph> graphs = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
     
     /**
      * Validate prerequisite chain của một môn học
@@ -35,87 +50,53 @@ public class PrerequisiteValidatorService {
             .orElseThrow(() -> new com.smd.academic_service.exception.ResourceNotFoundException(
                 "Subject not found with id: " + subjectId));
         
-        PrerequisiteValidationResult result = PrerequisiteValidationResult.builder()
-            .subjectId(subject.getId())
-            .subjectCode(subject.getSubjectCode())
-            .subjectName(subject.getSubjectName())
-            .validationErrors(new ArrayList<>())
-            .warnings(new ArrayList<>())
-            .suggestions(new ArrayList<>())
-            .prerequisiteChain(new ArrayList<>())
-            .hasCircularDependency(false)
-            .circularDependencyChain(new ArrayList<>())
-            .build();
-        
         try {
-            // 1. Check if prerequisites field is empty
-            if (subject.getPrerequisites() == null || subject.getPrerequisites().trim().isEmpty()) {
-                result.setMessage("No prerequisites defined");
-                result.setIsValid(true);
-                return result;
-            }
-            
-            // 2. Parse prerequisites (expected format: "CS101,CS102" or "CS101;CS102")
-            List<String> prerequisiteCodes = parsePrerequisiteString(subject.getPrerequisites());
-            
-            // 3. Validate each prerequisite exists
-            List<Subject> prerequisiteSubjects = new ArrayList<>();
-            for (String code : prerequisiteCodes) {
-                Subject prereqSubject = subjectRepository.findBySubjectCodeAndIsActiveTrue(code)
-                    .orElse(null);
-                
-                if (prereqSubject == null) {
-                    result.getValidationErrors().add("Prerequisite subject not found: " + code);
-                } else {
-                    prerequisiteSubjects.add(prereqSubject);
-                }
-            }
-            
-            // 4. Check for circular dependencies
-            Set<Long> visited = new HashSet<>();
-            List<Long> recursionStack = new ArrayList<>();
-            boolean hasCircular = detectCircularDependency(subject.getId(), visited, recursionStack);
-            
-            if (hasCircular) {
-                result.setHasCircularDependency(true);
-                result.getValidationErrors().add("Circular dependency detected in prerequisite chain");
-                result.getCircularDependencyChain().addAll(
-                    recursionStack.stream()
-                        .map(id -> subjectRepository.findById(id)
-                            .map(s -> s.getSubjectCode())
-                            .orElse("UNKNOWN"))
-                        .collect(Collectors.toList())
-                );
-            }
-            
-            // 5. Build prerequisite chain tree
-            List<PrerequisiteValidationResult.PrerequisiteChainDto> chainDtos = prerequisiteSubjects.stream()
-                .map(preq -> buildPrerequisiteChain(preq, 1, new HashSet<>()))
-                .collect(Collectors.toList());
-            result.setPrerequisiteChain(chainDtos);
-            
-            // 6. Validation logic
-            if (result.getValidationErrors().isEmpty() && !hasCircular) {
-                result.setIsValid(true);
-                result.setMessage("All prerequisites are valid");
-                
-                // Add suggestions
-                if (prerequisiteSubjects.size() > 3) {
-                    result.getSuggestions().add("Consider reducing number of prerequisites (currently " + prerequisiteSubjects.size() + ")");
-                }
-            } else {
-                result.setIsValid(false);
-                result.setMessage("Prerequisite validation failed with " + result.getValidationErrors().size() + " error(s)");
+            PrerequisiteGraph graph = graphFor(subject.getProgram().getId());
+            int node = graph.nodeOf(subject.getId());
+            if (node < 0) {
+                // Đồ thị trong cache cũ hơn môn học này: dựng lại
+                evict(graph.programId());
+                graph = graphFor(subject.getProgram().getId());
+                node = graph.nodeOf(subject.getId());
             }
-            
+            return validate(graph, node);
         } catch (Exception e) {
             log.error("Error validating prerequisites for subject: {}", subjectId, e);
-            result.setIsValid(false);
-            result.getValidationErrors().add("Error validating prerequisites: " + e.getMessage());
-            result.setMessage("Prerequisite validation failed due to system error");
+            return errorResult(subject, e);
         }
+    }
+    
+    /**
+     * Validate prerequisites cho nhiều môn học (batch approval); mỗi chương trình chỉ lấy đồ thị một lần
+     * @return subjectId -> kết quả
+     */
+    public Map<Long, PrerequisiteValidationResult> validatePrerequisites(Collection<Subject> subjects) {
+        Map<Long, PrerequisiteValidationResult> results = new HashMap<>();
+        Map<Long, List<Subject>> subjectsByProgram = subjects.stream()
+            .collect(Collectors.groupingBy(s -> s.getProgram().getId()));
         
-        return result;
+        subjectsByProgram.forEach((programId, programSubjects) -> {
+            PrerequisiteGraph graph;
+            try {
+                graph = graphFor(programId);
+            } catch (Exception e) {
+                log.error("Error loading prerequisite graph for program: {}", programId, e);
+                programSubjects.forEach(subject -> results.put(subject.getId(), errorResult(subject, e)));
+                return;
+            }
+            for (Subject subject : programSubjects) {
+                int node = graph.nodeOf(subject.getId());
+                try {
+                    results.put(subject.getId(), node < 0
+                        ? validatePrerequisites(subject.getId())
+                        : validate(graph, node));
+                } catch (Exception e) {
+                    log.error("Error validating prerequisites for subject: {}", subject.getId(), e);
+                    results.put(subject.getId(), errorResult(subject, e));
+                }
+            }
+        });
+        return results;
     }
     
     /**
@@ -144,12 +125,12 @@ public class PrerequisiteValidatorService {
         }
         
         // Parse and validate corequisites
-        List<String> corequisiteCodes = parsePrerequisiteString(subject.getCorequisites());
+        List<String> corequisiteCodes = prerequisiteRepository.findCodes(subject.getId(), SubjectPrerequisite.COREQUISITE);
+        Set<String> existingCodes = subjectRepository.findBySubjectCodeInAndIsActiveTrue(corequisiteCodes).stream()
+            .map(Subject::getSubjectCode)
+            .collect(Collectors.toSet());
         for (String code : corequisiteCodes) {
-            Subject coreqSubject = subjectRepository.findBySubjectCodeAndIsActiveTrue(code)
-                .orElse(null);
-            
-            if (coreqSubject == null) {
+            if (!existingCodes.contains(code)) {
                 result.getValidationErrors().add("Corequisite subject not found: " + code);
             }
         }
@@ -164,119 +145,153 @@ public class PrerequisiteValidatorService {
     
     /**
      * Validate prerequisite chain for entire program
+     * Dùng chung một đồ thị: một truy vấn nạp môn học, phần còn lại chạy trên bộ nhớ
      */
     public Map<Long, PrerequisiteValidationResult> validateProgramPrerequisites(Long programId) {
         log.info("Validating prerequisites for all subjects in program: {}", programId);
         
-        List<Subject> subjects = subjectRepository.findActiveSubjectsByProgramId(programId);
-        
-        return subjects.stream()
-            .collect(Collectors.toMap(
-                Subject::getId,
-                subject -> validatePrerequisites(subject.getId())
-            ));
+        PrerequisiteGraph graph = graphFor(programId);
+        Map<Long, PrerequisiteValidationResult> results = new LinkedHashMap<>();
+        for (int node = 0; node < graph.programSize(); node++) {
+            results.put(graph.id(node), validate(graph, node));
+        }
+        return results;
     }
     
     /**
-     * Detect circular dependency in prerequisite chain using DFS
+     * Sự kiện: dữ liệu tiên quyết của môn học thay đổi (tạo/sửa/xoá)
+     * @param codes mã môn cũ và mới; các đồ thị tham chiếu tới một trong các mã này cũng bị loại khỏi cache
      */
-    private boolean detectCircularDependency(Long subjectId, Set<Long> visited, List<Long> recursionStack) {
-        visited.add(subjectId);
-        recursionStack.add(subjectId);
-        
-        Subject subject = subjectRepository.findById(subjectId).orElse(null);
-        if (subject == null || subject.getPrerequisites() == null) {
-            recursionStack.remove(subjectId);
-            return false;
+    public record PrerequisitesChanged(Long programId, Set<String> codes) {
+    }
+    
+    /**
+     * Đánh dấu đồ thị của chương trình đã cũ; cache được dọn sau khi transaction hiện tại commit
+     */
+    public void invalidate(Long programId, String... codes) {
+        Set<String> changedCodes = new HashSet<>();
+        for (String code : codes) {
+            if (code != null) {
+                changedCodes.add(code);
+            }
+        }
+        eventPublisher.publishEvent(new PrerequisitesChanged(programId, changedCodes));
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void onPrerequisitesChanged(PrerequisitesChanged event) {
+        generation.incrementAndGet();
+        graphs.values().removeIf(graph -> graph.programId().equals(event.programId())
+            || event.codes().stream().anyMatch(graph::references));
+    }
+    
+    /**
+     * Đồ thị của chương trình, dựng từ DB nếu chưa có trong cache
+     */
+    private PrerequisiteGraph graphFor(Long programId) {
+        PrerequisiteGraph cached = graphs.get(programId);
+        if (cached != null) {
+            return cached;
         }
         
-        List<String> prerequisiteCodes = parsePrerequisiteString(subject.getPrerequisites());
+        long startGeneration = generation.get();
+        PrerequisiteGraph graph = PrerequisiteGraph.build(programId,
+            subjectRepository.findActiveSubjectsByProgramId(programId),
+            this::loadPrerequisiteCodes,
+            subjectRepository::findBySubjectCodeInAndIsActiveTrue);
+        log.debug("Built prerequisite graph for program {}: {} subject(s)", programId, graph.programSize());
         
-        for (String code : prerequisiteCodes) {
-            Subject prereqSubject = subjectRepository.findBySubjectCodeAndIsActiveTrue(code)
-                .orElse(null);
-            
-            if (prereqSubject == null) continue;
-            
-            if (recursionStack.contains(prereqSubject.getId())) {
-                // Circular dependency found
-                return true;
-            }
-            
-            if (!visited.contains(prereqSubject.getId())) {
-                if (detectCircularDependency(prereqSubject.getId(), visited, recursionStack)) {
-                    return true;
-                }
+        // Có thay đổi commit trong lúc dựng thì không cache, tránh giữ đồ thị cũ
+        if (generation.get() == startGeneration) {
+            PrerequisiteGraph existing = graphs.putIfAbsent(programId, graph);
+            if (existing != null) {
+                return existing;
             }
         }
-        
-        recursionStack.remove(subjectId);
-        return false;
+        return graph;
     }
     
-    /**
-     * Build prerequisite chain as tree structure
-     */
-    private PrerequisiteValidationResult.PrerequisiteChainDto buildPrerequisiteChain(
-            Subject subject, int depth, Set<Long> visited) {
+    private Map<Long, List<String>> loadPrerequisiteCodes(Collection<Long> subjectIds) {
+        Map<Long, List<String>> codes = new HashMap<>();
+        if (subjectIds.isEmpty()) {
+            return codes;
+        }
+        for (SubjectPrerequisiteRepository.EdgeRow edge
+                : prerequisiteRepository.findEdges(subjectIds, SubjectPrerequisite.PREREQUISITE)) {
+            codes.computeIfAbsent(edge.getSubjectId(), id -> new ArrayList<>()).add(edge.getCode());
+        }
+        return codes;
+    }
+    
+    private void evict(Long programId) {
+        generation.incrementAndGet();
+        graphs.remove(programId);
+    }
+    
+    private PrerequisiteValidationResult validate(PrerequisiteGraph graph, int node) {
+        PrerequisiteValidationResult result = emptyResult(graph.id(node), graph.code(node), graph.name(node));
+        
+        // 1. Check if prerequisites field is empty
+        if (!graph.declaresPrerequisites(node)) {
+            result.setMessage("No prerequisites defined");
+            result.setIsValid(true);
+            return result;
+        }
         
-        // Prevent infinite recursion
-        if (depth > 10 || visited.contains(subject.getId())) {
-            return PrerequisiteValidationResult.PrerequisiteChainDto.builder()
-                .subjectId(subject.getId())
-                .subjectCode(subject.getSubjectCode())
-                .subjectName(subject.getSubjectName())
-                .depth(depth)
-                .prerequisites(new ArrayList<>())
-                .build();
+        // 2. Validate each prerequisite exists
+        for (String code : graph.missingPrerequisites(node)) {
+            result.getValidationErrors().add("Prerequisite subject not found: " + code);
         }
         
-        visited.add(subject.getId());
+        // 3. Check for circular dependencies
+        boolean hasCircular = graph.hasCircularDependency(node);
+        if (hasCircular) {
+            result.setHasCircularDependency(true);
+            result.getValidationErrors().add("Circular dependency detected in prerequisite chain");
+            result.getCircularDependencyChain().addAll(graph.circularDependencyChain(node));
+        }
         
-        List<PrerequisiteValidationResult.PrerequisiteChainDto> childPrereqs = new ArrayList<>();
+        // 4. Build prerequisite chain tree
+        result.setPrerequisiteChain(graph.prerequisiteChain(node));
         
-        if (subject.getPrerequisites() != null && !subject.getPrerequisites().isEmpty()) {
-            List<String> prerequisiteCodes = parsePrerequisiteString(subject.getPrerequisites());
+        // 5. Validation logic
+        int prerequisiteCount = graph.prerequisites(node).length;
+        if (result.getValidationErrors().isEmpty() && !hasCircular) {
+            result.setIsValid(true);
+            result.setMessage("All prerequisites are valid");
             
-            for (String code : prerequisiteCodes) {
-                Subject prereqSubject = subjectRepository.findBySubjectCodeAndIsActiveTrue(code)
-                    .orElse(null);
-                
-                if (prereqSubject != null) {
-                    PrerequisiteValidationResult.PrerequisiteChainDto childDto = 
-                        buildPrerequisiteChain(prereqSubject, depth + 1, new HashSet<>(visited));
-                    childPrereqs.add(childDto);
-                }
+            // Add suggestions
+            if (prerequisiteCount > 3) {
+                result.getSuggestions().add("Consider reducing number of prerequisites (currently " + prerequisiteCount + ")");
             }
+        } else {
+            result.setIsValid(false);
+            result.setMessage("Prerequisite validation failed with " + result.getValidationErrors().size() + " error(s)");
         }
-        
-        return PrerequisiteValidationResult.PrerequisiteChainDto.builder()
-            .subjectId(subject.getId())
-            .subjectCode(subject.getSubjectCode())
-            .subjectName(subject.getSubjectName())
-            .depth(depth)
-            .prerequisites(childPrereqs)
-            .build();
+        return result;
     }
     
-    /**
-     * Parse prerequisite string into list of subject codes
-     * Supports formats: "CS101,CS102,CS103" or "CS101;CS102;CS103" or "CS101 CS102 CS103"
-     */
-    private List<String> parsePrerequisiteString(String prerequisiteString) {
-        if (prerequisiteString == null || prerequisiteString.trim().isEmpty()) {
-            return new ArrayList<>();
-        }
-        
-        // Replace common delimiters with comma
-        String normalized = prerequisiteString
-            .replaceAll("[;|\\s]+", ",")  // Replace ; | or spaces with comma
-            .trim();
-        
-        return Arrays.stream(normalized.split(","))
-            .map(String::trim)
-            .filter(s -> !s.isEmpty())
-            .collect(Collectors.toList());
+    private PrerequisiteValidationResult errorResult(Subject subject, Exception e) {
+        PrerequisiteValidationResult result = emptyResult(subject.getId(), subject.getSubjectCode(), subject.getSubjectName());
+        result.setIsValid(false);
+        result.getValidationErrors().add("Error validating prerequisites: " + e.getMessage());
+        result.setMessage("Prerequisite validation failed due to system error");
+        return result;
+    }
+    
+    private PrerequisiteValidationResult emptyResult(Long subjectId, String subjectCode, String subjectName) {
+        return PrerequisiteValidationResult.builder()
+            .subjectId(subjectId)
+            .subjectCode(subjectCode)
+            .subjectName(subjectName)
+            .validationErrors(new ArrayList<>())
+            .warnings(new ArrayList<>())
+            .suggestions(new ArrayList<>())
+            .prerequisiteChain(new ArrayList<>())
+            .hasCircularDependency(false)
+            .circularDependencyChain(new ArrayList<>())
+            .build();
     }
     
     /**
@@ -286,16 +301,7 @@ public class PrerequisiteValidatorService {
         Subject subject = subjectRepository.findByIdAndIsActiveTrue(subjectId)
             .orElseThrow(() -> new RuntimeException("Subject not found with id: " + subjectId));
         
-        if (subject.getPrerequisites() == null || subject.getPrerequisites().isEmpty()) {
-            return new ArrayList<>();
-        }
-        
-        List<String> codes = parsePrerequisiteString(subject.getPrerequisites());
-        return codes.stream()
-            .map(code -> subjectRepository.findBySubjectCodeAndIsActiveTrue(code))
-            .filter(Optional::isPresent)
-            .map(Optional::get)
-            .collect(Collectors.toList());
+        return prerequisiteRepository.findPrerequisiteSubjects(subject.getId(), SubjectPrerequisite.PREREQUISITE);
     }
     
     /**
@@ -305,13 +311,8 @@ public class PrerequisiteValidatorService {
         Subject subject = subjectRepository.findByIdAndIsActiveTrue(subjectId)
             .orElseThrow(() -> new RuntimeException("Subject not found with id: " + subjectId));
         
-        // Get all active subjects in same program
-        List<Subject> allSubjects = subjectRepository.findActiveSubjectsByProgramId(
-            subject.getProgram().getId());
-        
-        return allSubjects.stream()
-            .filter(s -> s.getPrerequisites() != null && 
-                    s.getPrerequisites().toUpperCase().contains(subject.getSubjectCode().toUpperCase()))
-            .collect(Collectors.toList());
+        // Chỉ lấy các môn trong cùng chương trình
+        return prerequisiteRepository.findDependentSubjects(
+            subject.getSubjectCode(), subject.getProgram().getId(), SubjectPrerequisite.PREREQUISITE);
     }
 }
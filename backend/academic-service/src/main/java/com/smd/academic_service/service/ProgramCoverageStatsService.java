@@ -0,0 +1,89 @@
+package com.smd.academic_service.service;
+
+import com.smd.academic_service.model.entity.ProgramCoverageStats;
+import com.smd.academic_service.model.entity.Subject;
+import com.smd.academic_service.repository.ProgramCoverageStatsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Optional;
+
+/**
+ * Duy trì read model program_coverage_stats.
+ * Các service ghi (Subject/CLO/PLO/Mapping/Syllabus) gọi markStale(programId); dòng của chương trình
+ * được tính lại bằng một câu upsert sau khi transaction commit. Job định kỳ làm mới toàn bộ để vá
+ * các thay đổi không đi qua service.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProgramCoverageStatsService {
+    
+    private final ProgramCoverageStatsRepository statsRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    /**
+     * Sự kiện: số liệu của chương trình cần tính lại
+     */
+    public record ProgramCoverageChanged(Long programId) {
+    }
+    
+    /**
+     * Đánh dấu chương trình cần tính lại; việc tính lại chạy sau khi transaction hiện tại commit
+     */
+    public void markStale(Long programId) {
+        if (programId != null) {
+            eventPublisher.publishEvent(new ProgramCoverageChanged(programId));
+        }
+    }
+    
+    /**
+     * Đánh dấu chương trình chứa môn học cần tính lại
+     */
+    public void markStale(Subject subject) {
+        if (subject != null && subject.getProgram() != null) {
+            markStale(subject.getProgram().getId());
+        }
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onProgramCoverageChanged(ProgramCoverageChanged event) {
+        try {
+            statsRepository.refreshProgram(event.programId());
+        } catch (Exception ex) {
+            // Job định kỳ sẽ làm mới lại
+            log.warn("Failed to refresh coverage stats for program {}: {}", event.programId(), ex.getMessage());
+        }
+    }
+    
+    /**
+     * Đọc số liệu đã tính sẵn; tính ngay nếu chương trình chưa có dòng nào
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Optional<ProgramCoverageStats> getOrRefresh(Long programId) {
+        Optional<ProgramCoverageStats> stats = statsRepository.findById(programId);
+        if (stats.isPresent()) {
+            return stats;
+        }
+        if (statsRepository.refreshProgram(programId) == 0) {
+            return Optional.empty();
+        }
+        return statsRepository.findById(programId);
+    }
+    
+    @Scheduled(fixedDelayString = "${smd.coverage-stats.refresh-fixed-delay-ms:900000}",
+               initialDelayString = "${smd.coverage-stats.refresh-initial-delay-ms:60000}")
+    @Transactional
+    public void refreshAll() {
+        int rows = statsRepository.refreshAll();
+        log.debug("Refreshed coverage stats for {} program(s)", rows);
+    }
+}
@@ -1,8 +1,11 @@
 package com.smd.academic_service.service;
 
+import com.smd.academic_service.exception.ResourceNotFoundException;
 import com.smd.academic_service.model.dto.StatisticsDto;
-import com.smd.academic_service.model.entity.*;
-import com.smd.academic_service.repository.*;
+import com.smd.academic_service.repository.CoverageStatisticsRepository;
+import com.smd.academic_service.repository.CoverageStatisticsRepository.ProgramCoverageRow;
+import com.smd.academic_service.repository.CoverageStatisticsRepository.SubjectCoverageRow;
+import com.smd.academic_service.repository.CoverageStatisticsRepository.SystemCoverageRow;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -17,6 +20,9 @@ import java.util.stream.Collectors;
  * - Subject level: % CLO/PLO coverage cho từng môn học
  * - Department level: Thống kê toàn Khoa
  * - System level: Thống kê toàn hệ thống
+ *
+ * Các con số được tính bằng aggregate query phía DB (CoverageStatisticsRepository);
+ * danh sách / xếp hạng cho mọi program hoặc subject chỉ tốn một query.
  */
 @Service
 @RequiredArgsConstructor
@@ -24,12 +30,7 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class StatisticsService {
     
-    private final ProgramRepository programRepository;
-    private final SubjectRepository subjectRepository;
-    private final CloRepository cloRepository;
-    private final CloMappingRepository cloMappingRepository;
-    private final PloRepository ploRepository;
-    private final SyllabusRepository syllabusRepository;
+    private final CoverageStatisticsRepository coverageRepository;
     
     /**
      * Lấy thống kê CLO-PLO coverage cho một Chương trình
@@ -37,53 +38,9 @@ public class StatisticsService {
     public StatisticsDto.ProgramStatistics getProgramStatistics(Long programId) {
         log.debug("Calculating statistics for program: {}", programId);
         
-        Program program = programRepository.findById(programId)
-            .orElseThrow(() -> new com.smd.academic_service.exception.ResourceNotFoundException(
-                "Program not found with id: " + programId));
-        
-        // Get all subjects in program
-        List<Subject> subjects = subjectRepository.findAll().stream()
-            .filter(s -> s.getProgram().getId().equals(programId) && s.getIsActive())
-            .collect(Collectors.toList());
-        
-        // Get all CLOs in program
-        List<Clo> allClos = cloRepository.findAll().stream()
-            .filter(c -> subjects.stream().anyMatch(s -> s.getId().equals(c.getSubject().getId())) && c.getIsActive())
-            .collect(Collectors.toList());
-        
-        // Get all PLOs for program
-        List<Plo> plos = ploRepository.findAll().stream()
-            .filter(p -> p.getProgram().getId().equals(programId) && p.getIsActive())
-            .collect(Collectors.toList());
-        
-        // Get mappings
-        List<CloMapping> mappings = cloMappingRepository.findMappingsByProgramId(programId);
-        
-        // Calculate coverage
-        Set<Long> mappedClos = mappings.stream()
-            .map(m -> m.getClo().getId())
-            .collect(Collectors.toSet());
-        
-        Set<Long> mappedPlos = mappings.stream()
-            .map(m -> m.getPlo().getId())
-            .collect(Collectors.toSet());
-        
-        double cloCoverage = allClos.isEmpty() ? 0 : (double) mappedClos.size() / allClos.size() * 100;
-        double ploCoverage = plos.isEmpty() ? 0 : (double) mappedPlos.size() / plos.size() * 100;
-        
-        return StatisticsDto.ProgramStatistics.builder()
-            .programId(programId)
-            .programCode(program.getProgramCode())
-            .programName(program.getProgramName())
-            .totalSubjects(subjects.size())
-            .totalClos(allClos.size())
-            .mappedClos(mappedClos.size())
-            .cloCoveragePercentage((int) cloCoverage)
-            .totalPlos(plos.size())
-            .mappedPlos(mappedPlos.size())
-            .ploCoveragePercentage((int) ploCoverage)
-            .totalMappings(mappings.size())
-            .build();
+        return coverageRepository.findProgramCoverage(programId)
+            .map(this::toProgramStatistics)
+            .orElseThrow(() -> new ResourceNotFoundException("Program not found with id: " + programId));
     }
     
     /**
@@ -92,53 +49,9 @@ public class StatisticsService {
     public StatisticsDto.SubjectStatistics getSubjectStatistics(Long subjectId) {
         log.debug("Calculating statistics for subject: {}", subjectId);
         
-        Subject subject = subjectRepository.findById(subjectId)
-            .orElseThrow(() -> new com.smd.academic_service.exception.ResourceNotFoundException(
-                "Subject not found with id: " + subjectId));
-        
-        // Get all CLOs for this subject
-        List<Clo> clos = cloRepository.findActiveClosBySubjectId(subjectId);
-        
-        // Get program PLOs
-        Program program = subject.getProgram();
-        List<Plo> plos = ploRepository.findAll().stream()
-            .filter(p -> p.getProgram().getId().equals(program.getId()) && p.getIsActive())
-            .collect(Collectors.toList());
-        
-        // Get mappings
-        List<CloMapping> mappings = cloMappingRepository.findMappingsByProgramId(program.getId()).stream()
-            .filter(m -> clos.stream().anyMatch(c -> c.getId().equals(m.getClo().getId())))
-            .collect(Collectors.toList());
-        
-        Set<Long> mappedClos = mappings.stream()
-            .map(m -> m.getClo().getId())
-            .collect(Collectors.toSet());
-        
-        Set<Long> mappedPlos = mappings.stream()
-            .map(m -> m.getPlo().getId())
-            .collect(Collectors.toSet());
-        
-        double cloCoverage = clos.isEmpty() ? 0 : (double) mappedClos.size() / clos.size() * 100;
-        double ploCoverage = plos.isEmpty() ? 0 : (double) mappedPlos.size() / plos.size() * 100;
-        
-        // Get syllabuses count
-        long approvedSyllabuses = syllabusRepository.findAll().stream()
-            .filter(s -> s.getSubject().getId().equals(subjectId) && "APPROVED".equals(s.getApprovalStatus()))
-            .count();
-        
-        return StatisticsDto.SubjectStatistics.builder()
-            .subjectId(subjectId)
-            .subjectCode(subject.getSubjectCode())
-            .subjectName(subject.getSubjectName())
-            .totalClos(clos.size())
-            .mappedClos(mappedClos.size())
-            .cloCoveragePercentage((int) cloCoverage)
-            .totalPlos(plos.size())
-            .mappedPlos(mappedPlos.size())
-            .ploCoveragePercentage((int) ploCoverage)
-            .totalMappings(mappings.size())
-            .totalSyllabuses((int) approvedSyllabuses)
-            .build();
+        return coverageRepository.findSubjectCoverage(subjectId)
+            .map(this::toSubjectStatistics)
+            .orElseThrow(() -> new ResourceNotFoundException("Subject not found with id: " + subjectId));
     }
     
     /**
@@ -147,62 +60,25 @@ public class StatisticsService {
     public StatisticsDto.DepartmentStatistics getDepartmentStatistics() {
         log.debug("Calculating system-wide statistics");
         
-        // Get all active subjects
-        List<Subject> allSubjects = subjectRepository.findAll().stream()
-            .filter(Subject::getIsActive)
-            .collect(Collectors.toList());
-        
-        // Get all active CLOs
-        List<Clo> allClos = cloRepository.findAll().stream()
-            .filter(Clo::getIsActive)
-            .collect(Collectors.toList());
-        
-        // Get all active PLOs
-        List<Plo> allPlos = ploRepository.findAll().stream()
-            .filter(Plo::getIsActive)
-            .collect(Collectors.toList());
-        
-        // Get all mappings
-        List<CloMapping> allMappings = cloMappingRepository.findAll();
-        
-        Set<Long> mappedClos = allMappings.stream()
-            .map(m -> m.getClo().getId())
-            .collect(Collectors.toSet());
-        
-        Set<Long> mappedPlos = allMappings.stream()
-            .map(m -> m.getPlo().getId())
-            .collect(Collectors.toSet());
-        
-        double cloCoverage = allClos.isEmpty() ? 0 : (double) mappedClos.size() / allClos.size() * 100;
-        double ploCoverage = allPlos.isEmpty() ? 0 : (double) mappedPlos.size() / allPlos.size() * 100;
-        
-        // Get syllabuses count
-        long totalSyllabuses = syllabusRepository.findAll().stream()
-            .filter(Syllabus::getIsActive)
-            .count();
-        
-        long approvedSyllabuses = syllabusRepository.findAll().stream()
-            .filter(s -> s.getIsActive() && "APPROVED".equals(s.getApprovalStatus()))
-            .count();
-        
-        long pendingSyllabuses = syllabusRepository.findAll().stream()
-            .filter(s -> s.getIsActive() && ("L1_PENDING".equals(s.getApprovalStatus()) || "L2_PENDING".equals(s.getApprovalStatus())))
-            .count();
+        SystemCoverageRow row = coverageRepository.findSystemCoverage();
+        int totalSyllabuses = toInt(row.getTotalSyllabuses());
+        int approvedSyllabuses = toInt(row.getApprovedSyllabuses());
+        int pendingSyllabuses = toInt(row.getPendingSyllabuses());
         
         return StatisticsDto.DepartmentStatistics.builder()
-            .totalPrograms(programRepository.findAll().size())
-            .totalSubjects(allSubjects.size())
-            .totalClos(allClos.size())
-            .mappedClos(mappedClos.size())
-            .cloCoveragePercentage((int) cloCoverage)
-            .totalPlos(allPlos.size())
-            .mappedPlos(mappedPlos.size())
-            .ploCoveragePercentage((int) ploCoverage)
-            .totalMappings(allMappings.size())
-            .totalSyllabuses((int) totalSyllabuses)
-            .approvedSyllabuses((int) approvedSyllabuses)
-            .pendingSyllabuses((int) pendingSyllabuses)
-            .rejectedSyllabuses((int) (totalSyllabuses - approvedSyllabuses - pendingSyllabuses))
+            .totalPrograms(toInt(row.getTotalPrograms()))
+            .totalSubjects(toInt(row.getTotalSubjects()))
+            .totalClos(toInt(row.getTotalClos()))
+            .mappedClos(toInt(row.getMappedClos()))
+            .cloCoveragePercentage(percentage(row.getMappedClos(), row.getTotalClos()))
+            .totalPlos(toInt(row.getTotalPlos()))
+            .mappedPlos(toInt(row.getMappedPlos()))
+            .ploCoveragePercentage(percentage(row.getMappedPlos(), row.getTotalPlos()))
+            .totalMappings(toInt(row.getTotalMappings()))
+            .totalSyllabuses(totalSyllabuses)
+            .approvedSyllabuses(approvedSyllabuses)
+            .pendingSyllabuses(pendingSyllabuses)
+            .rejectedSyllabuses(totalSyllabuses - approvedSyllabuses - pendingSyllabuses)
             .build();
     }
     
@@ -212,8 +88,8 @@ public class StatisticsService {
     public List<StatisticsDto.ProgramStatistics> getAllProgramsStatistics() {
         log.debug("Fetching statistics for all programs");
         
-        return programRepository.findAll().stream()
-            .map(p -> getProgramStatistics(p.getId()))
+        return coverageRepository.findAllProgramCoverage().stream()
+            .map(this::toProgramStatistics)
             .collect(Collectors.toList());
     }
     
@@ -223,9 +99,8 @@ public class StatisticsService {
     public List<StatisticsDto.SubjectStatistics> getAllSubjectsStatistics() {
         log.debug("Fetching statistics for all subjects");
         
-        return subjectRepository.findAll().stream()
-            .filter(Subject::getIsActive)
-            .map(s -> getSubjectStatistics(s.getId()))
+        return coverageRepository.findAllActiveSubjectCoverage().stream()
+            .map(this::toSubjectStatistics)
             .collect(Collectors.toList());
     }
     
@@ -262,4 +137,47 @@ public class StatisticsService {
             .sorted(Comparator.comparing(StatisticsDto.SubjectStatistics::getCloCoveragePercentage))
             .collect(Collectors.toList());
     }
+    
+    // Helper methods
+    private StatisticsDto.ProgramStatistics toProgramStatistics(ProgramCoverageRow row) {
+        return StatisticsDto.ProgramStatistics.builder()
+            .programId(row.getProgramId())
+            .programCode(row.getProgramCode())
+            .programName(row.getProgramName())
+            .totalSubjects(toInt(row.getTotalSubjects()))
+            .totalClos(toInt(row.getTotalClos()))
+            .mappedClos(toInt(row.getMappedClos()))
+            .cloCoveragePercentage(percentage(row.getMappedClos(), row.getTotalClos()))
+            .totalPlos(toInt(row.getTotalPlos()))
+            .mappedPlos(toInt(row.getMappedPlos()))
+            .ploCoveragePercentage(percentage(row.getMappedPlos(), row.getTotalPlos()))
+            .totalMappings(toInt(row.getTotalMappings()))
+            .build();
+    }
+    
+    private StatisticsDto.SubjectStatistics toSubjectStatistics(SubjectCoverageRow row) {
+        return StatisticsDto.SubjectStatistics.builder()
+            .subjectId(row.getSubjectId())
+            .subjectCode(row.getSubjectCode())
+            .subjectName(row.getSubjectName())
+            .totalClos(toInt(row.getTotalClos()))
+            .mappedClos(toInt(row.getMappedClos()))
+            .cloCoveragePercentage(percentage(row.getMappedClos(), row.getTotalClos()))
+            .totalPlos(toInt(row.getTotalPlos()))
+            .mappedPlos(toInt(row.getMappedPlos()))
+            .ploCoveragePercentage(percentage(row.getMappedPlos(), row.getTotalPlos()))
+            .totalMappings(toInt(row.getTotalMappings()))
+            .totalSyllabuses(toInt(row.getApprovedSyllabuses()))
+            .build();
+    }
+    
+    private static int percentage(Long part, Long total) {
+        if (total == null || total == 0 || part == null)
+            return 0;
+        return (int) ((double) part / total * 100);
+    }
+    
+    private static int toInt(Long value) {
+        return value == null ? 0 : value.intValue();
+    }
 }
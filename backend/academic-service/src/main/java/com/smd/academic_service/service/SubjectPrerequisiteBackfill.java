@@ -0,0 +1,35 @@
+package com.smd.academic_service.service;
+
+import com.smd.academic_service.repository.SubjectPrerequisiteRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Chuyển dữ liệu tiên quyết dạng chuỗi sang bảng subject_prerequisite khi service khởi động.
+ * Service dùng ddl-auto nên không có migration riêng; câu lệnh chỉ chèn cho môn chưa có cạnh
+ * nên chạy lại mỗi lần khởi động là an toàn.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "smd.subject-prerequisite.backfill-on-startup", havingValue = "true", matchIfMissing = true)
+public class SubjectPrerequisiteBackfill {
+
+    private final SubjectPrerequisiteRepository prerequisiteRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfill() {
+        int prerequisites = prerequisiteRepository.backfillPrerequisites();
+        int corequisites = prerequisiteRepository.backfillCorequisites();
+        if (prerequisites > 0 || corequisites > 0) {
+            log.info("Backfilled subject_prerequisite: {} prerequisite edge(s), {} corequisite edge(s)",
+                prerequisites, corequisites);
+        }
+    }
+}
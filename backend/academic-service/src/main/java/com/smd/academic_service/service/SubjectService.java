@@ -3,14 +3,19 @@ package com.smd.academic_service.service;
 import com.smd.academic_service.model.dto.SubjectDto;
 import com.smd.academic_service.model.entity.Program;
 import com.smd.academic_service.model.entity.Subject;
+import com.smd.academic_service.model.entity.SubjectPrerequisite;
 import com.smd.academic_service.repository.ProgramRepository;
+import com.smd.academic_service.repository.SubjectPrerequisiteRepository;
 import com.smd.academic_service.repository.SubjectRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,6 +26,9 @@ public class SubjectService {
     
     private final SubjectRepository subjectRepository;
     private final ProgramRepository programRepository;
+    private final ProgramCoverageStatsService coverageStatsService;
+    private final PrerequisiteValidatorService prerequisiteValidator;
+    private final SubjectPrerequisiteRepository prerequisiteRepository;
     
     // Create
     public SubjectDto createSubject(SubjectDto subjectDto, String createdBy) {
@@ -45,6 +53,9 @@ public class SubjectService {
             .build();
         
         Subject savedSubject = subjectRepository.save(subject);
+        syncPrerequisiteEdges(savedSubject);
+        coverageStatsService.markStale(program.getId());
+        prerequisiteValidator.invalidate(program.getId(), savedSubject.getSubjectCode());
         log.info("Subject created successfully with id: {}", savedSubject.getId());
         return mapToDto(savedSubject);
     }
@@ -107,6 +118,7 @@ public class SubjectService {
         
         Subject subject = subjectRepository.findByIdAndIsActiveTrue(id)
             .orElseThrow(() -> new RuntimeException("Subject not found with id: " + id));
+        String previousCode = subject.getSubjectCode();
         
         if (subjectDto.getSubjectCode() != null) {
             subject.setSubjectCode(subjectDto.getSubjectCode());
@@ -138,6 +150,10 @@ public class SubjectService {
         
         subject.setUpdatedBy(updatedBy);
         Subject updatedSubject = subjectRepository.save(subject);
+        if (subjectDto.getPrerequisites() != null || subjectDto.getCorequisites() != null) {
+            syncPrerequisiteEdges(updatedSubject);
+        }
+        prerequisiteValidator.invalidate(subject.getProgram().getId(), previousCode, updatedSubject.getSubjectCode());
         
         log.info("Subject updated successfully with id: {}", id);
         return mapToDto(updatedSubject);
@@ -153,6 +169,8 @@ public class SubjectService {
         subject.setIsActive(false);
         subject.setUpdatedBy(deletedBy);
         subjectRepository.save(subject);
+        coverageStatsService.markStale(subject);
+        prerequisiteValidator.invalidate(subject.getProgram().getId(), subject.getSubjectCode());
         
         log.info("Subject deleted successfully with id: {}", id);
     }
@@ -176,4 +194,44 @@ public class SubjectService {
             .updatedAt(subject.getUpdatedAt())
             .build();
     }
+    
+    /**
+     * Ghi lại cạnh tiên quyết / đồng tiên quyết từ chuỗi khai báo của môn học
+     */
+    private void syncPrerequisiteEdges(Subject subject) {
+        prerequisiteRepository.deleteBySubjectId(subject.getId());
+        List<SubjectPrerequisite> edges = new ArrayList<>();
+        addEdges(edges, subject, subject.getPrerequisites(), SubjectPrerequisite.PREREQUISITE);
+        addEdges(edges, subject, subject.getCorequisites(), SubjectPrerequisite.COREQUISITE);
+        prerequisiteRepository.saveAll(edges);
+    }
+    
+    private void addEdges(List<SubjectPrerequisite> edges, Subject subject, String declared, String relationType) {
+        int position = 1;
+        for (String code : parseSubjectCodes(declared)) {
+            edges.add(SubjectPrerequisite.builder()
+                .subject(subject)
+                .prerequisiteCode(code)
+                .relationType(relationType)
+                .position(position++)
+                .build());
+        }
+    }
+    
+    /**
+     * Parse prerequisite string into distinct subject codes
+     * Supports formats: "CS101,CS102,CS103" or "CS101;CS102;CS103" or "CS101 CS102 CS103"
+     */
+    private static Set<String> parseSubjectCodes(String declared) {
+        Set<String> codes = new LinkedHashSet<>();
+        if (declared == null || declared.trim().isEmpty()) {
+            return codes;
+        }
+        for (String part : declared.trim().split("[,;|\\s]+")) {
+            if (!part.isEmpty()) {
+                codes.add(part);
+            }
+        }
+        return codes;
+    }
 }
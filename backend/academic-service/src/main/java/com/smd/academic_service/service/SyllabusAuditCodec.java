@@ -0,0 +1,133 @@
+package com.smd.academic_service.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Mã hoá phần nội dung lớn của SyllabusAudit (content, learning objectives, teaching/assessment methods).
+ * Mỗi trường được ghi thành một thao tác so với phiên bản trước: giữ nguyên, null, thay thế toàn bộ,
+ * hoặc splice (giữ prefix/suffix chung, chỉ lưu đoạn ở giữa). Snapshot là encode với base = null.
+ * Payload được nén gzip.
+ */
+final class SyllabusAuditCodec {
+
+    private static final byte UNCHANGED = 0;
+    private static final byte NULL = 1;
+    private static final byte FULL = 2;
+    private static final byte SPLICE = 3;
+
+    private SyllabusAuditCodec() {
+    }
+
+    /**
+     * Nội dung văn bản của một phiên bản (bất biến, dùng chung được trong cache)
+     */
+    record Fields(String content, String learningObjectives, String teachingMethods, String assessmentMethods) {
+    }
+
+    static byte[] encode(Fields base, Fields current) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+            writeField(out, base == null ? null : base.content(), current.content(), base == null);
+            writeField(out, base == null ? null : base.learningObjectives(), current.learningObjectives(), base == null);
+            writeField(out, base == null ? null : base.teachingMethods(), current.teachingMethods(), base == null);
+            writeField(out, base == null ? null : base.assessmentMethods(), current.assessmentMethods(), base == null);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode syllabus audit payload", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static Fields decode(Fields base, byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(payload)))) {
+            String content = readField(in, base == null ? null : base.content());
+            String learningObjectives = readField(in, base == null ? null : base.learningObjectives());
+            String teachingMethods = readField(in, base == null ? null : base.teachingMethods());
+            String assessmentMethods = readField(in, base == null ? null : base.assessmentMethods());
+            return new Fields(content, learningObjectives, teachingMethods, assessmentMethods);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to decode syllabus audit payload", e);
+        }
+    }
+
+    // Helper methods
+    private static void writeField(DataOutputStream out, String base, String current, boolean snapshot) throws IOException {
+        if (current == null) {
+            out.writeByte(NULL);
+            return;
+        }
+        if (snapshot || base == null) {
+            out.writeByte(FULL);
+            writeString(out, current);
+            return;
+        }
+        if (base.equals(current)) {
+            out.writeByte(UNCHANGED);
+            return;
+        }
+
+        int max = Math.min(base.length(), current.length());
+        int prefix = 0;
+        while (prefix < max && base.charAt(prefix) == current.charAt(prefix)) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < max - prefix
+                && base.charAt(base.length() - 1 - suffix) == current.charAt(current.length() - 1 - suffix)) {
+            suffix++;
+        }
+        // Không cắt đôi cặp surrogate: đoạn giữa phải encode UTF-8 được nguyên vẹn
+        if (prefix > 0 && Character.isHighSurrogate(current.charAt(prefix - 1))) {
+            prefix--;
+        }
+        if (suffix > 0 && Character.isLowSurrogate(current.charAt(current.length() - suffix))) {
+            suffix--;
+        }
+
+        out.writeByte(SPLICE);
+        out.writeInt(prefix);
+        out.writeInt(suffix);
+        writeString(out, current.substring(prefix, current.length() - suffix));
+    }
+
+    private static String readField(DataInputStream in, String base) throws IOException {
+        byte op = in.readByte();
+        switch (op) {
+            case UNCHANGED:
+                return base;
+            case NULL:
+                return null;
+            case FULL:
+                return readString(in);
+            case SPLICE:
+                int prefix = in.readInt();
+                int suffix = in.readInt();
+                String middle = readString(in);
+                if (base == null || prefix + suffix > base.length()) {
+                    throw new IOException("Delta does not match its base version");
+                }
+                return base.substring(0, prefix) + middle + base.substring(base.length() - suffix);
+            default:
+                throw new IOException("Unknown field operation: " + op);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] utf8 = new byte[in.readInt()];
+        in.readFully(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+}
@@ -5,13 +5,16 @@ import com.smd.academic_service.repository.SyllabusRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
+
+import static com.smd.academic_service.repository.SyllabusSpecifications.*;
 
 /**
  * Service để tìm kiếm, lọc và tra cứu các Giáo trình
@@ -23,6 +26,8 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class SyllabusSearchService {
     
+    private static final Sort DEFAULT_SORT = Sort.by(Sort.Direction.DESC, "createdAt", "id");
+    
     private final SyllabusRepository syllabusRepository;
     
     /**
@@ -30,14 +35,7 @@ public class SyllabusSearchService {
      */
     public Page<Syllabus> searchBySyllabusCodeOrSubjectName(String keyword, Pageable pageable) {
         log.debug("Searching syllabuses with keyword: {}", keyword);
-        
-        List<Syllabus> allSyllabuses = syllabusRepository.findAll().stream()
-            .filter(Syllabus::getIsActive)
-            .filter(s -> s.getSyllabusCode().toLowerCase().contains(keyword.toLowerCase()) ||
-                        s.getSubject().getSubjectName().toLowerCase().contains(keyword.toLowerCase()))
-            .collect(Collectors.toList());
-        
-        return createPageFromList(allSyllabuses, pageable);
+        return search(keyword(keyword), pageable);
     }
     
     /**
@@ -45,13 +43,7 @@ public class SyllabusSearchService {
      */
     public Page<Syllabus> filterByAcademicYear(String academicYear, Pageable pageable) {
         log.debug("Filtering syllabuses by academic year: {}", academicYear);
-        
-        List<Syllabus> syllabuses = syllabusRepository.findAll().stream()
-            .filter(Syllabus::getIsActive)
-            .filter(s -> academicYear.equals(s.getAcademicYear()))
-            .collect(Collectors.toList());
-        
-        return createPageFromList(syllabuses, pageable);
+        return search(academicYear(academicYear), pageable);
     }
     
     /**
@@ -59,13 +51,7 @@ public class SyllabusSearchService {
      */
     public Page<Syllabus> filterBySemester(Integer semester, Pageable pageable) {
         log.debug("Filtering syllabuses by semester: {}", semester);
-        
-        List<Syllabus> syllabuses = syllabusRepository.findAll().stream()
-            .filter(Syllabus::getIsActive)
-            .filter(s -> semester.equals(s.getSemester()))
-            .collect(Collectors.toList());
-        
-        return createPageFromList(syllabuses, pageable);
+        return search(semester(semester), pageable);
     }
     
     /**
@@ -73,12 +59,7 @@ public class SyllabusSearchService {
      */
     public Page<Syllabus> filterByStatus(String status, Pageable pageable) {
         log.debug("Filtering syllabuses by status: {}", status);
-        
-        List<Syllabus> syllabuses = syllabusRepository.findSyllabusesByStatus(status).stream()
-            .filter(Syllabus::getIsActive)
-            .collect(Collectors.toList());
-        
-        return createPageFromList(syllabuses, pageable);
+        return search(status(status), pageable);
     }
     
     /**
@@ -86,12 +67,7 @@ public class SyllabusSearchService {
      */
     public Page<Syllabus> filterByApprovalStatus(String approvalStatus, Pageable pageable) {
         log.debug("Filtering syllabuses by approval status: {}", approvalStatus);
-        
-        List<Syllabus> syllabuses = syllabusRepository.findSyllabusesByApprovalStatus(approvalStatus).stream()
-            .filter(Syllabus::getIsActive)
-            .collect(Collectors.toList());
-        
-        return createPageFromList(syllabuses, pageable);
+        return search(approvalStatusIn(approvalStatus == null ? null : List.of(approvalStatus)), pageable);
     }
     
     /**
@@ -99,12 +75,7 @@ public class SyllabusSearchService {
      */
     public Page<Syllabus> filterByProgram(Long programId, Pageable pageable) {
         log.debug("Filtering syllabuses by program: {}", programId);
-        
-        List<Syllabus> syllabuses = syllabusRepository.findSyllabusesByProgramId(programId).stream()
-            .filter(Syllabus::getIsActive)
-            .collect(Collectors.toList());
-        
-        return createPageFromList(syllabuses, pageable);
+        return search(programId(programId), pageable);
     }
     
     /**
@@ -112,12 +83,7 @@ public class SyllabusSearchService {
      */
     public Page<Syllabus> filterBySubject(Long subjectId, Pageable pageable) {
         log.debug("Filtering syllabuses by subject: {}", subjectId);
-        
-        List<Syllabus> syllabuses = syllabusRepository.findActiveSyllabusesBySubjectId(subjectId).stream()
-            .filter(Syllabus::getIsActive)
-            .collect(Collectors.toList());
-        
-        return createPageFromList(syllabuses, pageable);
+        return search(subjectId(subjectId), pageable);
     }
     
     /**
@@ -126,24 +92,13 @@ public class SyllabusSearchService {
     public Page<Syllabus> advancedSearch(SearchCriteria criteria, Pageable pageable) {
         log.debug("Performing advanced search with criteria: {}", criteria);
         
-        List<Syllabus> results = syllabusRepository.findAll().stream()
-            .filter(Syllabus::getIsActive)
-            .filter(s -> criteria.getKeyword() == null || 
-                        s.getSyllabusCode().toLowerCase().contains(criteria.getKeyword().toLowerCase()) ||
-                        s.getSubject().getSubjectName().toLowerCase().contains(criteria.getKeyword().toLowerCase()))
-            .filter(s -> criteria.getAcademicYear() == null || 
-                        criteria.getAcademicYear().equals(s.getAcademicYear()))
-            .filter(s -> criteria.getSemester() == null || 
-                        criteria.getSemester().equals(s.getSemester()))
-            .filter(s -> criteria.getStatus() == null || 
-                        criteria.getStatus().equals(s.getStatus()))
-            .filter(s -> criteria.getApprovalStatus() == null || 
-                        criteria.getApprovalStatus().equals(s.getApprovalStatus()))
-            .filter(s -> criteria.getProgramId() == null || 
-                        criteria.getProgramId().equals(s.getSubject().getProgram().getId()))
-            .collect(Collectors.toList());
-        
-        return createPageFromList(results, pageable);
+        Specification<Syllabus> spec = Specification.where(keyword(criteria.getKeyword()))
+            .and(academicYear(criteria.getAcademicYear()))
+            .and(semester(criteria.getSemester()))
+            .and(status(criteria.getStatus()))
+            .and(approvalStatusIn(criteria.getApprovalStatus() == null ? null : List.of(criteria.getApprovalStatus())))
+            .and(programId(criteria.getProgramId()));
+        return search(spec, pageable);
     }
     
     /**
@@ -151,14 +106,7 @@ public class SyllabusSearchService {
      */
     public Page<Syllabus> getPendingApprovalSyllabuses(Pageable pageable) {
         log.debug("Fetching pending approval syllabuses");
-        
-        List<Syllabus> syllabuses = syllabusRepository.findAll().stream()
-            .filter(Syllabus::getIsActive)
-            .filter(s -> "L1_PENDING".equals(s.getApprovalStatus()) || 
-                        "L2_PENDING".equals(s.getApprovalStatus()))
-            .collect(Collectors.toList());
-        
-        return createPageFromList(syllabuses, pageable);
+        return search(approvalStatusIn(List.of("L1_PENDING", "L2_PENDING")), pageable);
     }
     
     /**
@@ -166,14 +114,7 @@ public class SyllabusSearchService {
      */
     public Page<Syllabus> getRejectedSyllabuses(Pageable pageable) {
         log.debug("Fetching rejected syllabuses");
-        
-        List<Syllabus> syllabuses = syllabusRepository.findAll().stream()
-            .filter(Syllabus::getIsActive)
-            .filter(s -> "L1_REJECTED".equals(s.getApprovalStatus()) || 
-                        "L2_REJECTED".equals(s.getApprovalStatus()))
-            .collect(Collectors.toList());
-        
-        return createPageFromList(syllabuses, pageable);
+        return search(approvalStatusIn(List.of("L1_REJECTED", "L2_REJECTED")), pageable);
     }
     
     /**
@@ -181,24 +122,26 @@ public class SyllabusSearchService {
      */
     public Page<Syllabus> getApprovedSyllabuses(Pageable pageable) {
         log.debug("Fetching approved syllabuses");
-        
-        List<Syllabus> syllabuses = syllabusRepository.findAll().stream()
-            .filter(Syllabus::getIsActive)
-            .filter(s -> "APPROVED".equals(s.getApprovalStatus()))
-            .collect(Collectors.toList());
-        
-        return createPageFromList(syllabuses, pageable);
+        return search(approvalStatusIn(List.of("APPROVED")), pageable);
     }
     
     /**
-     * Helper method to convert List to Page
+     * Chạy filter với LIMIT/OFFSET + count query phía DB; subject.program được fetch join sẵn
      */
-    private Page<Syllabus> createPageFromList(List<Syllabus> list, Pageable pageable) {
-        int start = (int) pageable.getOffset();
-        int end = Math.min(start + pageable.getPageSize(), list.size());
-        
-        List<Syllabus> pageContent = list.subList(start, end);
-        return new PageImpl<>(pageContent, pageable, list.size());
+    private Page<Syllabus> search(Specification<Syllabus> filter, Pageable pageable) {
+        Specification<Syllabus> spec = Specification.where(withSubjectAndProgram())
+            .and(isActive())
+            .and(filter);
+        return syllabusRepository.findAll(spec, withDefaultSort(pageable));
+    }
+    
+    /**
+     * Thứ tự ổn định cho phân trang khi client không truyền sort
+     */
+    private Pageable withDefaultSort(Pageable pageable) {
+        if (pageable.isUnpaged() || pageable.getSort().isSorted())
+            return pageable;
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), DEFAULT_SORT);
     }
     
     /**
@@ -23,6 +23,7 @@ public class SyllabusService {
     private final SyllabusRepository syllabusRepository;
     private final SubjectRepository subjectRepository;
     private final SyllabusVersionService syllabusVersionService;
+    private final ProgramCoverageStatsService coverageStatsService;
     
     // Create
     public SyllabusDto createSyllabus(SyllabusDto syllabusDto, String createdBy) {
@@ -49,6 +50,7 @@ public class SyllabusService {
             .build();
         
         Syllabus savedSyllabus = syllabusRepository.save(syllabus);
+        coverageStatsService.markStale(subject);
         
         // Record in version history
         syllabusVersionService.recordChange(savedSyllabus.getId(), "CREATE", "Syllabus created", createdBy);
@@ -169,6 +171,7 @@ public class SyllabusService {
         syllabus.setIsActive(false);
         syllabus.setUpdatedBy(deletedBy);
         syllabusRepository.save(syllabus);
+        coverageStatsService.markStale(syllabus.getSubject());
         
         // Record in version history
         syllabusVersionService.recordChange(id, "DELETE", "Syllabus deleted", deletedBy);
@@ -195,6 +198,7 @@ public class SyllabusService {
         
         syllabus.setUpdatedBy(updatedBy);
         Syllabus updatedSyllabus = syllabusRepository.save(syllabus);
+        coverageStatsService.markStale(syllabus.getSubject());
         
         // Record in version history
         String changeType = "Approved".equals(approvalStatus) ? "APPROVE" : "Rejected".equals(approvalStatus) ? "REJECT" : "REVIEW";
@@ -6,13 +6,18 @@ import com.smd.academic_service.model.entity.Syllabus;
 import com.smd.academic_service.model.entity.SyllabusAudit;
 import com.smd.academic_service.repository.SyllabusAuditRepository;
 import com.smd.academic_service.repository.SyllabusRepository;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -27,6 +32,25 @@ public class SyllabusVersionService {
     private final SyllabusAuditRepository syllabusAuditRepository;
     private final SyllabusRepository syllabusRepository;
     
+    @Value("${smd.syllabus-audit.snapshot-interval:10}")
+    private int snapshotInterval;
+    
+    @Value("${smd.syllabus-audit.content-cache-size:256}")
+    private int contentCacheSize;
+    
+    // audit id -> nội dung đã dựng lại (LRU). Khoá theo id nên dòng bị rollback không thể làm bẩn cache
+    private Map<Long, SyllabusAuditCodec.Fields> contentCache;
+    
+    @PostConstruct
+    void initContentCache() {
+        contentCache = Collections.synchronizedMap(new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, SyllabusAuditCodec.Fields> eldest) {
+                return size() > contentCacheSize;
+            }
+        });
+    }
+    
     /**
      * Record a change to syllabus in audit trail
      * Called automatically when syllabus is created/updated/approved/rejected
@@ -38,17 +62,27 @@ public class SyllabusVersionService {
         Syllabus syllabus = syllabusRepository.findByIdAndIsActiveTrue(syllabusId)
             .orElseThrow(() -> new RuntimeException("Syllabus not found with id: " + syllabusId));
         
-        // Get version number (latest + 1)
-        long versionCount = syllabusAuditRepository.countBySyllabusId(syllabusId);
-        int newVersionNumber = (int) (versionCount + 1);
+        // Cấp version trước rồi mới đọc version trước đó: sau khi giữ dòng đếm, lần ghi trước (nếu có) đã commit
+        int newVersionNumber = syllabusAuditRepository.allocateVersionNumber(syllabusId);
+        SyllabusAudit previous = syllabusAuditRepository.findLatestAuditBySyllabusId(syllabusId).orElse(null);
+        
+        // Snapshot mỗi snapshotInterval version, còn lại chỉ lưu delta so với version trước
+        SyllabusAuditCodec.Fields current = new SyllabusAuditCodec.Fields(
+            syllabus.getContent(),
+            syllabus.getLearningObjectives(),
+            syllabus.getTeachingMethods(),
+            syllabus.getAssessmentMethods());
+        boolean snapshot = previous == null || newVersionNumber - baseVersionOf(previous) >= snapshotInterval;
+        byte[] payload = snapshot
+            ? SyllabusAuditCodec.encode(null, current)
+            : SyllabusAuditCodec.encode(contentOf(previous), current);
         
         SyllabusAudit audit = SyllabusAudit.builder()
             .syllabusId(syllabusId)
             .versionNumber(newVersionNumber)
-            .content(syllabus.getContent())
-            .learningObjectives(syllabus.getLearningObjectives())
-            .teachingMethods(syllabus.getTeachingMethods())
-            .assessmentMethods(syllabus.getAssessmentMethods())
+            .encoding(snapshot ? SyllabusAudit.ENCODING_SNAPSHOT : SyllabusAudit.ENCODING_DELTA)
+            .baseVersion(snapshot ? newVersionNumber : baseVersionOf(previous))
+            .payload(payload)
             .academicYear(syllabus.getAcademicYear())
             .semester(syllabus.getSemester())
             .status(syllabus.getStatus())
@@ -59,7 +93,9 @@ public class SyllabusVersionService {
             .build();
         
         SyllabusAudit savedAudit = syllabusAuditRepository.save(audit);
-        log.info("Change recorded successfully - Version: {}", newVersionNumber);
+        contentCache.put(savedAudit.getId(), current);
+        log.info("Change recorded successfully - Version: {} ({}, {} bytes)",
+            newVersionNumber, audit.getEncoding(), payload.length);
         
         return savedAudit;
     }
@@ -93,7 +129,7 @@ public class SyllabusVersionService {
             .orElseThrow(() -> new com.smd.academic_service.exception.ResourceNotFoundException(
                 "Version not found - Syllabus: " + syllabusId + ", Version: " + versionNumber));
         
-        return mapToVersionDto(audit);
+        return mapToVersionDtoWithContent(audit);
     }
     
     /**
@@ -107,7 +143,7 @@ public class SyllabusVersionService {
             .orElseThrow(() -> new com.smd.academic_service.exception.ResourceNotFoundException(
                 "No version history found for syllabus: " + syllabusId));
         
-        return mapToVersionDto(audit);
+        return mapToVersionDtoWithContent(audit);
     }
     
     /**
@@ -148,10 +184,12 @@ public class SyllabusVersionService {
             .build();
         
         // Compare fields
-        compareField("Content", "Course Content", audit1.getContent(), audit2.getContent(), comparison);
-        compareField("Learning Objectives", "Learning Objectives", audit1.getLearningObjectives(), audit2.getLearningObjectives(), comparison);
-        compareField("Teaching Methods", "Teaching Methods", audit1.getTeachingMethods(), audit2.getTeachingMethods(), comparison);
-        compareField("Assessment Methods", "Assessment Methods", audit1.getAssessmentMethods(), audit2.getAssessmentMethods(), comparison);
+        SyllabusAuditCodec.Fields content1 = contentOf(audit1);
+        SyllabusAuditCodec.Fields content2 = contentOf(audit2);
+        compareField("Content", "Course Content", content1.content(), content2.content(), comparison);
+        compareField("Learning Objectives", "Learning Objectives", content1.learningObjectives(), content2.learningObjectives(), comparison);
+        compareField("Teaching Methods", "Teaching Methods", content1.teachingMethods(), content2.teachingMethods(), comparison);
+        compareField("Assessment Methods", "Assessment Methods", content1.assessmentMethods(), content2.assessmentMethods(), comparison);
         compareField("Academic Year", "Academic Year", audit1.getAcademicYear(), audit2.getAcademicYear(), comparison);
         compareField("Semester", "Semester", String.valueOf(audit1.getSemester()), String.valueOf(audit2.getSemester()), comparison);
         compareField("Status", "Status", audit1.getStatus(), audit2.getStatus(), comparison);
@@ -184,6 +222,58 @@ public class SyllabusVersionService {
         return syllabusAuditRepository.countBySyllabusId(syllabusId);
     }
     
+    /**
+     * Nội dung văn bản của một audit row.
+     * Delta được dựng lại từ snapshot gần nhất (một query lấy cả chuỗi), kết quả trung gian được cache LRU.
+     */
+    private SyllabusAuditCodec.Fields contentOf(SyllabusAudit audit) {
+        SyllabusAuditCodec.Fields cached = contentCache.get(audit.getId());
+        if (cached != null) {
+            return cached;
+        }
+        if (!SyllabusAudit.ENCODING_DELTA.equals(audit.getEncoding())) {
+            SyllabusAuditCodec.Fields fields = decode(audit, null);
+            contentCache.put(audit.getId(), fields);
+            return fields;
+        }
+        
+        List<SyllabusAudit> chain = syllabusAuditRepository.findAuditBetweenVersions(
+            audit.getSyllabusId(), audit.getBaseVersion(), audit.getVersionNumber());
+        SyllabusAuditCodec.Fields fields = null;
+        for (SyllabusAudit link : chain) {
+            SyllabusAuditCodec.Fields linkFields = contentCache.get(link.getId());
+            if (linkFields == null) {
+                linkFields = decode(link, fields);
+                contentCache.put(link.getId(), linkFields);
+            }
+            fields = linkFields;
+        }
+        if (fields == null) {
+            throw new IllegalStateException("Version chain is broken - Syllabus: " + audit.getSyllabusId()
+                + ", Version: " + audit.getVersionNumber());
+        }
+        return fields;
+    }
+    
+    private SyllabusAuditCodec.Fields decode(SyllabusAudit audit, SyllabusAuditCodec.Fields previous) {
+        if (audit.getEncoding() == null) {
+            // Dòng cũ: văn bản đầy đủ trong các cột TEXT
+            return new SyllabusAuditCodec.Fields(audit.getContent(), audit.getLearningObjectives(),
+                audit.getTeachingMethods(), audit.getAssessmentMethods());
+        }
+        if (SyllabusAudit.ENCODING_DELTA.equals(audit.getEncoding()) && previous == null) {
+            throw new IllegalStateException("Version chain is broken - Syllabus: " + audit.getSyllabusId()
+                + ", Version: " + audit.getVersionNumber());
+        }
+        return SyllabusAuditCodec.decode(
+            SyllabusAudit.ENCODING_DELTA.equals(audit.getEncoding()) ? previous : null, audit.getPayload());
+    }
+    
+    private static int baseVersionOf(SyllabusAudit audit) {
+        // Dòng cũ (không có baseVersion) tự nó là snapshot
+        return audit.getBaseVersion() != null ? audit.getBaseVersion() : audit.getVersionNumber();
+    }
+    
     /**
      * Helper method to compare individual fields
      */
@@ -211,6 +301,19 @@ public class SyllabusVersionService {
         return value == null || value.trim().isEmpty() ? "" : value.trim();
     }
     
+    /**
+     * Map SyllabusAudit entity to DTO, kèm nội dung đã dựng lại
+     */
+    private SyllabusVersionDto mapToVersionDtoWithContent(SyllabusAudit audit) {
+        SyllabusVersionDto dto = mapToVersionDto(audit);
+        SyllabusAuditCodec.Fields fields = contentOf(audit);
+        dto.setContent(fields.content());
+        dto.setLearningObjectives(fields.learningObjectives());
+        dto.setTeachingMethods(fields.teachingMethods());
+        dto.setAssessmentMethods(fields.assessmentMethods());
+        return dto;
+    }
+    
     /**
      * Map SyllabusAudit entity to DTO
      */
@@ -0,0 +1,167 @@
+package com.smd.academic_service.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SyllabusAuditCodecTest {
+
+    private static final String LONG_TEXT = "Chương 1: Giới thiệu môn học.\n".repeat(200);
+
+    @Test
+    public void snapshot_roundTripsNullEmptyAndUnicode() {
+        assertSnapshotRoundTrip(new SyllabusAuditCodec.Fields(null, null, null, null));
+        assertSnapshotRoundTrip(new SyllabusAuditCodec.Fields("", "", "", ""));
+        assertSnapshotRoundTrip(new SyllabusAuditCodec.Fields(
+                "{\"chapters\":[{\"title\":\"Đại số tuyến tính\"}]}",
+                "Hiểu ∑ và ∫; biểu tượng 🧮📐",
+                null,
+                ""));
+    }
+
+    @Test
+    public void delta_unchangedNullAndFullTransitions() {
+        SyllabusAuditCodec.Fields base = new SyllabusAuditCodec.Fields("a", "b", null, "");
+
+        assertDeltaRoundTrip(base, base);
+        assertDeltaRoundTrip(base, new SyllabusAuditCodec.Fields(null, "b", "mới", ""));
+        assertDeltaRoundTrip(base, new SyllabusAuditCodec.Fields("a", "", null, "x"));
+        assertDeltaRoundTrip(new SyllabusAuditCodec.Fields(null, null, null, null),
+                new SyllabusAuditCodec.Fields("", "b", "c", "d"));
+    }
+
+    @Test
+    public void splice_atStartMiddleEndAndWhole() {
+        for (String[] edit : new String[][]{
+                {"abcdef", "Xbcdef"},   // đầu
+                {"abcdef", "abXYef"},   // giữa
+                {"abcdef", "abcdeX"},   // cuối
+                {"abcdef", "abcXdef"},  // chỉ chèn
+                {"abcdef", "abef"},     // chỉ xoá
+                {"abcdef", "uvw"},      // thay toàn bộ
+                {"aaa", "aaaa"},        // prefix và suffix chồng lên nhau
+                {"aaaa", "aaa"},
+                {"abc", ""},
+                {"", "abc"}}) {
+            assertFieldRoundTrip(edit[0], edit[1]);
+        }
+    }
+
+    @Test
+    public void splice_neverSplitsSurrogatePairs() {
+        // 😀 = D83D DE00, 😁 = D83D DE01: chung high surrogate ở cuối prefix
+        assertFieldRoundTrip("x😀y", "x😁y");
+        assertFieldRoundTrip("😀", "😁");
+        // 😀 = D83D DE00, 𐘀 = D801 DE00: chung low surrogate ở đầu suffix
+        assertFieldRoundTrip("a😀b", "a𐘀b");
+        assertFieldRoundTrip("😀", "𐘀");
+        // Tiếng Việt tổ hợp (e + dấu) ghép với emoji
+        assertFieldRoundTrip("Kiểm tra 🧮 giữa kỳ", "Kiểm tra 🧪 cuối kỳ");
+    }
+
+    @Test
+    public void smallEdit_producesDeltaMuchSmallerThanSnapshot() {
+        SyllabusAuditCodec.Fields base = new SyllabusAuditCodec.Fields(LONG_TEXT, null, null, null);
+        SyllabusAuditCodec.Fields current = new SyllabusAuditCodec.Fields(
+                LONG_TEXT.replaceFirst("Giới thiệu", "Tổng quan"), null, null, null);
+
+        byte[] delta = SyllabusAuditCodec.encode(base, current);
+        byte[] snapshot = SyllabusAuditCodec.encode(null, current);
+
+        assertEquals(current, SyllabusAuditCodec.decode(base, delta));
+        assertTrue(delta.length < snapshot.length, "delta " + delta.length + " >= snapshot " + snapshot.length);
+    }
+
+    @Test
+    public void decode_rejectsDeltaAgainstWrongBase() {
+        byte[] delta = SyllabusAuditCodec.encode(
+                new SyllabusAuditCodec.Fields("abcdef", null, null, null),
+                new SyllabusAuditCodec.Fields("abXdef", null, null, null));
+
+        assertThrows(UncheckedIOException.class, () -> SyllabusAuditCodec.decode(
+                new SyllabusAuditCodec.Fields("ab", null, null, null), delta));
+        assertThrows(UncheckedIOException.class, () -> SyllabusAuditCodec.decode(null, delta));
+        assertThrows(UncheckedIOException.class, () -> SyllabusAuditCodec.decode(null, new byte[]{1, 2, 3}));
+    }
+
+    /**
+     * Chuỗi version sửa ngẫu nhiên, cứ N version một snapshot (như SyllabusVersionService):
+     * dựng lại mọi version từ snapshot gần nhất phải ra đúng nội dung gốc
+     */
+    @Test
+    public void randomEditChain_reconstructsEveryVersionFromNearestSnapshot() {
+        int snapshotInterval = 4;
+        Random random = new Random(11);
+        List<SyllabusAuditCodec.Fields> versions = new ArrayList<>();
+        List<byte[]> payloads = new ArrayList<>();
+
+        SyllabusAuditCodec.Fields previous = null;
+        for (int v = 0; v < 400; v++) {
+            SyllabusAuditCodec.Fields current = new SyllabusAuditCodec.Fields(
+                    edit(random, previous == null ? null : previous.content()),
+                    edit(random, previous == null ? null : previous.learningObjectives()),
+                    edit(random, previous == null ? null : previous.teachingMethods()),
+                    edit(random, previous == null ? null : previous.assessmentMethods()));
+            boolean snapshot = v % snapshotInterval == 0;
+            payloads.add(SyllabusAuditCodec.encode(snapshot ? null : previous, current));
+            versions.add(current);
+            previous = current;
+        }
+
+        for (int v = 0; v < versions.size(); v++) {
+            int base = v - v % snapshotInterval;
+            SyllabusAuditCodec.Fields fields = SyllabusAuditCodec.decode(null, payloads.get(base));
+            for (int link = base + 1; link <= v; link++) {
+                fields = SyllabusAuditCodec.decode(fields, payloads.get(link));
+            }
+            assertEquals(versions.get(v), fields, "version " + v);
+        }
+    }
+
+    // Helper methods
+    private static void assertSnapshotRoundTrip(SyllabusAuditCodec.Fields fields) {
+        assertEquals(fields, SyllabusAuditCodec.decode(null, SyllabusAuditCodec.encode(null, fields)));
+    }
+
+    private static void assertDeltaRoundTrip(SyllabusAuditCodec.Fields base, SyllabusAuditCodec.Fields current) {
+        assertEquals(current, SyllabusAuditCodec.decode(base, SyllabusAuditCodec.encode(base, current)));
+    }
+
+    private static void assertFieldRoundTrip(String base, String current) {
+        assertDeltaRoundTrip(new SyllabusAuditCodec.Fields(base, null, null, null),
+                new SyllabusAuditCodec.Fields(current, null, null, null));
+    }
+
+    /**
+     * Sửa ngẫu nhiên một đoạn (có thể thành null/rỗng), bảng ký tự gồm cả dấu tiếng Việt và cặp surrogate
+     */
+    private static String edit(Random random, String value) {
+        String[] alphabet = {"a", "b", " ", "ệ", "ư", "😀", "😁", "𐘀", "\n"};
+        int roll = random.nextInt(20);
+        if (roll == 0) {
+            return null;
+        }
+        if (roll < 5) {
+            return value;
+        }
+
+        List<String> symbols = new ArrayList<>();
+        (value == null ? "" : value).codePoints().forEach(cp -> symbols.add(new String(Character.toChars(cp))));
+        int from = random.nextInt(symbols.size() + 1);
+        int to = Math.min(symbols.size(), from + random.nextInt(4));
+        List<String> inserted = new ArrayList<>();
+        for (int i = random.nextInt(4); i > 0; i--) {
+            inserted.add(alphabet[random.nextInt(alphabet.length)]);
+        }
+        symbols.subList(from, to).clear();
+        symbols.addAll(from, inserted);
+        return String.join("", symbols);
+    }
+}
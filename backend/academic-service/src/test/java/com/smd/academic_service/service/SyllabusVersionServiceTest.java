@@ -0,0 +1,143 @@
+package com.smd.academic_service.service;
+
+import com.smd.academic_service.model.dto.SyllabusVersionDto;
+import com.smd.academic_service.model.entity.Syllabus;
+import com.smd.academic_service.model.entity.SyllabusAudit;
+import com.smd.academic_service.repository.SyllabusAuditRepository;
+import com.smd.academic_service.repository.SyllabusRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SyllabusVersionServiceTest {
+
+    private static final Long SYLLABUS_ID = 7L;
+    private static final int SNAPSHOT_INTERVAL = 3;
+
+    private SyllabusAuditRepository auditRepository;
+    private SyllabusRepository syllabusRepository;
+    private final List<SyllabusAudit> rows = new ArrayList<>();
+    private Syllabus current;
+
+    @BeforeEach
+    public void setUp() {
+        auditRepository = mock(SyllabusAuditRepository.class);
+        syllabusRepository = mock(SyllabusRepository.class);
+
+        // syllabus_audit trong bộ nhớ, đúng thứ tự version
+        when(syllabusRepository.findByIdAndIsActiveTrue(SYLLABUS_ID)).thenAnswer(inv -> Optional.of(current));
+        when(auditRepository.allocateVersionNumber(SYLLABUS_ID)).thenAnswer(inv -> rows.size() + 1);
+        when(auditRepository.findLatestAuditBySyllabusId(SYLLABUS_ID))
+            .thenAnswer(inv -> rows.isEmpty() ? Optional.empty() : Optional.of(rows.get(rows.size() - 1)));
+        when(auditRepository.save(any(SyllabusAudit.class))).thenAnswer(inv -> {
+            SyllabusAudit audit = inv.getArgument(0);
+            audit.setId((long) rows.size() + 1);
+            rows.add(audit);
+            return audit;
+        });
+        when(auditRepository.findBySyllabusIdAndVersionNumber(eq(SYLLABUS_ID), anyInt())).thenAnswer(inv -> {
+            int version = inv.getArgument(1);
+            return rows.stream().filter(a -> a.getVersionNumber() == version).findFirst();
+        });
+        when(auditRepository.findAuditBetweenVersions(anyLong(), anyInt(), anyInt())).thenAnswer(inv -> {
+            int start = inv.getArgument(1);
+            int end = inv.getArgument(2);
+            return rows.stream()
+                .filter(a -> a.getVersionNumber() >= start && a.getVersionNumber() <= end)
+                .toList();
+        });
+    }
+
+    @Test
+    public void snapshotEveryN_everyVersionReconstructsWithColdCache() {
+        List<String[]> written = new ArrayList<>();
+        SyllabusVersionService writer = newService();
+        for (int v = 1; v <= 8; v++) {
+            String[] texts = {
+                "Nội dung v" + v + " 📘" + "x".repeat(v),
+                v % 2 == 0 ? null : "Mục tiêu " + v,
+                v == 4 ? "" : "Thuyết giảng",
+                "Đánh giá: giữa kỳ " + (v * 10) + "%"};
+            current = syllabus(texts);
+            writer.recordChange(SYLLABUS_ID, "UPDATE", "v" + v, "lecturer");
+            written.add(texts);
+        }
+
+        assertEquals(List.of("SNAPSHOT", "DELTA", "DELTA", "SNAPSHOT", "DELTA", "DELTA", "SNAPSHOT", "DELTA"),
+            rows.stream().map(SyllabusAudit::getEncoding).toList());
+        assertEquals(List.of(1, 1, 1, 4, 4, 4, 7, 7), rows.stream().map(SyllabusAudit::getBaseVersion).toList());
+
+        // Service mới, cache rỗng: mỗi version phải dựng lại từ snapshot của nó
+        for (int v = 8; v >= 1; v--) {
+            assertContent(written.get(v - 1), newService().getVersion(SYLLABUS_ID, v));
+        }
+    }
+
+    @Test
+    public void legacyRow_isReadFromTextColumnsAndServesAsBaseOfNextDelta() {
+        rows.add(SyllabusAudit.builder()
+            .id(1L)
+            .syllabusId(SYLLABUS_ID)
+            .versionNumber(1)
+            .content("Nội dung cũ")
+            .learningObjectives(null)
+            .teachingMethods("")
+            .assessmentMethods("Thi cuối kỳ")
+            .build());
+
+        String[] next = {"Nội dung cũ, đã sửa 🧮", "Mục tiêu mới", "", "Thi cuối kỳ"};
+        current = syllabus(next);
+        newService().recordChange(SYLLABUS_ID, "UPDATE", "v2", "lecturer");
+
+        SyllabusAudit delta = rows.get(1);
+        assertEquals(SyllabusAudit.ENCODING_DELTA, delta.getEncoding());
+        assertEquals(1, delta.getBaseVersion());
+        assertNull(delta.getContent());
+
+        assertContent(new String[]{"Nội dung cũ", null, "", "Thi cuối kỳ"}, newService().getVersion(SYLLABUS_ID, 1));
+        assertContent(next, newService().getVersion(SYLLABUS_ID, 2));
+    }
+
+    // Helper methods
+    private SyllabusVersionService newService() {
+        SyllabusVersionService service = new SyllabusVersionService(auditRepository, syllabusRepository);
+        ReflectionTestUtils.setField(service, "snapshotInterval", SNAPSHOT_INTERVAL);
+        ReflectionTestUtils.setField(service, "contentCacheSize", 16);
+        service.initContentCache();
+        return service;
+    }
+
+    private static Syllabus syllabus(String[] texts) {
+        return Syllabus.builder()
+            .syllabusCode("CS101-2026")
+            .version(1)
+            .academicYear("2026-2027")
+            .semester(1)
+            .status("DRAFT")
+            .content(texts[0])
+            .learningObjectives(texts[1])
+            .teachingMethods(texts[2])
+            .assessmentMethods(texts[3])
+            .build();
+    }
+
+    private static void assertContent(String[] expected, SyllabusVersionDto actual) {
+        assertEquals(expected[0], actual.getContent(), "content v" + actual.getVersionNumber());
+        assertEquals(expected[1], actual.getLearningObjectives(), "learningObjectives v" + actual.getVersionNumber());
+        assertEquals(expected[2], actual.getTeachingMethods(), "teachingMethods v" + actual.getVersionNumber());
+        assertEquals(expected[3], actual.getAssessmentMethods(), "assessmentMethods v" + actual.getVersionNumber());
+    }
+}
@@ -28,12 +28,12 @@ public class SyllabusServiceClient {
 
     /**
      * Get public syllabuses (PUBLISHED status)
-     * Calls: GET /api/syllabuses/public
-     * Calls: GET /api/syllabuses/public?subjectCodes=CS101,CS102 (with filter)
+     * Calls: GET /api/syllabuses/public/summary (list rows, without content)
+     * Calls: GET /api/syllabuses/public/summary?subjectCodes=CS101,CS102 (with filter)
      */
     public List<Map<String, Object>> getPublicSyllabuses(List<String> subjectCodes) {
         UriComponentsBuilder builder = UriComponentsBuilder
-            .fromHttpUrl(syllabusServiceUrl + "/api/syllabuses/public");
+            .fromHttpUrl(syllabusServiceUrl + "/api/syllabuses/public/summary");
         
         if (subjectCodes != null && !subjectCodes.isEmpty()) {
             subjectCodes.forEach(code -> builder.queryParam("subjectCodes", code));
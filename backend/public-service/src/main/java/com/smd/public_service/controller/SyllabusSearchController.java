@@ -1,6 +1,8 @@
 package com.smd.public_service.controller;
 
 import com.smd.public_service.dto.SearchResponse;
+import com.smd.public_service.dto.SubjectSuggestionDto;
+import com.smd.public_service.service.SubjectSuggestService;
 import com.smd.public_service.service.SyllabusSearchService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -8,6 +10,8 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 import lombok.RequiredArgsConstructor;
 
 @RestController
@@ -16,6 +20,7 @@ import lombok.RequiredArgsConstructor;
 public class SyllabusSearchController {
     
     private final SyllabusSearchService searchService;
+    private final SubjectSuggestService suggestService;
 
     @GetMapping("/search")
     public ResponseEntity<SearchResponse> search(
@@ -36,4 +41,14 @@ public class SyllabusSearchController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Gợi ý môn học khi gõ; trả lời từ bộ nhớ, không truy vấn database
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SubjectSuggestionDto>> suggest(
+            @RequestParam("q") String q,
+            @RequestParam(value = "limit", defaultValue = "8") int limit
+    ) {
+        return ResponseEntity.ok(suggestService.suggest(q, limit));
+    }
 }
@@ -1,6 +1,7 @@
 package com.smd.public_service.dto;
 
 import java.util.List;
+import java.util.Map;
 
 public class SearchResponse {
 
@@ -8,6 +9,7 @@ public class SearchResponse {
     private int page;
     private int size;
     private List<SyllabusSummary> results;
+    private Map<String, Map<String, Long>> facets;
 
     public SearchResponse() {
     }
@@ -50,4 +52,12 @@ public class SearchResponse {
     public void setResults(List<SyllabusSummary> results) {
         this.results = results;
     }
+
+    public Map<String, Map<String, Long>> getFacets() {
+        return facets;
+    }
+
+    public void setFacets(Map<String, Map<String, Long>> facets) {
+        this.facets = facets;
+    }
 }
@@ -0,0 +1,24 @@
+package com.smd.public_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Gợi ý môn học cho ô tìm kiếm (search-as-you-type)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubjectSuggestionDto {
+
+    @JsonProperty("subjectId")
+    private Long subjectId;
+
+    @JsonProperty("subjectCode")
+    private String subjectCode;
+
+    @JsonProperty("subjectName")
+    private String subjectName;
+}
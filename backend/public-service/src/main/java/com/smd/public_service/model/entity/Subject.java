@@ -18,7 +18,8 @@ import java.util.Set;
 @Entity
 @Table(name = "subject", indexes = {
     @Index(name = "idx_subject_code", columnList = "subject_code"),
-    @Index(name = "idx_subject_program_id", columnList = "program_id")
+    @Index(name = "idx_subject_program_id", columnList = "program_id"),
+    @Index(name = "idx_subject_updated_at", columnList = "updated_at")
 })
 @Getter
 @Setter
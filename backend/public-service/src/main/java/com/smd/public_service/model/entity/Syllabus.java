@@ -14,6 +14,7 @@ import lombok.experimental.SuperBuilder;
 @Entity
 @Table(name = "syllabus", indexes = {
     @Index(name = "idx_syllabus_subject_id", columnList = "subject_id"),
+    @Index(name = "idx_syllabus_subject_version", columnList = "subject_id,version"),
     @Index(name = "idx_syllabus_code", columnList = "syllabus_code"),
     @Index(name = "idx_syllabus_status", columnList = "status"),
     @Index(name = "idx_syllabus_updated_at", columnList = "updated_at")
@@ -63,7 +64,6 @@ public class Syllabus extends BaseEntity {
     @Column(name = "approval_comments", columnDefinition = "TEXT")
     private String approvalComments;
 
-    // Full-text search support (PostgreSQL only - disabled for H2)
-    // @Column(name = "search_vector", columnDefinition = "tsvector")
-    // private String searchVector;
+    // Full-text search (PostgreSQL only): cột search_vector do trigger duy trì, không map vào entity.
+    // Xem SyllabusFullTextSearchRepository
 }
\ No newline at end of file
@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,6 +19,14 @@ public interface SubjectRepository extends JpaRepository<Subject, Long> {
     
     List<Subject> findByProgramId(Long programId);
     
+    List<Subject> findByIsActiveTrue();
+    
+    // Đồng bộ dần gợi ý môn học / index tìm kiếm theo updated_at (gồm cả môn đã ngừng hoạt động)
+    List<Subject> findByUpdatedAtGreaterThanEqual(LocalDateTime since);
+    
+    @Query("SELECT MAX(s.updatedAt) FROM Subject s")
+    LocalDateTime findMaxUpdatedAt();
+    
     List<Subject> findByProgramIdAndSemester(Long programId, Integer semester);
     
     Page<Subject> findByProgramId(Long programId, Pageable pageable);
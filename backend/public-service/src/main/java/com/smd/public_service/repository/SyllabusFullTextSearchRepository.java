@@ -0,0 +1,263 @@
+package com.smd.public_service.repository;
+
+import com.smd.public_service.dto.SyllabusSummary;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Full-text search trên PostgreSQL dựa vào cột syllabus.search_vector (tsvector) do trigger duy trì
+ * và GIN index, xếp hạng bằng ts_rank_cd và trích đoạn bằng ts_headline.
+ * Khi không có kết quả, có thể tìm gần đúng theo trigram trên tên/mã môn học (pg_trgm).
+ *
+ * Cột, trigger và index được tạo khi khởi động (installSearchSchema) vì service dùng ddl-auto;
+ * trên H2 các câu lệnh này không chạy và isReady() trả về false.
+ */
+@Repository
+public class SyllabusFullTextSearchRepository {
+
+    /** Cấu hình 'simple': PostgreSQL không có sẵn cấu hình 'vietnamese', và tiếng Việt không cần stemming */
+    private static final String TS_CONFIG = "simple";
+
+    private static final String PUBLIC_FILTER = " s.status IN ('APPROVED', 'Published') AND s.is_active = true";
+
+    private static final String HEADLINE_OPTIONS =
+            "StartSel=<mark>, StopSel=</mark>, MaxWords=35, MinWords=15, MaxFragments=2, FragmentDelimiter=\" ... \"";
+
+    private static final List<String> SCHEMA_STATEMENTS = List.of(
+            "ALTER TABLE syllabus ADD COLUMN IF NOT EXISTS search_vector tsvector",
+            """
+            CREATE OR REPLACE FUNCTION syllabus_search_vector_update() RETURNS trigger AS $$
+            DECLARE
+                v_code text;
+                v_name text;
+            BEGIN
+                SELECT subject_code, subject_name INTO v_code, v_name FROM subject WHERE id = NEW.subject_id;
+                NEW.search_vector :=
+                       setweight(to_tsvector('simple', coalesce(v_code, '') || ' ' || coalesce(v_name, '')), 'A')
+                    || setweight(to_tsvector('simple', coalesce(NEW.learning_objectives, '')), 'B')
+                    || setweight(to_tsvector('simple', coalesce(NEW.content, '')), 'C')
+                    || setweight(to_tsvector('simple', coalesce(NEW.teaching_methods, '') || ' '
+                                                       || coalesce(NEW.assessment_methods, '')), 'D');
+                RETURN NEW;
+            END
+            $$ LANGUAGE plpgsql
+            """,
+            "DROP TRIGGER IF EXISTS trg_syllabus_search_vector ON syllabus",
+            """
+            CREATE TRIGGER trg_syllabus_search_vector
+                BEFORE INSERT OR UPDATE OF content, learning_objectives, teaching_methods, assessment_methods, subject_id
+                ON syllabus FOR EACH ROW EXECUTE FUNCTION syllabus_search_vector_update()
+            """,
+            // Đổi tên/mã môn học thì tính lại vector của các giáo trình thuộc môn đó
+            """
+            CREATE OR REPLACE FUNCTION subject_search_vector_refresh() RETURNS trigger AS $$
+            BEGIN
+                IF NEW.subject_code IS DISTINCT FROM OLD.subject_code
+                   OR NEW.subject_name IS DISTINCT FROM OLD.subject_name THEN
+                    UPDATE syllabus SET subject_id = subject_id WHERE subject_id = NEW.id;
+                END IF;
+                RETURN NULL;
+            END
+            $$ LANGUAGE plpgsql
+            """,
+            "DROP TRIGGER IF EXISTS trg_subject_search_vector ON subject",
+            """
+            CREATE TRIGGER trg_subject_search_vector
+                AFTER UPDATE OF subject_code, subject_name
+                ON subject FOR EACH ROW EXECUTE FUNCTION subject_search_vector_refresh()
+            """,
+            "CREATE INDEX IF NOT EXISTS idx_syllabus_search_vector ON syllabus USING gin (search_vector)",
+            // Dòng có sẵn trước khi có trigger: cập nhật giả để trigger tính vector
+            "UPDATE syllabus SET subject_id = subject_id WHERE search_vector IS NULL");
+
+    private static final List<String> TRIGRAM_STATEMENTS = List.of(
+            "CREATE INDEX IF NOT EXISTS idx_subject_name_trgm ON subject USING gin (lower(subject_name) gin_trgm_ops)",
+            "CREATE INDEX IF NOT EXISTS idx_subject_code_trgm ON subject USING gin (lower(subject_code) gin_trgm_ops)");
+
+    private static final RowMapper<SyllabusSummary> SUMMARY_ROW_MAPPER = (rs, i) -> {
+        SyllabusSummary summary = new SyllabusSummary();
+        summary.setId(rs.getLong("id"));
+        summary.setTitle(rs.getString("subject_name"));
+        summary.setCode(rs.getString("subject_code"));
+        // Chuyên ngành: public-service chỉ có program_id, không có tên chương trình nên để trống
+        Integer semester = rs.getObject("semester", Integer.class);
+        summary.setSemester(semester == null ? null : String.valueOf(semester));
+        summary.setVersion(String.valueOf(rs.getInt("version")));
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+        summary.setUpdatedAt(updatedAt == null ? null
+                : updatedAt.toLocalDateTime().format(DateTimeFormatter.ISO_DATE_TIME));
+        summary.setSnippet(rs.getString("snippet"));
+        summary.setScore(rs.getDouble("score"));
+        summary.setDetailUrl("/api/public/syllabi/" + summary.getId());
+        return summary;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile boolean ready;
+    private volatile boolean trigramReady;
+
+    public SyllabusFullTextSearchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public boolean isPostgres() {
+        String product = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        return "PostgreSQL".equalsIgnoreCase(product);
+    }
+
+    /**
+     * Tạo extension pg_trgm (tự commit, tách khỏi transaction tạo schema vì có thể thiếu quyền)
+     */
+    public boolean installTrigramExtension() {
+        jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+        return true;
+    }
+
+    /**
+     * Tạo cột, trigger và index cho full-text search. Idempotent; advisory lock tránh việc
+     * nhiều instance cùng CREATE OR REPLACE FUNCTION khi khởi động đồng thời.
+     */
+    @Transactional
+    public void installSearchSchema(boolean withTrigram) {
+        jdbcTemplate.execute("SELECT pg_advisory_xact_lock(hashtext('syllabus_search_schema'))");
+        SCHEMA_STATEMENTS.forEach(jdbcTemplate::execute);
+        if (withTrigram) {
+            TRIGRAM_STATEMENTS.forEach(jdbcTemplate::execute);
+        }
+        ready = true;
+        trigramReady = withTrigram;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public boolean isTrigramReady() {
+        return trigramReady;
+    }
+
+    /**
+     * Một trang kết quả xếp theo ts_rank_cd. ts_headline chỉ được tính cho các dòng của trang
+     */
+    public List<SyllabusSummary> search(String query, String subjectCode, Integer semester,
+                                        boolean highlight, int limit, int offset) {
+        List<Object> args = new ArrayList<>();
+        String where = fullTextWhere(subjectCode, semester, args);
+        String snippet = highlight
+                ? "ts_headline('" + TS_CONFIG + "', coalesce(s.content, ''), q.query, '" + HEADLINE_OPTIONS + "')"
+                : "left(coalesce(s.content, ''), 150)";
+        String sql = """
+                SELECT s.id, sub.subject_name, sub.subject_code, s.semester, s.version, s.updated_at,
+                       hit.score, %s AS snippet
+                FROM (SELECT s.id, ts_rank_cd(s.search_vector, q.query) AS score
+                      FROM syllabus s JOIN subject sub ON sub.id = s.subject_id,
+                           websearch_to_tsquery('%s', ?) q(query)
+                      WHERE %s
+                      ORDER BY score DESC, s.id DESC
+                      LIMIT ? OFFSET ?) hit
+                JOIN syllabus s ON s.id = hit.id
+                JOIN subject sub ON sub.id = s.subject_id,
+                     websearch_to_tsquery('%s', ?) q(query)
+                ORDER BY hit.score DESC, s.id DESC
+                """.formatted(snippet, TS_CONFIG, where, TS_CONFIG);
+        List<Object> all = new ArrayList<>();
+        all.add(query);
+        all.addAll(args);
+        all.add(limit);
+        all.add(offset);
+        all.add(query);
+        return jdbcTemplate.query(sql, SUMMARY_ROW_MAPPER, all.toArray());
+    }
+
+    public long count(String query, String subjectCode, Integer semester) {
+        List<Object> args = new ArrayList<>();
+        String where = fullTextWhere(subjectCode, semester, args);
+        String sql = """
+                SELECT count(*)
+                FROM syllabus s JOIN subject sub ON sub.id = s.subject_id,
+                     websearch_to_tsquery('%s', ?) q(query)
+                WHERE %s
+                """.formatted(TS_CONFIG, where);
+        List<Object> all = new ArrayList<>();
+        all.add(query);
+        all.addAll(args);
+        Long total = jdbcTemplate.queryForObject(sql, Long.class, all.toArray());
+        return total == null ? 0 : total;
+    }
+
+    /**
+     * Tìm gần đúng (lỗi chính tả) theo độ tương đồng trigram của tên/mã môn học
+     */
+    public List<SyllabusSummary> searchFuzzy(String query, String subjectCode, Integer semester, int limit, int offset) {
+        List<Object> args = new ArrayList<>();
+        String where = fuzzyWhere(query, subjectCode, semester, args);
+        String sql = """
+                SELECT s.id, sub.subject_name, sub.subject_code, s.semester, s.version, s.updated_at,
+                       greatest(similarity(lower(sub.subject_name), lower(?)),
+                                similarity(lower(sub.subject_code), lower(?))) AS score,
+                       left(coalesce(s.content, ''), 150) AS snippet
+                FROM syllabus s JOIN subject sub ON sub.id = s.subject_id
+                WHERE %s
+                ORDER BY score DESC, s.id DESC
+                LIMIT ? OFFSET ?
+                """.formatted(where);
+        List<Object> all = new ArrayList<>();
+        all.add(query);
+        all.add(query);
+        all.addAll(args);
+        all.add(limit);
+        all.add(offset);
+        return jdbcTemplate.query(sql, SUMMARY_ROW_MAPPER, all.toArray());
+    }
+
+    public long countFuzzy(String query, String subjectCode, Integer semester) {
+        List<Object> args = new ArrayList<>();
+        String where = fuzzyWhere(query, subjectCode, semester, args);
+        Long total = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM syllabus s JOIN subject sub ON sub.id = s.subject_id WHERE " + where,
+                Long.class, args.toArray());
+        return total == null ? 0 : total;
+    }
+
+    // Helper methods
+    private static String fullTextWhere(String subjectCode, Integer semester, List<Object> args) {
+        StringBuilder where = new StringBuilder("s.search_vector @@ q.query AND").append(PUBLIC_FILTER);
+        appendFilters(where, subjectCode, semester, args);
+        return where.toString();
+    }
+
+    private static String fuzzyWhere(String query, String subjectCode, Integer semester, List<Object> args) {
+        // Toán tử % dùng được GIN trigram index trên lower(subject_name) / lower(subject_code)
+        StringBuilder where = new StringBuilder(
+                "(lower(sub.subject_name) % lower(?) OR lower(sub.subject_code) % lower(?)) AND").append(PUBLIC_FILTER);
+        args.add(query);
+        args.add(query);
+        appendFilters(where, subjectCode, semester, args);
+        return where.toString();
+    }
+
+    private static void appendFilters(StringBuilder where, String subjectCode, Integer semester, List<Object> args) {
+        if (subjectCode != null && !subjectCode.isBlank()) {
+            where.append(" AND lower(sub.subject_code) LIKE ? ESCAPE '\\'");
+            args.add(escapeLike(subjectCode.trim().toLowerCase()) + "%");
+        }
+        if (semester != null) {
+            where.append(" AND s.semester = ?");
+            args.add(semester);
+        }
+    }
+
+    private static String escapeLike(String s) {
+        return s.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -8,6 +8,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,24 +22,8 @@ public interface SyllabusRepository extends JpaRepository<Syllabus, Long> {
     
     List<Syllabus> findBySubjectIdAndVersion(Long subjectId, Integer version);
     
-    Page<Syllabus> findBySubjectId(Long subjectId, Pageable pageable);
-    
-    Page<Syllabus> findByStatus(String status, Pageable pageable);
-    
     Page<Syllabus> findByAcademicYear(String academicYear, Pageable pageable);
     
-    Page<Syllabus> findByAcademicYearAndSemester(String academicYear, Integer semester, Pageable pageable);
-    
-    // Full-text search using PostgreSQL
-    @Query(value = "SELECT * FROM syllabus WHERE " +
-            "to_tsvector('vietnamese', subject.subject_name || ' ' || syllabus.learning_objectives || ' ' || syllabus.content) " +
-            "@@ plainto_tsquery('vietnamese', :searchQuery) " +
-            "AND syllabus.status = 'Published' " +
-            "ORDER BY ts_rank(to_tsvector('vietnamese', subject.subject_name || ' ' || syllabus.learning_objectives || ' ' || syllabus.content), " +
-            "plainto_tsquery('vietnamese', :searchQuery)) DESC",
-            nativeQuery = true)
-    Page<Syllabus> fullTextSearch(@Param("searchQuery") String searchQuery, Pageable pageable);
-    
     // Search by filters
     @Query("SELECT s FROM Syllabus s WHERE " +
             "(:subjectName IS NULL OR LOWER(s.subject.subjectName) LIKE LOWER(CONCAT('%', :subjectName, '%'))) AND " +
@@ -58,17 +44,86 @@ public interface SyllabusRepository extends JpaRepository<Syllabus, Long> {
             "ORDER BY version DESC LIMIT 1", nativeQuery = true)
     Optional<Syllabus> findLatestVersionBySubjectId(@Param("subjectId") Long subjectId);
     
+    /**
+     * Cột cho danh sách kết quả tìm kiếm: join môn học trong cùng query (không lazy-load Subject từng dòng)
+     * và chỉ lấy 151 ký tự đầu của content làm snippet (ký tự thứ 151 cho biết có cần "...").
+     */
+    String SUMMARY_SELECT = "SELECT s.id AS id, sub.subjectName AS title, sub.subjectCode AS code, " +
+            "s.semester AS semester, s.version AS version, s.updatedAt AS updatedAt, " +
+            "SUBSTRING(s.content, 1, 151) AS snippet " +
+            "FROM Syllabus s JOIN s.subject sub ";
+    
+    String SUMMARY_COUNT = "SELECT COUNT(s) FROM Syllabus s JOIN s.subject sub ";
+    
     // Simple search for H2 database (no full-text search support)
-    @Query("SELECT s FROM Syllabus s WHERE " +
-            "(LOWER(s.subject.subjectName) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-            "LOWER(s.subject.subjectCode) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
+    String SIMPLE_QUERY_FILTER = "WHERE (LOWER(sub.subjectName) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
+            "LOWER(sub.subjectCode) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
             "LOWER(s.content) LIKE LOWER(CONCAT('%', :query, '%'))) AND " +
-            "s.status IN ('APPROVED', 'Published')")
-    Page<Syllabus> searchBySimpleQuery(@Param("query") String query, Pageable pageable);
+            "s.status IN ('APPROVED', 'Published')";
+    
+    @Query(value = SUMMARY_SELECT + SIMPLE_QUERY_FILTER, countQuery = SUMMARY_COUNT + SIMPLE_QUERY_FILTER)
+    Page<SummaryRow> searchSummariesBySimpleQuery(@Param("query") String query, Pageable pageable);
     
     // Find by subject code
-    @Query("SELECT s FROM Syllabus s WHERE " +
-            "LOWER(s.subject.subjectCode) LIKE LOWER(CONCAT('%', :subjectCode, '%')) AND " +
-            "s.status IN ('APPROVED', 'Published')")
-    Page<Syllabus> findBySubjectCodeSimple(@Param("subjectCode") String subjectCode, Pageable pageable);
+    String SUBJECT_CODE_FILTER = "WHERE LOWER(sub.subjectCode) LIKE LOWER(CONCAT('%', :subjectCode, '%')) AND " +
+            "s.status IN ('APPROVED', 'Published')";
+    
+    @Query(value = SUMMARY_SELECT + SUBJECT_CODE_FILTER, countQuery = SUMMARY_COUNT + SUBJECT_CODE_FILTER)
+    Page<SummaryRow> findSummariesBySubjectCodeLike(@Param("subjectCode") String subjectCode, Pageable pageable);
+    
+    @Query(value = SUMMARY_SELECT + "WHERE sub.subjectCode = :subjectCode",
+            countQuery = SUMMARY_COUNT + "WHERE sub.subjectCode = :subjectCode")
+    Page<SummaryRow> findSummariesBySubjectCode(@Param("subjectCode") String subjectCode, Pageable pageable);
+    
+    @Query(value = SUMMARY_SELECT + "WHERE s.status = :status",
+            countQuery = SUMMARY_COUNT + "WHERE s.status = :status")
+    Page<SummaryRow> findSummariesByStatus(@Param("status") String status, Pageable pageable);
+    
+    @Query(value = SUMMARY_SELECT + "WHERE s.academicYear = :academicYear AND s.semester = :semester",
+            countQuery = SUMMARY_COUNT + "WHERE s.academicYear = :academicYear AND s.semester = :semester")
+    Page<SummaryRow> findSummariesByAcademicYearAndSemester(@Param("academicYear") String academicYear,
+                                                            @Param("semester") Integer semester,
+                                                            Pageable pageable);
+    
+    // Nạp giáo trình công khai kèm môn học theo lô (keyset theo id) cho index tìm kiếm
+    @Query("SELECT s FROM Syllabus s JOIN FETCH s.subject WHERE " +
+            "s.id > :afterId AND s.status IN ('APPROVED', 'Published') AND s.isActive = true " +
+            "ORDER BY s.id")
+    List<Syllabus> findPublicWithSubjectAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    @Query("SELECT s FROM Syllabus s JOIN FETCH s.subject WHERE s.id = :id")
+    Optional<Syllabus> findWithSubjectById(@Param("id") Long id);
+    
+    // Đồng bộ dần index tìm kiếm: các giáo trình có updated_at từ mốc since (idx_syllabus_updated_at)
+    @Query("SELECT s.id AS id, s.version AS version, s.updatedAt AS updatedAt FROM Syllabus s " +
+            "WHERE s.updatedAt >= :since")
+    List<VersionKey> findVersionKeysUpdatedSince(@Param("since") LocalDateTime since);
+    
+    @Query("SELECT MAX(s.updatedAt) FROM Syllabus s")
+    LocalDateTime findMaxUpdatedAt();
+    
+    // Khoá phiên bản (id + updatedAt) cho cache diff; không tải content
+    @Query("SELECT s.id AS id, s.version AS version, s.updatedAt AS updatedAt FROM Syllabus s " +
+            "WHERE s.subject.id = :subjectId AND s.version IN :versions")
+    List<VersionKey> findVersionKeys(@Param("subjectId") Long subjectId,
+                                     @Param("versions") Collection<Integer> versions);
+    
+    @Query("SELECT s.id AS id, s.version AS version, s.updatedAt AS updatedAt FROM Syllabus s WHERE s.id IN :ids")
+    List<VersionKey> findVersionKeysByIdIn(@Param("ids") Collection<Long> ids);
+    
+    interface VersionKey {
+        Long getId();
+        Integer getVersion();
+        LocalDateTime getUpdatedAt();
+    }
+    
+    interface SummaryRow {
+        Long getId();
+        String getTitle();
+        String getCode();
+        Integer getSemester();
+        Integer getVersion();
+        LocalDateTime getUpdatedAt();
+        String getSnippet();
+    }
 }
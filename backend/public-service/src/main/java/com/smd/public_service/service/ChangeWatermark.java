@@ -0,0 +1,54 @@
+package com.smd.public_service.service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mốc updated_at lớn nhất đã đồng bộ từ một bảng (dùng cho cập nhật dần index trong bộ nhớ).
+ * Mốc lấy từ dữ liệu trong database, không lấy đồng hồ của public-service. Khi truy vấn lùi lại
+ * một khoảng overlap để không bỏ sót bản ghi commit muộn hoặc ghi từ node lệch đồng hồ.
+ * Các bản ghi (id, updated_at) đã đồng bộ trong khoảng overlap được ghi nhớ, nên lần quét sau
+ * bỏ qua chúng thay vì tải và index lại mỗi chu kỳ.
+ */
+final class ChangeWatermark {
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private volatile LocalDateTime seen;
+    // id -> updated_at đã đồng bộ, chỉ giữ các bản ghi còn nằm trong khoảng overlap
+    private final Map<Long, LocalDateTime> synced = new ConcurrentHashMap<>();
+
+    /**
+     * Đặt lại mốc (khi dựng lại toàn bộ); null nghĩa là bảng chưa có dữ liệu
+     */
+    void reset(LocalDateTime max) {
+        seen = max;
+        synced.clear();
+    }
+
+    /**
+     * Ghi nhận bản ghi đã đồng bộ và đẩy mốc; false nếu đúng phiên bản này đã được đồng bộ trước đó
+     */
+    boolean changed(Long id, LocalDateTime updatedAt) {
+        advance(updatedAt);
+        return updatedAt == null || !updatedAt.equals(synced.put(id, updatedAt));
+    }
+
+    void advance(LocalDateTime updatedAt) {
+        LocalDateTime current = seen;
+        if (updatedAt != null && (current == null || updatedAt.isAfter(current))) {
+            seen = updatedAt;
+        }
+    }
+
+    /**
+     * Mốc truy vấn (updated_at >= mốc); bản ghi cũ hơn mốc không còn được trả về nên thôi ghi nhớ
+     */
+    LocalDateTime since(long overlapSeconds) {
+        LocalDateTime current = seen;
+        LocalDateTime since = current == null ? EPOCH : current.minusSeconds(overlapSeconds);
+        synced.values().removeIf(updatedAt -> updatedAt.isBefore(since));
+        return since;
+    }
+}
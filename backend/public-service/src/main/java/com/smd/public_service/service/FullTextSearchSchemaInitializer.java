@@ -0,0 +1,51 @@
+package com.smd.public_service.service;
+
+import com.smd.public_service.repository.SyllabusFullTextSearchRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cài đặt cột search_vector, trigger và GIN index khi chạy trên PostgreSQL.
+ * Trên H2 (profile h2) hoặc khi cài đặt lỗi, SyllabusSearchService dùng lại tìm kiếm LIKE.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "smd.search.fulltext.enabled", havingValue = "true", matchIfMissing = true)
+public class FullTextSearchSchemaInitializer {
+
+    private final SyllabusFullTextSearchRepository fullTextSearchRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void install() {
+        try {
+            if (!fullTextSearchRepository.isPostgres()) {
+                log.info("Database is not PostgreSQL, full-text search disabled");
+                return;
+            }
+        } catch (DataAccessException e) {
+            log.warn("Cannot determine database type, full-text search disabled: {}", e.getMessage());
+            return;
+        }
+
+        boolean trigram;
+        try {
+            trigram = fullTextSearchRepository.installTrigramExtension();
+        } catch (DataAccessException e) {
+            log.warn("pg_trgm is not available, fuzzy fallback disabled: {}", e.getMessage());
+            trigram = false;
+        }
+
+        try {
+            fullTextSearchRepository.installSearchSchema(trigram);
+            log.info("Full-text search schema installed (trigram fallback: {})", trigram);
+        } catch (DataAccessException e) {
+            log.warn("Failed to install full-text search schema, falling back to LIKE search: {}", e.getMessage());
+        }
+    }
+}
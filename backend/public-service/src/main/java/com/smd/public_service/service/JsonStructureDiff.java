@@ -0,0 +1,199 @@
+package com.smd.public_service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * So sánh cấu trúc hai tài liệu JSON (content dạng jsonb): mỗi khác biệt là một hunk có đường dẫn
+ * kiểu "$.chapters[2].title" (tên trường có ký tự đặc biệt viết dạng $['a.b']).
+ * Object so theo tên trường. Phần tử mảng được gióng bằng Myers theo khoá ổn định (id/code/key,
+ * sau đó title/name, không có khoá thì so cả phần tử), nên chèn một chương ở đầu chỉ sinh một hunk ADDED.
+ * Chỉ số trong đường dẫn theo bản mới, riêng REMOVED theo bản cũ.
+ */
+final class JsonStructureDiff {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    // Khoá định danh phần tử: khác khoá là phần tử khác (xoá + thêm)
+    private static final List<String> STRONG_KEYS = List.of("id", "code", "key");
+    // Khoá chỉ dùng để gióng: sửa tiêu đề vẫn là MODIFIED nếu phần tử đứng cùng chỗ
+    private static final List<String> WEAK_KEYS = List.of("title", "name");
+
+    private JsonStructureDiff() {
+    }
+
+    /**
+     * Parse nếu văn bản là object/array JSON, ngược lại null (khi đó dùng LineDiff)
+     */
+    static JsonNode parseStructured(String text) {
+        if (text == null) {
+            return null;
+        }
+        String trimmed = text.trim();
+        if (!trimmed.startsWith("{") && !trimmed.startsWith("[")) {
+            return null;
+        }
+        try {
+            JsonNode node = MAPPER.readTree(trimmed);
+            return node != null && node.isContainerNode() ? node : null;
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    static List<SyllabusDiffService.DiffHunk> diff(JsonNode oldNode, JsonNode newNode) {
+        List<SyllabusDiffService.DiffHunk> hunks = new ArrayList<>();
+        compare("$", oldNode, newNode, hunks);
+        return hunks;
+    }
+
+    // Helper methods
+    private static void compare(String path, JsonNode oldNode, JsonNode newNode, List<SyllabusDiffService.DiffHunk> hunks) {
+        if (oldNode == null || oldNode.isMissingNode()) {
+            hunks.add(hunk("ADDED", path, null, newNode));
+            return;
+        }
+        if (newNode == null || newNode.isMissingNode()) {
+            hunks.add(hunk("REMOVED", path, oldNode, null));
+            return;
+        }
+        if (oldNode.isObject() && newNode.isObject()) {
+            Set<String> fields = new LinkedHashSet<>();
+            oldNode.fieldNames().forEachRemaining(fields::add);
+            for (Iterator<String> it = newNode.fieldNames(); it.hasNext(); ) {
+                fields.add(it.next());
+            }
+            for (String field : fields) {
+                compare(fieldPath(path, field), oldNode.path(field), newNode.path(field), hunks);
+            }
+            return;
+        }
+        if (oldNode.isArray() && newNode.isArray()) {
+            compareArrays(path, oldNode, newNode, hunks);
+            return;
+        }
+        if (!oldNode.equals(newNode)) {
+            hunks.add(hunk("MODIFIED", path, oldNode, newNode));
+        }
+    }
+
+    private static void compareArrays(String path, JsonNode oldArray, JsonNode newArray,
+                                      List<SyllabusDiffService.DiffHunk> hunks) {
+        List<JsonNode> a = new ArrayList<>(oldArray.size());
+        List<JsonNode> b = new ArrayList<>(newArray.size());
+        oldArray.forEach(a::add);
+        newArray.forEach(b::add);
+
+        char[] ops = LineDiff.editScript(a, b, JsonStructureDiff::sameElement, LineDiff.DEFAULT_MAX_EDIT_DISTANCE);
+        if (ops == null) {
+            // Quá nhiều khác biệt để gióng: so theo vị trí
+            for (int i = 0; i < Math.max(a.size(), b.size()); i++) {
+                compare(path + "[" + i + "]", oldArray.path(i), newArray.path(i), hunks);
+            }
+            return;
+        }
+
+        int x = 0;
+        int y = 0;
+        int i = 0;
+        while (i < ops.length) {
+            if (ops[i] == '=') {
+                compare(path + "[" + y + "]", a.get(x), b.get(y), hunks);
+                x++;
+                y++;
+                i++;
+                continue;
+            }
+            int oldFrom = x;
+            int newFrom = y;
+            while (i < ops.length && ops[i] != '=') {
+                if (ops[i] == '-') {
+                    x++;
+                } else {
+                    y++;
+                }
+                i++;
+            }
+            // Trong một đoạn khác nhau, cặp phần tử cùng vị trí không có khoá định danh được coi là sửa
+            int o = oldFrom;
+            int n = newFrom;
+            while (o < x && n < y && strongKey(a.get(o)) == null && strongKey(b.get(n)) == null) {
+                compare(path + "[" + n + "]", a.get(o), b.get(n), hunks);
+                o++;
+                n++;
+            }
+            for (; o < x; o++) {
+                hunks.add(hunk("REMOVED", path + "[" + o + "]", a.get(o), null));
+            }
+            for (; n < y; n++) {
+                hunks.add(hunk("ADDED", path + "[" + n + "]", null, b.get(n)));
+            }
+        }
+    }
+
+    private static boolean sameElement(JsonNode a, JsonNode b) {
+        String keyA = alignKey(a);
+        String keyB = alignKey(b);
+        if (keyA != null || keyB != null) {
+            return Objects.equals(keyA, keyB);
+        }
+        return a.equals(b);
+    }
+
+    private static String alignKey(JsonNode node) {
+        String key = strongKey(node);
+        return key != null ? key : keyOf(node, WEAK_KEYS);
+    }
+
+    private static String strongKey(JsonNode node) {
+        return keyOf(node, STRONG_KEYS);
+    }
+
+    private static String keyOf(JsonNode node, List<String> fields) {
+        if (!node.isObject()) {
+            return null;
+        }
+        for (String field : fields) {
+            JsonNode value = node.get(field);
+            if (value != null && value.isValueNode() && !value.isNull()) {
+                return field + "=" + value.asText();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * $.name cho tên trường thông thường, $['tên.đặc biệt'] khi có dấu chấm, ngoặc, khoảng trắng...
+     */
+    static String fieldPath(String path, String field) {
+        boolean plain = !field.isEmpty() && !Character.isDigit(field.charAt(0));
+        for (int i = 0; plain && i < field.length(); i++) {
+            char c = field.charAt(i);
+            plain = Character.isLetterOrDigit(c) || c == '_';
+        }
+        if (plain) {
+            return path + "." + field;
+        }
+        return path + "['" + field.replace("\\", "\\\\").replace("'", "\\'") + "']";
+    }
+
+    private static SyllabusDiffService.DiffHunk hunk(String changeType, String path, JsonNode oldNode, JsonNode newNode) {
+        SyllabusDiffService.DiffHunk hunk = new SyllabusDiffService.DiffHunk();
+        hunk.changeType = changeType;
+        hunk.path = path;
+        hunk.oldLines = oldNode == null ? List.of() : List.of(render(oldNode));
+        hunk.newLines = newNode == null ? List.of() : List.of(render(newNode));
+        return hunk;
+    }
+
+    private static String render(JsonNode node) {
+        return node.isTextual() ? node.textValue() : node.toString();
+    }
+}
@@ -0,0 +1,166 @@
+package com.smd.public_service.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiPredicate;
+
+/**
+ * So sánh văn bản theo dòng bằng thuật toán Myers O(ND).
+ * Phần đầu/cuối giống nhau được cắt trước khi chạy; nếu số thay đổi vượt maxEditDistance
+ * thì trả về một hunk MODIFIED cho toàn bộ đoạn khác nhau thay vì tiếp tục tốn bộ nhớ.
+ */
+final class LineDiff {
+
+    static final int DEFAULT_MAX_EDIT_DISTANCE = 2000;
+
+    private LineDiff() {
+    }
+
+    static List<SyllabusDiffService.DiffHunk> diff(String oldText, String newText) {
+        return diff(lines(oldText), lines(newText), DEFAULT_MAX_EDIT_DISTANCE);
+    }
+
+    static List<SyllabusDiffService.DiffHunk> diff(String[] a, String[] b, int maxEditDistance) {
+        int prefix = 0;
+        while (prefix < a.length && prefix < b.length && a[prefix].equals(b[prefix])) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < a.length - prefix && suffix < b.length - prefix
+                && a[a.length - 1 - suffix].equals(b[b.length - 1 - suffix])) {
+            suffix++;
+        }
+        String[] oldMiddle = Arrays.copyOfRange(a, prefix, a.length - suffix);
+        String[] newMiddle = Arrays.copyOfRange(b, prefix, b.length - suffix);
+        if (oldMiddle.length == 0 && newMiddle.length == 0) {
+            return List.of();
+        }
+
+        char[] ops = editScript(Arrays.asList(oldMiddle), Arrays.asList(newMiddle), String::equals, maxEditDistance);
+        if (ops == null) {
+            return List.of(hunk(oldMiddle, 0, oldMiddle.length, newMiddle, 0, newMiddle.length, prefix));
+        }
+        return group(ops, oldMiddle, newMiddle, prefix);
+    }
+
+    static String[] lines(String text) {
+        if (text == null || text.isEmpty()) {
+            return new String[0];
+        }
+        return text.replace("\r\n", "\n").split("\n", -1);
+    }
+
+    /**
+     * Chuỗi thao tác '=' (giữ), '-' (xoá phần tử cũ), '+' (thêm phần tử mới); null nếu vượt giới hạn.
+     * Dùng chung cho dòng văn bản và phần tử mảng JSON (so khớp theo same).
+     */
+    static <T> char[] editScript(List<T> a, List<T> b, BiPredicate<? super T, ? super T> same, int maxEditDistance) {
+        int n = a.size();
+        int m = b.size();
+        int max = n + m;
+        int offset = max + 1;
+        int[] v = new int[2 * max + 3];
+        List<int[]> trace = new ArrayList<>();
+
+        int found = -1;
+        for (int d = 0; d <= Math.min(max, maxEditDistance) && found < 0; d++) {
+            // Lưu V của bước trước trong khoảng [-(d+1), d+1] để truy vết
+            trace.add(Arrays.copyOfRange(v, offset - d - 1, offset + d + 2));
+            for (int k = -d; k <= d; k += 2) {
+                int x = (k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1]))
+                        ? v[offset + k + 1]
+                        : v[offset + k - 1] + 1;
+                int y = x - k;
+                while (x < n && y < m && same.test(a.get(x), b.get(y))) {
+                    x++;
+                    y++;
+                }
+                v[offset + k] = x;
+                if (x >= n && y >= m) {
+                    found = d;
+                    break;
+                }
+            }
+        }
+        if (found < 0) {
+            return null;
+        }
+
+        char[] reversed = new char[n + m];
+        int length = 0;
+        int x = n;
+        int y = m;
+        for (int d = found; d >= 0; d--) {
+            int[] snapshot = trace.get(d);
+            int base = d + 1;
+            int k = x - y;
+            int prevK = (k == -d || (k != d && snapshot[base + k - 1] < snapshot[base + k + 1])) ? k + 1 : k - 1;
+            int prevX = snapshot[base + prevK];
+            int prevY = prevX - prevK;
+            while (x > prevX && y > prevY) {
+                reversed[length++] = '=';
+                x--;
+                y--;
+            }
+            if (d > 0) {
+                if (x == prevX) {
+                    reversed[length++] = '+';
+                    y--;
+                } else {
+                    reversed[length++] = '-';
+                    x--;
+                }
+            }
+        }
+
+        char[] ops = new char[length];
+        for (int i = 0; i < length; i++) {
+            ops[i] = reversed[length - 1 - i];
+        }
+        return ops;
+    }
+
+    // Helper methods
+
+    /**
+     * Gom các thao tác liên tiếp khác '=' thành hunk: chỉ xoá -> REMOVED, chỉ thêm -> ADDED, cả hai -> MODIFIED
+     */
+    private static List<SyllabusDiffService.DiffHunk> group(char[] ops, String[] a, String[] b, int lineOffset) {
+        List<SyllabusDiffService.DiffHunk> hunks = new ArrayList<>();
+        int x = 0;
+        int y = 0;
+        int i = 0;
+        while (i < ops.length) {
+            if (ops[i] == '=') {
+                x++;
+                y++;
+                i++;
+                continue;
+            }
+            int oldFrom = x;
+            int newFrom = y;
+            while (i < ops.length && ops[i] != '=') {
+                if (ops[i] == '-') {
+                    x++;
+                } else {
+                    y++;
+                }
+                i++;
+            }
+            hunks.add(hunk(a, oldFrom, x, b, newFrom, y, lineOffset));
+        }
+        return hunks;
+    }
+
+    private static SyllabusDiffService.DiffHunk hunk(String[] a, int oldFrom, int oldTo,
+                                                     String[] b, int newFrom, int newTo, int lineOffset) {
+        SyllabusDiffService.DiffHunk hunk = new SyllabusDiffService.DiffHunk();
+        hunk.changeType = oldFrom == oldTo ? "ADDED" : newFrom == newTo ? "REMOVED" : "MODIFIED";
+        hunk.oldStart = lineOffset + oldFrom + 1;
+        hunk.newStart = lineOffset + newFrom + 1;
+        hunk.oldLines = List.of(Arrays.copyOfRange(a, oldFrom, oldTo));
+        hunk.newLines = List.of(Arrays.copyOfRange(b, newFrom, newTo));
+        return hunk;
+    }
+}
@@ -0,0 +1,147 @@
+package com.smd.public_service.service;
+
+import com.smd.public_service.dto.SubjectSuggestionDto;
+import com.smd.public_service.model.entity.Subject;
+import com.smd.public_service.repository.SubjectRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * SubjectSuggestService - Gợi ý môn học khi gõ (search-as-you-type)
+ * Khoá (đã bỏ dấu) của mỗi môn: mã môn, tên môn và phần tên bắt đầu từ mỗi từ,
+ * nên "java", "lap trinh" hay "cs1" đều gợi ý "CS101 - Lập trình Java".
+ * Trả lời hoàn toàn từ bộ nhớ; định kỳ đồng bộ dần các môn có updated_at mới, dựng lại toàn bộ theo lịch.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SubjectSuggestService {
+
+    private static final int TOP_K = 20;
+    private static final int CODE_SCORE = 3;
+    private static final int NAME_SCORE = 2;
+    private static final int WORD_SCORE = 1;
+
+    private final SubjectRepository subjectRepository;
+
+    private final SubjectSuggestTrie trie = new SubjectSuggestTrie(TOP_K);
+    // subjectId -> gợi ý hiển thị và các khoá đã thêm vào trie (để xoá khi môn thay đổi)
+    private final Map<Long, SubjectSuggestionDto> suggestions = new ConcurrentHashMap<>();
+    private final Map<Long, Set<String>> keysBySubject = new ConcurrentHashMap<>();
+    private final ChangeWatermark watermark = new ChangeWatermark();
+    private volatile boolean ready;
+
+    @Value("${smd.search.index.refresh-overlap-seconds:120}")
+    private long refreshOverlapSeconds;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${smd.search.index.rebuild-cron:0 30 3 * * *}")
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        watermark.reset(subjectRepository.findMaxUpdatedAt());
+        List<Subject> subjects = subjectRepository.findByIsActiveTrue();
+        Set<Long> activeIds = subjects.stream().map(Subject::getId).collect(Collectors.toSet());
+        // Môn học bị xoá hẳn khỏi database chỉ được phát hiện khi dựng lại toàn bộ
+        suggestions.keySet().stream()
+                .filter(id -> !activeIds.contains(id))
+                .toList()
+                .forEach(this::remove);
+        for (Subject subject : subjects) {
+            put(subject);
+            watermark.changed(subject.getId(), subject.getUpdatedAt());
+        }
+        ready = true;
+        log.info("Subject suggest trie built with {} subjects", subjects.size());
+    }
+
+    /**
+     * Đồng bộ dần các môn học có updated_at mới (gồm cả môn vừa ngừng hoạt động);
+     * môn đã đồng bộ đúng phiên bản trong khoảng overlap thì bỏ qua
+     */
+    @Scheduled(fixedDelayString = "${smd.search.index.refresh-ms:30000}",
+            initialDelayString = "${smd.search.index.refresh-ms:30000}")
+    @Transactional(readOnly = true)
+    public synchronized void refresh() {
+        if (!ready) {
+            return;
+        }
+        for (Subject subject : subjectRepository
+                .findByUpdatedAtGreaterThanEqual(watermark.since(refreshOverlapSeconds))) {
+            if (!watermark.changed(subject.getId(), subject.getUpdatedAt())) {
+                continue;
+            }
+            if (Boolean.TRUE.equals(subject.getIsActive())) {
+                put(subject);
+            } else {
+                remove(subject.getId());
+            }
+        }
+    }
+
+    /**
+     * Gợi ý tối đa limit môn học có mã hoặc tên (hoặc một từ trong tên) bắt đầu bằng q
+     */
+    public List<SubjectSuggestionDto> suggest(String q, int limit) {
+        String prefix = normalize(q);
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+        return trie.find(prefix, Math.max(1, Math.min(limit, TOP_K))).stream()
+                .map(r -> suggestions.get(r.subjectId()))
+                .filter(s -> s != null)
+                .collect(Collectors.toList());
+    }
+
+    // Helper methods
+    private synchronized void put(Subject subject) {
+        remove(subject.getId());
+        String code = normalize(subject.getSubjectCode());
+        String name = normalize(subject.getSubjectName());
+        String sortKey = code + " " + name;
+
+        Set<String> keys = new LinkedHashSet<>();
+        insert(keys, code, subject.getId(), CODE_SCORE, sortKey);
+        insert(keys, name, subject.getId(), NAME_SCORE, sortKey);
+        for (int i = name.indexOf(' '); i >= 0; i = name.indexOf(' ', i + 1)) {
+            insert(keys, name.substring(i + 1), subject.getId(), WORD_SCORE, sortKey);
+        }
+
+        suggestions.put(subject.getId(),
+                new SubjectSuggestionDto(subject.getId(), subject.getSubjectCode(), subject.getSubjectName()));
+        keysBySubject.put(subject.getId(), keys);
+    }
+
+    private synchronized void remove(Long subjectId) {
+        Set<String> keys = keysBySubject.remove(subjectId);
+        if (keys != null) {
+            keys.forEach(key -> trie.remove(key, subjectId));
+        }
+        suggestions.remove(subjectId);
+    }
+
+    private void insert(Set<String> keys, String key, Long subjectId, int score, String sortKey) {
+        if (!key.isEmpty() && keys.add(key)) {
+            trie.insert(key, new SubjectSuggestTrie.Ranked(subjectId, score, sortKey));
+        }
+    }
+
+    /**
+     * Bỏ dấu, chữ thường, gộp khoảng trắng
+     */
+    private static String normalize(String text) {
+        return String.join(" ", VietnameseTextNormalizer.tokenize(text));
+    }
+}
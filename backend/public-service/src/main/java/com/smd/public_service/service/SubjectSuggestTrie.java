@@ -0,0 +1,205 @@
+package com.smd.public_service.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Radix trie (trie nén cạnh) cho gợi ý môn học theo tiền tố.
+ * Mỗi nút giữ sẵn danh sách top-K môn học của cả cây con, nên một truy vấn chỉ là đi xuống theo
+ * tiền tố rồi trả danh sách có sẵn: O(độ dài tiền tố), không phụ thuộc số môn học khớp.
+ * Thêm/xoá một khoá chỉ tính lại top-K trên đường đi từ gốc tới nút của khoá đó.
+ */
+class SubjectSuggestTrie {
+
+    /**
+     * Môn học ứng viên: điểm cao hơn đứng trước, cùng điểm thì theo sortKey
+     */
+    record Ranked(Long subjectId, int score, String sortKey) {
+    }
+
+    private static final Comparator<Ranked> ORDER = Comparator.comparingInt(Ranked::score).reversed()
+            .thenComparing(Ranked::sortKey)
+            .thenComparing(Ranked::subjectId);
+
+    private static final class Node {
+        String edge;
+        final Map<Character, Node> children = new HashMap<>(4);
+        final Map<Long, Ranked> terminals = new HashMap<>(2);
+        List<Ranked> top = List.of();
+
+        Node(String edge) {
+            this.edge = edge;
+        }
+    }
+
+    private final int topK;
+    private final Node root = new Node("");
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    SubjectSuggestTrie(int topK) {
+        this.topK = topK;
+    }
+
+    void insert(String key, Ranked ranked) {
+        if (key.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            List<Node> path = new ArrayList<>();
+            Node node = root;
+            String rest = key;
+            path.add(node);
+            while (!rest.isEmpty()) {
+                Node child = node.children.get(rest.charAt(0));
+                if (child == null) {
+                    child = new Node(rest);
+                    node.children.put(rest.charAt(0), child);
+                    node = child;
+                    path.add(node);
+                    break;
+                }
+                int common = commonPrefix(child.edge, rest);
+                if (common < child.edge.length()) {
+                    // Tách cạnh: node trung gian giữ phần chung
+                    Node split = new Node(child.edge.substring(0, common));
+                    child.edge = child.edge.substring(common);
+                    split.children.put(child.edge.charAt(0), child);
+                    split.top = child.top;
+                    node.children.put(split.edge.charAt(0), split);
+                    child = split;
+                }
+                node = child;
+                path.add(node);
+                rest = rest.substring(common);
+            }
+            Ranked existing = node.terminals.get(ranked.subjectId());
+            if (existing == null || ORDER.compare(ranked, existing) < 0) {
+                node.terminals.put(ranked.subjectId(), ranked);
+            }
+            refresh(path);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(String key, Long subjectId) {
+        if (key.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            List<Node> path = new ArrayList<>();
+            Node node = root;
+            String rest = key;
+            path.add(node);
+            while (!rest.isEmpty()) {
+                Node child = node.children.get(rest.charAt(0));
+                if (child == null || !rest.startsWith(child.edge)) {
+                    return;
+                }
+                node = child;
+                path.add(node);
+                rest = rest.substring(child.edge.length());
+            }
+            if (node.terminals.remove(subjectId) == null) {
+                return;
+            }
+            prune(path);
+            refresh(path);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Top-K môn học có khoá bắt đầu bằng prefix (prefix đã chuẩn hoá)
+     */
+    List<Ranked> find(String prefix, int limit) {
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            String rest = prefix;
+            while (!rest.isEmpty()) {
+                Node child = node.children.get(rest.charAt(0));
+                if (child == null) {
+                    return List.of();
+                }
+                if (rest.length() <= child.edge.length()) {
+                    // Tiền tố kết thúc giữa cạnh: mọi khoá trong cây con đều khớp
+                    if (!child.edge.startsWith(rest)) {
+                        return List.of();
+                    }
+                    node = child;
+                    break;
+                }
+                if (!rest.startsWith(child.edge)) {
+                    return List.of();
+                }
+                node = child;
+                rest = rest.substring(child.edge.length());
+            }
+            List<Ranked> top = node.top;
+            return top.size() <= limit ? top : top.subList(0, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Helper methods
+    private void refresh(List<Node> path) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node node = path.get(i);
+            Map<Long, Ranked> best = new LinkedHashMap<>();
+            node.terminals.values().forEach(r -> best.merge(r.subjectId(), r, SubjectSuggestTrie::better));
+            for (Node child : node.children.values()) {
+                child.top.forEach(r -> best.merge(r.subjectId(), r, SubjectSuggestTrie::better));
+            }
+            node.top = best.values().stream().sorted(ORDER).limit(topK).toList();
+        }
+    }
+
+    /**
+     * Bỏ nút lá rỗng và gộp nút chỉ còn một con để cây luôn ở dạng nén
+     */
+    private void prune(List<Node> path) {
+        for (int i = path.size() - 1; i > 0; i--) {
+            Node node = path.get(i);
+            Node parent = path.get(i - 1);
+            if (!node.terminals.isEmpty()) {
+                break;
+            }
+            if (node.children.isEmpty()) {
+                parent.children.remove(node.edge.charAt(0));
+                path.remove(i);
+            } else if (node.children.size() == 1) {
+                Node only = node.children.values().iterator().next();
+                only.edge = node.edge + only.edge;
+                parent.children.put(only.edge.charAt(0), only);
+                path.set(i, only);
+                break;
+            } else {
+                break;
+            }
+        }
+    }
+
+    private static Ranked better(Ranked a, Ranked b) {
+        return ORDER.compare(a, b) <= 0 ? a : b;
+    }
+
+    private static int commonPrefix(String a, String b) {
+        int max = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < max && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+}
@@ -1,18 +1,28 @@
 package com.smd.public_service.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.smd.public_service.model.entity.Syllabus;
 import com.smd.public_service.repository.SyllabusRepository;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * SyllabusDiffService - So sánh 2 phiên bản giáo trình
  * Hiển thị diff: Xanh (thêm), Đỏ (xóa), Vàng (thay đổi)
+ *
+ * Trường văn bản được so theo dòng (Myers), content dạng JSON được so theo cấu trúc; mỗi trường
+ * khác nhau kèm danh sách hunk ADDED/REMOVED/MODIFIED. Kết quả được cache theo cặp phiên bản
+ * (id + updatedAt), nên xem lại cùng một diff chỉ tốn một query nhỏ lấy khoá phiên bản.
  */
 @Service
 @Transactional(readOnly = true)
@@ -22,6 +32,26 @@ public class SyllabusDiffService {
     
     private final SyllabusRepository syllabusRepository;
     
+    @Value("${smd.diff.cache-size:256}")
+    private int cacheSize;
+    
+    // Cặp phiên bản -> kết quả diff (LRU). updatedAt trong khoá: bản ghi bị sửa thì khoá đổi, không cần xoá cache.
+    // Bản trong cache không bao giờ trả ra ngoài: mỗi lần gọi nhận một bản sao riêng (DTO có field public)
+    private Map<DiffKey, DiffResult> diffCache;
+    
+    private record DiffKey(Long oldId, LocalDateTime oldUpdatedAt, Long newId, LocalDateTime newUpdatedAt) {
+    }
+    
+    @PostConstruct
+    void initDiffCache() {
+        diffCache = Collections.synchronizedMap(new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<DiffKey, DiffResult> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+    
     /**
      * DTO cho diff result
      */
@@ -34,6 +64,15 @@ public class SyllabusDiffService {
         public DiffResult() {
             this.differences = new ArrayList<>();
         }
+        
+        DiffResult copy() {
+            DiffResult copy = new DiffResult();
+            copy.oldVersion = oldVersion == null ? null : oldVersion.copy();
+            copy.newVersion = newVersion == null ? null : newVersion.copy();
+            differences.forEach(d -> copy.differences.add(d.copy()));
+            copy.summary = summary;
+            return copy;
+        }
     }
     
     public static class SyllabusSummary {
@@ -44,6 +83,18 @@ public class SyllabusDiffService {
         public Integer semester;
         public String updatedAt;
         public String status;
+        
+        SyllabusSummary copy() {
+            SyllabusSummary copy = new SyllabusSummary();
+            copy.id = id;
+            copy.code = code;
+            copy.version = version;
+            copy.academicYear = academicYear;
+            copy.semester = semester;
+            copy.updatedAt = updatedAt;
+            copy.status = status;
+            return copy;
+        }
     }
     
     public static class FieldDiff {
@@ -52,6 +103,7 @@ public class SyllabusDiffService {
         public String oldValue;
         public String newValue;
         public String changeType;  // ADDED, REMOVED, MODIFIED
+        public List<DiffHunk> hunks;
         
         public FieldDiff(String fieldName, String fieldLabel, String oldValue, String newValue, String changeType) {
             this.fieldName = fieldName;
@@ -60,16 +112,96 @@ public class SyllabusDiffService {
             this.newValue = newValue;
             this.changeType = changeType;
         }
+        
+        public FieldDiff(String fieldName, String fieldLabel, String oldValue, String newValue, String changeType,
+                         List<DiffHunk> hunks) {
+            this(fieldName, fieldLabel, oldValue, newValue, changeType);
+            this.hunks = hunks;
+        }
+        
+        FieldDiff copy() {
+            return new FieldDiff(fieldName, fieldLabel, oldValue, newValue, changeType,
+                    hunks == null ? null : hunks.stream().map(DiffHunk::copy).collect(Collectors.toList()));
+        }
+    }
+    
+    /**
+     * Một đoạn thay đổi: theo dòng (oldStart/newStart, đánh số từ 1) hoặc theo đường dẫn JSON (path)
+     */
+    public static class DiffHunk {
+        public String changeType;  // ADDED, REMOVED, MODIFIED
+        public String path;
+        public Integer oldStart;
+        public Integer newStart;
+        public List<String> oldLines;
+        public List<String> newLines;
+        
+        DiffHunk copy() {
+            DiffHunk copy = new DiffHunk();
+            copy.changeType = changeType;
+            copy.path = path;
+            copy.oldStart = oldStart;
+            copy.newStart = newStart;
+            copy.oldLines = oldLines == null ? null : new ArrayList<>(oldLines);
+            copy.newLines = newLines == null ? null : new ArrayList<>(newLines);
+            return copy;
+        }
     }
     
     /**
      * So sánh 2 phiên bản giáo trình
      */
     public DiffResult compareSyllabi(Long oldSyllabusId, Long newSyllabusId) {
-        Syllabus oldSyllabus = syllabusRepository.findById(oldSyllabusId)
+        Map<Long, SyllabusRepository.VersionKey> keys = syllabusRepository
+                .findVersionKeysByIdIn(List.of(oldSyllabusId, newSyllabusId)).stream()
+                .collect(Collectors.toMap(SyllabusRepository.VersionKey::getId, Function.identity()));
+        
+        SyllabusRepository.VersionKey oldKey = Optional.ofNullable(keys.get(oldSyllabusId))
                 .orElseThrow(() -> new RuntimeException("Old syllabus not found"));
+        SyllabusRepository.VersionKey newKey = Optional.ofNullable(keys.get(newSyllabusId))
+                .orElseThrow(() -> new RuntimeException("New syllabus not found"));
+        
+        return diff(oldKey, newKey);
+    }
+    
+    /**
+     * So sánh 2 phiên bản của cùng một môn học
+     */
+    public DiffResult compareSyllabusVersions(Long subjectId, Integer oldVersion, Integer newVersion) {
+        return compareSyllabi(subjectId, oldVersion, newVersion);
+    }
+    
+    /**
+     * Compare two versions by subject ID and version numbers
+     * Chỉ lấy khoá của đúng 2 phiên bản theo (subject_id, version), không tải mọi phiên bản của môn học
+     */
+    public DiffResult compareSyllabi(Long subjectId, Integer oldVersion, Integer newVersion) {
+        // Nhiều bản ghi cùng phiên bản: lấy bản ghi mới nhất (id lớn nhất)
+        Map<Integer, SyllabusRepository.VersionKey> keys = syllabusRepository
+                .findVersionKeys(subjectId, List.of(oldVersion, newVersion)).stream()
+                .collect(Collectors.toMap(SyllabusRepository.VersionKey::getVersion, Function.identity(),
+                        (a, b) -> a.getId() > b.getId() ? a : b));
+        
+        SyllabusRepository.VersionKey oldKey = Optional.ofNullable(keys.get(oldVersion))
+                .orElseThrow(() -> new RuntimeException("Version not found: " + oldVersion));
+        SyllabusRepository.VersionKey newKey = Optional.ofNullable(keys.get(newVersion))
+                .orElseThrow(() -> new RuntimeException("Version not found: " + newVersion));
+        
+        return diff(oldKey, newKey);
+    }
+    
+    private DiffResult diff(SyllabusRepository.VersionKey oldKey, SyllabusRepository.VersionKey newKey) {
+        DiffKey cacheKey = new DiffKey(oldKey.getId(), oldKey.getUpdatedAt(), newKey.getId(), newKey.getUpdatedAt());
+        DiffResult cached = diffCache.get(cacheKey);
+        if (cached != null) {
+            return cached.copy();
+        }
         
-        Syllabus newSyllabus = syllabusRepository.findById(newSyllabusId)
+        Map<Long, Syllabus> syllabi = syllabusRepository.findAllById(List.of(oldKey.getId(), newKey.getId())).stream()
+                .collect(Collectors.toMap(Syllabus::getId, Function.identity()));
+        Syllabus oldSyllabus = Optional.ofNullable(syllabi.get(oldKey.getId()))
+                .orElseThrow(() -> new RuntimeException("Old syllabus not found"));
+        Syllabus newSyllabus = Optional.ofNullable(syllabi.get(newKey.getId()))
                 .orElseThrow(() -> new RuntimeException("New syllabus not found"));
         
         DiffResult result = new DiffResult();
@@ -82,75 +214,65 @@ public class SyllabusDiffService {
         // Generate summary
         result.summary = generateSummary(result.differences);
         
-        return result;
+        diffCache.put(cacheKey, result);
+        return result.copy();
     }
     
     /**
-     * So sánh 2 phiên bản của cùng một môn học
+     * So sánh nội dung 2 giáo trình
      */
-    public DiffResult compareSyllabusVersions(Long subjectId, Integer oldVersion, Integer newVersion) {
-        List<Syllabus> syllabi = syllabusRepository.findBySubjectId(subjectId);
+    private void compareSyllabusContent(Syllabus oldSyllabus, Syllabus newSyllabus, DiffResult result) {
+        // Compare learning objectives
+        compareTextField("learningObjectives", "Learning Objectives",
+                oldSyllabus.getLearningObjectives(), newSyllabus.getLearningObjectives(), false, result);
         
-        Syllabus oldSyllabus = syllabi.stream()
-                .filter(s -> s.getVersion().equals(oldVersion))
-                .findFirst()
-                .orElseThrow(() -> new RuntimeException("Version not found: " + oldVersion));
+        // Compare content (JSON thì so theo cấu trúc)
+        compareTextField("content", "Content",
+                oldSyllabus.getContent(), newSyllabus.getContent(), true, result);
         
-        Syllabus newSyllabus = syllabi.stream()
-                .filter(s -> s.getVersion().equals(newVersion))
-                .findFirst()
-                .orElseThrow(() -> new RuntimeException("Version not found: " + newVersion));
+        // Compare teaching methods
+        compareTextField("teachingMethods", "Teaching Methods",
+                oldSyllabus.getTeachingMethods(), newSyllabus.getTeachingMethods(), false, result);
         
-        return compareSyllabi(oldSyllabus.getId(), newSyllabus.getId());
+        // Compare assessment methods
+        compareTextField("assessmentMethods", "Assessment Methods",
+                oldSyllabus.getAssessmentMethods(), newSyllabus.getAssessmentMethods(), false, result);
     }
     
-    /**
-     * So sánh nội dung 2 giáo trình
-     */
-    private void compareSyllabusContent(Syllabus oldSyllabus, Syllabus newSyllabus, DiffResult result) {
-        // Compare learning objectives
-        if (!Objects.equals(oldSyllabus.getLearningObjectives(), newSyllabus.getLearningObjectives())) {
-            result.differences.add(new FieldDiff(
-                    "learningObjectives",
-                    "Learning Objectives",
-                    oldSyllabus.getLearningObjectives(),
-                    newSyllabus.getLearningObjectives(),
-                    "MODIFIED"
-            ));
+    private void compareTextField(String fieldName, String fieldLabel, String oldValue, String newValue,
+                                  boolean structured, DiffResult result) {
+        if (Objects.equals(oldValue, newValue)) {
+            return;
         }
         
-        // Compare content
-        if (!Objects.equals(oldSyllabus.getContent(), newSyllabus.getContent())) {
-            result.differences.add(new FieldDiff(
-                    "content",
-                    "Content",
-                    truncate(oldSyllabus.getContent(), 100),
-                    truncate(newSyllabus.getContent(), 100),
-                    "MODIFIED"
-            ));
+        List<DiffHunk> hunks = null;
+        if (structured) {
+            JsonNode oldJson = JsonStructureDiff.parseStructured(oldValue);
+            JsonNode newJson = JsonStructureDiff.parseStructured(newValue);
+            if (oldJson != null && newJson != null) {
+                hunks = JsonStructureDiff.diff(oldJson, newJson);
+                if (hunks.isEmpty()) {
+                    return;  // Chỉ khác định dạng (khoảng trắng, thứ tự khoá)
+                }
+            }
         }
-        
-        // Compare teaching methods
-        if (!Objects.equals(oldSyllabus.getTeachingMethods(), newSyllabus.getTeachingMethods())) {
-            result.differences.add(new FieldDiff(
-                    "teachingMethods",
-                    "Teaching Methods",
-                    oldSyllabus.getTeachingMethods(),
-                    newSyllabus.getTeachingMethods(),
-                    "MODIFIED"
-            ));
+        if (hunks == null) {
+            hunks = LineDiff.diff(oldValue, newValue);
         }
         
-        // Compare assessment methods
-        if (!Objects.equals(oldSyllabus.getAssessmentMethods(), newSyllabus.getAssessmentMethods())) {
-            result.differences.add(new FieldDiff(
-                    "assessmentMethods",
-                    "Assessment Methods",
-                    oldSyllabus.getAssessmentMethods(),
-                    newSyllabus.getAssessmentMethods(),
-                    "MODIFIED"
-            ));
-        }
+        String changeType = isBlank(oldValue) ? "ADDED" : isBlank(newValue) ? "REMOVED" : "MODIFIED";
+        result.differences.add(new FieldDiff(
+                fieldName,
+                fieldLabel,
+                structured ? truncate(oldValue, 100) : oldValue,
+                structured ? truncate(newValue, 100) : newValue,
+                changeType,
+                hunks
+        ));
+    }
+    
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
     }
     
     /**
@@ -188,33 +310,4 @@ public class SyllabusDiffService {
         }
         return text.substring(0, length) + "...";
     }
-    
-    /**
-     * Compare two versions by subject ID and version numbers
-     */
-    public DiffResult compareSyllabi(Long subjectId, Integer oldVersion, Integer newVersion) {
-        List<Syllabus> syllabi = syllabusRepository.findBySubjectId(subjectId);
-        
-        Syllabus oldSyllabus = syllabi.stream()
-                .filter(s -> s.getVersion().equals(oldVersion))
-                .findFirst()
-                .orElseThrow(() -> new RuntimeException("Version not found: " + oldVersion));
-        
-        Syllabus newSyllabus = syllabi.stream()
-                .filter(s -> s.getVersion().equals(newVersion))
-                .findFirst()
-                .orElseThrow(() -> new RuntimeException("Version not found: " + newVersion));
-        
-        DiffResult result = new DiffResult();
-        result.oldVersion = convertToSummary(oldSyllabus);
-        result.newVersion = convertToSummary(newSyllabus);
-        
-        // Compare content
-        compareSyllabusContent(oldSyllabus, newSyllabus, result);
-        
-        // Generate summary
-        result.summary = generateSummary(result.differences);
-        
-        return result;
-    }
 }
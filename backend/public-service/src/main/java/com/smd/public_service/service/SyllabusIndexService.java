@@ -0,0 +1,155 @@
+package com.smd.public_service.service;
+
+import com.smd.public_service.model.entity.Subject;
+import com.smd.public_service.model.entity.Syllabus;
+import com.smd.public_service.repository.SubjectRepository;
+import com.smd.public_service.repository.SyllabusRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * SyllabusIndexService - Index tìm kiếm trong bộ nhớ cho giáo trình công khai
+ * Dựng toàn bộ khi khởi động và theo lịch (smd.search.index.rebuild-cron, xử lý cả bản ghi bị xoá hẳn).
+ * Giữa hai lần dựng, định kỳ đồng bộ dần các giáo trình/môn học có updated_at mới: dữ liệu của
+ * public-service được ghi từ bên ngoài (đồng bộ từ syllabus-service/academic-service), nên không
+ * dựa vào callback JPA trong tiến trình này.
+ * Độ trễ tìm kiếm không phụ thuộc database (dùng cho H2 và khi PostgreSQL full-text chưa sẵn sàng).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SyllabusIndexService {
+
+    private static final int REBUILD_BATCH_SIZE = 500;
+    private static final int SNIPPET_LENGTH = 150;
+
+    private final SyllabusRepository syllabusRepository;
+    private final SubjectRepository subjectRepository;
+
+    private final SyllabusSearchIndex index = new SyllabusSearchIndex();
+    private final ChangeWatermark syllabusWatermark = new ChangeWatermark();
+    private final ChangeWatermark subjectWatermark = new ChangeWatermark();
+    private volatile boolean ready;
+
+    @Value("${smd.search.index.refresh-overlap-seconds:120}")
+    private long refreshOverlapSeconds;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${smd.search.index.rebuild-cron:0 30 3 * * *}")
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        // Lấy mốc trước khi đọc: thay đổi trong lúc dựng sẽ được lần refresh kế tiếp xử lý
+        syllabusWatermark.reset(syllabusRepository.findMaxUpdatedAt());
+        subjectWatermark.reset(subjectRepository.findMaxUpdatedAt());
+
+        List<SyllabusSearchIndex.Source> sources = new ArrayList<>();
+        long afterId = 0;
+        List<Syllabus> batch;
+        do {
+            batch = syllabusRepository.findPublicWithSubjectAfter(afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+            for (Syllabus syllabus : batch) {
+                sources.add(toSource(syllabus));
+                syllabusWatermark.changed(syllabus.getId(), syllabus.getUpdatedAt());
+                subjectWatermark.changed(syllabus.getSubject().getId(), syllabus.getSubject().getUpdatedAt());
+                afterId = syllabus.getId();
+            }
+        } while (batch.size() == REBUILD_BATCH_SIZE);
+
+        index.replaceAll(sources);
+        ready = true;
+        log.info("Search index built with {} syllabi", sources.size());
+    }
+
+    /**
+     * Đồng bộ dần: index lại giáo trình có updated_at mới và mọi giáo trình của môn học vừa sửa.
+     * Bản ghi trong khoảng overlap đã index đúng phiên bản thì bỏ qua, không tải lại.
+     */
+    @Scheduled(fixedDelayString = "${smd.search.index.refresh-ms:30000}",
+            initialDelayString = "${smd.search.index.refresh-ms:30000}")
+    @Transactional(readOnly = true)
+    public synchronized void refresh() {
+        if (!ready) {
+            return;
+        }
+        Set<Long> changed = new LinkedHashSet<>();
+        for (SyllabusRepository.VersionKey key : syllabusRepository
+                .findVersionKeysUpdatedSince(syllabusWatermark.since(refreshOverlapSeconds))) {
+            if (syllabusWatermark.changed(key.getId(), key.getUpdatedAt())) {
+                changed.add(key.getId());
+            }
+        }
+        for (Subject subject : subjectRepository
+                .findByUpdatedAtGreaterThanEqual(subjectWatermark.since(refreshOverlapSeconds))) {
+            if (subjectWatermark.changed(subject.getId(), subject.getUpdatedAt())) {
+                changed.addAll(index.idsBySubject(subject.getId()));
+            }
+        }
+        changed.forEach(this::reindex);
+        if (!changed.isEmpty()) {
+            log.debug("Search index refreshed {} syllabi", changed.size());
+        }
+    }
+
+    /**
+     * Tìm kiếm BM25 kèm facet (semester, year, program)
+     */
+    public SyllabusSearchIndex.Result search(String query, String subjectCode, Integer semester, Integer year,
+                                             int offset, int limit) {
+        String codePrefix = subjectCode == null || subjectCode.isBlank()
+                ? null : VietnameseTextNormalizer.fold(subjectCode.trim());
+        String yearText = year == null ? null : String.valueOf(year);
+        Predicate<SyllabusSearchIndex.Document> filter = d ->
+                (codePrefix == null || VietnameseTextNormalizer.fold(d.code()).startsWith(codePrefix))
+                && (semester == null || semester.equals(d.semester()))
+                && (yearText == null || (d.academicYear() != null && d.academicYear().contains(yearText)));
+        return index.search(query, filter, offset, limit);
+    }
+
+    // Helper methods
+    private void reindex(Long syllabusId) {
+        syllabusRepository.findWithSubjectById(syllabusId)
+                .filter(this::isPublic)
+                .ifPresentOrElse(s -> index.put(toSource(s)), () -> index.remove(syllabusId));
+    }
+
+    private boolean isPublic(Syllabus syllabus) {
+        return Boolean.TRUE.equals(syllabus.getIsActive())
+                && ("APPROVED".equals(syllabus.getStatus()) || "Published".equals(syllabus.getStatus()));
+    }
+
+    private SyllabusSearchIndex.Source toSource(Syllabus syllabus) {
+        String content = syllabus.getContent();
+        String snippet = content == null ? ""
+                : content.length() <= SNIPPET_LENGTH ? content : content.substring(0, SNIPPET_LENGTH) + "...";
+        SyllabusSearchIndex.Document document = new SyllabusSearchIndex.Document(
+                syllabus.getId(),
+                syllabus.getSubject().getId(),
+                syllabus.getSubject().getSubjectCode(),
+                syllabus.getSubject().getSubjectName(),
+                syllabus.getSemester(),
+                syllabus.getVersion(),
+                syllabus.getAcademicYear(),
+                syllabus.getSubject().getProgramId(),
+                syllabus.getUpdatedAt() == null ? null : syllabus.getUpdatedAt().format(DateTimeFormatter.ISO_DATE_TIME),
+                snippet);
+        return new SyllabusSearchIndex.Source(document, syllabus.getLearningObjectives(), content);
+    }
+}
@@ -0,0 +1,232 @@
+package com.smd.public_service.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Inverted index trong bộ nhớ cho giáo trình công khai.
+ * Từ điển là TreeMap (từ đã bỏ dấu -> docId -> tần suất có trọng số) nên tra cứu tiền tố là một subMap.
+ * Xếp hạng BM25; tần suất được nhân trọng số theo trường (mã/tên môn > mục tiêu > nội dung).
+ * Đọc song song, ghi độc quyền (ReadWriteLock); thao tác ghi là cập nhật từng tài liệu.
+ */
+class SyllabusSearchIndex {
+
+    static final int CODE_WEIGHT = 3;
+    static final int TITLE_WEIGHT = 3;
+    static final int OBJECTIVES_WEIGHT = 2;
+    static final int CONTENT_WEIGHT = 1;
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int MAX_PREFIX_EXPANSIONS = 16;
+    private static final double PREFIX_MATCH_BOOST = 0.7;
+
+    /**
+     * Tài liệu đã index: chỉ giữ các trường hiển thị và tần suất từ, không giữ toàn văn
+     */
+    record Document(Long id, Long subjectId, String code, String title, Integer semester, Integer version,
+                    String academicYear, Long programId, String updatedAt, String snippet) {
+    }
+
+    /**
+     * Văn bản cần index của một tài liệu
+     */
+    record Source(Document document, String objectives, String content) {
+    }
+
+    record Hit(Document document, double score) {
+    }
+
+    record Result(long total, List<Hit> hits, Map<String, Map<String, Long>> facets) {
+    }
+
+    private record Entry(Document document, Map<String, Integer> termFrequencies, int length) {
+    }
+
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long totalLength;
+
+    void put(Source source) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        addTokens(frequencies, source.document().code(), CODE_WEIGHT);
+        addTokens(frequencies, source.document().title(), TITLE_WEIGHT);
+        addTokens(frequencies, source.objectives(), OBJECTIVES_WEIGHT);
+        addTokens(frequencies, source.content(), CONTENT_WEIGHT);
+        int length = frequencies.values().stream().mapToInt(Integer::intValue).sum();
+        Entry entry = new Entry(source.document(), frequencies, length);
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(source.document().id());
+            entries.put(source.document().id(), entry);
+            totalLength += length;
+            frequencies.forEach((term, tf) -> postings.computeIfAbsent(term, t -> new HashMap<>())
+                    .put(source.document().id(), tf));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Thay toàn bộ nội dung index (dùng khi dựng lại từ database)
+     */
+    void replaceAll(Collection<Source> sources) {
+        SyllabusSearchIndex fresh = new SyllabusSearchIndex();
+        sources.forEach(fresh::put);
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            postings.putAll(fresh.postings);
+            entries.clear();
+            entries.putAll(fresh.entries);
+            totalLength = fresh.totalLength;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    List<Long> idsBySubject(Long subjectId) {
+        lock.readLock().lock();
+        try {
+            return entries.values().stream()
+                    .filter(e -> subjectId.equals(e.document().subjectId()))
+                    .map(e -> e.document().id())
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Tìm theo BM25 (OR giữa các từ). Từ không có trong từ điển được mở rộng theo tiền tố,
+     * nên "lap tri" vẫn khớp "lap trinh". Facet được đếm trên toàn bộ kết quả khớp, không chỉ trang hiện tại.
+     */
+    Result search(String query, Predicate<Document> filter, int offset, int limit) {
+        Set<String> queryTerms = new LinkedHashSet<>(VietnameseTextNormalizer.tokenize(query));
+        if (queryTerms.isEmpty()) {
+            return new Result(0, List.of(), Map.of());
+        }
+
+        lock.readLock().lock();
+        try {
+            int documentCount = entries.size();
+            double averageLength = documentCount == 0 ? 1 : (double) totalLength / documentCount;
+            Map<Long, Double> scores = new HashMap<>();
+
+            for (String queryTerm : queryTerms) {
+                Map<Long, Integer> exact = postings.get(queryTerm);
+                if (exact != null) {
+                    accumulate(scores, exact, 1.0, documentCount, averageLength);
+                    continue;
+                }
+                postings.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, false).values().stream()
+                        .sorted(Comparator.comparingInt((Map<Long, Integer> p) -> p.size()).reversed())
+                        .limit(MAX_PREFIX_EXPANSIONS)
+                        .forEach(p -> accumulate(scores, p, PREFIX_MATCH_BOOST, documentCount, averageLength));
+            }
+
+            List<Hit> matches = new ArrayList<>();
+            scores.forEach((id, score) -> {
+                Document document = entries.get(id).document();
+                if (filter.test(document)) {
+                    matches.add(new Hit(document, score));
+                }
+            });
+            matches.sort(Comparator.comparingDouble(Hit::score).reversed()
+                    .thenComparing(h -> h.document().id(), Comparator.reverseOrder()));
+
+            Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+            facets.put("semester", countBy(matches, Document::semester));
+            facets.put("year", countBy(matches, Document::academicYear));
+            facets.put("program", countBy(matches, Document::programId));
+
+            List<Hit> page = offset >= matches.size()
+                    ? List.of()
+                    : matches.subList(offset, Math.min(matches.size(), offset + limit));
+            return new Result(matches.size(), new ArrayList<>(page), facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Helper methods
+    private void removeLocked(Long id) {
+        Entry previous = entries.remove(id);
+        if (previous == null) {
+            return;
+        }
+        totalLength -= previous.length();
+        for (String term : previous.termFrequencies().keySet()) {
+            Map<Long, Integer> docs = postings.get(term);
+            if (docs != null) {
+                docs.remove(id);
+                if (docs.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private void accumulate(Map<Long, Double> scores, Map<Long, Integer> docs, double boost,
+                            int documentCount, double averageLength) {
+        double idf = Math.log(1 + (documentCount - docs.size() + 0.5) / (docs.size() + 0.5));
+        docs.forEach((id, tf) -> {
+            double norm = K1 * (1 - B + B * entries.get(id).length() / averageLength);
+            scores.merge(id, boost * idf * tf * (K1 + 1) / (tf + norm), Double::sum);
+        });
+    }
+
+    private static void addTokens(Map<String, Integer> frequencies, String text, int weight) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        for (String token : VietnameseTextNormalizer.tokenize(text)) {
+            frequencies.merge(token, weight, Integer::sum);
+        }
+    }
+
+    private static Map<String, Long> countBy(List<Hit> hits, Function<Document, Object> key) {
+        Map<String, Long> counts = new TreeMap<>();
+        for (Hit hit : hits) {
+            Object value = key.apply(hit.document());
+            if (value != null) {
+                counts.merge(String.valueOf(value), 1L, Long::sum);
+            }
+        }
+        return counts;
+    }
+}
@@ -3,11 +3,12 @@ package com.smd.public_service.service;
 import com.smd.public_service.dto.SearchResponse;
 import com.smd.public_service.dto.SyllabusSummary;
 import com.smd.public_service.model.entity.Syllabus;
-import com.smd.public_service.model.entity.Subject;
+import com.smd.public_service.repository.SyllabusFullTextSearchRepository;
 import com.smd.public_service.repository.SyllabusRepository;
 import com.smd.public_service.repository.SubjectRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -16,6 +17,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
 
 /**
@@ -30,6 +32,12 @@ public class SyllabusSearchService {
     
     private final SyllabusRepository syllabusRepository;
     private final SubjectRepository subjectRepository;
+    private final SyllabusFullTextSearchRepository fullTextSearchRepository;
+    private final SyllabusIndexService indexService;
+    
+    // auto: PostgreSQL full-text nếu sẵn sàng, không thì index trong bộ nhớ; index / database: ép dùng một loại
+    @Value("${smd.search.engine:auto}")
+    private String searchEngine;
     
     /**
      * Tìm kiếm giáo trình với các tiêu chí
@@ -47,18 +55,31 @@ public class SyllabusSearchService {
             boolean fuzzy,
             boolean highlight) {
         
+        if (query != null && !query.trim().isEmpty()) {
+            boolean useIndex = "index".equalsIgnoreCase(searchEngine)
+                    || ("auto".equalsIgnoreCase(searchEngine) && !fullTextSearchRepository.isReady());
+            // PostgreSQL: full-text search xếp hạng, fallback trigram khi không có kết quả
+            if (!useIndex && fullTextSearchRepository.isReady()) {
+                return fullTextSearch(query.trim(), subjectCode, semester, page, size, fuzzy, highlight);
+            }
+            // H2 hoặc ép dùng index: BM25 trên index trong bộ nhớ, kèm facet
+            if (useIndex && indexService.isReady()) {
+                return indexSearch(query.trim(), subjectCode, semester, year, page, size);
+            }
+        }
+        
         Pageable pageable = PageRequest.of(page - 1, size);
-        Page<Syllabus> resultPage;
+        Page<SyllabusRepository.SummaryRow> resultPage;
         
-        // Nếu có query (simple search - không dùng fullText vì H2 không hỗ trợ)
+        // Nếu có query (simple search - H2 không hỗ trợ full-text)
         if (query != null && !query.trim().isEmpty()) {
-            resultPage = syllabusRepository.searchBySimpleQuery(query.trim(), pageable);
+            resultPage = syllabusRepository.searchSummariesBySimpleQuery(query.trim(), pageable);
         } else if (subjectCode != null && !subjectCode.isEmpty()) {
             // Search by subject code
-            resultPage = syllabusRepository.findBySubjectCodeSimple(subjectCode, pageable);
+            resultPage = syllabusRepository.findSummariesBySubjectCodeLike(subjectCode, pageable);
         } else {
             // Return all approved syllabi
-            resultPage = syllabusRepository.findByStatus("APPROVED", pageable);
+            resultPage = syllabusRepository.findSummariesByStatus("APPROVED", pageable);
         }
         
         // Convert to DTO
@@ -69,15 +90,53 @@ public class SyllabusSearchService {
         return new SearchResponse(resultPage.getTotalElements(), page, size, results);
     }
     
+    private SearchResponse fullTextSearch(String query, String subjectCode, Integer semester,
+                                          int page, int size, boolean fuzzy, boolean highlight) {
+        int offset = (page - 1) * size;
+        List<SyllabusSummary> results = fullTextSearchRepository.search(query, subjectCode, semester, highlight, size, offset);
+        long total = totalOf(results, offset, size, () -> fullTextSearchRepository.count(query, subjectCode, semester));
+        
+        if (total == 0 && fuzzy && fullTextSearchRepository.isTrigramReady()) {
+            log.debug("No full-text match for '{}', trying trigram fallback", query);
+            results = fullTextSearchRepository.searchFuzzy(query, subjectCode, semester, size, offset);
+            total = totalOf(results, offset, size, () -> fullTextSearchRepository.countFuzzy(query, subjectCode, semester));
+        }
+        
+        return new SearchResponse(total, page, size, results);
+    }
+    
+    private SearchResponse indexSearch(String query, String subjectCode, Integer semester, Integer year,
+                                       int page, int size) {
+        SyllabusSearchIndex.Result result = indexService.search(query, subjectCode, semester, year, (page - 1) * size, size);
+        List<SyllabusSummary> results = result.hits().stream()
+                .map(this::convertToSummary)
+                .collect(Collectors.toList());
+        
+        SearchResponse response = new SearchResponse(result.total(), page, size, results);
+        response.setFacets(result.facets());
+        return response;
+    }
+    
+    /**
+     * Trang chưa đầy thì tổng số đã biết, không cần chạy count
+     */
+    private long totalOf(List<SyllabusSummary> results, int offset, int size, LongSupplier count) {
+        if (results.size() < size && (offset == 0 || !results.isEmpty())) {
+            return offset + results.size();
+        }
+        return count.getAsLong();
+    }
+    
     /**
      * Tìm kiếm theo môn học
      */
     public SearchResponse searchBySubject(String subjectCode, int page, int size) {
-        Subject subject = subjectRepository.findBySubjectCode(subjectCode)
-                .orElseThrow(() -> new RuntimeException("Subject not found: " + subjectCode));
-        
         Pageable pageable = PageRequest.of(page - 1, size);
-        Page<Syllabus> resultPage = syllabusRepository.findBySubjectId(subject.getId(), pageable);
+        Page<SyllabusRepository.SummaryRow> resultPage = syllabusRepository.findSummariesBySubjectCode(subjectCode, pageable);
+        // Chỉ kiểm tra môn học tồn tại khi không có kết quả
+        if (resultPage.getTotalElements() == 0 && subjectRepository.findBySubjectCode(subjectCode).isEmpty()) {
+            throw new RuntimeException("Subject not found: " + subjectCode);
+        }
         
         List<SyllabusSummary> results = resultPage.getContent().stream()
                 .map(this::convertToSummary)
@@ -91,7 +150,8 @@ public class SyllabusSearchService {
      */
     public SearchResponse searchBySemesterAndYear(String academicYear, Integer semester, int page, int size) {
         Pageable pageable = PageRequest.of(page - 1, size);
-        Page<Syllabus> resultPage = syllabusRepository.findByAcademicYearAndSemester(academicYear, semester, pageable);
+        Page<SyllabusRepository.SummaryRow> resultPage =
+                syllabusRepository.findSummariesByAcademicYearAndSemester(academicYear, semester, pageable);
         
         List<SyllabusSummary> results = resultPage.getContent().stream()
                 .map(this::convertToSummary)
@@ -101,19 +161,35 @@ public class SyllabusSearchService {
     }
     
     /**
-     * Convert Syllabus entity to SyllabusSummary DTO
+     * Convert summary row (projection) to SyllabusSummary DTO
      */
-    private SyllabusSummary convertToSummary(Syllabus syllabus) {
+    private SyllabusSummary convertToSummary(SyllabusRepository.SummaryRow row) {
         SyllabusSummary summary = new SyllabusSummary();
-        summary.setId(syllabus.getId());
-        summary.setTitle(syllabus.getSubject().getSubjectName());
-        summary.setCode(syllabus.getSubject().getSubjectCode());
+        summary.setId(row.getId());
+        summary.setTitle(row.getTitle());
+        summary.setCode(row.getCode());
         summary.setMajor("TBD");  // TODO: Get from program
-        summary.setSemester(String.valueOf(syllabus.getSemester()));
-        summary.setVersion(String.valueOf(syllabus.getVersion()));
-        summary.setUpdatedAt(syllabus.getUpdatedAt().format(DateTimeFormatter.ISO_DATE_TIME));
-        summary.setSnippet(extractSnippet(syllabus.getContent(), 150));
-        summary.setDetailUrl("/api/public/syllabi/" + syllabus.getId());
+        summary.setSemester(String.valueOf(row.getSemester()));
+        summary.setVersion(String.valueOf(row.getVersion()));
+        summary.setUpdatedAt(row.getUpdatedAt() == null ? null : row.getUpdatedAt().format(DateTimeFormatter.ISO_DATE_TIME));
+        summary.setSnippet(extractSnippet(row.getSnippet(), 150));
+        summary.setDetailUrl("/api/public/syllabi/" + row.getId());
+        
+        return summary;
+    }
+    
+    private SyllabusSummary convertToSummary(SyllabusSearchIndex.Hit hit) {
+        SyllabusSearchIndex.Document document = hit.document();
+        SyllabusSummary summary = new SyllabusSummary();
+        summary.setId(document.id());
+        summary.setTitle(document.title());
+        summary.setCode(document.code());
+        summary.setSemester(document.semester() == null ? null : String.valueOf(document.semester()));
+        summary.setVersion(String.valueOf(document.version()));
+        summary.setUpdatedAt(document.updatedAt());
+        summary.setSnippet(document.snippet());
+        summary.setScore(hit.score());
+        summary.setDetailUrl("/api/public/syllabi/" + document.id());
         
         return summary;
     }
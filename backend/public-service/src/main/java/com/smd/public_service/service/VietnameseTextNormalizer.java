@@ -0,0 +1,57 @@
+package com.smd.public_service.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Chuẩn hoá văn bản tiếng Việt cho tìm kiếm: bỏ dấu ("Lập trình" -> "lap trinh"), đ -> d, chữ thường.
+ * Dùng chung cho index tìm kiếm và gợi ý để "lap trinh", "lập trình" và "LẬP TRÌNH" khớp nhau.
+ */
+public final class VietnameseTextNormalizer {
+
+    private VietnameseTextNormalizer() {
+    }
+
+    /**
+     * Bỏ dấu và chuyển về chữ thường, giữ nguyên các ký tự khác (kể cả khoảng trắng)
+     */
+    public static String fold(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (c == 'đ' || c == 'Đ') {
+                c = 'd';
+            }
+            folded.append(c);
+        }
+        return folded.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Tách thành các từ đã chuẩn hoá (chữ và số liên tiếp)
+     */
+    public static List<String> tokenize(String text) {
+        String folded = fold(text);
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean wordChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+}
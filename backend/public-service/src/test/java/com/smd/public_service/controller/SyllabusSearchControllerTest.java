@@ -1,6 +1,7 @@
 package com.smd.public_service.controller;
 
 import com.smd.public_service.dto.SearchResponse;
+import com.smd.public_service.service.SubjectSuggestService;
 import com.smd.public_service.service.SyllabusSearchService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,6 +26,9 @@ public class SyllabusSearchControllerTest {
     @MockBean
     private SyllabusSearchService syllabusSearchService;
 
+    @MockBean
+    private SubjectSuggestService subjectSuggestService;
+
     @Test
     public void search_returnsOkAndExpectedStructure() throws Exception {
         // Mock the search service response: (total, page, size, results)
@@ -0,0 +1,42 @@
+package com.smd.public_service.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ChangeWatermarkTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 10, 17, 8, 0);
+
+    @Test
+    public void changed_skipsVersionAlreadySyncedInsideOverlap() {
+        ChangeWatermark watermark = new ChangeWatermark();
+        watermark.reset(T0);
+
+        assertTrue(watermark.changed(1L, T0.plusSeconds(10)));
+        assertFalse(watermark.changed(1L, T0.plusSeconds(10)));
+        assertTrue(watermark.changed(1L, T0.plusSeconds(20)));
+        assertTrue(watermark.changed(2L, T0.plusSeconds(20)));
+        assertEquals(T0.plusSeconds(20).minusSeconds(60), watermark.since(60));
+    }
+
+    @Test
+    public void since_forgetsRowsOlderThanOverlapAndResetForgetsAll() {
+        ChangeWatermark watermark = new ChangeWatermark();
+        watermark.reset(null);
+        assertTrue(watermark.changed(1L, T0));
+        assertTrue(watermark.changed(2L, T0.plusSeconds(100)));
+
+        watermark.since(30);
+        // 1L đã ra ngoài khoảng overlap nên không còn được ghi nhớ, 2L thì còn
+        assertTrue(watermark.changed(1L, T0));
+        assertFalse(watermark.changed(2L, T0.plusSeconds(100)));
+
+        watermark.reset(T0.plusSeconds(100));
+        assertTrue(watermark.changed(2L, T0.plusSeconds(100)));
+    }
+}
@@ -0,0 +1,94 @@
+package com.smd.public_service.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JsonStructureDiffTest {
+
+    @Test
+    public void formattingAndKeyOrderOnly_noHunks() {
+        assertTrue(diff("{\"a\":1,\"b\":[1,2]}", "{\n  \"b\": [ 1, 2 ],\n  \"a\": 1\n}").isEmpty());
+    }
+
+    @Test
+    public void insertAtFrontOfArray_isSingleAdded() {
+        List<SyllabusDiffService.DiffHunk> hunks = diff(
+                "{\"chapters\":[{\"title\":\"A\"},{\"title\":\"B\"},{\"title\":\"C\"}]}",
+                "{\"chapters\":[{\"title\":\"Z\"},{\"title\":\"A\"},{\"title\":\"B\"},{\"title\":\"C\"}]}");
+
+        assertEquals(List.of("ADDED $.chapters[0]"), describe(hunks));
+        assertEquals(List.of("{\"title\":\"Z\"}"), hunks.get(0).newLines);
+    }
+
+    @Test
+    public void removeFromMiddle_andModifyShiftedElement() {
+        List<SyllabusDiffService.DiffHunk> hunks = diff(
+                "{\"chapters\":[{\"id\":1,\"hours\":3},{\"id\":2,\"hours\":3},{\"id\":3,\"hours\":3}]}",
+                "{\"chapters\":[{\"id\":1,\"hours\":3},{\"id\":3,\"hours\":4}]}");
+
+        assertEquals(List.of("REMOVED $.chapters[1]", "MODIFIED $.chapters[1].hours"), describe(hunks));
+    }
+
+    @Test
+    public void renamedTitleInPlace_isModifiedNotRemovedAndAdded() {
+        assertEquals(List.of("MODIFIED $.chapters[1].title"), describe(diff(
+                "{\"chapters\":[{\"title\":\"A\"},{\"title\":\"B\",\"hours\":2}]}",
+                "{\"chapters\":[{\"title\":\"A\"},{\"title\":\"B2\",\"hours\":2}]}")));
+    }
+
+    @Test
+    public void differentId_isRemovedAndAdded() {
+        assertEquals(List.of("REMOVED $.chapters[0]", "ADDED $.chapters[0]"), describe(diff(
+                "{\"chapters\":[{\"id\":1,\"title\":\"A\"}]}",
+                "{\"chapters\":[{\"id\":2,\"title\":\"A\"}]}")));
+    }
+
+    @Test
+    public void scalarArrays() {
+        assertEquals(List.of("REMOVED $.tags[1]"), describe(diff("{\"tags\":[\"a\",\"b\",\"c\"]}", "{\"tags\":[\"a\",\"c\"]}")));
+        assertEquals(List.of("MODIFIED $.tags[1]"), describe(diff("{\"tags\":[\"a\",\"b\"]}", "{\"tags\":[\"a\",\"x\"]}")));
+        assertEquals(List.of("ADDED $[0]"), describe(diff("[2,3]", "[1,2,3]")));
+    }
+
+    @Test
+    public void addedAndRemovedFields() {
+        List<SyllabusDiffService.DiffHunk> hunks = diff("{\"a\":1,\"c\":\"x\"}", "{\"a\":1,\"b\":2}");
+
+        assertEquals(List.of("REMOVED $.c", "ADDED $.b"), describe(hunks));
+        assertEquals(List.of("x"), hunks.get(0).oldLines);
+        assertEquals(List.of("2"), hunks.get(1).newLines);
+    }
+
+    @Test
+    public void fieldNamesWithSpecialCharacters_areQuoted() {
+        assertEquals(List.of("MODIFIED $['a.b']"), describe(diff("{\"a.b\":1}", "{\"a.b\":2}")));
+        assertEquals(List.of("MODIFIED $['x y'][0]"), describe(diff("{\"x y\":[1]}", "{\"x y\":[2]}")));
+        assertEquals("$['it\\'s']", JsonStructureDiff.fieldPath("$", "it's"));
+        assertEquals("$['a[0]']", JsonStructureDiff.fieldPath("$", "a[0]"));
+        assertEquals("$['1st']", JsonStructureDiff.fieldPath("$", "1st"));
+        assertEquals("$.chương_1", JsonStructureDiff.fieldPath("$", "chương_1"));
+    }
+
+    @Test
+    public void parseStructured_onlyAcceptsObjectsAndArrays() {
+        assertNull(JsonStructureDiff.parseStructured(null));
+        assertNull(JsonStructureDiff.parseStructured("Nội dung dạng văn bản"));
+        assertNull(JsonStructureDiff.parseStructured("{khong phai json"));
+        assertNull(JsonStructureDiff.parseStructured("42"));
+        assertTrue(JsonStructureDiff.parseStructured("  [1, 2]  ").isArray());
+    }
+
+    // Helper methods
+    private static List<SyllabusDiffService.DiffHunk> diff(String oldJson, String newJson) {
+        return JsonStructureDiff.diff(JsonStructureDiff.parseStructured(oldJson), JsonStructureDiff.parseStructured(newJson));
+    }
+
+    private static List<String> describe(List<SyllabusDiffService.DiffHunk> hunks) {
+        return hunks.stream().map(h -> h.changeType + " " + h.path).toList();
+    }
+}
@@ -0,0 +1,133 @@
+package com.smd.public_service.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LineDiffTest {
+
+    @Test
+    public void insert_atStartMiddleAndEnd() {
+        assertHunk(LineDiff.diff("b\nc", "a\nb\nc"), "ADDED", 1, 1, List.of(), List.of("a"));
+        assertHunk(LineDiff.diff("a\nc", "a\nb\nc"), "ADDED", 2, 2, List.of(), List.of("b"));
+        assertHunk(LineDiff.diff("a\nb", "a\nb\nc"), "ADDED", 3, 3, List.of(), List.of("c"));
+    }
+
+    @Test
+    public void delete_atStartMiddleAndEnd() {
+        assertHunk(LineDiff.diff("a\nb\nc", "b\nc"), "REMOVED", 1, 1, List.of("a"), List.of());
+        assertHunk(LineDiff.diff("a\nb\nc", "a\nc"), "REMOVED", 2, 2, List.of("b"), List.of());
+        assertHunk(LineDiff.diff("a\nb\nc", "a\nb"), "REMOVED", 3, 3, List.of("c"), List.of());
+    }
+
+    @Test
+    public void replace_atStartMiddleAndEnd() {
+        assertHunk(LineDiff.diff("x\nb\nc", "y\nb\nc"), "MODIFIED", 1, 1, List.of("x"), List.of("y"));
+        assertHunk(LineDiff.diff("a\nx\nc", "a\ny\nz\nc"), "MODIFIED", 2, 2, List.of("x"), List.of("y", "z"));
+        assertHunk(LineDiff.diff("a\nb\nx", "a\nb\ny"), "MODIFIED", 3, 3, List.of("x"), List.of("y"));
+    }
+
+    @Test
+    public void separateChanges_produceSeparateHunks() {
+        List<SyllabusDiffService.DiffHunk> hunks = LineDiff.diff("a\nb\nc\nd\ne", "a\nB\nc\nd\ne\nf");
+
+        assertEquals(2, hunks.size());
+        assertHunk(hunks.subList(0, 1), "MODIFIED", 2, 2, List.of("b"), List.of("B"));
+        assertHunk(hunks.subList(1, 2), "ADDED", 6, 6, List.of(), List.of("f"));
+    }
+
+    @Test
+    public void emptyAndNullInputs() {
+        assertTrue(LineDiff.diff(null, null).isEmpty());
+        assertTrue(LineDiff.diff("", null).isEmpty());
+        assertTrue(LineDiff.diff("a\nb", "a\nb").isEmpty());
+        assertHunk(LineDiff.diff(null, "a\nb"), "ADDED", 1, 1, List.of(), List.of("a", "b"));
+        assertHunk(LineDiff.diff("a\nb", ""), "REMOVED", 1, 1, List.of("a", "b"), List.of());
+    }
+
+    @Test
+    public void crlfAndLfLineEndings_compareEqual() {
+        assertTrue(LineDiff.diff("a\r\nb\r\n", "a\nb\n").isEmpty());
+        assertHunk(LineDiff.diff("a\r\nb\r\n", "a\nc\n"), "MODIFIED", 2, 2, List.of("b"), List.of("c"));
+    }
+
+    @Test
+    public void overEditLimit_fallsBackToOneHunkOverTrimmedRange() {
+        String[] oldLines = {"a", "x", "b", "y", "c"};
+        String[] newLines = {"a", "X", "b", "Y", "c"};
+
+        List<SyllabusDiffService.DiffHunk> hunks = LineDiff.diff(oldLines, newLines, 1);
+
+        assertHunk(hunks, "MODIFIED", 2, 2, List.of("x", "b", "y"), List.of("X", "b", "Y"));
+        assertEquals(2, LineDiff.diff(oldLines, newLines, 4).size());
+    }
+
+    /**
+     * Áp các hunk lên bản cũ phải ra đúng bản mới, và số dòng thay đổi phải nhỏ nhất (= n + m - 2 * LCS)
+     */
+    @Test
+    public void randomInputs_applyToNewTextWithMinimalEdits() {
+        Random random = new Random(7);
+        for (int run = 0; run < 5_000; run++) {
+            String[] a = randomLines(random);
+            String[] b = randomLines(random);
+
+            List<SyllabusDiffService.DiffHunk> hunks = LineDiff.diff(a, b, LineDiff.DEFAULT_MAX_EDIT_DISTANCE);
+
+            List<String> applied = new ArrayList<>();
+            int next = 0;
+            int edits = 0;
+            for (SyllabusDiffService.DiffHunk hunk : hunks) {
+                while (next < hunk.oldStart - 1) {
+                    applied.add(a[next++]);
+                }
+                applied.addAll(hunk.newLines);
+                next += hunk.oldLines.size();
+                edits += hunk.oldLines.size() + hunk.newLines.size();
+            }
+            while (next < a.length) {
+                applied.add(a[next++]);
+            }
+            assertEquals(Arrays.asList(b), applied, "run " + run);
+            assertEquals(a.length + b.length - 2 * lcs(a, b), edits, "run " + run);
+        }
+    }
+
+    // Helper methods
+    private static void assertHunk(List<SyllabusDiffService.DiffHunk> hunks, String changeType,
+                                   int oldStart, int newStart, List<String> oldLines, List<String> newLines) {
+        assertEquals(1, hunks.size(), "hunk count");
+        SyllabusDiffService.DiffHunk hunk = hunks.get(0);
+        assertEquals(changeType, hunk.changeType);
+        assertEquals(oldStart, hunk.oldStart);
+        assertEquals(newStart, hunk.newStart);
+        assertEquals(oldLines, hunk.oldLines);
+        assertEquals(newLines, hunk.newLines);
+    }
+
+    private static String[] randomLines(Random random) {
+        String[] lines = new String[random.nextInt(12)];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = String.valueOf((char) ('a' + random.nextInt(3)));
+        }
+        return lines;
+    }
+
+    private static int lcs(String[] a, String[] b) {
+        int[][] table = new int[a.length + 1][b.length + 1];
+        for (int i = 1; i <= a.length; i++) {
+            for (int j = 1; j <= b.length; j++) {
+                table[i][j] = a[i - 1].equals(b[j - 1])
+                        ? table[i - 1][j - 1] + 1
+                        : Math.max(table[i - 1][j], table[i][j - 1]);
+            }
+        }
+        return table[a.length][b.length];
+    }
+}
@@ -0,0 +1,110 @@
+package com.smd.public_service.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SubjectSuggestTrieTest {
+
+    private static final Comparator<SubjectSuggestTrie.Ranked> ORDER =
+            Comparator.comparingInt(SubjectSuggestTrie.Ranked::score).reversed()
+                    .thenComparing(SubjectSuggestTrie.Ranked::sortKey)
+                    .thenComparing(SubjectSuggestTrie.Ranked::subjectId);
+
+    @Test
+    public void find_returnsBestRankedSubjectsForPrefix() {
+        SubjectSuggestTrie trie = new SubjectSuggestTrie(5);
+        trie.insert("cs101", new SubjectSuggestTrie.Ranked(1L, 3, "cs101 lap trinh java"));
+        trie.insert("lap trinh java", new SubjectSuggestTrie.Ranked(1L, 2, "cs101 lap trinh java"));
+        trie.insert("cs102", new SubjectSuggestTrie.Ranked(2L, 3, "cs102 cau truc du lieu"));
+        trie.insert("lap trinh web", new SubjectSuggestTrie.Ranked(3L, 2, "it201 lap trinh web"));
+
+        assertEquals(List.of(1L, 2L), ids(trie.find("cs1", 10)));
+        assertEquals(List.of(1L, 3L), ids(trie.find("lap tr", 10)));
+        assertEquals(List.of(3L), ids(trie.find("lap trinh w", 10)));
+        assertEquals(List.of(1L), ids(trie.find("cs", 1)));
+        assertEquals(List.of(), ids(trie.find("cs2", 10)));
+    }
+
+    @Test
+    public void remove_dropsSubjectAndKeepsSiblings() {
+        SubjectSuggestTrie trie = new SubjectSuggestTrie(5);
+        trie.insert("toan", new SubjectSuggestTrie.Ranked(1L, 2, "toan"));
+        trie.insert("toan roi rac", new SubjectSuggestTrie.Ranked(2L, 2, "toan roi rac"));
+
+        trie.remove("toan", 1L);
+
+        assertEquals(List.of(2L), ids(trie.find("to", 10)));
+        assertEquals(List.of(2L), ids(trie.find("toan r", 10)));
+    }
+
+    /**
+     * So sánh với quét tuần tự trên mọi khoá sau chuỗi thêm/xoá ngẫu nhiên
+     * (bảng chữ cái nhỏ để có nhiều tiền tố chung, buộc trie tách và gộp cạnh)
+     */
+    @Test
+    public void randomizedInsertRemove_matchesBruteForcePrefixScan() {
+        int topK = 4;
+        Random random = new Random(42);
+        SubjectSuggestTrie trie = new SubjectSuggestTrie(topK);
+        Map<String, Map<Long, SubjectSuggestTrie.Ranked>> model = new HashMap<>();
+
+        for (int step = 0; step < 20_000; step++) {
+            String key = randomKey(random, 1 + random.nextInt(6));
+            Long subjectId = (long) random.nextInt(30);
+            if (random.nextInt(3) == 0) {
+                trie.remove(key, subjectId);
+                Map<Long, SubjectSuggestTrie.Ranked> terminals = model.get(key);
+                if (terminals != null) {
+                    terminals.remove(subjectId);
+                }
+            } else {
+                SubjectSuggestTrie.Ranked ranked = new SubjectSuggestTrie.Ranked(
+                        subjectId, 1 + random.nextInt(3), "s" + subjectId);
+                trie.insert(key, ranked);
+                model.computeIfAbsent(key, k -> new HashMap<>()).merge(subjectId, ranked,
+                        (a, b) -> ORDER.compare(a, b) <= 0 ? a : b);
+            }
+
+            String prefix = randomKey(random, random.nextInt(4));
+            int limit = 1 + random.nextInt(topK);
+            assertEquals(bruteForce(model, prefix, limit), trie.find(prefix, limit),
+                    "step " + step + ", prefix '" + prefix + "'");
+        }
+    }
+
+    // Helper methods
+    private static List<SubjectSuggestTrie.Ranked> bruteForce(Map<String, Map<Long, SubjectSuggestTrie.Ranked>> model,
+                                                              String prefix, int limit) {
+        Map<Long, SubjectSuggestTrie.Ranked> best = new HashMap<>();
+        model.forEach((key, terminals) -> {
+            if (key.startsWith(prefix)) {
+                terminals.values().forEach(r -> best.merge(r.subjectId(), r,
+                        (a, b) -> ORDER.compare(a, b) <= 0 ? a : b));
+            }
+        });
+        return best.values().stream().sorted(ORDER).limit(limit).collect(Collectors.toList());
+    }
+
+    private static String randomKey(Random random, int length) {
+        StringBuilder key = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            key.append("ab c".charAt(random.nextInt(4)));
+        }
+        return key.toString();
+    }
+
+    private static List<Long> ids(List<SubjectSuggestTrie.Ranked> ranked) {
+        List<Long> ids = new ArrayList<>();
+        ranked.forEach(r -> ids.add(r.subjectId()));
+        return ids;
+    }
+}
@@ -0,0 +1,159 @@
+package com.smd.public_service.service;
+
+import com.smd.public_service.model.entity.Syllabus;
+import com.smd.public_service.repository.SyllabusRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SyllabusDiffServiceTest {
+
+    private static final Long SUBJECT_ID = 10L;
+    private static final LocalDateTime UPDATED_AT = LocalDateTime.of(2026, 10, 1, 8, 0);
+
+    private SyllabusRepository syllabusRepository;
+    private SyllabusDiffService diffService;
+
+    @BeforeEach
+    public void setUp() {
+        syllabusRepository = mock(SyllabusRepository.class);
+        diffService = new SyllabusDiffService(syllabusRepository);
+        ReflectionTestUtils.setField(diffService, "cacheSize", 16);
+        diffService.initDiffCache();
+    }
+
+    @Test
+    public void samePair_isServedFromCache() {
+        Syllabus v1 = syllabus(1L, 1, "a", "{\"chapters\":[{\"title\":\"A\"}]}", UPDATED_AT);
+        Syllabus v2 = syllabus(2L, 2, "a", "{\"chapters\":[{\"title\":\"Z\"},{\"title\":\"A\"}]}", UPDATED_AT);
+        stubVersions(v1, v2);
+
+        SyllabusDiffService.DiffResult first = diffService.compareSyllabi(SUBJECT_ID, 1, 2);
+        SyllabusDiffService.DiffResult second = diffService.compareSyllabi(SUBJECT_ID, 1, 2);
+
+        assertNotSame(first, second);
+        verify(syllabusRepository, times(2)).findVersionKeys(eq(SUBJECT_ID), anyCollection());
+        verify(syllabusRepository, times(1)).findAllById(anyIterable());
+
+        assertEquals(1, first.differences.size());
+        SyllabusDiffService.FieldDiff content = first.differences.get(0);
+        assertEquals("content", content.fieldName);
+        assertEquals("MODIFIED", content.changeType);
+        assertEquals(1, content.hunks.size());
+        assertEquals("ADDED", content.hunks.get(0).changeType);
+        assertEquals("$.chapters[0]", content.hunks.get(0).path);
+    }
+
+    @Test
+    public void mutatingReturnedResult_doesNotCorruptCache() {
+        stubVersions(syllabus(1L, 1, "a\nb", null, UPDATED_AT), syllabus(2L, 2, "a\nc", null, UPDATED_AT));
+
+        SyllabusDiffService.DiffResult first = diffService.compareSyllabi(SUBJECT_ID, 1, 2);
+        first.summary = "sửa bởi caller";
+        first.oldVersion.code = "X";
+        first.differences.get(0).hunks.get(0).newLines.set(0, "z");
+        first.differences.get(0).hunks.clear();
+        first.differences.clear();
+
+        SyllabusDiffService.DiffResult second = diffService.compareSyllabi(SUBJECT_ID, 1, 2);
+
+        verify(syllabusRepository, times(1)).findAllById(anyIterable());
+        assertEquals("CS101-V1", second.oldVersion.code);
+        assertEquals(1, second.differences.size());
+        assertEquals(List.of("c"), second.differences.get(0).hunks.get(0).newLines);
+        assertEquals("Total changes: 1 (Modified: 1, Added: 0, Removed: 0)", second.summary);
+    }
+
+    @Test
+    public void changedUpdatedAt_recomputesDiff() {
+        Syllabus v1 = syllabus(1L, 1, "a\nb", null, UPDATED_AT);
+        stubVersions(v1, syllabus(2L, 2, "a\nc", null, UPDATED_AT));
+        SyllabusDiffService.DiffResult first = diffService.compareSyllabi(SUBJECT_ID, 1, 2);
+
+        // Cùng id, nội dung sửa tại chỗ: updatedAt đổi nên khoá cache đổi
+        stubVersions(v1, syllabus(2L, 2, "a\nd", null, UPDATED_AT.plusMinutes(5)));
+        SyllabusDiffService.DiffResult second = diffService.compareSyllabi(SUBJECT_ID, 1, 2);
+
+        assertNotSame(first, second);
+        verify(syllabusRepository, times(2)).findAllById(anyIterable());
+        assertEquals(List.of("c"), first.differences.get(0).hunks.get(0).newLines);
+        assertEquals(List.of("d"), second.differences.get(0).hunks.get(0).newLines);
+        assertEquals(2, second.differences.get(0).hunks.get(0).oldStart);
+    }
+
+    @Test
+    public void formattingOnlyContentChange_isNotADifference() {
+        stubVersions(syllabus(1L, 1, "a", "{\"a\":1,\"b\":2}", UPDATED_AT),
+                syllabus(2L, 2, "a", "{\n  \"b\": 2,\n  \"a\": 1\n}", UPDATED_AT));
+
+        SyllabusDiffService.DiffResult result = diffService.compareSyllabi(SUBJECT_ID, 1, 2);
+
+        assertEquals(0, result.differences.size());
+        assertEquals("No changes detected", result.summary);
+    }
+
+    @Test
+    public void missingVersion_throws() {
+        Syllabus v1 = syllabus(1L, 1, "a", null, UPDATED_AT);
+        when(syllabusRepository.findVersionKeys(eq(SUBJECT_ID), anyCollection())).thenReturn(List.of(key(v1)));
+
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> diffService.compareSyllabi(SUBJECT_ID, 1, 3));
+
+        assertEquals("Version not found: 3", error.getMessage());
+    }
+
+    // Helper methods
+    private void stubVersions(Syllabus oldSyllabus, Syllabus newSyllabus) {
+        when(syllabusRepository.findVersionKeys(eq(SUBJECT_ID), anyCollection()))
+                .thenReturn(List.of(key(oldSyllabus), key(newSyllabus)));
+        when(syllabusRepository.findAllById(anyIterable())).thenReturn(List.of(oldSyllabus, newSyllabus));
+    }
+
+    private static Syllabus syllabus(Long id, int version, String objectives, String content, LocalDateTime updatedAt) {
+        return Syllabus.builder()
+                .id(id)
+                .syllabusCode("CS101-V" + version)
+                .version(version)
+                .academicYear("2026-2027")
+                .semester(1)
+                .status("APPROVED")
+                .learningObjectives(objectives)
+                .content(content)
+                .updatedAt(updatedAt)
+                .build();
+    }
+
+    private static SyllabusRepository.VersionKey key(Syllabus syllabus) {
+        return new SyllabusRepository.VersionKey() {
+            @Override
+            public Long getId() {
+                return syllabus.getId();
+            }
+
+            @Override
+            public Integer getVersion() {
+                return syllabus.getVersion();
+            }
+
+            @Override
+            public LocalDateTime getUpdatedAt() {
+                return syllabus.getUpdatedAt();
+            }
+        };
+    }
+}
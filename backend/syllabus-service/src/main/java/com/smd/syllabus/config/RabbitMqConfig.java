@@ -6,6 +6,7 @@ import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -13,6 +14,7 @@ import org.springframework.context.annotation.Configuration;
 public class RabbitMqConfig {
 
     public static final String WORKFLOW_EXCHANGE = "workflow.exchange";
+    public static final String NOTIFICATION_FANOUT_EXCHANGE = "smd.notification.fanout";
 
     @Bean
     public TopicExchange workflowExchange() {
@@ -49,6 +51,25 @@ public class RabbitMqConfig {
                 .with(routingKey);
     }
 
+    // SSE backplane: one auto-delete queue per instance bound to a fanout exchange
+    @Bean
+    @ConditionalOnProperty(name = "smd.notification.backplane", havingValue = "rabbit", matchIfMissing = true)
+    public FanoutExchange notificationFanoutExchange() {
+        return new FanoutExchange(NOTIFICATION_FANOUT_EXCHANGE, true, false);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "smd.notification.backplane", havingValue = "rabbit", matchIfMissing = true)
+    public Queue notificationFanoutQueue() {
+        return new AnonymousQueue(new Base64UrlNamingStrategy("smd.notification.sse."));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "smd.notification.backplane", havingValue = "rabbit", matchIfMissing = true)
+    public Binding notificationFanoutBinding(FanoutExchange notificationFanoutExchange, Queue notificationFanoutQueue) {
+        return BindingBuilder.bind(notificationFanoutQueue).to(notificationFanoutExchange);
+    }
+
     @Bean
     public MessageConverter messageConverter() {
         return new Jackson2JsonMessageConverter();
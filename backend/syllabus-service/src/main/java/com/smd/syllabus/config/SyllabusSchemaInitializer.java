@@ -0,0 +1,165 @@
+package com.smd.syllabus.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Installs what ddl-auto cannot express (partial indexes, seeds, backfills) once the tables exist.
+ *
+ * This service has no migration runner: the scripts in db/migration document the same SQL,
+ * but nothing applies them. Every step here is idempotent and runs on each startup in its own
+ * transaction, under an advisory lock so concurrently starting instances do not race.
+ * A failing step is logged and does not block the others or the application.
+ */
+@Component
+@ConditionalOnProperty(name = "smd.schema.install-on-startup", havingValue = "true", matchIfMissing = true)
+public class SyllabusSchemaInitializer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SyllabusSchemaInitializer.class);
+
+    // Seed from every stored version, soft-deleted ones included, so numbers are never reused
+    private static final String SEED_VERSION_COUNTERS = """
+            insert into syllabus_version_counters (root_id, last_version, updated_at)
+            select root_id, max(version_no), now()
+            from syllabuses
+            group by root_id
+            on conflict (root_id) do update
+               set last_version = excluded.last_version, updated_at = now()
+             where syllabus_version_counters.last_version < excluded.last_version
+            """;
+
+    // Soft-deleted rows are excluded: the old max(version_no) + 1 ignored them and may have reused their number
+    private static final String ROOT_VERSION_UNIQUE_INDEX = """
+            create unique index if not exists uk_syllabuses_root_version
+                on syllabuses (root_id, version_no)
+                where is_deleted = false
+            """;
+
+    private static final String DUPLICATE_LIVE_VERSIONS = """
+            select root_id::text || ' v' || version_no
+            from syllabuses
+            where is_deleted = false
+            group by root_id, version_no
+            having count(*) > 1
+            limit 20
+            """;
+
+    // Pending rows written before due_at existed; same rule as SyllabusDeadlinePolicy
+    private static final String BACKFILL_REVIEW_DUE_AT = """
+            update syllabuses
+               set due_at = submitted_at + make_interval(hours => ?)
+             where status = 'PENDING_REVIEW' and submitted_at is not null and due_at is null
+            """;
+
+    private static final String BACKFILL_APPROVAL_DUE_AT = """
+            update syllabuses
+               set due_at = reviewed_at + make_interval(hours => ?)
+             where status = 'PENDING_APPROVAL' and reviewed_at is not null and due_at is null
+            """;
+
+    // Anti-join probe of DeadlineReminderScheduler: "already reminded this user about this version recently?"
+    private static final String DEADLINE_DEDUPE_INDEX = """
+            create index if not exists idx_notifications_deadline_dedupe
+                on notifications (syllabus_id, user_id, created_at)
+                where type = 'DEADLINE_REMINDER'
+            """;
+
+    // Relay scans only pending rows (OutboxEventRepository.claimBatch); keeps that scan small as published rows pile up
+    private static final String OUTBOX_PENDING_INDEX = """
+            create index if not exists idx_outbox_pending
+                on syllabus_outbox (id)
+                where status = 'PENDING'
+            """;
+
+    // Search (SyllabusRepositoryImpl.searchSummaries): trigram indexes for the lower(...) like '%q%' filters
+    private static final String TRIGRAM_EXTENSION = "create extension if not exists pg_trgm";
+
+    private static final String SUBJECT_CODE_TRGM_INDEX = """
+            create index if not exists idx_syllabuses_subject_code_trgm
+                on syllabuses using gin (lower(subject_code) gin_trgm_ops)
+            """;
+
+    private static final String SUBJECT_NAME_TRGM_INDEX = """
+            create index if not exists idx_syllabuses_subject_name_trgm
+                on syllabuses using gin (lower(subject_name) gin_trgm_ops)
+            """;
+
+    // Keyset seek on (updated_at, id): first page and page N are the same range scan
+    private static final String KEYSET_INDEX = """
+            create index if not exists idx_syllabuses_keyset
+                on syllabuses (updated_at desc, id desc)
+                where is_deleted = false
+            """;
+
+    private static final String STATUS_KEYSET_INDEX = """
+            create index if not exists idx_syllabuses_status_keyset
+                on syllabuses (status, updated_at desc, id desc)
+                where is_deleted = false
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${smd.deadline.review-hours:72}")
+    private int reviewHours;
+
+    @Value("${smd.deadline.approval-hours:72}")
+    private int approvalHours;
+
+    public SyllabusSchemaInitializer(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void install() {
+        step("syllabus_version_counters seed", () -> jdbcTemplate.execute(SEED_VERSION_COUNTERS));
+        if (!step("uk_syllabuses_root_version", () -> jdbcTemplate.execute(ROOT_VERSION_UNIQUE_INDEX))) {
+            // Usually rows duplicated by the old allocator; they must be resolved by hand
+            try {
+                LOGGER.warn("Live duplicate (root_id, version_no) pairs: {}",
+                        jdbcTemplate.queryForList(DUPLICATE_LIVE_VERSIONS, String.class));
+            } catch (DataAccessException ex) {
+                LOGGER.debug("Could not list duplicate versions: {}", ex.getMessage());
+            }
+        }
+        step("syllabuses.due_at backfill", () -> {
+            int review = jdbcTemplate.update(BACKFILL_REVIEW_DUE_AT, reviewHours);
+            int approval = jdbcTemplate.update(BACKFILL_APPROVAL_DUE_AT, approvalHours);
+            if (review + approval > 0)
+                LOGGER.info("Backfilled due_at: {} pending review, {} pending approval", review, approval);
+        });
+        step("idx_notifications_deadline_dedupe", () -> jdbcTemplate.execute(DEADLINE_DEDUPE_INDEX));
+        step("idx_outbox_pending", () -> jdbcTemplate.execute(OUTBOX_PENDING_INDEX));
+        // Creating the extension needs a privileged role; without it search still works, just unindexed
+        if (step("pg_trgm extension", () -> jdbcTemplate.execute(TRIGRAM_EXTENSION))) {
+            step("idx_syllabuses_subject_code_trgm", () -> jdbcTemplate.execute(SUBJECT_CODE_TRGM_INDEX));
+            step("idx_syllabuses_subject_name_trgm", () -> jdbcTemplate.execute(SUBJECT_NAME_TRGM_INDEX));
+        }
+        step("idx_syllabuses_keyset", () -> jdbcTemplate.execute(KEYSET_INDEX));
+        step("idx_syllabuses_status_keyset", () -> jdbcTemplate.execute(STATUS_KEYSET_INDEX));
+    }
+
+    private boolean step(String name, Runnable work) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.execute("select pg_advisory_xact_lock(hashtext('syllabus_schema_initializer'))");
+                work.run();
+            });
+            LOGGER.info("Schema step applied: {}", name);
+            return true;
+        } catch (DataAccessException ex) {
+            LOGGER.warn("Schema step failed: {}: {}", name, ex.getMessage());
+            return false;
+        }
+    }
+}
@@ -3,7 +3,9 @@ package com.smd.syllabus.controller;
 import com.smd.syllabus.domain.SyllabusStatus;
 import com.smd.syllabus.dto.CreateSyllabusRequest;
 import com.smd.syllabus.dto.RejectSyllabusRequest;
+import com.smd.syllabus.dto.SyllabusCursorPage;
 import com.smd.syllabus.dto.SyllabusResponse;
+import com.smd.syllabus.dto.SyllabusSummary;
 import com.smd.syllabus.dto.UpdateSyllabusRequest;
 import com.smd.syllabus.service.SyllabusService;
 import org.springframework.data.domain.Page;
@@ -62,6 +64,19 @@ public class SyllabusController {
         return ResponseEntity.ok(syllabusService.search(q, status, pageable));
     }
 
+    /**
+     * Keyset search, stable cost on deep pages
+     * GET /api/syllabuses/search?q=&status=&cursor=&size=
+     */
+    @GetMapping("/search")
+    public ResponseEntity<SyllabusCursorPage> searchByCursor(
+            @RequestParam(value = "q", required = false) String q,
+            @RequestParam(value = "status", required = false) SyllabusStatus status,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", required = false, defaultValue = "20") int size) {
+        return ResponseEntity.ok(syllabusService.searchByCursor(q, status, cursor, Math.min(Math.max(size, 1), 100)));
+    }
+
     /**
      * Get syllabus detail by ID
      * GET /api/syllabuses/{id}
@@ -199,4 +214,41 @@ public class SyllabusController {
             @RequestParam(value = "subjectCodes", required = false) List<String> subjectCodes) {
         return ResponseEntity.ok(syllabusService.getPublicSyllabuses(subjectCodes));
     }
+
+    // ---------- summary lists: same filters as above, without the jsonb content ----------
+
+    /**
+     * GET /api/syllabuses/{rootId}/versions/summary
+     */
+    @GetMapping("/{rootId}/versions/summary")
+    public ResponseEntity<List<SyllabusSummary>> listVersionSummaries(@PathVariable UUID rootId) {
+        return ResponseEntity.ok(syllabusService.listVersionSummaries(rootId));
+    }
+
+    /**
+     * GET /api/syllabuses/approved-by-subjects/summary?subjectCodes=CS101,CS102
+     */
+    @GetMapping("/approved-by-subjects/summary")
+    public ResponseEntity<List<SyllabusSummary>> getApprovedSummariesBySubjects(
+            @RequestParam(value = "subjectCodes") List<String> subjectCodes) {
+        return ResponseEntity.ok(syllabusService.getApprovedSummariesBySubjectCodes(subjectCodes));
+    }
+
+    /**
+     * GET /api/syllabuses/student-syllabuses/summary?subjectCodes=CS101,CS102
+     */
+    @GetMapping("/student-syllabuses/summary")
+    public ResponseEntity<List<SyllabusSummary>> getStudentSummariesBySubjects(
+            @RequestParam(value = "subjectCodes") List<String> subjectCodes) {
+        return ResponseEntity.ok(syllabusService.getStudentSummariesBySubjectCodes(subjectCodes));
+    }
+
+    /**
+     * GET /api/syllabuses/public/summary?subjectCodes=CS101,CS102
+     */
+    @GetMapping("/public/summary")
+    public ResponseEntity<List<SyllabusSummary>> getPublicSummaries(
+            @RequestParam(value = "subjectCodes", required = false) List<String> subjectCodes) {
+        return ResponseEntity.ok(syllabusService.getPublicSummaries(subjectCodes));
+    }
 }
@@ -1,19 +1,27 @@
 package com.smd.syllabus.controller;
 
+import com.smd.syllabus.dto.ChunkedUploadStatus;
+import com.smd.syllabus.dto.DocumentDownload;
 import com.smd.syllabus.dto.DocumentResponse;
+import com.smd.syllabus.dto.DocumentUploadRequest;
 import com.smd.syllabus.dto.UpdateJobIdRequest;
+import com.smd.syllabus.service.ChunkedUploadService;
 import com.smd.syllabus.service.SyllabusDocumentService;
-import org.springframework.core.io.ByteArrayResource;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.util.List;
@@ -29,10 +37,13 @@ import java.util.UUID;
 public class SyllabusDocumentController {
 
     private final SyllabusDocumentService documentService;
+    private final ChunkedUploadService chunkedUploadService;
     private static final Logger LOGGER = LoggerFactory.getLogger(SyllabusDocumentController.class);
 
-    public SyllabusDocumentController(SyllabusDocumentService documentService) {
+    public SyllabusDocumentController(SyllabusDocumentService documentService,
+                                      ChunkedUploadService chunkedUploadService) {
         this.documentService = documentService;
+        this.chunkedUploadService = chunkedUploadService;
     }
 
     /**
@@ -69,6 +80,151 @@ public class SyllabusDocumentController {
         }
     }
 
+    /**
+     * Start a chunked upload
+     * POST /api/syllabus/documents/uploads
+     */
+    @PostMapping("/uploads")
+    public ResponseEntity<?> initChunkedUpload(
+            @RequestBody DocumentUploadRequest request,
+            @RequestHeader(value = "X-Upload-Content-Type", required = false) String contentType,
+            @RequestHeader(value = "X-User-Id", required = false) String userId,
+            Authentication authentication) {
+        String username = resolveUser(userId, authentication);
+        if (username == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Unauthorized"));
+        }
+        try {
+            ChunkedUploadStatus status = chunkedUploadService.init(request, contentType, username);
+            return ResponseEntity.status(HttpStatus.CREATED).body(status);
+        } catch (IllegalArgumentException e) {
+            LOGGER.warn("Validation error during chunked upload init: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            LOGGER.error("IOException while starting chunked upload for syllabusId={}", request.getSyllabusId(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to start upload: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Get chunked upload progress (resume point)
+     * GET /api/syllabus/documents/uploads/{uploadId}
+     */
+    @GetMapping("/uploads/{uploadId}")
+    public ResponseEntity<?> getChunkedUpload(
+            @PathVariable UUID uploadId,
+            @RequestHeader(value = "X-User-Id", required = false) String userId,
+            Authentication authentication) {
+        String username = resolveUser(userId, authentication);
+        if (username == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Unauthorized"));
+        }
+        try {
+            return ResponseEntity.ok(chunkedUploadService.status(uploadId, username));
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            LOGGER.error("IOException while reading chunked upload {}", uploadId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to read upload: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Upload one chunk as a raw body (no multipart buffering)
+     * PUT /api/syllabus/documents/uploads/{uploadId}/chunks?offset=0
+     */
+    @PutMapping(value = "/uploads/{uploadId}/chunks", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<?> putChunk(
+            @PathVariable UUID uploadId,
+            @RequestParam("offset") long offset,
+            @RequestHeader(value = "X-User-Id", required = false) String userId,
+            Authentication authentication,
+            HttpServletRequest request) {
+        String username = resolveUser(userId, authentication);
+        if (username == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Unauthorized"));
+        }
+        try {
+            return ResponseEntity.ok(chunkedUploadService.putChunk(uploadId, offset, request.getInputStream(), username));
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            LOGGER.warn("Rejected chunk for upload {} at offset {}: {}", uploadId, offset, e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            LOGGER.error("IOException while writing chunk for upload {} at offset {}", uploadId, offset, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to write chunk: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Complete a chunked upload and register the document
+     * POST /api/syllabus/documents/uploads/{uploadId}/complete
+     */
+    @PostMapping("/uploads/{uploadId}/complete")
+    public ResponseEntity<?> completeChunkedUpload(
+            @PathVariable UUID uploadId,
+            @RequestHeader(value = "X-User-Id", required = false) String userId,
+            Authentication authentication) {
+        String username = resolveUser(userId, authentication);
+        if (username == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Unauthorized"));
+        }
+        try {
+            DocumentResponse response = chunkedUploadService.complete(uploadId, username);
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            LOGGER.warn("Cannot complete upload {}: {}", uploadId, e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            LOGGER.error("IOException while completing upload {}", uploadId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to complete upload: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Abort a chunked upload
+     * DELETE /api/syllabus/documents/uploads/{uploadId}
+     */
+    @DeleteMapping("/uploads/{uploadId}")
+    public ResponseEntity<?> abortChunkedUpload(
+            @PathVariable UUID uploadId,
+            @RequestHeader(value = "X-User-Id", required = false) String userId,
+            Authentication authentication) {
+        String username = resolveUser(userId, authentication);
+        if (username == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Unauthorized"));
+        }
+        try {
+            chunkedUploadService.abort(uploadId, username);
+            return ResponseEntity.ok(Map.of("message", "Upload aborted"));
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            LOGGER.error("IOException while aborting upload {}", uploadId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to abort upload: " + e.getMessage()));
+        }
+    }
+
     /**
      * Get all documents for a syllabus
      * GET /api/syllabus/documents/syllabus/{syllabusId}
@@ -106,24 +262,31 @@ public class SyllabusDocumentController {
     /**
      * Download a document
      * GET /api/syllabus/documents/{documentId}/download
+     * Streams from disk. Spring MVC answers Range requests with 206 partial content
+     * and If-None-Match with 304 based on the ETag set here.
      */
     @GetMapping("/{documentId}/download")
     public ResponseEntity<Resource> downloadDocument(@PathVariable UUID documentId) {
         try {
-            DocumentResponse docInfo = documentService.getDocumentInfo(documentId);
-            byte[] data = documentService.downloadDocument(documentId);
+            DocumentDownload download = documentService.openDocument(documentId);
 
-            ByteArrayResource resource = new ByteArrayResource(data);
-
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, 
-                            "attachment; filename=\"" + docInfo.getOriginalName() + "\"")
-                    .contentType(MediaType.parseMediaType(docInfo.getMimeType() != null 
-                            ? docInfo.getMimeType() 
+            ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                            .filename(download.originalName(), StandardCharsets.UTF_8)
+                            .build()
+                            .toString())
+                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                    .contentType(MediaType.parseMediaType(download.mimeType() != null
+                            ? download.mimeType()
                             : "application/octet-stream"))
-                    .contentLength(data.length)
-                    .body(resource);
+                    .eTag(download.etag())
+                    .cacheControl(CacheControl.noCache().cachePrivate());
+            if (download.uploadedAt() != null) {
+                builder.lastModified(download.uploadedAt());
+            }
+            return builder.body(download.resource());
         } catch (IOException e) {
+            LOGGER.error("IOException while opening documentId={} for download", documentId, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
@@ -206,4 +369,9 @@ public class SyllabusDocumentController {
                     .body(Map.of("error", "Failed to update job ID: " + e.getMessage()));
         }
     }
+
+    private String resolveUser(String userIdHeader, Authentication authentication) {
+        String username = authentication != null ? authentication.getName() : userIdHeader;
+        return (username == null || username.isBlank()) ? null : username;
+    }
 }
@@ -0,0 +1,79 @@
+package com.smd.syllabus.domain;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Content-addressed file stored under the upload directory.
+ * One row per distinct SHA-256; ref_count tracks how many live SyllabusDocument rows point at it.
+ */
+@Entity
+@Table(name = "document_blobs", indexes = {
+        @Index(name = "idx_document_blobs_ref_count", columnList = "ref_count, updated_at")
+})
+public class DocumentBlob {
+
+    @Id
+    @Column(name = "sha256", length = 64, updatable = false, nullable = false)
+    private String sha256;
+
+    @Column(name = "size_bytes", nullable = false)
+    private Long sizeBytes;
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    public DocumentBlob() {
+    }
+
+    @PrePersist
+    void prePersist() {
+        Instant now = Instant.now();
+        this.createdAt = now;
+        this.updatedAt = now;
+    }
+
+    @PreUpdate
+    void preUpdate() {
+        this.updatedAt = Instant.now();
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public void setSha256(String sha256) {
+        this.sha256 = sha256;
+    }
+
+    public Long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public void setSizeBytes(Long sizeBytes) {
+        this.sizeBytes = sizeBytes;
+    }
+
+    public int getRefCount() {
+        return refCount;
+    }
+
+    public void setRefCount(int refCount) {
+        this.refCount = refCount;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+}
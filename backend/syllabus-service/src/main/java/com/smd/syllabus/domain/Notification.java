@@ -10,7 +10,8 @@ import java.util.UUID;
 @Table(name = "notifications", indexes = {
         @Index(name = "idx_notifications_user_id", columnList = "user_id"),
         @Index(name = "idx_notifications_created_at", columnList = "created_at"),
-        @Index(name = "idx_notifications_is_read", columnList = "is_read")
+        @Index(name = "idx_notifications_is_read", columnList = "is_read"),
+        @Index(name = "idx_notifications_user_created", columnList = "user_id, created_at")
 })
 public class Notification {
 
@@ -67,6 +68,10 @@ public class Notification {
         return id;
     }
 
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
     public String getUserId() {
         return userId;
     }
@@ -126,4 +131,8 @@ public class Notification {
     public Instant getCreatedAt() {
         return createdAt;
     }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
 }
@@ -11,7 +11,8 @@ import java.util.UUID;
 @Table(name = "syllabuses", indexes = {
         @Index(name = "idx_syllabuses_root_id", columnList = "root_id"),
         @Index(name = "idx_syllabuses_subject_code", columnList = "subject_code"),
-        @Index(name = "idx_syllabuses_status", columnList = "status")
+        @Index(name = "idx_syllabuses_status", columnList = "status"),
+        @Index(name = "idx_syllabuses_due_at", columnList = "due_at")
 })
 public class Syllabus {
 
@@ -76,6 +77,10 @@ public class Syllabus {
     @Column(name = "workflow_id")
     private UUID workflowId;
 
+    // Review/approval deadline of the current pending step; null outside PENDING_* (see SyllabusDeadlinePolicy)
+    @Column(name = "due_at")
+    private Instant dueAt;
+
     // ---------- audit fields ----------
     @Column(name = "created_at", nullable = false)
     private Instant createdAt;
@@ -253,6 +258,14 @@ public class Syllabus {
         this.workflowId = workflowId;
     }
 
+    public Instant getDueAt() {
+        return dueAt;
+    }
+
+    public void setDueAt(Instant dueAt) {
+        this.dueAt = dueAt;
+    }
+
     public Instant getCreatedAt() {
         return createdAt;
     }
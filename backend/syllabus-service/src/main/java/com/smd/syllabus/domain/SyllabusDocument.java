@@ -14,7 +14,8 @@ import java.util.UUID;
 @Table(name = "syllabus_documents", indexes = {
         @Index(name = "idx_documents_syllabus_id", columnList = "syllabus_id"),
         @Index(name = "idx_documents_status", columnList = "status"),
-        @Index(name = "idx_documents_upload_by", columnList = "uploaded_by")
+        @Index(name = "idx_documents_upload_by", columnList = "uploaded_by"),
+        @Index(name = "idx_documents_content_hash", columnList = "content_hash")
 })
 public class SyllabusDocument {
 
@@ -43,6 +44,13 @@ public class SyllabusDocument {
     @Column(name = "file_path", nullable = false, length = 500)
     private String filePath;
 
+    /**
+     * SHA-256 of the file in the content-addressed blob store.
+     * Null for legacy rows stored under a UUID file name.
+     */
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
     @Column(name = "mime_type", length = 100)
     private String mimeType;
 
@@ -147,6 +155,14 @@ public class SyllabusDocument {
         this.filePath = filePath;
     }
 
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
     public String getMimeType() {
         return mimeType;
     }
@@ -0,0 +1,40 @@
+package com.smd.syllabus.domain;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Last version number handed out for a syllabus root.
+ * Only written through SyllabusRepository.allocateVersionNo (insert ... on conflict ... returning).
+ */
+@Entity
+@Table(name = "syllabus_version_counters")
+public class SyllabusVersionCounter {
+
+    @Id
+    @Column(name = "root_id", updatable = false, nullable = false)
+    private UUID rootId;
+
+    @Column(name = "last_version", nullable = false)
+    private int lastVersion;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    public SyllabusVersionCounter() {
+    }
+
+    public UUID getRootId() {
+        return rootId;
+    }
+
+    public int getLastVersion() {
+        return lastVersion;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -0,0 +1,15 @@
+package com.smd.syllabus.dto;
+
+import java.util.UUID;
+
+/**
+ * Progress of a chunked upload; clients resume from receivedBytes.
+ */
+public record ChunkedUploadStatus(
+        UUID uploadId,
+        UUID syllabusId,
+        String originalName,
+        long totalSize,
+        long receivedBytes,
+        int chunkSize) {
+}
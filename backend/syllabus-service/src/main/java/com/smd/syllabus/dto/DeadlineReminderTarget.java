@@ -0,0 +1,10 @@
+package com.smd.syllabus.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One follower of a syllabus whose deadline is inside the reminder window and who has not been reminded yet
+ */
+public record DeadlineReminderTarget(UUID syllabusId, UUID rootId, String subjectCode, Instant dueAt, String userId) {
+}
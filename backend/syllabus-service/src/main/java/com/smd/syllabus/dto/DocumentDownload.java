@@ -0,0 +1,26 @@
+package com.smd.syllabus.dto;
+
+import org.springframework.core.io.Resource;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Metadata + file handle for streaming a stored document.
+ * The resource is read lazily by the HTTP layer, file bytes never sit on the heap.
+ */
+public record DocumentDownload(
+        UUID documentId,
+        String originalName,
+        String mimeType,
+        long fileSize,
+        Instant uploadedAt,
+        Resource resource) {
+
+    /**
+     * Strong ETag: stored files are immutable per document id, so id + size identifies the bytes.
+     */
+    public String etag() {
+        return "\"" + documentId + "-" + fileSize + "\"";
+    }
+}
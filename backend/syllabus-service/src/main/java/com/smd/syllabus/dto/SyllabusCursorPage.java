@@ -0,0 +1,9 @@
+package com.smd.syllabus.dto;
+
+import java.util.List;
+
+/**
+ * One keyset page; pass nextCursor back as ?cursor= to continue, null when there are no more rows
+ */
+public record SyllabusCursorPage(List<SyllabusSummary> items, String nextCursor) {
+}
@@ -0,0 +1,31 @@
+package com.smd.syllabus.dto;
+
+import com.smd.syllabus.domain.SyllabusStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * List row for syllabus listings: everything in SyllabusResponse except the jsonb content
+ * (and rejection reason). Queries producing it never select the content column.
+ */
+public record SyllabusSummary(
+        UUID id,
+        UUID rootId,
+        String subjectCode,
+        String subjectName,
+        String summary,
+        Integer versionNo,
+        SyllabusStatus status,
+        String createdBy,
+        String updatedBy,
+        Instant createdAt,
+        Instant updatedAt,
+        Instant submittedAt,
+        Instant reviewedAt,
+        Instant approvedAt,
+        Instant publishedAt,
+        Instant rejectedAt,
+        String lastActionBy,
+        UUID workflowId) {
+}
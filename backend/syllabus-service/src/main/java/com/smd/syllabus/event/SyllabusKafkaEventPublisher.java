@@ -3,10 +3,14 @@ package com.smd.syllabus.event;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Service for publishing syllabus-related events to Kafka
@@ -19,9 +23,22 @@ public class SyllabusKafkaEventPublisher {
     private final KafkaTemplate<String, Map<String, Object>> kafkaTemplate;
 
     /**
-     * Publish event when syllabus is submitted for approval
+     * A message ready to be sent (directly, or later via the outbox relay)
      */
-    public void publishSyllabusSubmitted(
+    public record KafkaMessage(String topic, String key, Map<String, Object> payload) {
+    }
+
+    /**
+     * Send a message and expose the broker acknowledgement to the caller
+     */
+    public CompletableFuture<SendResult<String, Map<String, Object>>> send(KafkaMessage message) {
+        return kafkaTemplate.send(message.topic(), message.key(), message.payload());
+    }
+
+    /**
+     * Build the event sent when syllabus is submitted for approval
+     */
+    public KafkaMessage syllabusSubmitted(
             Long syllabusId,
             String syllabusName,
             Long submitterId,
@@ -30,29 +47,23 @@ public class SyllabusKafkaEventPublisher {
             String approverName,
             String approverRole
     ) {
-        try {
-            Map<String, Object> event = new HashMap<>();
-            event.put("syllabusId", syllabusId);
-            event.put("syllabusName", syllabusName);
-            event.put("submitterId", submitterId);
-            event.put("submitterName", submitterName);
-            event.put("approverId", approverId);
-            event.put("approverName", approverName);
-            event.put("approverRole", approverRole);
-            event.put("timestamp", System.currentTimeMillis());
-
-            kafkaTemplate.send("syllabus.submitted", syllabusId.toString(), event);
-            log.info("📤 Published syllabus.submitted event for syllabus: {} to approver: {}", 
-                syllabusId, approverId);
-        } catch (Exception e) {
-            log.error("❌ Failed to publish syllabus.submitted event", e);
-        }
+        Map<String, Object> event = new HashMap<>();
+        event.put("syllabusId", syllabusId);
+        event.put("syllabusName", syllabusName);
+        event.put("submitterId", submitterId);
+        event.put("submitterName", submitterName);
+        event.put("approverId", approverId);
+        event.put("approverName", approverName);
+        event.put("approverRole", approverRole);
+        event.put("timestamp", System.currentTimeMillis());
+        return new KafkaMessage("syllabus.submitted", syllabusId.toString(), event);
     }
 
     /**
-     * Publish event when workflow status changes (approved/rejected)
+     * Build the events sent when workflow status changes (approved/rejected).
+     * An approval with a next approver also notifies that approver.
      */
-    public void publishWorkflowStatusChanged(
+    public List<KafkaMessage> workflowStatusChanged(
             Long syllabusId,
             String syllabusName,
             String status,
@@ -65,44 +76,38 @@ public class SyllabusKafkaEventPublisher {
             Long nextApproverId,
             String nextApproverRole
     ) {
-        try {
-            Map<String, Object> event = new HashMap<>();
-            event.put("syllabusId", syllabusId);
-            event.put("syllabusName", syllabusName);
-            event.put("status", status);
-            event.put("reviewerId", reviewerId);
-            event.put("reviewerName", reviewerName);
-            event.put("reviewerRole", reviewerRole);
-            event.put("lecturerId", lecturerId);
-            event.put("lecturerName", lecturerName);
-            event.put("comment", comment != null ? comment : "");
-            event.put("timestamp", System.currentTimeMillis());
+        List<KafkaMessage> messages = new ArrayList<>(2);
 
-            // If approved and there's next approver, send notification
-            if ("APPROVED".equals(status) && nextApproverId != null) {
-                event.put("nextApproverId", nextApproverId);
-                event.put("nextApproverRole", nextApproverRole);
-                
-                // Publish approval notification to next approver
-                Map<String, Object> nextApprovalEvent = new HashMap<>();
-                nextApprovalEvent.put("syllabusId", syllabusId);
-                nextApprovalEvent.put("syllabusName", syllabusName);
-                nextApprovalEvent.put("submitterName", reviewerName + " (" + reviewerRole + ")");
-                nextApprovalEvent.put("approverId", nextApproverId);
-                nextApprovalEvent.put("approverRole", nextApproverRole);
-                nextApprovalEvent.put("timestamp", System.currentTimeMillis());
-                
-                kafkaTemplate.send("syllabus.submitted", syllabusId.toString(), nextApprovalEvent);
-                log.info("📤 Published syllabus.submitted event to next approver: {} ({})", 
-                    nextApproverId, nextApproverRole);
-            }
-
-            kafkaTemplate.send("workflow.status-changed", syllabusId.toString(), event);
-            log.info("📤 Published workflow.status-changed event for syllabus: {} - status: {}", 
-                syllabusId, status);
-        } catch (Exception e) {
-            log.error("❌ Failed to publish workflow.status-changed event", e);
+        Map<String, Object> event = new HashMap<>();
+        event.put("syllabusId", syllabusId);
+        event.put("syllabusName", syllabusName);
+        event.put("status", status);
+        event.put("reviewerId", reviewerId);
+        event.put("reviewerName", reviewerName);
+        event.put("reviewerRole", reviewerRole);
+        event.put("lecturerId", lecturerId);
+        event.put("lecturerName", lecturerName);
+        event.put("comment", comment != null ? comment : "");
+        event.put("timestamp", System.currentTimeMillis());
+
+        // If approved and there's next approver, send notification
+        if ("APPROVED".equals(status) && nextApproverId != null) {
+            event.put("nextApproverId", nextApproverId);
+            event.put("nextApproverRole", nextApproverRole);
+
+            // Approval notification to next approver
+            Map<String, Object> nextApprovalEvent = new HashMap<>();
+            nextApprovalEvent.put("syllabusId", syllabusId);
+            nextApprovalEvent.put("syllabusName", syllabusName);
+            nextApprovalEvent.put("submitterName", reviewerName + " (" + reviewerRole + ")");
+            nextApprovalEvent.put("approverId", nextApproverId);
+            nextApprovalEvent.put("approverRole", nextApproverRole);
+            nextApprovalEvent.put("timestamp", System.currentTimeMillis());
+            messages.add(new KafkaMessage("syllabus.submitted", syllabusId.toString(), nextApprovalEvent));
         }
+
+        messages.add(new KafkaMessage("workflow.status-changed", syllabusId.toString(), event));
+        return messages;
     }
 
     /**
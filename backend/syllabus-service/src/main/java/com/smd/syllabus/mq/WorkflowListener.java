@@ -4,6 +4,7 @@ import com.smd.syllabus.domain.Syllabus;
 import com.smd.syllabus.domain.SyllabusStatus;
 import com.smd.syllabus.repository.SyllabusRepository;
 import com.smd.syllabus.service.ReviewCommentService;
+import com.smd.syllabus.service.SyllabusDeadlinePolicy;
 import java.time.Instant;
 import java.util.Optional;
 import java.util.UUID;
@@ -20,10 +21,13 @@ public class WorkflowListener {
 
     private final SyllabusRepository syllabusRepository;
     private final ReviewCommentService reviewCommentService;
+    private final SyllabusDeadlinePolicy deadlinePolicy;
 
-    public WorkflowListener(SyllabusRepository syllabusRepository, ReviewCommentService reviewCommentService) {
+    public WorkflowListener(SyllabusRepository syllabusRepository, ReviewCommentService reviewCommentService,
+            SyllabusDeadlinePolicy deadlinePolicy) {
         this.syllabusRepository = syllabusRepository;
         this.reviewCommentService = reviewCommentService;
+        this.deadlinePolicy = deadlinePolicy;
     }
 
     @Transactional
@@ -134,6 +138,7 @@ public class WorkflowListener {
         
         syllabus.setLastActionBy(message.getActionBy());
         syllabus.setUpdatedBy(message.getActionBy());
+        deadlinePolicy.apply(syllabus);
         syllabusRepository.save(syllabus);
     }
 }
@@ -0,0 +1,28 @@
+package com.smd.syllabus.notification;
+
+import com.smd.syllabus.domain.Notification;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Single-instance backplane: delivers straight to the local hub (tests, local dev without RabbitMQ)
+ */
+@Component
+@ConditionalOnProperty(name = "smd.notification.backplane", havingValue = "memory")
+public class InMemoryNotificationBackplane implements NotificationBackplane {
+
+    private final NotificationSseHub hub;
+
+    public InMemoryNotificationBackplane(NotificationSseHub hub) {
+        this.hub = hub;
+    }
+
+    @Override
+    public void publish(List<Notification> notifications) {
+        for (Notification n : notifications) {
+            hub.push(n.getUserId(), n);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.smd.syllabus.notification;
+
+import com.smd.syllabus.domain.Notification;
+
+import java.util.List;
+
+/**
+ * Carries committed notifications to every syllabus-service instance,
+ * each of which hands them to its own NotificationSseHub.
+ * Selected with smd.notification.backplane (rabbit | memory).
+ */
+public interface NotificationBackplane {
+
+    void publish(List<Notification> notifications);
+}
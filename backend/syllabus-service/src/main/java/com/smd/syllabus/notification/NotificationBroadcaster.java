@@ -1,16 +1,25 @@
 package com.smd.syllabus.notification;
 
+import com.smd.syllabus.domain.Notification;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Component
 public class NotificationBroadcaster {
-    private final NotificationSseHub hub;
+    private final NotificationBackplane backplane;
+
+    public NotificationBroadcaster(NotificationBackplane backplane) {
+        this.backplane = backplane;
+    }
 
-    public NotificationBroadcaster(NotificationSseHub hub) {
-        this.hub = hub;
+    public void notifyUser(String userId, Notification notification) {
+        backplane.publish(List.of(notification));
     }
 
-    public void notifyUser(String userId, Object payload) {
-        hub.push(userId, payload);
+    public void notifyAll(List<Notification> notifications) {
+        if (notifications == null || notifications.isEmpty())
+            return;
+        backplane.publish(notifications);
     }
 }
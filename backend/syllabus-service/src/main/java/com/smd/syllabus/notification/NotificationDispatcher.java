@@ -0,0 +1,67 @@
+package com.smd.syllabus.notification;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes committed notifications to SSE clients off the request thread.
+ * Rows are already persisted, so a push dropped under overload is recovered on the next list/refresh.
+ */
+@Component
+public class NotificationDispatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private final NotificationBroadcaster broadcaster;
+    private final ThreadPoolExecutor executor;
+
+    public NotificationDispatcher(NotificationBroadcaster broadcaster,
+            @Value("${smd.notification.dispatch.pool-size:2}") int poolSize,
+            @Value("${smd.notification.dispatch.queue-capacity:10000}") int queueCapacity) {
+        this.broadcaster = broadcaster;
+        AtomicInteger seq = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "notification-dispatch-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onNotificationsCreated(NotificationsCreatedEvent event) {
+        if (event.notifications().isEmpty())
+            return;
+        try {
+            executor.execute(() -> deliver(event));
+        } catch (RejectedExecutionException ex) {
+            LOGGER.warn("SSE dispatch queue full, dropping realtime push of {} notification(s)",
+                    event.notifications().size());
+        }
+    }
+
+    private void deliver(NotificationsCreatedEvent event) {
+        try {
+            broadcaster.notifyAll(event.notifications());
+        } catch (Exception ex) {
+            LOGGER.debug("SSE push of {} notification(s) failed: {}", event.notifications().size(), ex.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
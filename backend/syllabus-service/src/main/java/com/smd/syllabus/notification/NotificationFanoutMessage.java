@@ -0,0 +1,11 @@
+package com.smd.syllabus.notification;
+
+import com.smd.syllabus.domain.Notification;
+
+import java.util.List;
+
+/**
+ * Payload on the notification fanout exchange
+ */
+public record NotificationFanoutMessage(List<Notification> notifications) {
+}
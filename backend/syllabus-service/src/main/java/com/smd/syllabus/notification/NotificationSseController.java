@@ -13,8 +13,15 @@ public class NotificationSseController {
         this.hub = hub;
     }
 
+    /**
+     * EventSource reconnects send Last-Event-ID automatically;
+     * lastEventId query param is for clients that cannot set headers.
+     */
     @GetMapping("/stream")
-    public SseEmitter stream(@RequestParam("userId") String userId) {
-        return hub.connect(userId);
+    public SseEmitter stream(@RequestParam("userId") String userId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+            @RequestParam(value = "lastEventId", required = false) String lastEventIdParam) {
+        String lastEventId = lastEventIdHeader != null ? lastEventIdHeader : lastEventIdParam;
+        return hub.connect(userId, lastEventId);
     }
 }
@@ -1,53 +1,226 @@
 package com.smd.syllabus.notification;
 
+import com.smd.syllabus.domain.Notification;
+import com.smd.syllabus.repository.NotificationRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Local SSE connections.
+ *
+ * push() never writes to a socket: it only offers the event to each connection's bounded queue
+ * and schedules a drain on the writer pool, so a slow client cannot stall the publisher or other users.
+ * A connection whose queue overflows is closed; the browser reconnects with Last-Event-ID and the
+ * missed notifications are replayed from the notifications table.
+ */
 @Component
 public class NotificationSseHub {
 
-    private final Map<String, Set<SseEmitter>> emitters = new ConcurrentHashMap<>();
+    private static final Logger LOGGER = LoggerFactory.getLogger(NotificationSseHub.class);
 
-    public SseEmitter connect(String userId) {
-        SseEmitter emitter = new SseEmitter(0L);
-        emitters.computeIfAbsent(userId, k -> ConcurrentHashMap.newKeySet()).add(emitter);
+    private final NotificationRepository notificationRepository;
+    private final Map<String, Deque<Connection>> connections = new ConcurrentHashMap<>();
+    private final ExecutorService writers;
 
-        emitter.onCompletion(() -> remove(userId, emitter));
-        emitter.onTimeout(() -> remove(userId, emitter));
-        emitter.onError(e -> remove(userId, emitter));
+    private final long emitterTimeoutMs;
+    private final int queueCapacity;
+    private final int maxConnectionsPerUser;
+    private final int replayLimit;
+
+    public NotificationSseHub(NotificationRepository notificationRepository,
+            @Value("${smd.notification.sse.timeout-ms:1800000}") long emitterTimeoutMs,
+            @Value("${smd.notification.sse.queue-capacity:256}") int queueCapacity,
+            @Value("${smd.notification.sse.max-connections-per-user:5}") int maxConnectionsPerUser,
+            @Value("${smd.notification.sse.replay-limit:100}") int replayLimit,
+            @Value("${smd.notification.sse.writer-threads:4}") int writerThreads) {
+        this.notificationRepository = notificationRepository;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.queueCapacity = queueCapacity;
+        this.maxConnectionsPerUser = maxConnectionsPerUser;
+        this.replayLimit = replayLimit;
+        AtomicInteger seq = new AtomicInteger();
+        this.writers = Executors.newFixedThreadPool(writerThreads, r -> {
+            Thread t = new Thread(r, "sse-writer-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Register a connection; notifications created after lastEventId (if given) are replayed first
+     */
+    public SseEmitter connect(String userId, String lastEventId) {
+        String uid = userId.trim();
+        Connection conn = new Connection(uid, new SseEmitter(emitterTimeoutMs));
+
+        Deque<Connection> userConnections = connections.computeIfAbsent(uid, k -> new ConcurrentLinkedDeque<>());
+        userConnections.addLast(conn);
+        while (userConnections.size() > maxConnectionsPerUser) {
+            Connection oldest = userConnections.pollFirst();
+            if (oldest != null)
+                oldest.close();
+        }
+
+        conn.emitter.onCompletion(() -> remove(conn));
+        conn.emitter.onTimeout(() -> remove(conn));
+        conn.emitter.onError(e -> remove(conn));
 
         // send hello
-        try {
-            emitter.send(SseEmitter.event().name("hello").data("connected"));
-        } catch (IOException ignored) {}
+        conn.enqueue(SseEmitter.event().name("hello").data("connected"));
 
-        return emitter;
+        if (lastEventId != null && !lastEventId.isBlank()) {
+            replay(conn, lastEventId.trim());
+        }
+        return conn.emitter;
     }
 
-    public void push(String userId, Object payload) {
-        Set<SseEmitter> set = emitters.getOrDefault(userId, Collections.emptySet());
-        if (set.isEmpty()) return;
+    public void push(String userId, Notification notification) {
+        Deque<Connection> set = connections.get(userId);
+        if (set == null || set.isEmpty())
+            return;
 
-        List<SseEmitter> dead = new ArrayList<>();
-        for (SseEmitter e : set) {
-            try {
-                e.send(SseEmitter.event().name("notification").data(payload));
-            } catch (IOException ex) {
-                dead.add(e);
+        for (Connection c : set) {
+            c.enqueue(toEvent(notification));
+        }
+    }
+
+    /**
+     * Heartbeat: keeps proxies from idling the stream out and surfaces dead sockets,
+     * which fail on write and are evicted by the writer.
+     */
+    @Scheduled(fixedDelayString = "${smd.notification.sse.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Deque<Connection> set : connections.values()) {
+            for (Connection c : set) {
+                c.enqueue(SseEmitter.event().comment("ping"));
             }
         }
-        for (SseEmitter d : dead) remove(userId, d);
     }
 
-    private void remove(String userId, SseEmitter emitter) {
-        Set<SseEmitter> set = emitters.get(userId);
+    public int connectionCount() {
+        return connections.values().stream().mapToInt(Deque::size).sum();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        writers.shutdownNow();
+    }
+
+    // Helper methods
+    private void replay(Connection conn, String lastEventId) {
+        UUID lastId;
+        try {
+            lastId = UUID.fromString(lastEventId);
+        } catch (IllegalArgumentException ex) {
+            return;
+        }
+        notificationRepository.findById(lastId)
+                .filter(last -> conn.userId.equals(last.getUserId()))
+                .ifPresent(last -> {
+                    List<Notification> missed = notificationRepository.findForReplay(
+                            conn.userId, last.getCreatedAt(), PageRequest.of(0, replayLimit));
+                    for (Notification n : missed) {
+                        conn.enqueue(toEvent(n));
+                    }
+                    if (!missed.isEmpty()) {
+                        LOGGER.debug("Replayed {} notification(s) to user {} after {}", missed.size(), conn.userId, lastId);
+                    }
+                });
+    }
+
+    private static SseEmitter.SseEventBuilder toEvent(Notification n) {
+        return SseEmitter.event().id(String.valueOf(n.getId())).name("notification").data(n);
+    }
+
+    private void remove(Connection conn) {
+        conn.closed.set(true);
+        Deque<Connection> set = connections.get(conn.userId);
         if (set != null) {
-            set.remove(emitter);
-            if (set.isEmpty()) emitters.remove(userId);
+            set.remove(conn);
+            if (set.isEmpty())
+                connections.remove(conn.userId, set);
+        }
+    }
+
+    /**
+     * One SSE stream with its own bounded outbound queue; at most one writer drains it at a time
+     */
+    private final class Connection {
+        private final String userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private final AtomicBoolean draining = new AtomicBoolean(false);
+        private final AtomicBoolean closed = new AtomicBoolean(false);
+
+        private Connection(String userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void enqueue(SseEmitter.SseEventBuilder event) {
+            if (closed.get())
+                return;
+            if (!queue.offer(event)) {
+                LOGGER.info("SSE client of user {} is too slow ({} queued), closing stream", userId, queueCapacity);
+                close();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (!draining.compareAndSet(false, true))
+                return;
+            try {
+                writers.execute(this::drain);
+            } catch (RejectedExecutionException ex) {
+                draining.set(false);
+            }
+        }
+
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while (!closed.get() && (event = queue.poll()) != null) {
+                    emitter.send(event);
+                }
+            } catch (Exception ex) {
+                // IOException / IllegalStateException: client went away
+                close();
+            } finally {
+                draining.set(false);
+            }
+            if (!closed.get() && !queue.isEmpty())
+                scheduleDrain();
+        }
+
+        void close() {
+            if (!closed.compareAndSet(false, true))
+                return;
+            queue.clear();
+            remove(this);
+            try {
+                emitter.complete();
+            } catch (Exception ignored) {
+                // already completed
+            }
         }
     }
 }
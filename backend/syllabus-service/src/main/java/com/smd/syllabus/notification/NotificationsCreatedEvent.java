@@ -0,0 +1,12 @@
+package com.smd.syllabus.notification;
+
+import com.smd.syllabus.domain.Notification;
+
+import java.util.List;
+
+/**
+ * Published inside the transaction that inserted the notifications;
+ * delivered to SSE clients only after that transaction commits.
+ */
+public record NotificationsCreatedEvent(List<Notification> notifications) {
+}
@@ -0,0 +1,65 @@
+package com.smd.syllabus.notification;
+
+import com.smd.syllabus.config.RabbitMqConfig;
+import com.smd.syllabus.domain.Notification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Fans notifications out through RabbitMQ: every instance binds its own anonymous queue to the
+ * fanout exchange, so each one (including the publisher) delivers to its local SSE emitters.
+ */
+@Component
+@ConditionalOnProperty(name = "smd.notification.backplane", havingValue = "rabbit", matchIfMissing = true)
+public class RabbitNotificationBackplane implements NotificationBackplane {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RabbitNotificationBackplane.class);
+
+    private final RabbitTemplate rabbitTemplate;
+    private final NotificationSseHub hub;
+    private final int maxBatch;
+
+    public RabbitNotificationBackplane(RabbitTemplate rabbitTemplate,
+            NotificationSseHub hub,
+            @Value("${smd.notification.backplane-max-batch:500}") int maxBatch) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.hub = hub;
+        this.maxBatch = maxBatch;
+    }
+
+    @Override
+    public void publish(List<Notification> notifications) {
+        for (int from = 0; from < notifications.size(); from += maxBatch) {
+            List<Notification> slice = notifications.subList(from, Math.min(from + maxBatch, notifications.size()));
+            try {
+                rabbitTemplate.convertAndSend(RabbitMqConfig.NOTIFICATION_FANOUT_EXCHANGE, "",
+                        new NotificationFanoutMessage(List.copyOf(slice)));
+            } catch (Exception ex) {
+                // Broker unavailable: at least reach clients connected to this instance
+                LOGGER.warn("Notification fanout failed, delivering {} notification(s) locally only: {}",
+                        slice.size(), ex.getMessage());
+                deliverLocally(slice);
+            }
+        }
+    }
+
+    @RabbitListener(queues = "#{notificationFanoutQueue.name}")
+    public void onMessage(NotificationFanoutMessage message) {
+        if (message == null || message.notifications() == null)
+            return;
+        deliverLocally(message.notifications());
+    }
+
+    private void deliverLocally(List<Notification> notifications) {
+        for (Notification n : notifications) {
+            hub.push(n.getUserId(), n);
+        }
+    }
+}
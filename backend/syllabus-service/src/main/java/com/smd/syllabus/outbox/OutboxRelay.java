@@ -0,0 +1,222 @@
+package com.smd.syllabus.outbox;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smd.syllabus.client.WorkflowClient;
+import com.smd.syllabus.domain.OutboxEvent;
+import com.smd.syllabus.domain.Syllabus;
+import com.smd.syllabus.event.SyllabusKafkaEventPublisher;
+import com.smd.syllabus.event.SyllabusKafkaEventPublisher.KafkaMessage;
+import com.smd.syllabus.mq.SyllabusEvent;
+import com.smd.syllabus.mq.SyllabusEventPublisher;
+import com.smd.syllabus.repository.OutboxEventRepository;
+import com.smd.syllabus.repository.SyllabusRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains the outbox in batches to RabbitMQ, Kafka and workflow-service.
+ * Failed rows are retried with exponential backoff and marked FAILED after smd.outbox.max-attempts.
+ *
+ * Each round is claim / deliver / record: the batch is leased in one short transaction, delivered
+ * with no transaction or connection held (broker acks and workflow calls can be slow), and the
+ * outcomes are written in a second short transaction. A relay that dies mid-batch leaves its rows
+ * to be picked up again once the lease (smd.outbox.lease-ms) expires, so delivery is at-least-once.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OutboxRelay.class);
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {
+    };
+
+    private final OutboxEventRepository outboxRepository;
+    private final SyllabusRepository syllabusRepository;
+    private final SyllabusEventPublisher rabbitPublisher;
+    private final SyllabusKafkaEventPublisher kafkaPublisher;
+    private final WorkflowClient workflowClient;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${smd.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${smd.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${smd.outbox.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    @Value("${smd.outbox.lease-ms:120000}")
+    private long leaseMs;
+
+    @Value("${smd.outbox.retention-days:7}")
+    private long retentionDays;
+
+    /** Result of one claimed row; error is null when delivered, attempted is false when handed back */
+    private record Outcome(OutboxEvent event, boolean attempted, Exception error) {
+    }
+
+    public OutboxRelay(OutboxEventRepository outboxRepository,
+            SyllabusRepository syllabusRepository,
+            SyllabusEventPublisher rabbitPublisher,
+            SyllabusKafkaEventPublisher kafkaPublisher,
+            WorkflowClient workflowClient,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager) {
+        this.outboxRepository = outboxRepository;
+        this.syllabusRepository = syllabusRepository;
+        this.rabbitPublisher = rabbitPublisher;
+        this.kafkaPublisher = kafkaPublisher;
+        this.workflowClient = workflowClient;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${smd.outbox.poll-delay-ms:1000}")
+    public void relay() {
+        UUID token = UUID.randomUUID();
+        Instant leaseUntil = Instant.now().plusMillis(leaseMs);
+        List<OutboxEvent> batch = transactionTemplate.execute(status -> claim(token, leaseUntil));
+        if (batch == null || batch.isEmpty())
+            return;
+
+        // once a row fails, later rows of the same aggregate/channel wait for the next round
+        Set<String> blocked = new HashSet<>();
+        List<Outcome> outcomes = new ArrayList<>(batch.size());
+        for (OutboxEvent e : batch) {
+            String orderKey = e.getAggregateId() + ":" + e.getChannel();
+            // too close to the lease end: hand the rest back instead of racing a relay that re-claims them
+            if (blocked.contains(orderKey) || Instant.now().plusMillis(sendTimeoutMs).isAfter(leaseUntil)) {
+                blocked.add(orderKey);
+                outcomes.add(new Outcome(e, false, null));
+                continue;
+            }
+            try {
+                deliver(e);
+                outcomes.add(new Outcome(e, true, null));
+            } catch (Exception ex) {
+                blocked.add(orderKey);
+                outcomes.add(new Outcome(e, true, ex));
+            }
+        }
+
+        int published = transactionTemplate.execute(status -> record(outcomes, token));
+        LOGGER.debug("Outbox relay: claimed={}, published={}", batch.size(), published);
+    }
+
+    @Transactional
+    @Scheduled(cron = "${smd.outbox.cleanup-cron:0 30 3 * * *}")
+    public void purgePublished() {
+        int removed = outboxRepository.deletePublishedBefore(Instant.now().minus(Duration.ofDays(retentionDays)));
+        if (removed > 0)
+            LOGGER.info("Outbox cleanup removed {} published row(s)", removed);
+    }
+
+    private void deliver(OutboxEvent e) throws Exception {
+        switch (e.getChannel()) {
+            case RABBIT -> rabbitPublisher.publish(objectMapper.readValue(e.getPayload(), SyllabusEvent.class));
+            case KAFKA -> kafkaPublisher
+                    .send(new KafkaMessage(e.getTopic(), e.getMessageKey(), objectMapper.readValue(e.getPayload(), MAP_TYPE)))
+                    .get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+            case WORKFLOW -> callWorkflow(e.getAggregateId(), objectMapper.readValue(e.getPayload(), MAP_TYPE));
+        }
+    }
+
+    private void callWorkflow(UUID syllabusId, Map<String, Object> payload) {
+        Syllabus syllabus = syllabusRepository.findById(syllabusId).orElse(null);
+        if (syllabus == null) {
+            LOGGER.warn("Outbox workflow action for missing syllabus {}, skipping", syllabusId);
+            return;
+        }
+
+        String action = (String) payload.get("action");
+        String actor = (String) payload.get("actor");
+        String role = (String) payload.get("role");
+        String comment = (String) payload.get("comment");
+
+        // Create workflow instance on first submit
+        if ("submit".equals(action) && syllabus.getWorkflowId() == null) {
+            UUID workflowId = workflowClient.create(syllabus.getId());
+            transactionTemplate.executeWithoutResult(
+                    status -> syllabusRepository.assignWorkflowId(syllabus.getId(), workflowId));
+            syllabus.setWorkflowId(workflowId);
+        }
+        if (syllabus.getWorkflowId() == null)
+            return;
+
+        switch (action) {
+            case "submit" -> workflowClient.submit(syllabus.getWorkflowId(), actor, role);
+            case "approve" -> workflowClient.approve(syllabus.getWorkflowId(), actor, role);
+            case "reject" -> workflowClient.reject(syllabus.getWorkflowId(), actor, role, comment);
+            default -> throw new IllegalArgumentException("Unknown workflow action: " + action);
+        }
+    }
+
+    /**
+     * Lease the next deliverable rows: pushing availableAt to the lease end hides them from other relays
+     */
+    private List<OutboxEvent> claim(UUID token, Instant leaseUntil) {
+        List<OutboxEvent> batch = outboxRepository.claimBatch(Instant.now(), batchSize);
+        for (OutboxEvent e : batch) {
+            e.setAvailableAt(leaseUntil);
+            e.setClaimToken(token);
+        }
+        return batch;
+    }
+
+    private int record(List<Outcome> outcomes, UUID token) {
+        Instant now = Instant.now();
+        int published = 0;
+        for (Outcome outcome : outcomes) {
+            OutboxEvent e = outcome.event();
+            int updated;
+            if (!outcome.attempted()) {
+                updated = outboxRepository.release(e.getId(), token, now);
+            } else if (outcome.error() == null) {
+                updated = outboxRepository.markPublished(e.getId(), token, now);
+                published += updated;
+            } else {
+                updated = markFailedAttempt(e, outcome.error(), token, now);
+            }
+            if (updated == 0)
+                LOGGER.warn("Outbox event {} lease expired before its outcome was recorded; it will be relayed again",
+                        e.getId());
+        }
+        return published;
+    }
+
+    private int markFailedAttempt(OutboxEvent e, Exception ex, UUID token, Instant now) {
+        int attempts = e.getAttempts() + 1;
+        String msg = ex.getMessage() == null ? ex.getClass().getSimpleName() : ex.getMessage();
+        String lastError = msg.length() > 1000 ? msg.substring(0, 1000) : msg;
+
+        if (attempts >= maxAttempts) {
+            LOGGER.error("Outbox event {} ({} {} for syllabus {}) failed permanently after {} attempts: {}",
+                    e.getId(), e.getChannel(), e.getEventType(), e.getAggregateId(), attempts, msg);
+            return outboxRepository.markAttemptFailed(e.getId(), token, OutboxEvent.Status.FAILED,
+                    attempts, lastError, now);
+        }
+        long backoffSeconds = Math.min(300L, 1L << Math.min(attempts, 8));
+        LOGGER.warn("Outbox event {} ({} {}) failed, attempt {}/{}; retry in {}s: {}",
+                e.getId(), e.getChannel(), e.getEventType(), attempts, maxAttempts, backoffSeconds, msg);
+        return outboxRepository.markAttemptFailed(e.getId(), token, OutboxEvent.Status.PENDING,
+                attempts, lastError, now.plusSeconds(backoffSeconds));
+    }
+}
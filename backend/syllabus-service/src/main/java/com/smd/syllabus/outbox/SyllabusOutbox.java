@@ -0,0 +1,77 @@
+package com.smd.syllabus.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smd.syllabus.domain.OutboxEvent;
+import com.smd.syllabus.event.SyllabusKafkaEventPublisher.KafkaMessage;
+import com.smd.syllabus.mq.SyllabusEvent;
+import com.smd.syllabus.repository.OutboxEventRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Writes syllabus side effects (RabbitMQ event, Kafka messages, workflow-service calls) to the outbox.
+ * Must be called inside the transaction that changes the Syllabus, so the state change and its
+ * events commit or roll back together.
+ */
+@Component
+public class SyllabusOutbox {
+
+    private final OutboxEventRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    public SyllabusOutbox(OutboxEventRepository outboxRepository, ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void rabbit(SyllabusEvent event) {
+        if (event.getAt() == null)
+            event.setAt(Instant.now());
+        save(event.getSyllabusId(), event.getType(), OutboxEvent.Channel.RABBIT, null, null, event);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void kafka(UUID syllabusId, String eventType, List<KafkaMessage> messages) {
+        for (KafkaMessage m : messages) {
+            save(syllabusId, eventType, OutboxEvent.Channel.KAFKA, m.topic(), m.key(), m.payload());
+        }
+    }
+
+    /**
+     * Queue a workflow-service action (submit / approve / reject) for the syllabus
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void workflow(UUID syllabusId, String action, String actor, String role, String comment) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("action", action);
+        payload.put("actor", actor);
+        payload.put("role", role);
+        payload.put("comment", comment);
+        save(syllabusId, "WORKFLOW_" + action.toUpperCase(), OutboxEvent.Channel.WORKFLOW, null, null, payload);
+    }
+
+    private void save(UUID aggregateId, String eventType, OutboxEvent.Channel channel,
+            String topic, String key, Object payload) {
+        OutboxEvent e = new OutboxEvent();
+        e.setAggregateId(aggregateId);
+        e.setEventType(eventType);
+        e.setChannel(channel);
+        e.setTopic(topic);
+        e.setMessageKey(key);
+        try {
+            e.setPayload(objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Outbox payload cannot be serialized to JSON", ex);
+        }
+        outboxRepository.save(e);
+    }
+}
@@ -0,0 +1,57 @@
+package com.smd.syllabus.repository;
+
+import com.smd.syllabus.domain.DocumentBlob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface DocumentBlobRepository extends JpaRepository<DocumentBlob, String> {
+
+        /**
+         * Insert the blob with one reference, or add one reference if it already exists.
+         * The row lock taken here serializes against the orphan sweeper.
+         */
+        @Modifying
+        @Query(value = """
+                        insert into document_blobs (sha256, size_bytes, ref_count, created_at, updated_at)
+                        values (:sha256, :sizeBytes, 1, now(), now())
+                        on conflict (sha256) do update
+                           set ref_count = document_blobs.ref_count + 1,
+                               updated_at = now()
+                        """, nativeQuery = true)
+        int acquire(@Param("sha256") String sha256, @Param("sizeBytes") long sizeBytes);
+
+        @Modifying
+        @Query("""
+                        update DocumentBlob b
+                           set b.refCount = b.refCount + :delta,
+                               b.updatedAt = :now
+                         where b.sha256 = :sha256
+                        """)
+        int adjustRefCount(@Param("sha256") String sha256,
+                        @Param("delta") int delta,
+                        @Param("now") Instant now);
+
+        @Query("""
+                        select b.sha256
+                        from DocumentBlob b
+                        where b.refCount <= 0
+                          and b.updatedAt < :cutoff
+                        order by b.updatedAt asc
+                        """)
+        List<String> findOrphanHashes(@Param("cutoff") Instant cutoff, Pageable pageable);
+
+        @Modifying
+        @Query("""
+                        delete from DocumentBlob b
+                        where b.sha256 = :sha256
+                          and b.refCount <= 0
+                          and b.updatedAt < :cutoff
+                        """)
+        int deleteIfOrphan(@Param("sha256") String sha256, @Param("cutoff") Instant cutoff);
+}
@@ -1,14 +1,16 @@
 package com.smd.syllabus.repository;
 
 import com.smd.syllabus.domain.Notification;
-import com.smd.syllabus.domain.NotificationType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
-public interface NotificationRepository extends JpaRepository<Notification, UUID> {
+public interface NotificationRepository extends JpaRepository<Notification, UUID>, NotificationRepositoryCustom {
 
     List<Notification> findTop50ByUserIdOrderByCreatedAtDesc(String userId);
 
@@ -16,9 +18,17 @@ public interface NotificationRepository extends JpaRepository<Notification, UUID
 
     long countByUserIdAndReadFalse(String userId);
 
-    boolean existsByUserIdAndTypeAndSyllabusIdAndCreatedAtAfter(
-            String userId,
-            NotificationType type,
-            UUID syllabusId,
-            Instant createdAtAfter);
+    /**
+     * Notifications created after the client's Last-Event-ID, oldest first (SSE replay)
+     */
+    @Query("""
+            select n
+            from Notification n
+            where n.userId = :userId
+              and n.createdAt > :after
+            order by n.createdAt asc
+            """)
+    List<Notification> findForReplay(@Param("userId") String userId,
+            @Param("after") Instant after,
+            Pageable pageable);
 }
@@ -0,0 +1,14 @@
+package com.smd.syllabus.repository;
+
+import com.smd.syllabus.domain.Notification;
+
+import java.util.List;
+
+public interface NotificationRepositoryCustom {
+
+    /**
+     * Insert many notifications with one JDBC batch (fan-out path).
+     * Rows must carry their id and createdAt; the persistence context is bypassed.
+     */
+    void insertAll(List<Notification> notifications);
+}
@@ -0,0 +1,43 @@
+package com.smd.syllabus.repository;
+
+import com.smd.syllabus.domain.Notification;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * JDBC batch insert for notifications; joins the surrounding JPA transaction.
+ */
+public class NotificationRepositoryImpl implements NotificationRepositoryCustom {
+
+    private static final String INSERT_SQL = """
+            insert into notifications (id, user_id, type, message, syllabus_root_id, syllabus_id, is_read, read_at, created_at)
+            values (?, ?, ?, ?, ?, ?, false, null, ?)
+            """;
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public NotificationRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertAll(List<Notification> notifications) {
+        if (notifications == null || notifications.isEmpty())
+            return;
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, notifications, BATCH_SIZE, (ps, n) -> {
+            ps.setObject(1, n.getId());
+            ps.setString(2, n.getUserId());
+            ps.setString(3, n.getType().name());
+            ps.setString(4, n.getMessage());
+            ps.setObject(5, n.getSyllabusRootId(), Types.OTHER);
+            ps.setObject(6, n.getSyllabusId(), Types.OTHER);
+            ps.setTimestamp(7, Timestamp.from(n.getCreatedAt()));
+        });
+    }
+}
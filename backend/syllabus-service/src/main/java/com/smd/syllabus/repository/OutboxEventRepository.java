@@ -0,0 +1,93 @@
+package com.smd.syllabus.repository;
+
+import com.smd.syllabus.domain.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+        /**
+         * Lock the next deliverable rows. A row is skipped while an older row of the same
+         * aggregate/channel is still pending, so per-syllabus ordering survives retries.
+         * SKIP LOCKED lets several relay instances drain concurrently; rows another relay has
+         * leased have availableAt in the future and are not selected.
+         */
+        @Query(value = """
+                        select o.*
+                        from syllabus_outbox o
+                        where o.status = 'PENDING'
+                          and o.available_at <= :now
+                          and not exists (
+                                select 1
+                                from syllabus_outbox p
+                                where p.aggregate_id = o.aggregate_id
+                                  and p.channel = o.channel
+                                  and p.status = 'PENDING'
+                                  and p.id < o.id)
+                        order by o.id
+                        limit :limit
+                        for update skip locked
+                        """, nativeQuery = true)
+        List<OutboxEvent> claimBatch(@Param("now") Instant now, @Param("limit") int limit);
+
+        /** Record a delivery; no-op (0) if the lease was lost to another relay */
+        @Modifying
+        @Query("""
+                        update OutboxEvent o
+                           set o.status = com.smd.syllabus.domain.OutboxEvent.Status.PUBLISHED,
+                               o.publishedAt = :publishedAt,
+                               o.lastError = null,
+                               o.claimToken = null
+                         where o.id = :id
+                           and o.claimToken = :token
+                        """)
+        int markPublished(@Param("id") Long id,
+                        @Param("token") UUID token,
+                        @Param("publishedAt") Instant publishedAt);
+
+        /** Record a failed attempt: back to PENDING at availableAt, or FAILED once attempts run out */
+        @Modifying
+        @Query("""
+                        update OutboxEvent o
+                           set o.status = :status,
+                               o.attempts = :attempts,
+                               o.lastError = :lastError,
+                               o.availableAt = :availableAt,
+                               o.claimToken = null
+                         where o.id = :id
+                           and o.claimToken = :token
+                        """)
+        int markAttemptFailed(@Param("id") Long id,
+                        @Param("token") UUID token,
+                        @Param("status") OutboxEvent.Status status,
+                        @Param("attempts") int attempts,
+                        @Param("lastError") String lastError,
+                        @Param("availableAt") Instant availableAt);
+
+        /** Hand a claimed but unattempted row back for the next round */
+        @Modifying
+        @Query("""
+                        update OutboxEvent o
+                           set o.availableAt = :availableAt,
+                               o.claimToken = null
+                         where o.id = :id
+                           and o.claimToken = :token
+                        """)
+        int release(@Param("id") Long id,
+                        @Param("token") UUID token,
+                        @Param("availableAt") Instant availableAt);
+
+        @Modifying
+        @Query("""
+                        delete from OutboxEvent o
+                        where o.status = com.smd.syllabus.domain.OutboxEvent.Status.PUBLISHED
+                          and o.publishedAt < :before
+                        """)
+        int deletePublishedBefore(@Param("before") Instant before);
+}
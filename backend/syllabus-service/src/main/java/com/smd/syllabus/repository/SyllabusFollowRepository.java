@@ -2,6 +2,8 @@ package com.smd.syllabus.repository;
 
 import com.smd.syllabus.domain.SyllabusFollow;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -14,5 +16,8 @@ public interface SyllabusFollowRepository extends JpaRepository<SyllabusFollow,
 
     List<SyllabusFollow> findBySyllabusRootId(UUID syllabusRootId);
 
+    @Query("select distinct trim(f.userId) from SyllabusFollow f where f.syllabusRootId = :rootId")
+    List<String> findFollowerIdsBySyllabusRootId(@Param("rootId") UUID syllabusRootId);
+
     List<SyllabusFollow> findByUserIdOrderByCreatedAtDesc(String userId);
 }
@@ -2,9 +2,12 @@ package com.smd.syllabus.repository;
 
 import com.smd.syllabus.domain.Syllabus;
 import com.smd.syllabus.domain.SyllabusStatus;
+import com.smd.syllabus.dto.DeadlineReminderTarget;
+import com.smd.syllabus.dto.SyllabusSummary;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -13,7 +16,16 @@ import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
-public interface SyllabusRepository extends JpaRepository<Syllabus, UUID> {
+public interface SyllabusRepository extends JpaRepository<Syllabus, UUID>, SyllabusRepositoryCustom {
+
+        /** Constructor projection for list endpoints; deliberately leaves out the jsonb content */
+        String SUMMARY_SELECT = """
+                        select new com.smd.syllabus.dto.SyllabusSummary(
+                               s.id, s.rootId, s.subjectCode, s.subjectName, s.summary, s.versionNo, s.status,
+                               s.createdBy, s.updatedBy, s.createdAt, s.updatedAt,
+                               s.submittedAt, s.reviewedAt, s.approvedAt, s.publishedAt, s.rejectedAt,
+                               s.lastActionBy, s.workflowId)
+                        """;
 
         List<Syllabus> findByRootIdOrderByVersionNoDesc(UUID rootId);
 
@@ -21,8 +33,10 @@ public interface SyllabusRepository extends JpaRepository<Syllabus, UUID> {
 
         Optional<Syllabus> findByRootIdAndVersionNo(UUID rootId, Integer versionNo);
 
-        @Query("select coalesce(max(s.versionNo), 0) from Syllabus s where s.rootId = :rootId and s.deleted = false")
-        int findMaxVersionNo(@Param("rootId") UUID rootId);
+        /** Set the workflow instance without rewriting the rest of the row (used by the outbox relay) */
+        @Modifying
+        @Query("update Syllabus s set s.workflowId = :workflowId where s.id = :id and s.workflowId is null")
+        int assignWorkflowId(@Param("id") UUID id, @Param("workflowId") UUID workflowId);
 
         @Query("""
                         select s
@@ -48,19 +62,31 @@ public interface SyllabusRepository extends JpaRepository<Syllabus, UUID> {
         List<Syllabus> findForCompare(@Param("rootId") UUID rootId,
                         @Param("versions") List<Integer> versions);
 
-        // Candidate list cho deadline reminder (lọc sơ bộ theo thời gian)
+        /**
+         * Followers to remind: syllabuses whose dueAt falls in (now, windowEnd], joined to their followers,
+         * minus those already sent a DEADLINE_REMINDER for that version since remindedAfter.
+         */
         @Query("""
-                        select s
+                        select new com.smd.syllabus.dto.DeadlineReminderTarget(
+                               s.id, s.rootId, s.subjectCode, s.dueAt, trim(f.userId))
                         from Syllabus s
+                        join SyllabusFollow f on f.syllabusRootId = s.rootId
                         where s.deleted = false
-                          and s.status in (:statuses)
-                          and (
-                                (s.status = com.smd.syllabus.domain.SyllabusStatus.PENDING_REVIEW and s.submittedAt >= :since)
-                             or (s.status = com.smd.syllabus.domain.SyllabusStatus.PENDING_APPROVAL and s.reviewedAt >= :since)
+                          and s.dueAt > :now
+                          and s.dueAt <= :windowEnd
+                          and not exists (
+                                select 1
+                                from Notification n
+                                where n.syllabusId = s.id
+                                  and n.userId = trim(f.userId)
+                                  and n.type = com.smd.syllabus.domain.NotificationType.DEADLINE_REMINDER
+                                  and n.createdAt > :remindedAfter
                           )
+                        order by s.dueAt asc
                         """)
-        List<Syllabus> findPendingSince(@Param("statuses") List<SyllabusStatus> statuses,
-                        @Param("since") Instant since);
+        List<DeadlineReminderTarget> findDeadlineReminderTargets(@Param("now") Instant now,
+                        @Param("windowEnd") Instant windowEnd,
+                        @Param("remindedAfter") Instant remindedAfter);
 
         Optional<Syllabus> findByWorkflowId(UUID workflowId);
 
@@ -102,4 +128,31 @@ public interface SyllabusRepository extends JpaRepository<Syllabus, UUID> {
                         order by s.updatedAt desc
                         """)
         List<Syllabus> findByStatusAndSubjectCodeIn(@Param("status") SyllabusStatus status, @Param("subjectCodes") List<String> subjectCodes);
+
+        // ---------- summary projections (no content) ----------
+
+        @Query(SUMMARY_SELECT + """
+                        from Syllabus s
+                        where s.rootId = :rootId
+                        order by s.versionNo desc
+                        """)
+        List<SyllabusSummary> findSummariesByRootId(@Param("rootId") UUID rootId);
+
+        @Query(SUMMARY_SELECT + """
+                        from Syllabus s
+                        where s.deleted = false
+                          and s.status in (:statuses)
+                          and s.subjectCode in (:subjectCodes)
+                        order by s.updatedAt desc
+                        """)
+        List<SyllabusSummary> findSummariesByStatusesAndSubjectCodes(@Param("statuses") List<SyllabusStatus> statuses,
+                        @Param("subjectCodes") List<String> subjectCodes);
+
+        @Query(SUMMARY_SELECT + """
+                        from Syllabus s
+                        where s.deleted = false
+                          and s.status = :status
+                        order by s.updatedAt desc
+                        """)
+        List<SyllabusSummary> findSummariesByStatus(@Param("status") SyllabusStatus status);
 }
@@ -0,0 +1,28 @@
+package com.smd.syllabus.repository;
+
+import com.smd.syllabus.domain.SyllabusStatus;
+import com.smd.syllabus.dto.SyllabusSummary;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public interface SyllabusRepositoryCustom {
+
+    /**
+     * Keyset search ordered by (updated_at desc, id desc).
+     * Rows strictly after (afterUpdatedAt, afterId) are returned; both null means first page.
+     */
+    List<SyllabusSummary> searchSummaries(String q,
+            SyllabusStatus status,
+            Instant afterUpdatedAt,
+            UUID afterId,
+            int limit);
+
+    /**
+     * Allocate the next version number of a root from its syllabus_version_counters row.
+     * The counter row stays locked until the caller's transaction ends, so concurrent
+     * editors of the same root get distinct numbers; different roots never contend.
+     */
+    int allocateVersionNo(UUID rootId);
+}
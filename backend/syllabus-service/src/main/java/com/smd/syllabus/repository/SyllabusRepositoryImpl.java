@@ -0,0 +1,107 @@
+package com.smd.syllabus.repository;
+
+import com.smd.syllabus.domain.SyllabusStatus;
+import com.smd.syllabus.dto.SyllabusSummary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keyset search over syllabuses; the WHERE clause only contains the predicates actually used,
+ * so each combination gets a plan that can use the trigram and (updated_at, id) indexes.
+ */
+public class SyllabusRepositoryImpl implements SyllabusRepositoryCustom {
+
+    static final String SUMMARY_COLUMNS = """
+            s.id, s.root_id, s.subject_code, s.subject_name, s.summary, s.version_no, s.status,
+            s.created_by, s.updated_by, s.created_at, s.updated_at,
+            s.submitted_at, s.reviewed_at, s.approved_at, s.published_at, s.rejected_at,
+            s.last_action_by, s.workflow_id
+            """;
+
+    static final RowMapper<SyllabusSummary> SUMMARY_ROW_MAPPER = (rs, i) -> new SyllabusSummary(
+            rs.getObject("id", UUID.class),
+            rs.getObject("root_id", UUID.class),
+            rs.getString("subject_code"),
+            rs.getString("subject_name"),
+            rs.getString("summary"),
+            rs.getInt("version_no"),
+            SyllabusStatus.valueOf(rs.getString("status")),
+            rs.getString("created_by"),
+            rs.getString("updated_by"),
+            toInstant(rs.getTimestamp("created_at")),
+            toInstant(rs.getTimestamp("updated_at")),
+            toInstant(rs.getTimestamp("submitted_at")),
+            toInstant(rs.getTimestamp("reviewed_at")),
+            toInstant(rs.getTimestamp("approved_at")),
+            toInstant(rs.getTimestamp("published_at")),
+            toInstant(rs.getTimestamp("rejected_at")),
+            rs.getString("last_action_by"),
+            rs.getObject("workflow_id", UUID.class));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SyllabusRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<SyllabusSummary> searchSummaries(String q,
+            SyllabusStatus status,
+            Instant afterUpdatedAt,
+            UUID afterId,
+            int limit) {
+        StringBuilder sql = new StringBuilder("select ").append(SUMMARY_COLUMNS)
+                .append(" from syllabuses s where s.is_deleted = false");
+        List<Object> args = new ArrayList<>();
+
+        if (q != null && !q.isBlank()) {
+            // Matches the gin_trgm_ops expression indexes on lower(subject_code) / lower(subject_name)
+            String pattern = "%" + escapeLike(q.trim().toLowerCase()) + "%";
+            sql.append(" and (lower(s.subject_code) like ? escape '\\' or lower(s.subject_name) like ? escape '\\')");
+            args.add(pattern);
+            args.add(pattern);
+        }
+        if (status != null) {
+            sql.append(" and s.status = ?");
+            args.add(status.name());
+        }
+        if (afterUpdatedAt != null && afterId != null) {
+            // Row-value comparison: a single index seek on (updated_at, id)
+            sql.append(" and (s.updated_at, s.id) < (?, ?)");
+            args.add(Timestamp.from(afterUpdatedAt));
+            args.add(afterId);
+        }
+        sql.append(" order by s.updated_at desc, s.id desc limit ?");
+        args.add(limit);
+
+        return jdbcTemplate.query(sql.toString(), SUMMARY_ROW_MAPPER, args.toArray());
+    }
+
+    @Override
+    public int allocateVersionNo(UUID rootId) {
+        // First allocation for a root seeds the counter from the versions already stored
+        Integer next = jdbcTemplate.queryForObject("""
+                insert into syllabus_version_counters (root_id, last_version, updated_at)
+                values (?, coalesce((select max(s.version_no) from syllabuses s where s.root_id = ?), 0) + 1, now())
+                on conflict (root_id) do update
+                   set last_version = syllabus_version_counters.last_version + 1,
+                       updated_at = now()
+                returning last_version
+                """, Integer.class, rootId, rootId);
+        return next;
+    }
+
+    private static String escapeLike(String s) {
+        return s.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static Instant toInstant(Timestamp ts) {
+        return ts == null ? null : ts.toInstant();
+    }
+}
@@ -0,0 +1,359 @@
+package com.smd.syllabus.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smd.syllabus.dto.ChunkedUploadStatus;
+import com.smd.syllabus.dto.DocumentResponse;
+import com.smd.syllabus.dto.DocumentUploadRequest;
+import com.smd.syllabus.exception.ResourceNotFoundException;
+import com.smd.syllabus.repository.SyllabusRepository;
+import com.smd.syllabus.storage.DocumentBlobStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Chunked, resumable upload of teaching materials (init / put-chunk / complete).
+ *
+ * Chunks are appended to a part file under the upload directory as they arrive, so no request
+ * ever buffers the whole file and no DB transaction is open while bytes are on the wire.
+ * Session state lives next to the part file; the database is only touched on complete.
+ *
+ * Chunk writes, complete and abort all take the same lock on the part file. Complete renames the
+ * part file to {uploadId}.completing while holding it, so a chunk that arrives afterwards is refused
+ * instead of writing into a file that is being hashed and registered.
+ */
+@Service
+public class ChunkedUploadService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChunkedUploadService.class);
+
+    private static final String SESSION_DIR = "chunked";
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final SyllabusDocumentService documentService;
+    private final SyllabusRepository syllabusRepository;
+    private final DocumentBlobStore blobStore;
+    private final ObjectMapper objectMapper;
+
+    @Value("${smd.file.upload.directory:./uploads/syllabus-documents}")
+    private String uploadDirectory;
+
+    @Value("${smd.file.upload.chunk-size:5242880}") // 5MB default
+    private int chunkSize;
+
+    @Value("${smd.file.upload.session-ttl-hours:24}")
+    private long sessionTtlHours;
+
+    public ChunkedUploadService(SyllabusDocumentService documentService,
+                                SyllabusRepository syllabusRepository,
+                                DocumentBlobStore blobStore,
+                                ObjectMapper objectMapper) {
+        this.documentService = documentService;
+        this.syllabusRepository = syllabusRepository;
+        this.blobStore = blobStore;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Persisted next to the part file as {uploadId}.json
+     */
+    record UploadSession(UUID uploadId, UUID syllabusId, String originalName, String mimeType,
+                         long totalSize, String uploadedBy, String description, Instant createdAt) {
+    }
+
+    /**
+     * Start an upload: validate name and declared size before any byte is sent
+     */
+    public ChunkedUploadStatus init(DocumentUploadRequest req, String mimeType, String uploadedBy) throws IOException {
+        if (req == null || req.getSyllabusId() == null)
+            throw new IllegalArgumentException("syllabusId is required");
+        if (req.getFileSize() == null || req.getFileSize() <= 0)
+            throw new IllegalArgumentException("File cannot be empty");
+        documentService.validateUpload(req.getFileName(), req.getFileSize());
+
+        if (!syllabusRepository.existsById(req.getSyllabusId()))
+            throw new ResourceNotFoundException("Syllabus not found with id: " + req.getSyllabusId());
+
+        UploadSession session = new UploadSession(
+                UUID.randomUUID(),
+                req.getSyllabusId(),
+                req.getFileName(),
+                mimeType,
+                req.getFileSize(),
+                uploadedBy,
+                req.getDescription(),
+                Instant.now());
+
+        Files.createDirectories(sessionDir());
+        Files.createFile(partFile(session.uploadId()));
+        objectMapper.writeValue(sessionFile(session.uploadId()).toFile(), session);
+
+        LOGGER.info("Chunked upload started: uploadId={}, syllabusId={}, name={}, size={}, user={}",
+                session.uploadId(), session.syllabusId(), session.originalName(), session.totalSize(), uploadedBy);
+        return toStatus(session, 0L);
+    }
+
+    public ChunkedUploadStatus status(UUID uploadId, String user) throws IOException {
+        UploadSession session = load(uploadId, user);
+        try {
+            return toStatus(session, Files.size(partFile(uploadId)));
+        } catch (NoSuchFileException e) {
+            throw missingPart(uploadId);
+        }
+    }
+
+    /**
+     * Write one chunk at the given offset.
+     * A chunk starting before the current end overwrites the tail (client retrying a broken chunk);
+     * a chunk starting after it is rejected so the file never has holes.
+     */
+    public ChunkedUploadStatus putChunk(UUID uploadId, long offset, InputStream body, String user) throws IOException {
+        UploadSession session = load(uploadId, user);
+        String extension = extensionOf(session.originalName());
+
+        try (FileChannel channel = openPart(uploadId);
+             FileLock ignored = lock(channel, uploadId)) {
+            long received = channel.size();
+            if (offset < 0 || offset > received) {
+                throw new IllegalArgumentException("Invalid chunk offset " + offset + ", expected " + received);
+            }
+            if (offset < received) {
+                channel.truncate(offset);
+            }
+            channel.position(offset);
+
+            long limit = Math.min(chunkSize, session.totalSize() - offset);
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
+            long written = 0;
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                if (written + read > limit) {
+                    channel.truncate(offset);
+                    throw new IllegalArgumentException(written + read + offset > session.totalSize()
+                            ? "Chunk exceeds declared file size of " + session.totalSize() + " bytes"
+                            : "Chunk exceeds maximum chunk size of " + chunkSize + " bytes");
+                }
+                if (offset == 0 && written == 0 && !hasExpectedSignature(extension, buffer, read)) {
+                    channel.truncate(0);
+                    throw new IllegalArgumentException("File content does not match ." + extension + " format");
+                }
+                ByteBuffer bb = ByteBuffer.wrap(buffer, 0, read);
+                while (bb.hasRemaining()) {
+                    channel.write(bb);
+                }
+                written += read;
+            }
+            return toStatus(session, offset + written);
+        }
+    }
+
+    /**
+     * Finish the upload: claim it, hash the assembled file, then register it in one short transaction.
+     * The file only moves into the blob store after that transaction commits; if registration fails
+     * the part file is handed back so the client can retry complete.
+     */
+    public DocumentResponse complete(UUID uploadId, String user) throws IOException {
+        UploadSession session = load(uploadId, user);
+        Path completing = completingFile(uploadId);
+
+        long received;
+        try (FileChannel channel = openPart(uploadId);
+             FileLock ignored = lock(channel, uploadId)) {
+            received = channel.size();
+            if (received != session.totalSize()) {
+                throw new IllegalArgumentException(
+                        "Upload incomplete: received " + received + " of " + session.totalSize() + " bytes");
+            }
+            Files.move(partFile(uploadId), completing, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        DocumentResponse response;
+        try {
+            String sha256 = blobStore.sha256Of(completing);
+            response = documentService.registerChunkedUpload(
+                    session.syllabusId(), completing, sha256, received,
+                    session.originalName(), session.mimeType(), session.uploadedBy(), session.description());
+        } catch (IOException | RuntimeException e) {
+            try {
+                Files.move(completing, partFile(uploadId), StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException moveBack) {
+                e.addSuppressed(moveBack);
+            }
+            throw e;
+        }
+
+        Files.deleteIfExists(sessionFile(uploadId));
+        return response;
+    }
+
+    public void abort(UUID uploadId, String user) throws IOException {
+        load(uploadId, user);
+        try (FileChannel channel = openPart(uploadId);
+             FileLock ignored = lock(channel, uploadId)) {
+            Files.deleteIfExists(partFile(uploadId));
+            Files.deleteIfExists(sessionFile(uploadId));
+        }
+        LOGGER.info("Chunked upload aborted: uploadId={}, user={}", uploadId, user);
+    }
+
+    /**
+     * Drop sessions abandoned by clients.
+     * A session expires session-ttl-hours after its last activity: the newer of the session file
+     * (written once at init) and the part file (touched by every chunk). A .completing file is never
+     * purged; it is either being registered or waiting to be recovered by hand.
+     */
+    @Scheduled(fixedDelayString = "${smd.file.upload.session-sweep-fixed-delay-ms:3600000}")
+    public void purgeExpired() {
+        Path dir = sessionDir();
+        if (!Files.isDirectory(dir))
+            return;
+        Instant cutoff = Instant.now().minus(Duration.ofHours(sessionTtlHours));
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*.{json,part}")) {
+            for (Path file : files) {
+                UUID uploadId = uploadIdOf(file);
+                if (uploadId == null || Files.exists(completingFile(uploadId)))
+                    continue;
+                if (lastActivity(uploadId).isBefore(cutoff)) {
+                    Files.deleteIfExists(partFile(uploadId));
+                    Files.deleteIfExists(sessionFile(uploadId));
+                    LOGGER.info("Expired chunked upload purged: uploadId={}", uploadId);
+                }
+            }
+        } catch (IOException ex) {
+            LOGGER.warn("Failed to purge expired upload sessions: {}", ex.getMessage());
+        }
+    }
+
+    // Helper methods
+    private UploadSession load(UUID uploadId, String user) throws IOException {
+        Path meta = sessionFile(uploadId);
+        if (!Files.isRegularFile(meta))
+            throw new ResourceNotFoundException("Upload session not found: " + uploadId);
+
+        UploadSession session = objectMapper.readValue(meta.toFile(), UploadSession.class);
+        if (user == null || !user.equals(session.uploadedBy()))
+            throw new AccessDeniedException("Upload session belongs to another user");
+        return session;
+    }
+
+    private Instant lastActivity(UUID uploadId) throws IOException {
+        Instant last = Instant.EPOCH;
+        for (Path file : new Path[]{sessionFile(uploadId), partFile(uploadId)}) {
+            if (Files.exists(file)) {
+                Instant modified = Files.getLastModifiedTime(file).toInstant();
+                if (modified.isAfter(last))
+                    last = modified;
+            }
+        }
+        return last;
+    }
+
+    private static UUID uploadIdOf(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return UUID.fromString(name.substring(0, name.lastIndexOf('.')));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private FileChannel openPart(UUID uploadId) throws IOException {
+        try {
+            return FileChannel.open(partFile(uploadId), StandardOpenOption.WRITE);
+        } catch (NoSuchFileException e) {
+            throw missingPart(uploadId);
+        }
+    }
+
+    /**
+     * Lock the part file, then check it was not claimed by complete while this caller waited:
+     * a channel opened before the rename would otherwise write into the file being registered
+     */
+    private FileLock lock(FileChannel channel, UUID uploadId) throws IOException {
+        FileLock lock = null;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException ignored) {
+            // another thread of this JVM holds it
+        }
+        if (lock == null)
+            throw new IllegalStateException("Another request is in progress for upload " + uploadId);
+        if (!Files.isRegularFile(partFile(uploadId))) {
+            lock.release();
+            throw missingPart(uploadId);
+        }
+        return lock;
+    }
+
+    private RuntimeException missingPart(UUID uploadId) {
+        if (Files.isRegularFile(completingFile(uploadId)))
+            return new IllegalStateException("Upload " + uploadId + " is being completed");
+        return new ResourceNotFoundException("Upload session not found: " + uploadId);
+    }
+
+    private ChunkedUploadStatus toStatus(UploadSession s, long received) {
+        return new ChunkedUploadStatus(s.uploadId(), s.syllabusId(), s.originalName(), s.totalSize(), received, chunkSize);
+    }
+
+    private Path sessionDir() {
+        return Paths.get(uploadDirectory, SESSION_DIR);
+    }
+
+    private Path partFile(UUID uploadId) {
+        return sessionDir().resolve(uploadId + ".part");
+    }
+
+    private Path completingFile(UUID uploadId) {
+        return sessionDir().resolve(uploadId + ".completing");
+    }
+
+    private Path sessionFile(UUID uploadId) {
+        return sessionDir().resolve(uploadId + ".json");
+    }
+
+    private static String extensionOf(String name) {
+        return name.substring(name.lastIndexOf('.') + 1).toLowerCase();
+    }
+
+    /**
+     * Cheap magic-number check on the first bytes so a renamed file is rejected on the first chunk
+     */
+    private static boolean hasExpectedSignature(String extension, byte[] head, int length) {
+        return switch (extension) {
+            case "pdf" -> startsWith(head, length, 0x25, 0x50, 0x44, 0x46); // %PDF
+            case "docx", "pptx", "xlsx" -> startsWith(head, length, 0x50, 0x4B, 0x03, 0x04); // zip
+            case "doc", "ppt", "xls" -> startsWith(head, length, 0xD0, 0xCF, 0x11, 0xE0); // OLE2
+            default -> true;
+        };
+    }
+
+    private static boolean startsWith(byte[] head, int length, int... signature) {
+        if (length < signature.length)
+            return true; // too short to tell, the final size check still applies
+        for (int i = 0; i < signature.length; i++) {
+            if ((head[i] & 0xFF) != signature[i])
+                return false;
+        }
+        return true;
+    }
+}
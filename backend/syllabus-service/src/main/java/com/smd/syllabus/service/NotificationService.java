@@ -2,30 +2,29 @@ package com.smd.syllabus.service;
 
 import com.smd.syllabus.domain.Notification;
 import com.smd.syllabus.domain.NotificationType;
-import com.smd.syllabus.domain.SyllabusFollow;
-import com.smd.syllabus.notification.NotificationBroadcaster;
+import com.smd.syllabus.notification.NotificationsCreatedEvent;
 import com.smd.syllabus.repository.NotificationRepository;
 import com.smd.syllabus.repository.SyllabusFollowRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 public class NotificationService {
 
     private final NotificationRepository notificationRepository;
     private final SyllabusFollowRepository followRepository;
-    private final NotificationBroadcaster broadcaster;
+    private final ApplicationEventPublisher eventPublisher;
 
     public NotificationService(NotificationRepository notificationRepository,
             SyllabusFollowRepository followRepository,
-            NotificationBroadcaster broadcaster) {
+            ApplicationEventPublisher eventPublisher) {
         this.notificationRepository = notificationRepository;
         this.followRepository = followRepository;
-        this.broadcaster = broadcaster;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -53,12 +52,60 @@ public class NotificationService {
 
         Notification saved = notificationRepository.save(n);
 
-        // Push SSE realtime
-        broadcaster.notifyUser(saved.getUserId(), saved);
+        // Push SSE realtime after commit
+        eventPublisher.publishEvent(new NotificationsCreatedEvent(List.of(saved)));
 
         return saved;
     }
 
+    /**
+     * Create the same notification for many users with one batched insert.
+     * SSE delivery happens after the caller's transaction commits, off the request thread.
+     */
+    @Transactional
+    public List<Notification> createAll(Collection<String> userIds,
+            NotificationType type,
+            String message,
+            UUID syllabusRootId,
+            UUID syllabusId) {
+        if (type == null)
+            throw new IllegalArgumentException("type is required");
+        if (message == null || message.isBlank())
+            throw new IllegalArgumentException("message is required");
+        if (userIds == null || userIds.isEmpty())
+            return List.of();
+
+        Instant now = Instant.now();
+        String text = message.trim();
+        List<Notification> batch = new ArrayList<>(userIds.size());
+        for (String uid : userIds) {
+            if (uid == null || uid.isBlank())
+                continue;
+            Notification n = new Notification();
+            n.setId(UUID.randomUUID());
+            n.setUserId(uid.trim());
+            n.setType(type);
+            n.setMessage(text);
+            n.setSyllabusRootId(syllabusRootId);
+            n.setSyllabusId(syllabusId);
+            n.setCreatedAt(now);
+            batch.add(n);
+        }
+        return insertBatch(batch);
+    }
+
+    /**
+     * Insert prepared notifications (messages may differ per row) with one batched insert
+     */
+    @Transactional
+    public List<Notification> insertBatch(List<Notification> batch) {
+        if (batch == null || batch.isEmpty())
+            return List.of();
+        notificationRepository.insertAll(batch);
+        eventPublisher.publishEvent(new NotificationsCreatedEvent(batch));
+        return batch;
+    }
+
     @Transactional
     public void notifyFollowers(UUID syllabusRootId,
             UUID syllabusId,
@@ -68,27 +115,14 @@ public class NotificationService {
         if (syllabusRootId == null)
             return;
 
-        List<SyllabusFollow> followers = followRepository.findBySyllabusRootId(syllabusRootId);
-        Set<String> userIds = followers.stream()
-                .map(SyllabusFollow::getUserId)
-                .filter(Objects::nonNull)
-                .map(String::trim)
-                .collect(Collectors.toSet());
+        Set<String> userIds = new HashSet<>(followRepository.findFollowerIdsBySyllabusRootId(syllabusRootId));
+        userIds.remove(null);
 
         if (excludeUserId != null && !excludeUserId.isBlank()) {
             userIds.remove(excludeUserId.trim());
         }
 
-        for (String uid : userIds) {
-            create(uid, type, message, syllabusRootId, syllabusId);
-        }
-    }
-
-    /** Dedupe helper cho deadline reminder */
-    @Transactional(readOnly = true)
-    public boolean hasRecentReminder(String userId, UUID syllabusId, Instant after) {
-        return notificationRepository.existsByUserIdAndTypeAndSyllabusIdAndCreatedAtAfter(
-                userId, NotificationType.DEADLINE_REMINDER, syllabusId, after);
+        createAll(userIds, type, message, syllabusRootId, syllabusId);
     }
 
     @Transactional(readOnly = true)
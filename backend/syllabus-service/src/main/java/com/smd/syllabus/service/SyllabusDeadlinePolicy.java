@@ -0,0 +1,38 @@
+package com.smd.syllabus.service;
+
+import com.smd.syllabus.domain.Syllabus;
+import com.smd.syllabus.domain.SyllabusStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Computes Syllabus.dueAt on every workflow transition, so the reminder scheduler
+ * can find due syllabuses with a range scan instead of re-deriving deadlines row by row.
+ */
+@Component
+public class SyllabusDeadlinePolicy {
+
+    @Value("${smd.deadline.review-hours:72}")
+    private long reviewHours;
+
+    @Value("${smd.deadline.approval-hours:72}")
+    private long approvalHours;
+
+    /**
+     * Set dueAt for the syllabus' current status (null when no step is pending)
+     */
+    public void apply(Syllabus s) {
+        s.setDueAt(dueAt(s.getStatus(), s.getSubmittedAt(), s.getReviewedAt()));
+    }
+
+    private Instant dueAt(SyllabusStatus status, Instant submittedAt, Instant reviewedAt) {
+        if (status == SyllabusStatus.PENDING_REVIEW && submittedAt != null)
+            return submittedAt.plus(Duration.ofHours(reviewHours));
+        if (status == SyllabusStatus.PENDING_APPROVAL && reviewedAt != null)
+            return reviewedAt.plus(Duration.ofHours(approvalHours));
+        return null;
+    }
+}
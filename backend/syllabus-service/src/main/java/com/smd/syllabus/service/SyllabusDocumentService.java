@@ -4,13 +4,16 @@ import com.smd.syllabus.domain.DocumentFileType;
 import com.smd.syllabus.domain.DocumentStatus;
 import com.smd.syllabus.domain.Syllabus;
 import com.smd.syllabus.domain.SyllabusDocument;
+import com.smd.syllabus.dto.DocumentDownload;
 import com.smd.syllabus.dto.DocumentResponse;
 import com.smd.syllabus.exception.ResourceNotFoundException;
 import com.smd.syllabus.repository.SyllabusDocumentRepository;
 import com.smd.syllabus.repository.SyllabusRepository;
+import com.smd.syllabus.storage.DocumentBlobStore;
 import org.springframework.beans.factory.annotation.Value;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -19,7 +22,6 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -30,6 +32,7 @@ public class SyllabusDocumentService {
 
     private final SyllabusDocumentRepository documentRepository;
     private final SyllabusRepository syllabusRepository;
+    private final DocumentBlobStore blobStore;
 
     @Value("${smd.file.upload.directory:./uploads/syllabus-documents}")
     private String uploadDirectory;
@@ -42,15 +45,18 @@ public class SyllabusDocumentService {
     );
 
     public SyllabusDocumentService(SyllabusDocumentRepository documentRepository,
-                                   SyllabusRepository syllabusRepository) {
+                                   SyllabusRepository syllabusRepository,
+                                   DocumentBlobStore blobStore) {
         this.documentRepository = documentRepository;
         this.syllabusRepository = syllabusRepository;
+        this.blobStore = blobStore;
     }
 
     /**
-     * Upload a teaching material document
+     * Upload a teaching material document.
+     * Rolls back on IOException too, so a failed upload never keeps the blob reference it took.
      */
-    @Transactional
+    @Transactional(rollbackFor = IOException.class)
     public DocumentResponse uploadDocument(UUID syllabusId, MultipartFile file,
                                          String uploadedBy, String description) throws IOException {
         LOGGER.info("Service uploadDocument: syllabusId={}, uploadedBy={}, originalName={}, size={}, contentType={}, uploadDir={}",
@@ -63,42 +69,49 @@ public class SyllabusDocumentService {
         Syllabus syllabus = syllabusRepository.findById(syllabusId)
                 .orElseThrow(() -> new ResourceNotFoundException("Syllabus not found with id: " + syllabusId));
 
-        // Generate unique filename
         String originalName = file.getOriginalFilename();
-        String extension = getFileExtension(originalName);
-        String uniqueFileName = UUID.randomUUID().toString() + "." + extension;
 
-        // Create upload directory if not exists
-        Path uploadPath = Paths.get(uploadDirectory);
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
+        // Store content-addressed: an identical re-upload is a hash hit, not a disk write
+        DocumentBlobStore.StoredBlob blob;
+        try {
+            blob = blobStore.store(file);
+        } catch (IOException e) {
+            LOGGER.error("Failed to store uploaded file: syllabusId={}, originalName={}", syllabusId, originalName, e);
+            throw e;
         }
 
-        // Save file to disk
-        Path filePath = uploadPath.resolve(uniqueFileName);
+        SyllabusDocument saved;
         try {
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-        } catch (IOException e) {
-            LOGGER.error("Failed to save uploaded file to disk: {}", filePath, e);
+            // Flush here so insert failures surface inside this try, not later at commit
+            saved = documentRepository.saveAndFlush(
+                    newDocument(syllabus, blob, originalName, file.getContentType(), uploadedBy, description));
+        } catch (RuntimeException e) {
+            // The reference rolls back with us; a file written just now would have no row left to sweep it.
+            // Still holding the blob row lock, so a concurrent upload of the same bytes re-creates it.
+            if (!blob.deduplicated())
+                Files.deleteIfExists(blobStore.resolve(blob.sha256()));
             throw e;
         }
+        return DocumentResponse.fromEntity(saved);
+    }
 
-        // Create document entity
-        SyllabusDocument document = new SyllabusDocument();
-        document.setSyllabusId(syllabusId);
-        document.setFileName(uniqueFileName);
-        document.setOriginalName(originalName);
-        document.setFileType(mapFileType(extension));
-        document.setFileSize(file.getSize());
-        // Store only filename, not full path (for Docker volume compatibility)
-        document.setFilePath(uniqueFileName);
-        document.setMimeType(file.getContentType());
-        document.setUploadedBy(uploadedBy);
-        document.setSyllabusVersion(syllabus.getVersionNo());
-        document.setStatus(DocumentStatus.DRAFT);
-        document.setDescription(description);
+    /**
+     * Register a fully received chunked upload.
+     * The file is already on disk and hashed; this is the only transactional step of the chunked flow.
+     */
+    @Transactional(rollbackFor = IOException.class)
+    public DocumentResponse registerChunkedUpload(UUID syllabusId, Path assembledFile, String sha256, long size,
+                                                  String originalName, String mimeType,
+                                                  String uploadedBy, String description) throws IOException {
+        Syllabus syllabus = syllabusRepository.findById(syllabusId)
+                .orElseThrow(() -> new ResourceNotFoundException("Syllabus not found with id: " + syllabusId));
 
-        SyllabusDocument saved = documentRepository.save(document);
+        DocumentBlobStore.StoredBlob blob = blobStore.adopt(assembledFile, sha256, size);
+
+        SyllabusDocument saved = documentRepository.save(
+                newDocument(syllabus, blob, originalName, mimeType, uploadedBy, description));
+        LOGGER.info("Registered chunked upload: documentId={}, syllabusId={}, sha256={}, deduplicated={}",
+                saved.getId(), syllabusId, sha256, blob.deduplicated());
         return DocumentResponse.fromEntity(saved);
     }
 
@@ -139,12 +152,43 @@ public class SyllabusDocumentService {
     }
 
     /**
-     * Download a document
+     * Open a document for streaming download.
+     * Returns a file-backed resource so the controller can stream (and serve byte ranges)
+     * straight from disk instead of loading the whole file into memory.
      */
-    public byte[] downloadDocument(UUID documentId) throws IOException {
+    public DocumentDownload openDocument(UUID documentId) throws IOException {
         SyllabusDocument document = documentRepository.findByIdAndDeletedFalse(documentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Document not found with id: " + documentId));
 
+        Path filePath = resolveStoredFile(document);
+        long size = Files.size(filePath);
+        if (document.getFileSize() != null && document.getFileSize() != size) {
+            LOGGER.warn("Stored file size differs from metadata: documentId={}, metadata={}, disk={}",
+                    documentId, document.getFileSize(), size);
+        }
+
+        return new DocumentDownload(
+                document.getId(),
+                document.getOriginalName(),
+                document.getMimeType(),
+                size,
+                document.getUploadedAt(),
+                new FileSystemResource(filePath));
+    }
+
+    /**
+     * Resolve the on-disk location of a stored document
+     */
+    private Path resolveStoredFile(SyllabusDocument document) {
+        if (document.getContentHash() != null) {
+            Path blobPath = blobStore.resolve(document.getContentHash());
+            if (!Files.isRegularFile(blobPath)) {
+                LOGGER.error("Blob not found on disk: documentId={}, sha256={}", document.getId(), document.getContentHash());
+                throw new ResourceNotFoundException("File not found on disk: " + document.getFileName());
+            }
+            return blobPath;
+        }
+
         // Extract just the filename from filePath (handles old data with full paths)
         String storedPath = document.getFilePath();
         String fileName;
@@ -163,16 +207,15 @@ public class SyllabusDocumentService {
         Path uploadPath = Paths.get(uploadDirectory);
         Path filePath = uploadPath.resolve(fileName);
         
-        LOGGER.info("Attempting to download file: documentId={}, uploadDir={}, storedPath={}, fileName={}, resolvedPath={}", 
-            documentId, uploadDirectory, storedPath, fileName, filePath);
+        LOGGER.debug("Resolving stored file: documentId={}, uploadDir={}, storedPath={}, fileName={}, resolvedPath={}", 
+            document.getId(), uploadDirectory, storedPath, fileName, filePath);
         
-        if (!Files.exists(filePath)) {
+        if (!Files.isRegularFile(filePath)) {
             LOGGER.error("File not found on disk: documentId={}, path={}, uploadDir={}", 
-                documentId, filePath, uploadDirectory);
+                document.getId(), filePath, uploadDirectory);
             throw new ResourceNotFoundException("File not found on disk: " + fileName);
         }
-
-        return Files.readAllBytes(filePath);
+        return filePath;
     }
 
     /**
@@ -187,7 +230,7 @@ public class SyllabusDocumentService {
     /**
      * Delete a document (soft delete)
      */
-    @Transactional
+    @Transactional(rollbackFor = IOException.class)
     public void deleteDocument(UUID documentId, String deletedBy) throws IOException {
         SyllabusDocument document = documentRepository.findByIdAndDeletedFalse(documentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Document not found with id: " + documentId));
@@ -196,9 +239,8 @@ public class SyllabusDocumentService {
         document.setDeleted(true);
         documentRepository.save(document);
 
-        // Optionally delete physical file (or keep for audit)
-        // Path filePath = Paths.get(document.getFilePath());
-        // Files.deleteIfExists(filePath);
+        // Physical file is shared by content hash; drop our reference and let the sweeper reclaim it
+        blobStore.release(document.getContentHash());
     }
 
     /**
@@ -243,24 +285,55 @@ public class SyllabusDocumentService {
         return stats;
     }
 
-    // Helper methods
-    private void validateFile(MultipartFile file) {
-        if (file.isEmpty()) {
-            throw new IllegalArgumentException("File cannot be empty");
-        }
-
-        if (file.getSize() > maxFileSize) {
+    /**
+     * Validate name and size of an incoming upload (used up front by chunked uploads)
+     */
+    public void validateUpload(String originalName, long size) {
+        if (size > maxFileSize) {
             throw new IllegalArgumentException(
                     String.format("File size exceeds maximum limit of %d MB", maxFileSize / (1024 * 1024)));
         }
 
-        String extension = getFileExtension(file.getOriginalFilename());
+        String extension = getFileExtension(originalName);
         if (!ALLOWED_EXTENSIONS.contains(extension.toLowerCase())) {
             throw new IllegalArgumentException(
                     "File type not allowed. Supported types: " + String.join(", ", ALLOWED_EXTENSIONS));
         }
     }
 
+    public long getMaxFileSize() {
+        return maxFileSize;
+    }
+
+    // Helper methods
+    private SyllabusDocument newDocument(Syllabus syllabus, DocumentBlobStore.StoredBlob blob, String originalName,
+                                        String mimeType, String uploadedBy, String description) {
+        String extension = getFileExtension(originalName);
+
+        SyllabusDocument document = new SyllabusDocument();
+        document.setSyllabusId(syllabus.getId());
+        document.setFileName(blob.sha256() + "." + extension);
+        document.setOriginalName(originalName);
+        document.setFileType(mapFileType(extension));
+        document.setFileSize(blob.sizeBytes());
+        // Store only the blob key, not a path (for Docker volume compatibility)
+        document.setFilePath(blob.sha256());
+        document.setContentHash(blob.sha256());
+        document.setMimeType(mimeType);
+        document.setUploadedBy(uploadedBy);
+        document.setSyllabusVersion(syllabus.getVersionNo());
+        document.setStatus(DocumentStatus.DRAFT);
+        document.setDescription(description);
+        return document;
+    }
+
+    private void validateFile(MultipartFile file) {
+        if (file.isEmpty()) {
+            throw new IllegalArgumentException("File cannot be empty");
+        }
+        validateUpload(file.getOriginalFilename(), file.getSize());
+    }
+
     private String getFileExtension(String filename) {
         if (filename == null || !filename.contains(".")) {
             throw new IllegalArgumentException("Invalid filename");
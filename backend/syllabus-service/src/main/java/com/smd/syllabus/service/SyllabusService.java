@@ -6,22 +6,28 @@ import com.smd.syllabus.domain.NotificationType;
 import com.smd.syllabus.domain.Syllabus;
 import com.smd.syllabus.domain.SyllabusStatus;
 import com.smd.syllabus.dto.CreateSyllabusRequest;
+import com.smd.syllabus.dto.SyllabusCursorPage;
 import com.smd.syllabus.dto.SyllabusMapper;
 import com.smd.syllabus.dto.SyllabusResponse;
+import com.smd.syllabus.dto.SyllabusSummary;
 import com.smd.syllabus.dto.UpdateSyllabusRequest;
 import com.smd.syllabus.repository.SyllabusRepository;
 import com.smd.syllabus.repository.SyllabusDocumentRepository;
 import com.smd.syllabus.domain.SyllabusDocument;
 import com.smd.syllabus.event.SyllabusKafkaEventPublisher;
+import com.smd.syllabus.mq.SyllabusEventFactory;
+import com.smd.syllabus.outbox.SyllabusOutbox;
+import com.smd.syllabus.storage.DocumentBlobStore;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.util.*;
-import com.smd.syllabus.client.WorkflowClient;
 
 @Service
 public class SyllabusService {
@@ -29,23 +35,29 @@ public class SyllabusService {
     private final SyllabusRepository syllabusRepository;
     private final NotificationService notificationService;
     private final SyllabusDocumentRepository documentRepository;
-    private final WorkflowClient workflowClient;
+    private final SyllabusOutbox outbox;
     private final ReviewCommentService reviewCommentService;
     private final SyllabusKafkaEventPublisher eventPublisher;
+    private final DocumentBlobStore blobStore;
+    private final SyllabusDeadlinePolicy deadlinePolicy;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     public SyllabusService(SyllabusRepository syllabusRepository,
             NotificationService notificationService,
             SyllabusDocumentRepository documentRepository,
-            WorkflowClient workflowClient,
+            SyllabusOutbox outbox,
             ReviewCommentService reviewCommentService,
-            SyllabusKafkaEventPublisher eventPublisher) {
+            SyllabusKafkaEventPublisher eventPublisher,
+            DocumentBlobStore blobStore,
+            SyllabusDeadlinePolicy deadlinePolicy) {
         this.syllabusRepository = syllabusRepository;
         this.notificationService = notificationService;
         this.documentRepository = documentRepository;
-        this.workflowClient = workflowClient;
+        this.outbox = outbox;
         this.reviewCommentService = reviewCommentService;
         this.eventPublisher = eventPublisher;
+        this.blobStore = blobStore;
+        this.deadlinePolicy = deadlinePolicy;
     }
 
     // helper
@@ -72,6 +84,25 @@ public class SyllabusService {
                 .orElseThrow(() -> new EntityNotFoundException("Syllabus not found: " + id));
     }
 
+    private static String encodeCursor(Instant updatedAt, UUID id) {
+        String raw = updatedAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 2);
+            if (parts.length != 2)
+                throw new IllegalArgumentException("Invalid cursor");
+            Instant.parse(parts[0]);
+            UUID.fromString(parts[1]);
+            return parts;
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            throw new IllegalArgumentException("Invalid cursor", ex);
+        }
+    }
+
     private String safeCode(Syllabus s) {
         String code = s.getSubjectCode();
         return (code == null || code.isBlank()) ? "UNKNOWN" : code.trim();
@@ -113,7 +144,7 @@ public class SyllabusService {
         Syllabus latest = syllabusRepository.findTopByRootIdOrderByVersionNoDesc(rootId)
                 .orElseThrow(() -> new EntityNotFoundException("Syllabus rootId not found: " + rootId));
 
-        int nextVersion = syllabusRepository.findMaxVersionNo(rootId) + 1;
+        int nextVersion = syllabusRepository.allocateVersionNo(latest.getRootId());
 
         Syllabus nv = new Syllabus();
         nv.setRootId(latest.getRootId());
@@ -148,6 +179,7 @@ public class SyllabusService {
                     copy.setFileName(d.getFileName());
                     copy.setOriginalName(d.getOriginalName());
                     copy.setFilePath(d.getFilePath());
+                    copy.setContentHash(d.getContentHash());
                     copy.setMimeType(d.getMimeType());
                     copy.setFileSize(d.getFileSize());
                     copy.setFileType(d.getFileType());
@@ -156,6 +188,8 @@ public class SyllabusService {
                     copy.setStatus(d.getStatus());
                     copy.setDescription(d.getDescription());
                     documentRepository.save(copy);
+                    // Same blob, one more referencing row - no file copy
+                    blobStore.retain(d.getContentHash(), 1);
                 }
             }
         } catch (Exception ex) {
@@ -176,6 +210,29 @@ public class SyllabusService {
         return syllabusRepository.search(q, status, pageable).map(SyllabusMapper::toResponse);
     }
 
+    /**
+     * Keyset search: cursor is the opaque nextCursor of the previous page (null for the first page)
+     */
+    @Transactional(readOnly = true)
+    public SyllabusCursorPage searchByCursor(String q, SyllabusStatus status, String cursor, int size) {
+        Instant afterUpdatedAt = null;
+        UUID afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = decodeCursor(cursor);
+            afterUpdatedAt = Instant.parse(parts[0]);
+            afterId = UUID.fromString(parts[1]);
+        }
+
+        // fetch one extra row to know whether another page exists
+        List<SyllabusSummary> rows = syllabusRepository.searchSummaries(q, status, afterUpdatedAt, afterId, size + 1);
+        if (rows.size() <= size)
+            return new SyllabusCursorPage(rows, null);
+
+        List<SyllabusSummary> items = rows.subList(0, size);
+        SyllabusSummary last = items.get(size - 1);
+        return new SyllabusCursorPage(List.copyOf(items), encodeCursor(last.updatedAt(), last.id()));
+    }
+
     @Transactional(readOnly = true)
     public SyllabusResponse getById(UUID id) {
         Syllabus s = getOrThrow(id);
@@ -242,25 +299,12 @@ public class SyllabusService {
         s.setRejectionReason(null);
         s.setRejectedAt(null);
 
+        deadlinePolicy.apply(s);
         Syllabus saved = syllabusRepository.save(s);
 
-        // Create workflow instance if missing and submit event to workflow-service
-        try {
-            if (saved.getWorkflowId() == null) {
-                UUID workflowId = workflowClient.create(saved.getId());
-                saved.setWorkflowId(workflowId);
-                if (workflowId != null) {
-                    saved = syllabusRepository.save(saved);
-                }
-            }
-            if (saved.getWorkflowId() != null) {
-                workflowClient.submit(saved.getWorkflowId(), actor, roleToUse);
-            }
-        } catch (Exception ex) {
-            // Do not fail submit if workflow service is unavailable; log and continue
-            System.err.println("Workflow submit failed: " + ex.getMessage());
-            ex.printStackTrace();
-        }
+        // Workflow instance is created (if missing) and submitted by the outbox relay after commit
+        outbox.workflow(saved.getId(), "submit", actor, roleToUse, null);
+        outbox.rabbit(SyllabusEventFactory.of("SUBMITTED", saved, actor));
 
         notificationService.notifyFollowers(
                 saved.getRootId(),
@@ -269,25 +313,21 @@ public class SyllabusService {
                 "Syllabus " + safeCode(saved) + " submitted for review",
                 actor);
 
-        // Publish Kafka event for notification-service
+        // Kafka event for notification-service (relayed from the outbox)
         // In real scenario, get approver from workflow or user management service
         // For now, use hardcoded approver info as example
-        try {
-            Long approverId = getNextApprover(actor, roleToUse);
-            String approverRole = getApproverRole(roleToUse);
-            
-            eventPublisher.publishSyllabusSubmitted(
-                Long.valueOf(saved.getId().toString().hashCode()), // Simple ID conversion for demo
-                saved.getSubjectName(),
-                Long.valueOf(actor.hashCode()),
-                actor,
-                approverId,
-                "Approver", // In real scenario, get from user service
-                approverRole
-            );
-        } catch (Exception e) {
-            System.err.println("Failed to publish Kafka event: " + e.getMessage());
-        }
+        Long approverId = getNextApprover(actor, roleToUse);
+        String approverRole = getApproverRole(roleToUse);
+
+        outbox.kafka(saved.getId(), "SUBMITTED", List.of(eventPublisher.syllabusSubmitted(
+            Long.valueOf(saved.getId().toString().hashCode()), // Simple ID conversion for demo
+            saved.getSubjectName(),
+            Long.valueOf(actor.hashCode()),
+            actor,
+            approverId,
+            "Approver", // In real scenario, get from user service
+            approverRole
+        )));
 
         return SyllabusMapper.toResponse(saved);
     }
@@ -333,15 +373,11 @@ public class SyllabusService {
         s.setUpdatedBy(actor);
         s.setLastActionBy(actor);
 
+        deadlinePolicy.apply(s);
         Syllabus saved = syllabusRepository.save(s);
 
-        try {
-            if (saved.getWorkflowId() != null) {
-                workflowClient.approve(saved.getWorkflowId(), actor, "ROLE_HOD");
-            }
-        } catch (Exception ex) {
-            System.err.println("Workflow approve (HoD) failed: " + ex.getMessage());
-        }
+        outbox.workflow(saved.getId(), "approve", actor, "ROLE_HOD", null);
+        outbox.rabbit(SyllabusEventFactory.of("REVIEW_APPROVED", saved, actor));
 
         // (tuỳ bạn) có thể bỏ notify bước trung gian này nếu không cần
         notificationService.notifyFollowers(
@@ -351,27 +387,23 @@ public class SyllabusService {
                 "Syllabus " + safeCode(saved) + " moved to approval",
                 actor);
 
-        // Publish Kafka event - HOD approved, notify next approver (Academic Affairs)
-        try {
-            Long nextApproverId = 4L; // Academic Affairs
-            String nextApproverRole = "ACADEMIC_AFFAIRS";
-            
-            eventPublisher.publishWorkflowStatusChanged(
-                Long.valueOf(saved.getId().toString().hashCode()),
-                saved.getSubjectName(),
-                "APPROVED",
-                Long.valueOf(actor.hashCode()),
-                actor,
-                "HOD",
-                Long.valueOf(saved.getCreatedBy().hashCode()),
-                saved.getCreatedBy(),
-                "HOD approved, forwarding to Academic Affairs",
-                nextApproverId,
-                nextApproverRole
-            );
-        } catch (Exception e) {
-            System.err.println("Failed to publish workflow event: " + e.getMessage());
-        }
+        // Kafka event - HOD approved, notify next approver (Academic Affairs)
+        Long nextApproverId = 4L; // Academic Affairs
+        String nextApproverRole = "ACADEMIC_AFFAIRS";
+
+        outbox.kafka(saved.getId(), "REVIEW_APPROVED", eventPublisher.workflowStatusChanged(
+            Long.valueOf(saved.getId().toString().hashCode()),
+            saved.getSubjectName(),
+            "APPROVED",
+            Long.valueOf(actor.hashCode()),
+            actor,
+            "HOD",
+            Long.valueOf(saved.getCreatedBy().hashCode()),
+            saved.getCreatedBy(),
+            "HOD approved, forwarding to Academic Affairs",
+            nextApproverId,
+            nextApproverRole
+        ));
 
         return SyllabusMapper.toResponse(saved);
     }
@@ -390,15 +422,11 @@ public class SyllabusService {
         s.setUpdatedBy(actor);
         s.setLastActionBy(actor);
 
+        deadlinePolicy.apply(s);
         Syllabus saved = syllabusRepository.save(s);
 
-        try {
-            if (saved.getWorkflowId() != null) {
-                workflowClient.approve(saved.getWorkflowId(), actor, "ROLE_RECTOR");
-            }
-        } catch (Exception ex) {
-            System.err.println("Workflow approve (final) failed: " + ex.getMessage());
-        }
+        outbox.workflow(saved.getId(), "approve", actor, "ROLE_RECTOR", null);
+        outbox.rabbit(SyllabusEventFactory.of("APPROVED", saved, actor));
 
         notificationService.notifyFollowers(
                 saved.getRootId(),
@@ -424,6 +452,7 @@ public class SyllabusService {
         s.setUpdatedBy(actor);
         s.setLastActionBy(actor);
 
+        deadlinePolicy.apply(s);
         Syllabus saved = syllabusRepository.save(s);
 
         notificationService.notifyFollowers(
@@ -453,6 +482,7 @@ public class SyllabusService {
         s.setUpdatedBy(actor);
         s.setLastActionBy(actor);
 
+        deadlinePolicy.apply(s);
         Syllabus saved = syllabusRepository.save(s);
 
         if (reason != null && !reason.isBlank()) {
@@ -472,14 +502,9 @@ public class SyllabusService {
         if (reason != null && !reason.isBlank())
             msg += ": " + reason.trim();
 
-        try {
-            if (saved.getWorkflowId() != null) {
-                String role = (previousStatus == SyllabusStatus.PENDING_REVIEW) ? "ROLE_HOD" : "ROLE_RECTOR";
-                workflowClient.reject(saved.getWorkflowId(), actor, role, reason);
-            }
-        } catch (Exception ex) {
-            System.err.println("Workflow reject failed: " + ex.getMessage());
-        }
+        String role = (previousStatus == SyllabusStatus.PENDING_REVIEW) ? "ROLE_HOD" : "ROLE_RECTOR";
+        outbox.workflow(saved.getId(), "reject", actor, role, reason);
+        outbox.rabbit(SyllabusEventFactory.of("REJECTED", saved, actor));
 
         notificationService.notifyFollowers(
                 saved.getRootId(),
@@ -561,4 +586,35 @@ public class SyllabusService {
                 .map(SyllabusMapper::toResponse)
                 .toList();
     }
-}
\ No newline at end of file
+
+    // =========================
+    // SUMMARY LISTS (no content)
+    // =========================
+
+    @Transactional(readOnly = true)
+    public List<SyllabusSummary> listVersionSummaries(UUID rootId) {
+        return syllabusRepository.findSummariesByRootId(rootId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<SyllabusSummary> getApprovedSummariesBySubjectCodes(List<String> subjectCodes) {
+        if (subjectCodes == null || subjectCodes.isEmpty())
+            return List.of();
+        return syllabusRepository.findSummariesByStatusesAndSubjectCodes(List.of(SyllabusStatus.APPROVED), subjectCodes);
+    }
+
+    @Transactional(readOnly = true)
+    public List<SyllabusSummary> getStudentSummariesBySubjectCodes(List<String> subjectCodes) {
+        if (subjectCodes == null || subjectCodes.isEmpty())
+            return List.of();
+        return syllabusRepository.findSummariesByStatusesAndSubjectCodes(
+                List.of(SyllabusStatus.APPROVED, SyllabusStatus.PUBLISHED), subjectCodes);
+    }
+
+    @Transactional(readOnly = true)
+    public List<SyllabusSummary> getPublicSummaries(List<String> subjectCodes) {
+        if (subjectCodes == null || subjectCodes.isEmpty())
+            return syllabusRepository.findSummariesByStatus(SyllabusStatus.PUBLISHED);
+        return syllabusRepository.findSummariesByStatusesAndSubjectCodes(List.of(SyllabusStatus.PUBLISHED), subjectCodes);
+    }
+}
@@ -0,0 +1,205 @@
+package com.smd.syllabus.storage;
+
+import com.smd.syllabus.repository.DocumentBlobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed file store under smd.file.upload.directory.
+ * Files are keyed by SHA-256 (blobs/ab/cd/abcd...), so identical uploads share one file on disk.
+ * References are counted in document_blobs; unreferenced blobs are reclaimed by DocumentBlobSweeper.
+ */
+@Component
+public class DocumentBlobStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DocumentBlobStore.class);
+
+    private static final String BLOB_DIR = "blobs";
+    private static final String TMP_DIR = "tmp";
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-f]{64}");
+
+    private final DocumentBlobRepository blobRepository;
+
+    @Value("${smd.file.upload.directory:./uploads/syllabus-documents}")
+    private String uploadDirectory;
+
+    public DocumentBlobStore(DocumentBlobRepository blobRepository) {
+        this.blobRepository = blobRepository;
+    }
+
+    /**
+     * Result of storing content: the blob key and whether the bytes were already on disk
+     */
+    public record StoredBlob(String sha256, long sizeBytes, boolean deduplicated) {
+    }
+
+    /**
+     * Store content and take one reference on it.
+     * The source is hashed first; the disk write only happens when the hash is new.
+     * A failed write rolls back the surrounding transaction, which also drops the reference taken here.
+     */
+    @Transactional(rollbackFor = IOException.class)
+    public StoredBlob store(InputStreamSource source) throws IOException {
+        Digest digest;
+        try (InputStream in = source.getInputStream()) {
+            digest = digest(in);
+        }
+
+        // Take the reference before touching the file: the row lock keeps the sweeper away
+        blobRepository.acquire(digest.sha256(), digest.size());
+
+        Path target = resolve(digest.sha256());
+        if (Files.isRegularFile(target)) {
+            LOGGER.info("Blob already stored, skipping disk write: sha256={}, size={}", digest.sha256(), digest.size());
+            return new StoredBlob(digest.sha256(), digest.size(), true);
+        }
+
+        Path tmp = newTempFile();
+        try (InputStream in = source.getInputStream()) {
+            Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING);
+            moveIntoPlace(tmp, target);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        LOGGER.info("Stored new blob: sha256={}, size={}", digest.sha256(), digest.size());
+        return new StoredBlob(digest.sha256(), digest.size(), false);
+    }
+
+    /**
+     * Take one reference on an already assembled file (chunked uploads).
+     * The file is left untouched until the transaction commits, so a rollback leaves it where the
+     * caller can retry from; after commit it is moved into place when the hash is new, otherwise discarded.
+     */
+    @Transactional(rollbackFor = IOException.class)
+    public StoredBlob adopt(Path file, String sha256, long sizeBytes) throws IOException {
+        blobRepository.acquire(sha256, sizeBytes);
+
+        Path target = resolve(sha256);
+        boolean deduplicated = Files.isRegularFile(target);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    if (deduplicated)
+                        Files.deleteIfExists(file);
+                    else
+                        moveIntoPlace(file, target);
+                } catch (IOException ex) {
+                    LOGGER.error("Blob committed but its file could not be moved into place: sha256={}, source={}",
+                            sha256, file, ex);
+                }
+            }
+        });
+        return new StoredBlob(sha256, sizeBytes, deduplicated);
+    }
+
+    /**
+     * SHA-256 (hex) of a file on disk
+     */
+    public String sha256Of(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return digest(in).sha256();
+        }
+    }
+
+    /**
+     * Add references for rows copied to a new syllabus version
+     */
+    @Transactional
+    public void retain(String sha256, int count) {
+        if (sha256 == null || count <= 0)
+            return;
+        blobRepository.adjustRefCount(sha256, count, Instant.now());
+    }
+
+    /**
+     * Drop one reference; the file stays until the sweeper finds it unreferenced
+     */
+    @Transactional
+    public void release(String sha256) {
+        if (sha256 == null)
+            return;
+        blobRepository.adjustRefCount(sha256, -1, Instant.now());
+    }
+
+    /**
+     * Delete the blob row and file if it is still unreferenced.
+     * The file is removed before commit so a concurrent acquire (blocked on the row) re-creates it.
+     */
+    @Transactional(rollbackFor = IOException.class)
+    public boolean purgeIfOrphan(String sha256, Instant cutoff) throws IOException {
+        if (blobRepository.deleteIfOrphan(sha256, cutoff) == 0)
+            return false;
+        Files.deleteIfExists(resolve(sha256));
+        return true;
+    }
+
+    /**
+     * On-disk location of a blob
+     */
+    public Path resolve(String sha256) {
+        if (sha256 == null || !SHA256_HEX.matcher(sha256).matches()) {
+            throw new IllegalArgumentException("Invalid blob hash: " + sha256);
+        }
+        return Paths.get(uploadDirectory, BLOB_DIR, sha256.substring(0, 2), sha256.substring(2, 4), sha256);
+    }
+
+    // Helper methods
+    private Path newTempFile() throws IOException {
+        Path tmpDir = Paths.get(uploadDirectory, BLOB_DIR, TMP_DIR);
+        Files.createDirectories(tmpDir);
+        return tmpDir.resolve(UUID.randomUUID() + ".part");
+    }
+
+    private void moveIntoPlace(Path tmp, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static Digest digest(InputStream in) throws IOException {
+        MessageDigest md = sha256();
+        byte[] buffer = new byte[64 * 1024];
+        long size = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            md.update(buffer, 0, read);
+            size += read;
+        }
+        return new Digest(HexFormat.of().formatHex(md.digest()), size);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record Digest(String sha256, long size) {
+    }
+}
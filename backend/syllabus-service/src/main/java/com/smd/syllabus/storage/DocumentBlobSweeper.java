@@ -0,0 +1,57 @@
+package com.smd.syllabus.storage;
+
+import com.smd.syllabus.repository.DocumentBlobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Reclaims blobs no SyllabusDocument references any more.
+ * A grace period keeps freshly released blobs around so a quick re-upload stays a hash hit.
+ */
+@Component
+public class DocumentBlobSweeper {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DocumentBlobSweeper.class);
+
+    private final DocumentBlobRepository blobRepository;
+    private final DocumentBlobStore blobStore;
+
+    @Value("${smd.file.blob.orphan-grace-hours:24}")
+    private long orphanGraceHours;
+
+    @Value("${smd.file.blob.sweep-batch-size:200}")
+    private int batchSize;
+
+    public DocumentBlobSweeper(DocumentBlobRepository blobRepository, DocumentBlobStore blobStore) {
+        this.blobRepository = blobRepository;
+        this.blobStore = blobStore;
+    }
+
+    @Scheduled(fixedDelayString = "${smd.file.blob.sweep-fixed-delay-ms:3600000}",
+            initialDelayString = "${smd.file.blob.sweep-initial-delay-ms:300000}")
+    public void sweep() {
+        Instant cutoff = Instant.now().minus(Duration.ofHours(orphanGraceHours));
+        List<String> candidates = blobRepository.findOrphanHashes(cutoff, PageRequest.of(0, batchSize));
+        if (candidates.isEmpty())
+            return;
+
+        int purged = 0;
+        for (String sha256 : candidates) {
+            try {
+                if (blobStore.purgeIfOrphan(sha256, cutoff))
+                    purged++;
+            } catch (Exception ex) {
+                LOGGER.warn("Failed to purge orphan blob sha256={}: {}", sha256, ex.getMessage());
+            }
+        }
+        LOGGER.info("Blob sweep finished: candidates={}, purged={}", candidates.size(), purged);
+    }
+}
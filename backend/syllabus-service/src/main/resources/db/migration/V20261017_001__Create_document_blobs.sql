@@ -0,0 +1,22 @@
+-- V20261017_001__Create_document_blobs.sql
+-- Content-addressed storage for teaching materials: one file per distinct SHA-256,
+-- reference-counted by syllabus_documents rows
+
+CREATE TABLE IF NOT EXISTS document_blobs (
+    sha256      VARCHAR(64) PRIMARY KEY,
+    size_bytes  BIGINT      NOT NULL,
+    ref_count   INTEGER     NOT NULL DEFAULT 0,
+    created_at  TIMESTAMP   NOT NULL DEFAULT now(),
+    updated_at  TIMESTAMP   NOT NULL DEFAULT now()
+);
+
+-- Orphan sweeper scans unreferenced blobs oldest first
+CREATE INDEX IF NOT EXISTS idx_document_blobs_ref_count ON document_blobs(ref_count, updated_at);
+
+ALTER TABLE syllabus_documents
+ADD COLUMN IF NOT EXISTS content_hash VARCHAR(64);
+
+CREATE INDEX IF NOT EXISTS idx_documents_content_hash ON syllabus_documents(content_hash);
+
+COMMENT ON COLUMN syllabus_documents.content_hash IS 'SHA-256 key into document_blobs; NULL for legacy UUID-named files';
+COMMENT ON COLUMN document_blobs.ref_count IS 'Number of non-deleted syllabus_documents rows referencing this blob';
@@ -0,0 +1,31 @@
+-- V20261017_002__Create_syllabus_outbox.sql
+-- Transactional outbox for syllabus side effects (RabbitMQ, Kafka, workflow-service),
+-- written with the state change and drained by OutboxRelay
+-- No migration runner applies this file: the table and claim_token come from ddl-auto and
+-- idx_outbox_pending is installed on startup by SyllabusSchemaInitializer. Kept for environments that run scripts by hand.
+
+CREATE TABLE IF NOT EXISTS syllabus_outbox (
+    id            BIGSERIAL     PRIMARY KEY,
+    aggregate_id  UUID          NOT NULL,
+    event_type    VARCHAR(50)   NOT NULL,
+    channel       VARCHAR(20)   NOT NULL,
+    topic         VARCHAR(100),
+    message_key   VARCHAR(100),
+    payload       TEXT          NOT NULL,
+    status        VARCHAR(20)   NOT NULL DEFAULT 'PENDING',
+    attempts      INTEGER       NOT NULL DEFAULT 0,
+    last_error    VARCHAR(1000),
+    created_at    TIMESTAMP     NOT NULL DEFAULT now(),
+    available_at  TIMESTAMP     NOT NULL DEFAULT now(),
+    published_at  TIMESTAMP,
+    claim_token   UUID
+);
+
+-- Lease of the relay run currently delivering the row (available_at holds the lease end)
+ALTER TABLE syllabus_outbox ADD COLUMN IF NOT EXISTS claim_token UUID;
+
+CREATE INDEX IF NOT EXISTS idx_outbox_status_available ON syllabus_outbox(status, available_at);
+CREATE INDEX IF NOT EXISTS idx_outbox_aggregate ON syllabus_outbox(aggregate_id, channel, status);
+
+-- Relay only ever scans pending rows; keep that scan small as published rows accumulate
+CREATE INDEX IF NOT EXISTS idx_outbox_pending ON syllabus_outbox(id) WHERE status = 'PENDING';
@@ -0,0 +1,27 @@
+-- V20261017_003__Add_syllabus_due_at.sql
+-- Pre-computed review/approval deadline, maintained on workflow transitions,
+-- so DeadlineReminderScheduler can range-scan instead of deriving deadlines per row.
+-- No migration runner applies this file: the column comes from ddl-auto and the backfill and dedupe
+-- index are applied on startup by SyllabusSchemaInitializer. Kept for environments that run scripts by hand.
+
+ALTER TABLE syllabuses
+ADD COLUMN IF NOT EXISTS due_at TIMESTAMP;
+
+-- Backfill pending rows with the default deadlines (smd.deadline.review-hours / approval-hours = 72)
+UPDATE syllabuses
+SET due_at = submitted_at + INTERVAL '72 hours'
+WHERE status = 'PENDING_REVIEW' AND submitted_at IS NOT NULL AND due_at IS NULL;
+
+UPDATE syllabuses
+SET due_at = reviewed_at + INTERVAL '72 hours'
+WHERE status = 'PENDING_APPROVAL' AND reviewed_at IS NOT NULL AND due_at IS NULL;
+
+-- Only pending, non-deleted rows carry a deadline
+CREATE INDEX IF NOT EXISTS idx_syllabuses_due_at ON syllabuses(due_at)
+WHERE due_at IS NOT NULL AND is_deleted = false;
+
+-- Anti-join probe: "already reminded this user about this version recently?"
+CREATE INDEX IF NOT EXISTS idx_notifications_deadline_dedupe ON notifications(syllabus_id, user_id, created_at)
+WHERE type = 'DEADLINE_REMINDER';
+
+COMMENT ON COLUMN syllabuses.due_at IS 'Deadline of the current PENDING_REVIEW / PENDING_APPROVAL step; NULL otherwise';
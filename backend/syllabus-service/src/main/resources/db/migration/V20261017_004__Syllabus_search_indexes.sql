@@ -0,0 +1,22 @@
+-- V20261017_004__Syllabus_search_indexes.sql
+-- Indexes for GET /api/syllabuses/search (SyllabusRepositoryImpl.searchSummaries):
+-- trigram expression indexes for the '%q%' filters and (updated_at, id) for the keyset order
+-- No migration runner applies this file: the extension and indexes are installed on startup by
+-- SyllabusSchemaInitializer. Kept for environments that run scripts by hand.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_syllabuses_subject_code_trgm
+    ON syllabuses USING gin (lower(subject_code) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_syllabuses_subject_name_trgm
+    ON syllabuses USING gin (lower(subject_name) gin_trgm_ops);
+
+-- Seek index: first page and page N are the same range scan
+CREATE INDEX IF NOT EXISTS idx_syllabuses_keyset
+    ON syllabuses (updated_at DESC, id DESC)
+    WHERE is_deleted = false;
+
+CREATE INDEX IF NOT EXISTS idx_syllabuses_status_keyset
+    ON syllabuses (status, updated_at DESC, id DESC)
+    WHERE is_deleted = false;
@@ -0,0 +1,27 @@
+-- V20261017_005__Syllabus_version_counters.sql
+-- Per-root version counter: SyllabusService.updateAsNewVersion allocates the next version_no with
+-- a single upsert ... returning instead of max(version_no) + 1, which raced under concurrent editors.
+-- No migration runner applies this file: the table comes from ddl-auto and the seed and unique index
+-- are installed on startup by SyllabusSchemaInitializer. Kept for environments that run scripts by hand.
+
+CREATE TABLE IF NOT EXISTS syllabus_version_counters (
+    root_id       UUID        PRIMARY KEY,
+    last_version  INTEGER     NOT NULL,
+    updated_at    TIMESTAMP   NOT NULL DEFAULT now()
+);
+
+-- Seed from every stored version, soft-deleted ones included, so numbers are never reused
+INSERT INTO syllabus_version_counters (root_id, last_version)
+SELECT root_id, MAX(version_no)
+FROM syllabuses
+GROUP BY root_id
+ON CONFLICT (root_id) DO UPDATE
+SET last_version = GREATEST(syllabus_version_counters.last_version, EXCLUDED.last_version);
+
+-- Live versions are unique per root. Soft-deleted rows are excluded because the old
+-- max(version_no) + 1 ignored them and may have handed their number out again
+CREATE UNIQUE INDEX IF NOT EXISTS uk_syllabuses_root_version
+    ON syllabuses (root_id, version_no)
+    WHERE is_deleted = false;
+
+COMMENT ON TABLE syllabus_version_counters IS 'Last version_no allocated per syllabus root (SyllabusRepository.allocateVersionNo)';
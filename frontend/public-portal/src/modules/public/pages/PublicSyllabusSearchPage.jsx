@@ -121,7 +121,7 @@ export default function PublicSyllabusSearchPage() {
         // Fetch APPROVED + PUBLISHED syllabuses for these subjects
         console.log('🔍 Fetching APPROVED + PUBLISHED syllabuses for subjects:', subjectCodes)
         const syllabusesResponse = await fetch(
-          `/api/syllabuses/student-syllabuses?${subjectCodes.map(code => `subjectCodes=${encodeURIComponent(code)}`).join('&')}`,
+          `/api/syllabuses/student-syllabuses/summary?${subjectCodes.map(code => `subjectCodes=${encodeURIComponent(code)}`).join('&')}`,
           { headers }
         )
         